@@ -0,0 +1,342 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Random;
+
+import io.riddles.poker.game.PokerContext;
+import io.riddles.poker.game.PokerType;
+import io.riddles.poker.game.RaiseLimitType;
+import io.riddles.poker.game.move.MoveType;
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.state.PlayerTable;
+import io.riddles.poker.game.state.PokerPlayerState;
+import io.riddles.poker.game.state.PokerState;
+import io.riddles.poker.game.state.PokerStateHistory;
+import io.riddles.poker.game.table.BetRound;
+import io.riddles.poker.game.table.PokerTable;
+
+/**
+ * io.riddles.poker.benchmark.BenchmarkTable - Created on 19-10-26
+ *
+ * Plays hands directly on a PokerTable, without a processor or bots, in the
+ * same order as the PokerProcessor does. Every player just calls, or checks
+ * if there is nothing to call. Used by the benchmarks to drive the engine,
+ * together with the sampling and measuring the benchmarks share.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class BenchmarkTable {
+
+    public interface StateCopier {
+        PokerState createNextState(PokerState state, int roundNumber, BetRound betRound);
+    }
+
+    public interface StateQuery {
+        int run(PokerState state, int run);
+    }
+
+    private static final int INITIAL_STACK = 2000;
+    private static final int HANDS_PER_GAME = 500;  // limits the state history kept in memory
+
+    private static final PokerContext RANDOM_STATE_CONTEXT = new PokerContext(
+            PokerType.TEXASHOLDEM, RaiseLimitType.NOLIMIT, 20, 10, null);
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long sink;  // keeps the results of the queries used
+
+    private final int seats;
+    private final PokerStateHistory history;  // null if each game has its own history
+    private final PokerContext context;
+    private PokerState state;
+    private int roundNumber;
+    private int stateCount;  // states created since the start of the current game
+
+    public BenchmarkTable(int seats, String seed) {
+        this(seats, seed, null);
+    }
+
+    /**
+     * @param seats Number of players
+     * @param seed Seed for the random generator
+     * @param history History all games are recorded in, or null for a new one per game
+     */
+    public BenchmarkTable(int seats, String seed, PokerStateHistory history) {
+        this.seats = seats;
+        this.history = history;
+
+        SecureRandom random;
+        try {
+            random = SecureRandom.getInstance("SHA1PRNG");
+        } catch (NoSuchAlgorithmException ex) {
+            random = new SecureRandom();
+        }
+        random.setSeed(seed.getBytes());
+
+        this.context = new PokerContext(PokerType.TEXASHOLDEM, RaiseLimitType.NOLIMIT,
+                20, Integer.MAX_VALUE, random);
+
+        newGame();
+    }
+
+    /**
+     * Takes detached copies of the states of played hands, so they are never compacted
+     * @param seats Number of players
+     * @param count Number of states to take
+     * @param seed Seed for the random generator
+     * @return The sampled states
+     */
+    public static ArrayList<PokerState> sampleStates(int seats, int count, String seed) {
+        ArrayList<PokerState> samples = new ArrayList<>();
+        BenchmarkTable table = new BenchmarkTable(seats, seed);
+
+        table.playHands(count / seats, (state, roundNumber, betRound) -> {
+            if (samples.size() < count && state.getBetRound() != null) {
+                samples.add(state.createDetachedState(state.getRoundNumber(), state.getBetRound()));
+            }
+
+            return state.createNextState(roundNumber, betRound);
+        });
+
+        return samples;
+    }
+
+    /**
+     * Creates states in which every player is busted, folded or all-in with
+     * the same chance as being active. No cards are dealt, so there can be
+     * more players than a deck allows.
+     * @param random Random generator for the player statuses
+     * @param seats Number of players
+     * @param count Number of states to create
+     * @return The created states
+     */
+    public static ArrayList<PokerState> randomStates(Random random, int seats, int count) {
+        ArrayList<PokerState> samples = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            ArrayList<PokerPlayerState> playerStates = new ArrayList<>();
+            for (int id = 0; id < seats; id++) {
+                playerStates.add(new PokerPlayerState(id, INITIAL_STACK));
+            }
+
+            PokerState state = new PokerState(playerStates, RANDOM_STATE_CONTEXT);
+            PlayerTable players = state.getPlayerTable();
+
+            for (int seat = 0; seat < seats; seat++) {
+                switch (random.nextInt(4)) {
+                    case 0:
+                        players.setChips(seat, 0);
+                        break;
+                    case 1:
+                        players.setFlag(seat, PlayerTable.FOLDED, true);
+                        break;
+                    case 2:
+                        players.increaseBet(seat, INITIAL_STACK);
+                        break;
+                }
+            }
+
+            samples.add(state);
+        }
+
+        return samples;
+    }
+
+    /**
+     * Runs the query on all samples the given amount of times, and prints the
+     * time and the bytes allocated per query
+     * @param name Name of the query
+     * @param unit What a single query is, for the printed line
+     * @param samples States to run the query on
+     * @param runs Number of times to run over the samples
+     * @param print False for a warmup run that prints nothing
+     * @param query The query, gets the number of the run as well
+     */
+    public static void measure(String name, String unit, ArrayList<PokerState> samples, int runs,
+                               boolean print, StateQuery query) {
+        int[] run = {0};
+
+        measure(name, unit, runs, samples.size(), print, () -> {
+            for (PokerState state : samples) {
+                sink += query.run(state, run[0]);
+            }
+            run[0]++;
+        });
+    }
+
+    /**
+     * Runs the operation the given amount of times, and prints the time and
+     * the bytes allocated per operation
+     * @param name Name of the operation
+     * @param unit What a single operation is, for the printed line
+     * @param rounds Number of times to run the operation
+     * @param print False for a warmup run that prints nothing
+     * @param operation The operation
+     */
+    public static void measure(String name, String unit, int rounds, boolean print, Runnable operation) {
+        measure(name, unit, rounds, 1, print, operation);
+    }
+
+    private static void measure(String name, String unit, int rounds, int operationsPerRound,
+                                boolean print, Runnable round) {
+        long threadId = Thread.currentThread().getId();
+        long bytes = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < rounds; i++) {
+            round.run();
+        }
+
+        long nanos = System.nanoTime() - start;
+        bytes = THREADS.getThreadAllocatedBytes(threadId) - bytes;
+        double operations = rounds * (double) operationsPerRound;
+
+        if (print) {
+            System.out.println(String.format("%-22s %8.1f ns/%s %8.1f bytes/%s",
+                    name, nanos / operations, unit, bytes / operations, unit));
+        }
+    }
+
+    public PokerState getState() {
+        return this.state;
+    }
+
+    public int getSeats() {
+        return this.seats;
+    }
+
+    public int getStateCount() {
+        return this.stateCount;
+    }
+
+    /**
+     * Plays the given amount of hands. A new game is started before any
+     * player can bust, and after HANDS_PER_GAME hands.
+     * @param hands Amount of hands to play
+     * @param copier Creates each next state from the current one
+     */
+    public void playHands(int hands, StateCopier copier) {
+        StateCopier countingCopier = (state, roundNumber, betRound) -> {
+            this.stateCount++;
+            return copier.createNextState(state, roundNumber, betRound);
+        };
+
+        for (int i = 0; i < hands; i++) {
+            if (this.roundNumber > HANDS_PER_GAME || isShortStacked()) {
+                newGame();
+            }
+
+            playHand(countingCopier);
+        }
+    }
+
+    private boolean isShortStacked() {
+        for (PokerPlayerState playerState : this.state.getPlayerStates()) {
+            if (playerState.getChips() < INITIAL_STACK / 4) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void newGame() {
+        ArrayList<PokerPlayerState> playerStates = new ArrayList<>();
+        for (int id = 0; id < this.seats; id++) {
+            playerStates.add(new PokerPlayerState(id, INITIAL_STACK));
+        }
+
+        this.state = this.history != null
+                ? new PokerState(playerStates, this.history, this.context)
+                : new PokerState(playerStates, this.context);
+        this.state.getTable().resetTable();
+        this.roundNumber = 1;
+        this.stateCount = 1;
+    }
+
+    private void playHand(StateCopier copier) {
+        this.roundNumber++;
+
+        PokerState nextState = copier.createNextState(
+                this.state, this.roundNumber, BetRound.START);
+        nextState.getTable().getPotPayout();
+        nextState.getTable().resetTable();
+
+        while (!nextState.getTable().hasHandEnded() && nextState.getBetRound().hasNext()) {
+            nextState = playBetRound(nextState, copier);
+        }
+
+        if (!nextState.getTable().hasHandEnded()) {
+            nextState = copier.createNextState(
+                    nextState, nextState.getRoundNumber(), nextState.getBetRound());
+            nextState.getTable().setHandStrengths();
+            nextState.getTable().putBetsInPot();
+        }
+
+        this.state = nextState;
+    }
+
+    private PokerState playBetRound(PokerState state, StateCopier copier) {
+        boolean showdown = state.getActivePlayers().size() <= 1;
+        PokerState nextState = copier.createNextState(
+                state, state.getRoundNumber(), state.getBetRound().getNext());
+        PokerTable table = nextState.getTable();
+
+        table.putBetsInPot();
+        table.startBetRound();
+
+        switch (nextState.getBetRound()) {
+            case PREFLOP:
+                table.payBlinds();
+                table.dealCards();
+                break;
+            case FLOP:
+                table.addTableCards(3);
+                break;
+            default:
+                table.addTableCards(1);
+                break;
+        }
+
+        int playerId = table.getBetRoundStartingPlayer().getPlayerId();
+
+        while (!nextState.getTable().hasBetRoundEnded(showdown)) {
+            nextState = copier.createNextState(
+                    nextState, nextState.getRoundNumber(), nextState.getBetRound());
+
+            PokerPlayerState playerState = nextState.getPlayerStateById(playerId);
+            playerState.setMove(new PokerMove(MoveType.CALL));
+            nextState.getTable().processMove(playerState);
+
+            PokerPlayerState nextActivePlayer = nextState.getTable().getNextActivePlayer(playerId);
+            if (nextActivePlayer != null) {
+                playerId = nextActivePlayer.getPlayerId();
+            }
+        }
+
+        return nextState;
+    }
+}
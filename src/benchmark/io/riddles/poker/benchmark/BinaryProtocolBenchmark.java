@@ -0,0 +1,282 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.util.ArrayList;
+
+import io.riddles.poker.client.BinaryDecoder;
+import io.riddles.poker.client.BinaryProtocol;
+import io.riddles.poker.game.move.MoveType;
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.player.BinaryUpdateEncoder;
+import io.riddles.poker.game.player.PokerPlayer;
+import io.riddles.poker.game.player.PokerUpdateEncoder;
+import io.riddles.poker.game.player.UpdateType;
+import io.riddles.poker.game.state.PokerState;
+import io.riddles.poker.game.table.BetRound;
+import io.riddles.poker.game.table.LegalActions;
+import io.riddles.poker.game.table.card.Card;
+import io.riddles.poker.game.table.card.CardStrings;
+
+/**
+ * io.riddles.poker.benchmark.BinaryProtocolBenchmark - Created on 19-10-26
+ *
+ * Compares the text protocol with the BinaryProtocol for the updates one bot
+ * gets in a 4 player hand where it decides in each bet round: the bytes the
+ * bot reads per hand, the engine encoding the hand with the
+ * PokerUpdateEncoder against the BinaryUpdateEncoder, and the bot parsing it,
+ * with split and Integer.parseInt like most text bots do, against the
+ * BinaryDecoder. Prints the time and the bytes allocated per hand.
+ * Usage: gradle benchmark -PbenchmarkClass=BinaryProtocolBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class BinaryProtocolBenchmark {
+
+    private static final int ROUNDS = 200000;
+    private static final int PLAYERS = 4;
+
+    private static final PokerPlayer[] PLAYER = new PokerPlayer[PLAYERS];
+    private static final PokerMove[] MOVES = {
+            new PokerMove(MoveType.CALL), new PokerMove(MoveType.RAISE, 120), new PokerMove(MoveType.CHECK)};
+    private static final String[] TABLE_CARDS = {"Th", "7c", "2d", "Js", "4h"};
+    private static final String[] HAND_CARDS = {"As", "Kd"};
+    private static final BetRound[] BET_ROUNDS = BetRound.values();
+    private static final long HAND_MASK = (1L << Card.fromString("As").getNumber())
+            | (1L << Card.fromString("Kd").getNumber());
+    private static final ArrayList<ArrayList<Card>> TABLES = new ArrayList<>();
+    private static final PokerState STATE = new BenchmarkTable(PLAYERS, "binary").getState();
+    private static final LegalActions LEGAL_ACTIONS = STATE.getTable().getLegalActions(STATE.getPlayerStateById(0));
+
+    private static final PokerUpdateEncoder TEXT_ENCODER = new PokerUpdateEncoder(0);
+    private static final BinaryUpdateEncoder BINARY_ENCODER = new BinaryUpdateEncoder();
+    private static final BinaryDecoder DECODER = new BinaryDecoder();
+
+    private static long sink;
+
+    static {
+        for (int i = 0; i < PLAYERS; i++) {
+            PLAYER[i] = new PokerPlayer(i);
+            PLAYER[i].setName("player" + i);
+        }
+
+        for (int round = 0; round < 4; round++) {  // no table cards preflop, then 3, 4 and 5
+            ArrayList<Card> tableCards = new ArrayList<>();
+            for (int i = 0; i < (round == 0 ? 0 : round + 2); i++) {
+                tableCards.add(Card.fromString(TABLE_CARDS[i]));
+            }
+            TABLES.add(tableCards);
+        }
+    }
+
+    public static void main(String[] args) {
+        encodeText();
+        encodeBinary();
+
+        // The bot gets the lines without the "bot 0 send " prefix the match wrapper removes
+        String textHand = TEXT_ENCODER.toString().replace("bot 0 send ", "").replace("bot 0 ask ", "");
+        byte[] binaryHand = new byte[BINARY_ENCODER.length()];
+        System.arraycopy(BINARY_ENCODER.getBytes(), 0, binaryHand, 0, binaryHand.length);
+
+        System.out.println(String.format("bytes per hand: text %d, binary %d",
+                textHand.length() + 1, binaryHand.length));
+
+        for (int i = 0; i < 2; i++) {  // first pass is warmup
+            boolean print = i == 1;
+
+            measure("encode text", print, BinaryProtocolBenchmark::encodeText);
+            measure("encode binary", print, BinaryProtocolBenchmark::encodeBinary);
+            measure("parse text", print, () -> parseText(textHand));
+            measure("parse binary", print, () -> parseBinary(binaryHand));
+        }
+
+        if (sink == 42) System.out.println();  // keeps the results used
+    }
+
+    private static void measure(String name, boolean print, Runnable operation) {
+        BenchmarkTable.measure(name, "hand", ROUNDS, print, operation);
+    }
+
+    // The same hand in both encodings: the players' chips and the bot's hand,
+    // then per bet round the table, the moves of the others, the bets, pot,
+    // amount to call, legal actions and the move request, and the winner
+
+    private static void encodeText() {
+        PokerUpdateEncoder encoder = TEXT_ENCODER;
+        encoder.clear();
+
+        encoder.appendUpdate(UpdateType.ROUND, 12);
+        encoder.appendUpdate(UpdateType.SMALL_BLIND, 30);
+        encoder.appendUpdate(UpdateType.BIG_BLIND, 60);
+        encoder.appendUpdate(UpdateType.ON_BUTTON, PLAYER[3].getName());
+        for (int i = 0; i < PLAYERS; i++) {
+            encoder.appendUpdate(UpdateType.CHIPS, PLAYER[i], 1500 + 100 * i);
+        }
+        encoder.appendUpdate(UpdateType.HAND, PLAYER[0], String.join(",", HAND_CARDS));
+
+        int pot = 90;
+        for (int round = 0; round < 4; round++) {
+            encoder.appendUpdate(UpdateType.BET_ROUND, BET_ROUNDS[round + 1].toString());
+            if (round > 0) {
+                encoder.appendUpdate(UpdateType.TABLE, CardStrings.join(TABLES.get(round)));
+            }
+            for (int i = 1; i < PLAYERS; i++) {
+                encoder.appendMove(PLAYER[i], MOVES[(round + i) % MOVES.length]);
+            }
+            for (int i = 0; i < PLAYERS; i++) {
+                encoder.appendUpdate(UpdateType.BET, PLAYER[i], 60 * i);
+            }
+            encoder.appendUpdate(UpdateType.POT, PLAYER[0], pot);
+            encoder.appendUpdate(UpdateType.AMOUNT_TO_CALL, PLAYER[0], 120);
+            encoder.appendLegalActions(PLAYER[0], LEGAL_ACTIONS);
+            encoder.appendMessage("bot 0 ask action move 10000");
+            pot += 480;
+        }
+
+        encoder.appendUpdate(UpdateType.WINS, PLAYER[0], pot);
+        sink += encoder.length();
+    }
+
+    private static void encodeBinary() {
+        BinaryUpdateEncoder encoder = BINARY_ENCODER;
+        encoder.clear();
+
+        encoder.appendValue(BinaryProtocol.ROUND, 12);
+        encoder.appendValue(BinaryProtocol.SMALL_BLIND, 30);
+        encoder.appendValue(BinaryProtocol.BIG_BLIND, 60);
+        encoder.appendButton(PLAYER[3]);
+        for (int i = 0; i < PLAYERS; i++) {
+            encoder.appendPlayerValue(BinaryProtocol.CHIPS, PLAYER[i], 1500 + 100 * i);
+        }
+        encoder.appendHand(PLAYER[0], HAND_MASK);
+
+        int pot = 90;
+        for (int round = 0; round < 4; round++) {
+            encoder.appendBetRound(BET_ROUNDS[round + 1]);
+            if (round > 0) {
+                encoder.appendTable(TABLES.get(round));
+            }
+            for (int i = 1; i < PLAYERS; i++) {
+                encoder.appendMove(PLAYER[i], MOVES[(round + i) % MOVES.length]);
+            }
+            for (int i = 0; i < PLAYERS; i++) {
+                encoder.appendPlayerValue(BinaryProtocol.BET, PLAYER[i], 60 * i);
+            }
+            encoder.appendValue(BinaryProtocol.POT, pot);
+            encoder.appendValue(BinaryProtocol.AMOUNT_TO_CALL, 120);
+            encoder.appendLegalActions(LEGAL_ACTIONS);
+            encoder.appendValue(BinaryProtocol.ACTION_MOVE, 10000);
+            pot += 480;
+        }
+
+        encoder.appendPlayerValue(BinaryProtocol.WINS, PLAYER[0], pot);
+        sink += encoder.length();
+    }
+
+    // What a text bot does with each line, cards are looked up in a table
+    private static void parseText(String hand) {
+        for (String line : hand.split("\n")) {
+            String[] parts = line.split(" ");
+
+            if (parts[0].equals("action")) {
+                sink += Integer.parseInt(parts[2]);
+                continue;
+            }
+
+            switch (parts[2]) {
+                case "on_button":
+                case "bet_round":
+                    sink += parts[3].length();
+                    break;
+                case "hand":
+                case "table":
+                    for (String card : parts[3].split(",")) {
+                        sink += Card.fromString(card).getNumber();
+                    }
+                    break;
+                case "move":
+                    String[] move = parts[3].split("_");
+                    sink += MoveType.fromString(move[0]).ordinal();
+                    if (move.length > 1) sink += Integer.parseInt(move[1]);
+                    break;
+                case "legal_actions":
+                    for (String action : parts[3].split(",")) {
+                        String[] nameAndAmount = action.split(":");
+                        if (nameAndAmount.length < 2) continue;
+
+                        for (String amount : nameAndAmount[1].split("-")) {
+                            sink += Integer.parseInt(amount);
+                        }
+                    }
+                    break;
+                default:
+                    sink += Integer.parseInt(parts[3]);
+            }
+        }
+    }
+
+    private static void parseBinary(byte[] hand) {
+        DECODER.decode(hand, 0, hand.length, LISTENER);
+    }
+
+    private static final BinaryDecoder.Listener LISTENER = new BinaryDecoder.Listener() {
+
+        @Override
+        public void onChips(int player, int chips) {
+            sink += chips;
+        }
+
+        @Override
+        public void onHand(int player, long cards) {
+            sink += cards;
+        }
+
+        @Override
+        public void onTable(long cards) {
+            sink += cards;
+        }
+
+        @Override
+        public void onBet(int player, int bet) {
+            sink += bet;
+        }
+
+        @Override
+        public void onMove(int player, int moveCode, int amount) {
+            sink += moveCode + amount;
+        }
+
+        @Override
+        public void onPot(int pot) {
+            sink += pot;
+        }
+
+        @Override
+        public void onLegalActions(boolean canCheck, int callAmount, boolean canRaise,
+                                   int minRaise, int maxRaise) {
+            sink += callAmount + minRaise + maxRaise;
+        }
+
+        @Override
+        public void onActionMove(int time) {
+            sink += time;
+        }
+    };
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.util.Random;
+
+import io.riddles.javainterface.io.IOInterface;
+import io.riddles.poker.engine.PokerEngine;
+import io.riddles.poker.game.PokerMatch;
+import io.riddles.poker.game.PokerSummary;
+
+/**
+ * io.riddles.poker.benchmark.DeltaUpdateBenchmark - Created on 19-10-26
+ *
+ * Plays the same matches with bots that get full move updates and with bots
+ * that only get the values that changed since their last decision, and counts
+ * the update lines and bytes the bots get per hand: all of them and only the
+ * state updates that can be left out (chips, bets, pot, amount to call and
+ * legal actions). The bots answer
+ * with random moves, the same for both modes, once with loose bots that call
+ * and raise most of the time and once with tight bots that mostly fold.
+ * Usage: gradle benchmark -PbenchmarkClass=DeltaUpdateBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class DeltaUpdateBenchmark {
+
+    private static final int HANDS = 20000;
+
+    // Chance in percent to fold, check, call and raise
+    private static final int[] LOOSE = {8, 27, 35, 30};
+    private static final int[] TIGHT = {55, 20, 20, 5};
+
+    public static void main(String[] args) {
+        for (int[] profile : new int[][]{LOOSE, TIGHT}) {
+            for (int seats : new int[]{2, 6, 9}) {
+                Traffic full = measure(seats, profile, false);
+                Traffic delta = measure(seats, profile, true);
+
+                print(profile == LOOSE ? "loose" : "tight", seats, full, delta);
+            }
+        }
+    }
+
+    private static void print(String profile, int seats, Traffic full, Traffic delta) {
+        System.out.println(String.format(
+                "%s, %d seats: state updates %6.1f -> %5.1f lines, %6.0f -> %5.0f bytes per hand (%.1fx), "
+                            + "all updates %6.0f -> %6.0f bytes per hand (%.1fx)",
+                profile, seats, full.stateLines / (double) HANDS, delta.stateLines / (double) HANDS,
+                full.stateBytes / (double) HANDS, delta.stateBytes / (double) HANDS,
+                full.stateBytes / (double) delta.stateBytes,
+                full.bytes / (double) HANDS, delta.bytes / (double) HANDS,
+                full.bytes / (double) delta.bytes));
+    }
+
+    private static Traffic measure(int seats, int[] profile, boolean isDelta) {
+        Traffic traffic = new Traffic(profile);
+        int hands = 0;
+        int matchNo = 0;
+
+        while (hands < HANDS) {
+            PokerMatch match = new PokerMatch(PokerMatch.createPlayers(seats, player -> {
+                player.setSendingDeltaUpdates(isDelta);
+                player.setSendingLegalActions(true);
+            }, id -> traffic), PokerEngine.createDefaultConfiguration(), "delta-" + matchNo++);
+            match.getProcessor().setCalculatingHandOdds(false);
+            match.getProcessor().setSummary(new PokerSummary(seats, 0));  // releases earlier hands
+
+            while (!match.hasEnded() && hands < HANDS) {
+                match.playRound();
+                hands++;
+            }
+        }
+
+        return traffic;
+    }
+
+    private static class Traffic implements IOInterface {
+
+        private final Random random = new Random(46);
+        private final int[] profile;
+        private long bytes;
+        private long stateLines;
+        private long stateBytes;
+
+        Traffic(int[] profile) {
+            this.profile = profile;
+        }
+
+        @Override
+        public void sendMessage(String message) {
+            for (String line : message.split("\n")) {
+                int length = line.length() + 1;
+                this.bytes += length;
+
+                if (line.contains(" chips ") || line.contains(" bet ") || line.contains(" pot ")
+                        || line.contains(" amount_to_call ") || line.contains(" legal_actions ")) {
+                    this.stateLines++;
+                    this.stateBytes += length;
+                }
+            }
+        }
+
+        @Override
+        public String getNextMessage() {
+            return null;
+        }
+
+        @Override
+        public String sendRequest(String message) {
+            sendMessage(message);
+
+            int choice = this.random.nextInt(100);
+            if ((choice -= this.profile[0]) < 0) return "fold";
+            if ((choice -= this.profile[1]) < 0) return "check";
+            if ((choice -= this.profile[2]) < 0) return "call";
+            return "raise_" + (this.random.nextInt(300) + 1);
+        }
+    }
+}
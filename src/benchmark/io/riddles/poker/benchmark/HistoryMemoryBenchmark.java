@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+/**
+ * io.riddles.poker.benchmark.HistoryMemoryBenchmark - Created on 19-10-26
+ *
+ * Measures the heap that is retained by the state history of a single game,
+ * per state in the history.
+ * Usage: gradle benchmark -PbenchmarkClass=HistoryMemoryBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class HistoryMemoryBenchmark {
+
+    private static final int HANDS = 400;
+
+    public static void main(String[] args) {
+        // Warm up, so static tables and loaded classes aren't measured
+        new BenchmarkTable(2, "warmup").playHands(HANDS, (state, roundNumber, betRound) ->
+                state.createNextState(roundNumber, betRound));
+
+        for (int seats : new int[]{2, 6, 9}) {
+            long before = usedHeap();
+
+            BenchmarkTable table = new BenchmarkTable(seats, "history-memory-benchmark");
+            table.playHands(HANDS, (state, roundNumber, betRound) ->
+                    state.createNextState(roundNumber, betRound));
+
+            long retained = usedHeap() - before;
+
+            System.out.println(String.format(
+                    "%d seats: %d states, %.1f bytes retained per state",
+                    seats, table.getStateCount(), retained / (double) table.getStateCount()));
+
+            if (table.getState() == null) {  // keeps the table reachable until here
+                throw new RuntimeException();
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
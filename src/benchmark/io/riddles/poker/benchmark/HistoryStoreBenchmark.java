@@ -0,0 +1,100 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.util.function.Supplier;
+
+import io.riddles.poker.game.state.HeapHistoryBuffer;
+import io.riddles.poker.game.state.HistoryBuffer;
+import io.riddles.poker.game.state.OffHeapHistoryBuffer;
+import io.riddles.poker.game.state.PokerState;
+import io.riddles.poker.game.state.PokerStateHistory;
+import io.riddles.poker.game.table.BetRound;
+
+/**
+ * io.riddles.poker.benchmark.HistoryStoreBenchmark - Created on 19-10-26
+ *
+ * Records all hands of a long match in a single history, like the processor
+ * does with a history store, and measures the heap that is retained after
+ * an increasing number of hands, for each kind of history buffer. Also
+ * measures the time to read all states back through the views.
+ * Usage: gradle benchmark -PbenchmarkClass=HistoryStoreBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class HistoryStoreBenchmark {
+
+    private static final int SEATS = 6;
+    private static final int[] HANDS = {1000, 4000, 16000};
+
+    public static void main(String[] args) {
+        run("warmup", () -> new HeapHistoryBuffer(1024), 1000, false);
+
+        for (int hands : HANDS) {
+            run("heap", () -> new HeapHistoryBuffer(1024), hands, true);
+            run("direct", OffHeapHistoryBuffer::direct, hands, true);
+            run("mapped", OffHeapHistoryBuffer::mapped, hands, true);
+        }
+    }
+
+    private static void run(String name, Supplier<HistoryBuffer> buffers, int hands, boolean print) {
+        long before = usedHeap();
+
+        PokerStateHistory history = new PokerStateHistory(SEATS, buffers);
+        BenchmarkTable table = new BenchmarkTable(SEATS, "history-store-benchmark", history);
+        table.playHands(hands, (state, roundNumber, betRound) -> betRound == BetRound.START
+                ? state.createUnlinkedState(roundNumber, betRound)
+                : state.createNextState(roundNumber, betRound));
+
+        long retained = usedHeap() - before;
+
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < history.size(); i++) {
+            PokerState view = history.getState(i);
+            checksum += view.getPlayerStateById(0).getChips();
+        }
+        long readTime = System.nanoTime() - start;
+
+        if (print) {
+            System.out.println(String.format(
+                    "%-6s %5d hands: %7d states, %8.1f KB heap retained, %.1f bytes per state, "
+                            + "%.0f ns per view read",
+                    name, hands, history.size(), retained / 1024.0,
+                    retained / (double) history.size(), readTime / (double) history.size()));
+        }
+
+        if (table.getState() == null || checksum < 0) {  // keeps the table reachable until here
+            throw new RuntimeException();
+        }
+
+        history.close();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.util.ArrayList;
+
+import io.riddles.poker.game.state.PlayerTable;
+import io.riddles.poker.game.state.PokerPlayerState;
+import io.riddles.poker.game.state.PokerState;
+import io.riddles.poker.game.table.PokerTable;
+
+/**
+ * io.riddles.poker.benchmark.MoveUpdateBenchmark - Created on 19-10-26
+ *
+ * Measures the queries done for the updates that are sent before every move
+ * request, the pot for the player to move and the highest bet on the table,
+ * using the running bet totals, compared with summing and scanning the bets
+ * of all players like before.
+ * Usage: gradle benchmark -PbenchmarkClass=MoveUpdateBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class MoveUpdateBenchmark {
+
+    private static final int SAMPLE_STATES = 500;
+    private static final int RUNS = 2000;
+
+    public static void main(String[] args) {
+        for (int seats : new int[]{2, 6, 10, 20}) {
+            ArrayList<PokerState> samples = BenchmarkTable.sampleStates(
+                    seats, SAMPLE_STATES, "move-update-benchmark");
+
+            for (int i = 0; i < 2; i++) {  // first pass is warmup
+                boolean print = i == 1;
+
+                BenchmarkTable.measure(String.format("%2d seats, scan", seats), "request",
+                        samples, RUNS, print, (state, run) -> queryScan(state, run % seats));
+                BenchmarkTable.measure(String.format("%2d seats, totals", seats), "request",
+                        samples, RUNS, print, (state, run) -> queryTotals(state, run % seats));
+            }
+        }
+    }
+
+    private static int queryTotals(PokerState state, int id) {
+        PokerPlayerState playerState = state.getPlayerStateById(id);
+        PokerTable table = state.getTable();
+
+        return table.getPotForPlayer(playerState) + state.getPlayerTable().getHighestBet();
+    }
+
+    // The same queries like they were done before the running totals
+    private static int queryScan(PokerState state, int id) {
+        PokerPlayerState playerState = state.getPlayerStateById(id);
+        PlayerTable players = state.getPlayerTable();
+        int maxBet = playerState.getBet() + playerState.getChips();
+        int potForPlayer = 0;
+        int highestBet = 0;
+
+        for (long m = players.getAliveMask(); m != 0; m &= m - 1) {
+            int bet = players.getBet(Long.numberOfTrailingZeros(m));
+            potForPlayer += Math.min(bet, maxBet);
+            highestBet = Math.max(highestBet, bet);
+        }
+        potForPlayer += state.getTable().getPots().getTotalForPlayer(playerState.getPlayerId());
+
+        return potForPlayer + highestBet;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import io.riddles.javainterface.engine.GameLoopInterface;
+import io.riddles.javainterface.engine.SimpleGameLoop;
+import io.riddles.javainterface.io.IOInterface;
+import io.riddles.poker.engine.PipelinedGameLoop;
+import io.riddles.poker.engine.PokerEngine;
+import io.riddles.poker.game.PokerMatch;
+import io.riddles.poker.game.PokerStateStreamer;
+import io.riddles.poker.game.state.PokerState;
+
+/**
+ * io.riddles.poker.benchmark.PipelinedLoopBenchmark - Created on 19-10-26
+ *
+ * Plays 6 seat matches that stream their states to a file and write a
+ * checkpoint after each hand, with the SimpleGameLoop and with the
+ * PipelinedGameLoop, once with bots that answer right away and once with
+ * bots that think for a while before each move. Measures the time per hand.
+ * Usage: gradle benchmark -PbenchmarkClass=PipelinedLoopBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PipelinedLoopBenchmark {
+
+    private static final int MATCHES = 5;
+    private static final int SEATS = 6;
+    private static final long THINK_NANOS = 1000000;
+
+    public static void main(String[] args) throws IOException {
+        File directory = Files.createTempDirectory("poker-pipeline").toFile();
+
+        for (int i = 0; i < 2; i++) {  // first pass is warmup
+            boolean print = i == 1;
+
+            measure(false, 0, directory, print);
+            measure(true, 0, directory, print);
+            measure(false, THINK_NANOS, directory, print);
+            measure(true, THINK_NANOS, directory, print);
+        }
+
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    private static void measure(boolean isPipelined, long thinkNanos, File directory, boolean print) {
+        long nanos = 0;
+        int hands = 0;
+
+        for (int matchNo = 0; matchNo < MATCHES; matchNo++) {
+            Random random = new Random(matchNo);
+
+            PokerMatch match = new PokerMatch(PokerMatch.createPlayers(SEATS,
+                    player -> player.setWritingAsync(true), id -> new ThinkingBotIO(thinkNanos, random)),
+                    PokerEngine.createDefaultConfiguration(), "pipeline-" + matchNo);
+            match.getProcessor().setCalculatingHandOdds(false);
+            PokerStateStreamer streamer = new PokerStateStreamer(new File(directory, "states").getPath());
+            match.getProcessor().setStateStreamer(streamer);
+            match.getProcessor().setCheckpoint(new File(directory, "checkpoint").getPath(), streamer);
+
+            GameLoopInterface gameLoop = isPipelined ? new PipelinedGameLoop(0) : new SimpleGameLoop();
+            long start = System.nanoTime();
+            PokerState state = match.play(gameLoop);
+            nanos += System.nanoTime() - start;
+            hands += state.getRoundNumber();
+
+            match.close();
+        }
+
+        if (print) {
+            System.out.println(String.format("%-9s think %4d us: %6.1f us per hand",
+                    isPipelined ? "pipelined" : "simple", thinkNanos / 1000, nanos / 1e3 / hands));
+        }
+    }
+
+    // A bot that takes a fixed time to think about each move
+    private static class ThinkingBotIO implements IOInterface {
+
+        private final long thinkNanos;
+        private final Random random;
+
+        ThinkingBotIO(long thinkNanos, Random random) {
+            this.thinkNanos = thinkNanos;
+            this.random = random;
+        }
+
+        @Override
+        public void sendMessage(String message) {}
+
+        @Override
+        public String getNextMessage() {
+            return null;
+        }
+
+        @Override
+        public String sendRequest(String message) {
+            if (this.thinkNanos > 0) {
+                LockSupport.parkNanos(this.thinkNanos);
+            }
+
+            int choice = this.random.nextInt(100);
+            if (choice < 8) return "fold";
+            if (choice < 50) return "check";
+            if (choice < 92) return "call";
+            return "raise_" + (this.random.nextInt(300) + 1);
+        }
+    }
+}
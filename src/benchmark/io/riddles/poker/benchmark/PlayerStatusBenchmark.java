@@ -0,0 +1,100 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+
+import io.riddles.poker.game.state.PokerPlayerState;
+import io.riddles.poker.game.state.PokerState;
+
+/**
+ * io.riddles.poker.benchmark.PlayerStatusBenchmark - Created on 19-10-26
+ *
+ * Compares the player status queries done on every action (has the hand ended,
+ * has the bet round ended, player counts) using the status bitmasks, with the
+ * same queries done by filtering the player state lists with streams.
+ * Usage: gradle benchmark -PbenchmarkClass=PlayerStatusBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PlayerStatusBenchmark {
+
+    private static final int SAMPLE_STATES = 5000;
+    private static final int RUNS = 200;
+
+    public static void main(String[] args) {
+        for (int seats : new int[]{2, 6, 10}) {
+            ArrayList<PokerState> samples = BenchmarkTable.sampleStates(
+                    seats, SAMPLE_STATES, "player-status-benchmark");
+
+            for (int i = 0; i < 2; i++) {  // first pass is warmup
+                boolean print = i == 1;
+
+                BenchmarkTable.measure(String.format("%2d seats, lists", seats), "query",
+                        samples, RUNS, print, (state, run) -> queryLists(state));
+                BenchmarkTable.measure(String.format("%2d seats, masks", seats), "query",
+                        samples, RUNS, print, (state, run) -> queryMasks(state));
+            }
+        }
+    }
+
+    private static int queryMasks(PokerState state) {
+        int result = state.getTable().hasBetRoundEnded(false) ? 1 : 0;
+
+        return result + state.getAlivePlayerCount() + state.getActivePlayerCount();
+    }
+
+    // The same queries like they were done before the status bitmasks
+    private static int queryLists(PokerState state) {
+        ArrayList<PokerPlayerState> playerStates = state.getPlayerStates();
+        int result = legacyHasBetRoundEnded(playerStates) ? 1 : 0;
+
+        return result + filter(playerStates, 0).size() + filter(playerStates, 2).size();
+    }
+
+    private static boolean legacyHasBetRoundEnded(ArrayList<PokerPlayerState> playerStates) {
+        if (filter(playerStates, 1).size() <= 1) {
+            return true;
+        }
+
+        ArrayList<PokerPlayerState> activePlayers = filter(playerStates, 2);
+
+        if (activePlayers.isEmpty()) {
+            return true;
+        }
+
+        if (filter(playerStates, 3).size() >= 1) {
+            return false;
+        }
+
+        return activePlayers.stream().allMatch(ap -> ap.getBet() == activePlayers.get(0).getBet());
+    }
+
+    private static ArrayList<PokerPlayerState> filter(ArrayList<PokerPlayerState> playerStates,
+                                                      int type) {
+        return playerStates.stream()
+                .filter(ps -> type == 0 ? ps.isAlive()
+                        : type == 1 ? ps.isInHand()
+                        : type == 2 ? ps.isActive()
+                        : ps.isBetting())
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.riddles.poker.game.move.MoveType;
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.move.PokerMoveParser;
+import io.riddles.poker.game.player.PokerPlayer;
+import io.riddles.poker.game.player.PokerUpdateEncoder;
+import io.riddles.poker.game.player.UpdateType;
+import io.riddles.poker.game.table.card.Card;
+
+/**
+ * io.riddles.poker.benchmark.ProtocolCodecBenchmark - Created on 19-10-26
+ *
+ * Compares the text protocol code with the way it was done before: the
+ * update lines formatted with string concatenation like the AbstractPlayer
+ * does against the PokerUpdateEncoder, move replies parsed with split and
+ * Integer.parseInt against the PokerMoveParser, for valid replies and for
+ * a flood of invalid ones, and card strings looked up in a HashMap against
+ * Card.fromString. Prints the time and the bytes allocated per operation.
+ * Usage: gradle benchmark -PbenchmarkClass=ProtocolCodecBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class ProtocolCodecBenchmark {
+
+    private static final int ROUNDS = 2000000;
+
+    private static final String[] VALID_REPLIES = {"call", "check", "fold", "raise_120", "raise_2000", "Call"};
+    private static final String[] INVALID_REPLIES = {"bet_20", "raise_", "raise_abc", "raise_-5", "", "allin"};
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        for (int i = 0; i < 2; i++) {  // first pass is warmup
+            boolean print = i == 1;
+
+            measure("encode strings", print, ProtocolCodecBenchmark::encodeStrings);
+            measure("encode bytes", print, ProtocolCodecBenchmark::encodeBytes);
+            measure("parse valid split", print, () -> parseSplit(VALID_REPLIES));
+            measure("parse valid parser", print, () -> parseParser(VALID_REPLIES));
+            measure("parse invalid split", print, () -> parseSplit(INVALID_REPLIES));
+            measure("parse invalid parser", print, () -> parseParser(INVALID_REPLIES));
+            measure("card map", print, ProtocolCodecBenchmark::cardMap);
+            measure("card table", print, ProtocolCodecBenchmark::cardTable);
+        }
+
+        if (sink == 42) System.out.println();  // keeps the results used
+    }
+
+    private static void measure(String name, boolean print, Runnable operation) {
+        BenchmarkTable.measure(name, "op", ROUNDS, print, operation);
+    }
+
+    // The lines a bot gets for one move of another player and its own turn
+
+    private static final PokerPlayer PLAYER = createPlayer(0);
+    private static final PokerPlayer OPPONENT = createPlayer(1);
+    private static final PokerMove MOVE = new PokerMove(MoveType.RAISE, 240);
+    private static final PokerUpdateEncoder ENCODER = new PokerUpdateEncoder(0);
+    private static final StringBuilder LINES = new StringBuilder();
+
+    private static void encodeStrings() {
+        LINES.setLength(0);
+        appendLine("update " + OPPONENT.getName() + " move " + MOVE.toString());
+        appendLine("update " + OPPONENT.getName() + " chips " + 1760);
+        appendLine("update " + PLAYER.getName() + " pot " + 360);
+        appendLine("update " + PLAYER.getName() + " amount_to_call " + 200);
+        appendLine("update " + PLAYER.getName() + " legal_actions " + "fold,call:200,raise:240-1800");
+        sink += LINES.toString().length();
+    }
+
+    private static void appendLine(String message) {
+        if (LINES.length() > 0) LINES.append('\n');
+        LINES.append("bot " + PLAYER.getId() + " send " + message);
+    }
+
+    private static void encodeBytes() {
+        ENCODER.clear();
+        ENCODER.appendMove(OPPONENT, MOVE);
+        ENCODER.appendUpdate(UpdateType.CHIPS, OPPONENT, 1760);
+        ENCODER.appendUpdate(UpdateType.POT, PLAYER, 360);
+        ENCODER.appendUpdate(UpdateType.AMOUNT_TO_CALL, PLAYER, 200);
+        ENCODER.appendUpdate(UpdateType.LEGAL_ACTIONS, PLAYER, "fold,call:200,raise:240-1800");
+        sink += ENCODER.length();
+    }
+
+    private static void parseSplit(String[] replies) {
+        for (String reply : replies) {
+            try {
+                String[] split = reply.split("_");
+                MoveType moveType = MoveType.fromString(split[0]);
+
+                if (moveType == null) {
+                    sink--;
+                } else if (split.length < 2 && moveType != MoveType.RAISE) {
+                    sink += moveType.ordinal();
+                } else {
+                    sink += Integer.parseInt(split[1]);
+                }
+            } catch (Exception ex) {
+                sink--;
+            }
+        }
+    }
+
+    private static void parseParser(String[] replies) {
+        for (String reply : replies) {
+            sink += PokerMoveParser.parse(reply);
+        }
+    }
+
+    private static final String[] CARD_STRINGS = {"As", "Th", "2c", "Kd", "9s", "Qh", "5d"};
+    private static final Map<String, Card> CARD_MAP = new HashMap<>();
+
+    static {
+        for (int i = 0; i < 52; i++) {
+            CARD_MAP.put(Card.fromNumber(i).toString(), Card.fromNumber(i));
+        }
+    }
+
+    private static void cardMap() {
+        for (String cardString : CARD_STRINGS) {
+            sink += CARD_MAP.get(cardString).getNumber();
+        }
+    }
+
+    private static void cardTable() {
+        for (String cardString : CARD_STRINGS) {
+            sink += Card.fromString(cardString).getNumber();
+        }
+    }
+
+    private static PokerPlayer createPlayer(int id) {
+        PokerPlayer player = new PokerPlayer(id);
+        player.setName("player" + id);
+        return player;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import io.riddles.poker.game.state.PokerPlayerState;
+import io.riddles.poker.game.state.PokerState;
+import io.riddles.poker.game.table.SeatRing;
+
+/**
+ * io.riddles.poker.benchmark.SeatRingBenchmark - Created on 19-10-26
+ *
+ * Compares finding the next active and the previous alive player with the
+ * SeatRing on the status bitmasks, with walking around the table seat by seat
+ * and comparing the player type strings, like PokerTable did before. Runs on
+ * tables with random folded, all-in and busted players, from heads-up and
+ * full ring up to 64 seats. The large tables are too big to deal cards to,
+ * so the states are created with random statuses instead of played.
+ * Usage: gradle benchmark -PbenchmarkClass=SeatRingBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class SeatRingBenchmark {
+
+    private static final int SAMPLE_STATES = 500;
+    private static final int RUNS = 2000;
+
+    public static void main(String[] args) {
+        Random random = new Random(38);
+
+        for (int seats : new int[]{2, 9, 20, 64}) {
+            ArrayList<PokerState> samples = BenchmarkTable.randomStates(random, seats, SAMPLE_STATES);
+
+            for (int i = 0; i < 2; i++) {  // first pass is warmup
+                boolean print = i == 1;
+
+                BenchmarkTable.measure(String.format("%2d seats, strings", seats), "query",
+                        samples, RUNS, print, (state, run) -> queryStrings(state, run % seats));
+                BenchmarkTable.measure(String.format("%2d seats, ring", seats), "query",
+                        samples, RUNS, print, (state, run) -> queryRing(state, run % seats));
+            }
+        }
+    }
+
+    private static int queryRing(PokerState state, int id) {
+        PokerPlayerState nextActive = state.getTable().getNextActivePlayer(id);
+        int previousAlive = SeatRing.previousFrom(state.getAliveMask() & ~(1L << id),
+                Math.floorMod(id - 1, state.getPlayerTable().getSeatCount()));
+
+        return (nextActive != null ? nextActive.getPlayerId() : -1) + previousAlive;
+    }
+
+    private static int queryStrings(PokerState state, int id) {
+        PokerPlayerState nextActive = legacyTypePlayerInDirection(state, id, "active", 1);
+        PokerPlayerState previousAlive = legacyTypePlayerInDirection(state, id, "alive", -1);
+
+        return (nextActive != null ? nextActive.getPlayerId() : -1)
+                + (previousAlive != null ? previousAlive.getPlayerId() : -1);
+    }
+
+    // PokerTable.getTypePlayerInDirection like it was before the SeatRing
+    private static PokerPlayerState legacyTypePlayerInDirection(PokerState state, int id,
+                                                                String type, int direction) {
+        int playerCount = state.getPlayerStates().size();
+        int startId = Math.floorMod(id + direction, playerCount);
+
+        for (int i = startId; i != id; i = Math.floorMod(i + direction, playerCount)) {
+            PokerPlayerState playerState = state.getPlayerStateById(i);
+
+            if (type.equals("alive") && playerState.isAlive()) {
+                return playerState;
+            }
+
+            if (type.equals("hand") && playerState.isInHand()) {
+                return playerState;
+            }
+
+            if (type.equals("active") && playerState.isActive()) {
+                return playerState;
+            }
+        }
+
+        return null;
+    }
+}
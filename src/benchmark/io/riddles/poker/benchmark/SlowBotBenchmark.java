@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import io.riddles.javainterface.io.IOInterface;
+import io.riddles.poker.engine.PokerEngine;
+import io.riddles.poker.game.PokerMatch;
+import io.riddles.poker.game.PokerSummary;
+
+/**
+ * io.riddles.poker.benchmark.SlowBotBenchmark - Created on 19-10-26
+ *
+ * Plays 6 seat matches in which writing to one of the bots takes 2 ms, like
+ * a bot with a full pipe, and writing to the others takes 50 us. The slow
+ * bot folds each hand, the others answer with random moves right away, so
+ * the slow bot only gets the broadcasts of the rest of the hand. Measures
+ * the time per hand with the messages written on the engine thread and on
+ * a writer thread per bot.
+ * Usage: gradle benchmark -PbenchmarkClass=SlowBotBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class SlowBotBenchmark {
+
+    private static final int HANDS = 1000;
+    private static final int SEATS = 6;
+    private static final long SLOW_WRITE_NANOS = 2000000;
+    private static final long WRITE_NANOS = 50000;
+
+    public static void main(String[] args) {
+        for (int i = 0; i < 2; i++) {  // first pass is warmup
+            boolean print = i == 1;
+
+            measure(false, print);
+            measure(true, print);
+        }
+    }
+
+    private static void measure(boolean isWritingAsync, boolean print) {
+        long[] handTimes = new long[HANDS];
+        Random random = new Random(47);
+        int hands = 0;
+        int matchNo = 0;
+
+        while (hands < HANDS) {
+            PokerMatch match = new PokerMatch(PokerMatch.createPlayers(SEATS,
+                    player -> player.setWritingAsync(isWritingAsync),
+                    id -> id == 0
+                            ? new PipeIO(SLOW_WRITE_NANOS, 100, random)
+                            : new PipeIO(WRITE_NANOS, 8, random)),
+                    PokerEngine.createDefaultConfiguration(), "slow-" + matchNo++);
+            match.getProcessor().setCalculatingHandOdds(false);
+            match.getProcessor().setSummary(new PokerSummary(SEATS, 0));  // releases earlier hands
+
+            while (!match.hasEnded() && hands < HANDS) {
+                long start = System.nanoTime();
+                match.playRound();
+                handTimes[hands++] = System.nanoTime() - start;
+            }
+
+            match.close();
+        }
+
+        if (print) {
+            Arrays.sort(handTimes);
+            System.out.println(String.format("%-6s: p50 %6.2f ms, p99 %6.2f ms per hand",
+                    isWritingAsync ? "async" : "direct",
+                    handTimes[HANDS / 2] / 1e6, handTimes[HANDS * 99 / 100] / 1e6));
+        }
+    }
+
+    // A pipe to one bot that takes a fixed time per write
+    private static class PipeIO implements IOInterface {
+
+        private final long writeNanos;
+        private final int foldChance;
+        private final Random random;
+
+        PipeIO(long writeNanos, int foldChance, Random random) {
+            this.writeNanos = writeNanos;
+            this.foldChance = foldChance;
+            this.random = random;
+        }
+
+        @Override
+        public void sendMessage(String message) {
+            if (this.writeNanos > 0) {
+                LockSupport.parkNanos(this.writeNanos);
+            }
+        }
+
+        @Override
+        public String getNextMessage() {
+            return null;
+        }
+
+        @Override
+        public String sendRequest(String message) {
+            sendMessage(message);
+
+            int choice = this.random.nextInt(100);
+            if (choice < this.foldChance) return "fold";
+            if (choice < 50) return "check";
+            if (choice < 92) return "call";
+            return "raise_" + (this.random.nextInt(300) + 1);
+        }
+    }
+}
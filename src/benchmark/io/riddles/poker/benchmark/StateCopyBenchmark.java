@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.util.ArrayList;
+
+import io.riddles.poker.game.state.PlayerTable;
+import io.riddles.poker.game.state.PokerState;
+
+/**
+ * io.riddles.poker.benchmark.StateCopyBenchmark - Created on 19-10-26
+ *
+ * Measures the time and the bytes allocated by PokerState.createNextState,
+ * on states sampled from played hands. Once for the copy alone, and once
+ * with a bet and the acted flag set on the copy, like a player action does.
+ * Usage: gradle benchmark -PbenchmarkClass=StateCopyBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class StateCopyBenchmark {
+
+    private static final int SAMPLE_STATES = 1000;
+    private static final int RUNS = 500;
+
+    public static void main(String[] args) {
+        for (int seats : new int[]{2, 6, 9}) {
+            ArrayList<PokerState> samples = BenchmarkTable.sampleStates(seats, SAMPLE_STATES,
+                    "state-copy-benchmark");
+
+            for (int i = 0; i < 2; i++) {  // first pass is warmup
+                boolean print = i == 1;
+
+                BenchmarkTable.measure(String.format("%d seats, copy", seats), "copy",
+                        samples, RUNS, print, StateCopyBenchmark::copy);
+                BenchmarkTable.measure(String.format("%d seats, copy + bet", seats), "copy",
+                        samples, RUNS, print, (state, run) -> copyAndBet(state, run % seats));
+            }
+        }
+    }
+
+    private static int copy(PokerState state, int run) {
+        return state.createNextState(state.getRoundNumber(), state.getBetRound()).getRoundNumber();
+    }
+
+    private static int copyAndBet(PokerState state, int seat) {
+        PokerState nextState = state.createNextState(state.getRoundNumber(), state.getBetRound());
+        PlayerTable players = nextState.getPlayerTable();
+
+        players.setBet(seat, players.getBet(seat) + 1);
+        players.setFlag(seat, PlayerTable.ACTED, true);
+
+        return players.getBetTotal();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import io.riddles.poker.client.SharedMemoryBotClient;
+import io.riddles.poker.client.SharedMemoryChannel;
+import io.riddles.poker.game.player.SharedMemoryPlayerIO;
+
+/**
+ * io.riddles.poker.benchmark.TransportLatencyBenchmark - Created on 19-10-26
+ *
+ * Measures the round trip of a move request to a bot in another process:
+ * the updates before a move and the request are written to the bot, which
+ * replies right away, once through the stdin and stdout pipes of the bot and
+ * once through a shared memory file. The bot is started by this class too,
+ * with "pipe-bot" or "ring-bot <file>" as arguments.
+ * Usage: gradle benchmark -PbenchmarkClass=TransportLatencyBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class TransportLatencyBenchmark {
+
+    private static final int WARMUP = 20000;
+    private static final int ROUND_TRIPS = 100000;
+
+    // What the engine writes for one move request, as the match wrapper gets it
+    private static final String UPDATES = "bot 0 send update player1 move call\n"
+            + "bot 0 send update player2 move raise_120\n"
+            + "bot 0 send update player0 bet 60\n"
+            + "bot 0 send update player1 bet 60\n"
+            + "bot 0 send update player2 bet 180\n"
+            + "bot 0 send update player0 pot 300\n"
+            + "bot 0 send update player0 amount_to_call 120";
+    private static final String REQUEST = "bot 0 ask action move 10000";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("pipe-bot")) {
+            runPipeBot();
+            return;
+        }
+        if (args.length > 1 && args[0].equals("ring-bot")) {
+            runRingBot(new File(args[1]));
+            return;
+        }
+
+        measurePipe();
+        measureRing(args.length > 0 ? args[0] : "/dev/shm");
+    }
+
+    private static void measurePipe() throws IOException {
+        Process bot = startBot("pipe-bot");
+        BufferedWriter toBot = new BufferedWriter(new OutputStreamWriter(
+                bot.getOutputStream(), StandardCharsets.UTF_8));
+        BufferedReader fromBot = new BufferedReader(new InputStreamReader(
+                bot.getInputStream(), StandardCharsets.UTF_8));
+
+        // The match wrapper writes the lines without the "bot 0 send " prefix
+        String lines = UPDATES.replace("bot 0 send ", "") + "\n" + REQUEST.replace("bot 0 ask ", "") + "\n";
+        long[] times = new long[ROUND_TRIPS];
+
+        for (int i = -WARMUP; i < ROUND_TRIPS; i++) {
+            long start = System.nanoTime();
+            toBot.write(lines);
+            toBot.flush();
+            fromBot.readLine();
+
+            if (i >= 0) times[i] = System.nanoTime() - start;
+        }
+
+        toBot.close();
+        bot.destroy();
+        print("pipe", times);
+    }
+
+    private static void measureRing(String directory) throws IOException {
+        File file = new File(directory, "poker-latency-benchmark.ring");
+        SharedMemoryPlayerIO playerIO = new SharedMemoryPlayerIO(
+                SharedMemoryChannel.create(file, SharedMemoryChannel.DEFAULT_CAPACITY), 10000);
+        Process bot = startBot("ring-bot", file.getPath());
+        long[] times = new long[ROUND_TRIPS];
+
+        for (int i = -WARMUP; i < ROUND_TRIPS; i++) {
+            long start = System.nanoTime();
+            playerIO.sendMessage(UPDATES);
+            playerIO.sendRequest(REQUEST);
+
+            if (i >= 0) times[i] = System.nanoTime() - start;
+        }
+
+        playerIO.close();
+        try {
+            bot.waitFor();
+        } catch (InterruptedException ex) {
+            bot.destroy();
+        }
+        file.delete();
+        print("shared memory", times);
+    }
+
+    private static void runPipeBot() throws IOException {
+        BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+
+        while ((line = input.readLine()) != null) {
+            if (line.startsWith("action ")) {
+                System.out.println("call");
+                System.out.flush();
+            }
+        }
+    }
+
+    private static void runRingBot(File file) {
+        try (SharedMemoryBotClient client = SharedMemoryBotClient.connect(file, 60000)) {
+            String line;
+
+            while ((line = client.readLine()) != null) {
+                if (line.startsWith("action ")) {
+                    client.writeLine("call");
+                }
+            }
+        }
+    }
+
+    private static Process startBot(String... args) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String[] command = new String[4 + args.length];
+
+        command[0] = java;
+        command[1] = "-cp";
+        command[2] = System.getProperty("java.class.path");
+        command[3] = TransportLatencyBenchmark.class.getName();
+        System.arraycopy(args, 0, command, 4, args.length);
+
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    private static void print(String transport, long[] times) {
+        Arrays.sort(times);
+        System.out.println(String.format("%-13s: p50 %6.1f us, p99 %6.1f us, p99.9 %7.1f us per move request",
+                transport, times[ROUND_TRIPS / 2] / 1e3, times[ROUND_TRIPS * 99 / 100] / 1e3,
+                times[ROUND_TRIPS * 999 / 1000] / 1e3));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import io.riddles.javainterface.io.IOInterface;
+import io.riddles.poker.engine.PokerEngine;
+import io.riddles.poker.game.PokerMatch;
+import io.riddles.poker.game.PokerSummary;
+
+/**
+ * io.riddles.poker.benchmark.UpdateFlushBenchmark - Created on 19-10-26
+ *
+ * Plays matches with text players whose output goes to /dev/null through a
+ * PrintStream set up like System.out, with and without buffering the updates
+ * per bot. Counts the messages given to the IO handler, which the match
+ * wrapper writes to the bots one by one, and the write calls on the file,
+ * which are the write syscalls of the engine. Also measures the time per
+ * hand. The bots answer with random moves.
+ * Usage: gradle benchmark -PbenchmarkClass=UpdateFlushBenchmark
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class UpdateFlushBenchmark {
+
+    private static final int HANDS = 20000;
+
+    public static void main(String[] args) throws IOException {
+        for (int seats : new int[]{2, 6, 9}) {
+            for (int i = 0; i < 2; i++) {  // first pass is warmup
+                boolean print = i == 1;
+
+                measure(seats, false, print);
+                measure(seats, true, print);
+            }
+        }
+    }
+
+    private static void measure(int seats, boolean isBuffering, boolean print) throws IOException {
+        CountingOutputStream file = new CountingOutputStream(new FileOutputStream("/dev/null"));
+        PipeIO io = new PipeIO(new PrintStream(new BufferedOutputStream(file, 128), true));
+        long[] handTimes = new long[HANDS];
+        int hands = 0;
+        int matchNo = 0;
+
+        while (hands < HANDS) {
+            PokerMatch match = new PokerMatch(PokerMatch.createPlayers(seats,
+                    player -> player.setBufferingUpdates(isBuffering), id -> io),
+                    PokerEngine.createDefaultConfiguration(), "flush-" + matchNo++);
+            match.getProcessor().setCalculatingHandOdds(false);
+            match.getProcessor().setSummary(new PokerSummary(seats, 0));  // releases earlier hands
+
+            while (!match.hasEnded() && hands < HANDS) {
+                long start = System.nanoTime();
+                match.playRound();
+                handTimes[hands++] = System.nanoTime() - start;
+            }
+        }
+
+        if (print) {
+            Arrays.sort(handTimes);
+            System.out.println(String.format(
+                    "%d seats, %-8s: %6.1f messages, %6.1f writes per hand, "
+                            + "p50 %5.1f us, p99 %6.1f us per hand",
+                    seats, isBuffering ? "buffered" : "direct",
+                    io.messages / (double) HANDS, file.writes / (double) HANDS,
+                    handTimes[HANDS / 2] / 1e3, handTimes[HANDS * 99 / 100] / 1e3));
+        }
+    }
+
+    private static class PipeIO implements IOInterface {
+
+        private final PrintStream output;
+        private final Random random = new Random(44);
+        private long messages;
+
+        PipeIO(PrintStream output) {
+            this.output = output;
+        }
+
+        @Override
+        public void sendMessage(String message) {
+            this.messages++;
+            this.output.println(message);
+        }
+
+        @Override
+        public String getNextMessage() {
+            return null;
+        }
+
+        @Override
+        public String sendRequest(String message) {
+            sendMessage(message);
+
+            int choice = this.random.nextInt(100);
+            if (choice < 8) return "fold";
+            if (choice < 35) return "check";
+            if (choice < 70) return "call";
+            return "raise_" + (this.random.nextInt(300) + 1);
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long writes;
+
+        CountingOutputStream(OutputStream output) {
+            super(output);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.writes++;
+            this.out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.writes++;
+            this.out.write(b, off, len);
+        }
+    }
+}
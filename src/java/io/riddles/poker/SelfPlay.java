@@ -0,0 +1,179 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.function.LongFunction;
+
+import io.riddles.javainterface.configuration.Configuration;
+import io.riddles.poker.engine.PokerEngine;
+import io.riddles.poker.game.PokerMatch;
+import io.riddles.poker.game.PokerSummary;
+import io.riddles.poker.game.player.PokerBot;
+import io.riddles.poker.game.player.RandomBot;
+
+/**
+ * io.riddles.poker.SelfPlay - Created on 19-10-26
+ *
+ * Plays matches between in-process bots, without the match wrapper and
+ * without any bot I/O, and prints the hands per second and the results of
+ * all matches together. Hand odds are not calculated. Each match is seeded
+ * with the seed and the match number, so a run is the same every time for
+ * the same arguments. Matches are played until the given number of hands is
+ * reached, the last match may be stopped early.
+ * The bots are given as PokerBot class names per seat, comma separated.
+ * Seats without a class name get a RandomBot. Each match gets new bots.
+ * Usage: SelfPlay <hands> <seed> <variant> <seats> [raiseLimitType] [botClasses]
+ * For example: SelfPlay 1000000 regression TexasHoldEm 6 noLimit com.example.MyBot
+>>>>
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class SelfPlay {
+
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.err.println("Usage: SelfPlay <hands> <seed> <variant> <seats> "
+                    + "[raiseLimitType] [botClasses]");
+            System.exit(1);
+        }
+
+        long hands = Long.parseLong(args[0]);
+        String seed = args[1];
+        int seats = Integer.parseInt(args[3]);
+
+        if (seats < 2) {
+            throw new RuntimeException("At least 2 seats are needed");
+        }
+
+        Configuration configuration = PokerEngine.createDefaultConfiguration();
+        configuration.put("pokerType", args[2]);
+        if (args.length > 4) {
+            configuration.put("raiseLimitType", args[4]);
+        }
+
+        String[] botClassNames = args.length > 5 ? args[5].split(",", -1) : new String[0];
+        if (botClassNames.length > seats) {
+            throw new RuntimeException("More bot classes than seats");
+        }
+
+        ArrayList<LongFunction<PokerBot>> botFactories = new ArrayList<>();
+        for (int id = 0; id < seats; id++) {
+            botFactories.add(createBotFactory(id < botClassNames.length ? botClassNames[id] : ""));
+        }
+
+        PokerSummary summary = new PokerSummary(seats, 0);
+        int[] matchesWon = new int[seats];
+        int matchCount = 0;
+        int unfinishedMatchCount = 0;
+
+        long start = System.nanoTime();
+
+        while (summary.getHandCount() < hands) {
+            String matchSeed = seed + "-" + matchCount;
+            Integer winnerId = playMatch(configuration, matchSeed, botFactories, summary, hands);
+            matchCount++;
+
+            if (winnerId != null) {
+                matchesWon[winnerId]++;
+            } else {
+                unfinishedMatchCount++;
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(String.format("%d hands, %d matches (%d unfinished) in %.2f s, %.0f hands/s",
+                summary.getHandCount(), matchCount, unfinishedMatchCount, seconds,
+                summary.getHandCount() / seconds));
+
+        for (int id = 0; id < seats; id++) {
+            System.out.println(String.format("player%d: %d matches won", id, matchesWon[id]));
+        }
+
+        System.out.println(summary.toJson().toString());
+    }
+
+    /**
+     * Creates the bots of one seat with given class, which needs a public
+     * constructor that takes a long seed or one without arguments
+     * @param className PokerBot class, or empty for a RandomBot
+     * @return Creates a bot from the seed of the seat
+     */
+    static LongFunction<PokerBot> createBotFactory(String className) {
+        if (className.isEmpty()) {
+            return RandomBot::new;
+        }
+
+        Class<? extends PokerBot> botClass;
+        try {
+            botClass = Class.forName(className).asSubclass(PokerBot.class);
+        } catch (ClassNotFoundException | ClassCastException ex) {
+            throw new RuntimeException("No PokerBot class " + className, ex);
+        }
+
+        try {
+            Constructor<? extends PokerBot> constructor = botClass.getConstructor(long.class);
+            return seed -> createBot(constructor, seed);
+        } catch (NoSuchMethodException ex) {
+            // Bots without a seeded constructor are created without the seed
+        }
+
+        try {
+            Constructor<? extends PokerBot> constructor = botClass.getConstructor();
+            return seed -> createBot(constructor);
+        } catch (NoSuchMethodException ex) {
+            throw new RuntimeException(className + " needs a public constructor that takes "
+                    + "a long seed or one without arguments", ex);
+        }
+    }
+
+    private static PokerBot createBot(Constructor<? extends PokerBot> constructor, Object... args) {
+        try {
+            return constructor.newInstance(args);
+        } catch (ReflectiveOperationException ex) {
+            throw new RuntimeException("Can't create a " + constructor.getDeclaringClass().getName(), ex);
+        }
+    }
+
+    /**
+     * Plays a match until there is a winner or the summary has the given number of hands
+     * @return Id of the winner, or null if the match was stopped early
+     */
+    private static Integer playMatch(Configuration configuration, String seed,
+                                     ArrayList<LongFunction<PokerBot>> botFactories,
+                                     PokerSummary summary, long maxHands) {
+        PokerMatch match = new PokerMatch(PokerMatch.createBotPlayers(botFactories.size(),
+                id -> botFactories.get(id).apply(seed.hashCode() * 31L + id)), configuration, seed);
+        match.getProcessor().setSummary(summary);
+        match.getProcessor().setCalculatingHandOdds(false);
+
+        while (!match.hasEnded()) {
+            if (summary.getHandCount() >= maxHands) {
+                return null;
+            }
+
+            match.playRound();
+        }
+
+        return match.getWinnerId();
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.client;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * io.riddles.poker.client.BinaryDecoder - Created on 19-10-26
+ *
+ * Reference decoder for the frames of the BinaryProtocol. Calls the method of
+ * the listener for each update in a frame, in order. Cards are given as a
+ * bitmask, bit i is set for card number i, so decoding doesn't allocate
+ * anything except the strings of TEXT updates. Bots only override the
+ * methods of the updates they use.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class BinaryDecoder {
+
+    private byte[] frame;
+    private int position;
+
+    /**
+     * Calls the listener for each update in the frame
+     * @param frame Bytes of the frame
+     * @param offset Start of the frame
+     * @param length Length of the frame
+     * @param listener Gets the updates
+     */
+    public void decode(byte[] frame, int offset, int length, Listener listener) {
+        this.frame = frame;
+        this.position = offset;
+        int end = offset + length;
+
+        while (this.position < end) {
+            int opcode = frame[this.position++];
+
+            switch (opcode) {
+                case BinaryProtocol.TEXT:
+                    int textLength = readVarInt();
+                    listener.onText(new String(frame, this.position, textLength, StandardCharsets.UTF_8));
+                    this.position += textLength;
+                    break;
+                case BinaryProtocol.ROUND:
+                    listener.onRound(readVarInt());
+                    break;
+                case BinaryProtocol.SMALL_BLIND:
+                    listener.onSmallBlind(readVarInt());
+                    break;
+                case BinaryProtocol.BIG_BLIND:
+                    listener.onBigBlind(readVarInt());
+                    break;
+                case BinaryProtocol.ON_BUTTON:
+                    listener.onButton(readPlayer());
+                    break;
+                case BinaryProtocol.BET_ROUND:
+                    listener.onBetRound(frame[this.position++]);
+                    break;
+                case BinaryProtocol.TABLE:
+                    listener.onTable(readCards());
+                    break;
+                case BinaryProtocol.CHIPS:
+                    listener.onChips(readPlayer(), readVarInt());
+                    break;
+                case BinaryProtocol.HAND:
+                    listener.onHand(readPlayer(), readCards());
+                    break;
+                case BinaryProtocol.BET:
+                    listener.onBet(readPlayer(), readVarInt());
+                    break;
+                case BinaryProtocol.POT:
+                    listener.onPot(readVarInt());
+                    break;
+                case BinaryProtocol.AMOUNT_TO_CALL:
+                    listener.onAmountToCall(readVarInt());
+                    break;
+                case BinaryProtocol.LEGAL_ACTIONS:
+                    decodeLegalActions(listener);
+                    break;
+                case BinaryProtocol.MOVE:
+                    int player = readPlayer();
+                    int moveCode = frame[this.position++];
+                    listener.onMove(player, moveCode, moveCode == BinaryProtocol.RAISE ? readVarInt() : 0);
+                    break;
+                case BinaryProtocol.WINS:
+                    listener.onWins(readPlayer(), readVarInt());
+                    break;
+                case BinaryProtocol.ACTION_MOVE:
+                    listener.onActionMove(readVarInt());
+                    break;
+                default:
+                    throw new RuntimeException("Unknown opcode " + opcode);
+            }
+        }
+
+        this.frame = null;
+    }
+
+    private void decodeLegalActions(Listener listener) {
+        int flags = this.frame[this.position++];
+        boolean canCheck = (flags & BinaryProtocol.CAN_CHECK) != 0;
+        boolean canRaise = (flags & BinaryProtocol.CAN_RAISE) != 0;
+
+        int callAmount = canCheck ? 0 : readVarInt();
+        int minRaise = canRaise ? readVarInt() : 0;
+        int maxRaise = canRaise ? readVarInt() : 0;
+
+        listener.onLegalActions(canCheck, callAmount, canRaise, minRaise, maxRaise);
+    }
+
+    private int readPlayer() {
+        return this.frame[this.position++] & 0xFF;
+    }
+
+    private long readCards() {
+        int count = this.frame[this.position++];
+        long cards = 0;
+
+        for (int i = 0; i < count; i++) {
+            cards |= 1L << this.frame[this.position++];
+        }
+
+        return cards;
+    }
+
+    private int readVarInt() {
+        int value = 0;
+
+        for (int shift = 0; ; shift += 7) {
+            byte b = this.frame[this.position++];
+            value |= (b & 0x7F) << shift;
+
+            if (b >= 0) return value;
+        }
+    }
+
+    /**
+     * Gets the updates of a frame, amounts are in chips, players are ids
+     */
+    public interface Listener {
+
+        default void onText(String line) {}
+
+        default void onRound(int roundNumber) {}
+
+        default void onSmallBlind(int smallBlind) {}
+
+        default void onBigBlind(int bigBlind) {}
+
+        default void onButton(int player) {}
+
+        default void onBetRound(int betRound) {}
+
+        default void onTable(long cards) {}
+
+        default void onChips(int player, int chips) {}
+
+        default void onHand(int player, long cards) {}
+
+        default void onBet(int player, int bet) {}
+
+        default void onPot(int pot) {}
+
+        default void onAmountToCall(int amount) {}
+
+        default void onLegalActions(boolean canCheck, int callAmount, boolean canRaise,
+                                    int minRaise, int maxRaise) {}
+
+        default void onMove(int player, int moveCode, int amount) {}
+
+        default void onWins(int player, int chips) {}
+
+        /**
+         * The bot has to reply with BinaryProtocol.encodeMove
+         * @param time Time the bot has for its move in ms
+         */
+        default void onActionMove(int time) {}
+    }
+}
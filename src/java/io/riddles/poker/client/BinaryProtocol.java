@@ -0,0 +1,145 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.client;
+
+/**
+ * io.riddles.poker.client.BinaryProtocol - Created on 19-10-26
+ *
+ * The binary protocol for bots that talk to the engine through shared memory.
+ * It isn't negotiated with the bot: the engine uses it for the bots listed in
+ * its binaryProtocolBots setting, and only if they are on the shared memory
+ * transport, as the match wrapper only passes text lines. It tells such a bot
+ * with the text line "settings protocol binary", after which every message
+ * from the engine is a binary frame. A bot that can't read the frames has to
+ * be left out of the setting.
+ *
+ * A frame is one message of the shared memory channel, so it's prefixed with
+ * its length, and holds one or more updates. An update is an opcode byte
+ * followed by its fields:
+ *
+ * <pre>
+ * TEXT           length text        any other line, like a setting or warning, UTF-8
+ * ROUND          amount
+ * SMALL_BLIND    amount
+ * BIG_BLIND      amount
+ * ON_BUTTON      player
+ * BET_ROUND      betRound           1 preflop, 2 flop, 3 turn, 4 river
+ * TABLE          count card*        the table cards
+ * CHIPS          player amount
+ * HAND           player count card*
+ * BET            player amount
+ * POT            amount             pot for the bot itself
+ * AMOUNT_TO_CALL amount
+ * LEGAL_ACTIONS  flags [call] [minRaise maxRaise]
+ * MOVE           player move [amount]
+ * WINS           player amount
+ * ACTION_MOVE    time               the bot has to reply with its move within time ms
+ * </pre>
+ *
+ * Amounts, lengths and times are unsigned varints: 7 bits per byte, lowest
+ * bits first, the high bit set on all bytes but the last, at most
+ * MAX_VAR_INT_SIZE bytes. A player is one byte with the player's id, its
+ * index in the player_names setting. A card is one byte: suit * 13 + height,
+ * with the heights 2 to A as 0 to 12 and the suits s, h, c and d as 0 to 3.
+ * The legal actions flags have CAN_CHECK and CAN_RAISE, the call amount is
+ * only there if the bot can't check and the raise amounts only if it can
+ * raise. A move is one of the move codes, with an amount only for a raise.
+ * The bot replies to ACTION_MOVE with a frame holding only its move: the
+ * move code and, for a raise, the amount.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public final class BinaryProtocol {
+
+    public static final byte TEXT = 0;
+    public static final byte ROUND = 1;
+    public static final byte SMALL_BLIND = 2;
+    public static final byte BIG_BLIND = 3;
+    public static final byte ON_BUTTON = 4;
+    public static final byte BET_ROUND = 5;
+    public static final byte TABLE = 6;
+    public static final byte CHIPS = 7;
+    public static final byte HAND = 8;
+    public static final byte BET = 9;
+    public static final byte POT = 10;
+    public static final byte AMOUNT_TO_CALL = 11;
+    public static final byte LEGAL_ACTIONS = 12;
+    public static final byte MOVE = 13;
+    public static final byte WINS = 14;
+    public static final byte ACTION_MOVE = 15;
+
+    public static final byte FOLD = 0;
+    public static final byte CHECK = 1;
+    public static final byte CALL = 2;
+    public static final byte RAISE = 3;
+
+    public static final int CAN_CHECK = 1;
+    public static final int CAN_RAISE = 1 << 1;
+
+    public static final int MAX_VAR_INT_SIZE = 5;
+
+    private BinaryProtocol() {}
+
+    /**
+     * @param moveCode FOLD, CHECK, CALL or RAISE
+     * @param amount Raise amount, ignored for the other moves
+     * @return The reply frame for ACTION_MOVE
+     */
+    public static byte[] encodeMove(int moveCode, int amount) {
+        byte[] reply = new byte[1 + (moveCode == RAISE ? varIntSize(amount) : 0)];
+
+        reply[0] = (byte) moveCode;
+        if (moveCode == RAISE) {
+            writeVarInt(reply, 1, amount);
+        }
+
+        return reply;
+    }
+
+    /**
+     * @param value The value, negative values take 5 bytes
+     * @return Number of bytes of the value as varint
+     */
+    public static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+
+        return size;
+    }
+
+    /**
+     * @param bytes Array to write in, needs varIntSize(value) bytes at offset
+     * @param offset Position to write the value at
+     * @param value The value
+     * @return Position after the value
+     */
+    public static int writeVarInt(byte[] bytes, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[offset++] = (byte) value;
+
+        return offset;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.client;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * io.riddles.poker.client.MappedRingBuffer - Created on 19-10-26
+ *
+ * Ring buffer in a memory mapped file, with one process writing messages and
+ * one process reading them. Starts with the write position and the read
+ * position, each on a cache line of its own, followed by the data. A message
+ * is its length as an int followed by its bytes, padded to 4 bytes. Messages
+ * never wrap around the end of the buffer: if one doesn't fit before the end,
+ * a padding marker is written and the message starts at the beginning. The
+ * writer publishes a message by moving the write position after its bytes
+ * are written, the reader frees the space by moving the read position. Values
+ * are in the native byte order. The file is only read and written through the
+ * MappedByteBuffer, see fence() for how the positions are handed off and why
+ * that depends on HotSpot.
+ * Waiting sides spin for a short time, then yield and then park, so waiting
+ * for a bot that thinks for seconds doesn't keep a core busy.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+final class MappedRingBuffer {
+
+    static final int HEADER_SIZE = 128;
+
+    private static final int WRITE_POSITION = 0;
+    private static final int READ_POSITION = 64;
+    private static final int PADDING = -1;
+
+    // Spinning only helps when the other process runs on another core
+    private static final long SPIN_NANOS = Runtime.getRuntime().availableProcessors() > 1 ? 50000 : 0;
+    private static final long YIELD_NANOS = 1000000;
+    private static final long PARK_NANOS = 50000;
+
+    // Full barrier for the header values of the file, see fence()
+    private static final AtomicLong FILE_FENCE = new AtomicLong();
+
+    private final MappedByteBuffer file;  // keeps the file mapped
+    private final ByteBuffer ring;  // header and data of this ring
+    private final int capacity;
+    private final AtomicLong handoff;  // only used as a barrier, see fence()
+
+    private long position;  // own write or read position
+
+    /**
+     * @param file The mapped file
+     * @param offset Offset of the ring in the file
+     * @param capacity Size of the data, a power of 2
+     */
+    MappedRingBuffer(MappedByteBuffer file, int offset, int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new RuntimeException("Ring buffer capacity needs to be a power of 2");
+        }
+
+        ByteBuffer ring = file.duplicate();
+        ring.position(offset);
+        ring.limit(offset + HEADER_SIZE + capacity);
+
+        this.file = file;
+        this.ring = ring.slice().order(ByteOrder.nativeOrder());
+        this.capacity = capacity;
+        this.handoff = new AtomicLong();
+    }
+
+    /**
+     * Sets both positions to 0, only before the reader uses the ring
+     */
+    void reset() {
+        this.ring.putLong(WRITE_POSITION, 0);
+        this.ring.putLong(READ_POSITION, 0);
+        this.position = 0;
+        fence();
+    }
+
+    /**
+     * Continues writing or reading where the ring is now
+     * @param isWriter True for the writing side
+     */
+    void attach(boolean isWriter) {
+        this.position = readPosition(isWriter ? WRITE_POSITION : READ_POSITION);
+    }
+
+    /**
+     * Writes a message, waits while the ring is full
+     * @param bytes Bytes of the message
+     * @param length Length of the message
+     * @param timeoutNanos Time to wait for space at most
+     * @return False if there was no space in time
+     */
+    boolean write(byte[] bytes, int length, long timeoutNanos) {
+        int size = recordSize(length);
+
+        if (size > this.capacity / 2) {
+            throw new RuntimeException("Message of " + length + " bytes doesn't fit the ring buffer");
+        }
+
+        int index = (int) (this.position & (this.capacity - 1));
+        int padding = index + size > this.capacity ? this.capacity - index : 0;
+        long end = this.position + padding + size;
+
+        long start = System.nanoTime();
+        long waited = 0;
+        while (end - readPosition(READ_POSITION) > this.capacity) {
+            if (waited > timeoutNanos) return false;
+            waited = idle(start);
+        }
+
+        if (padding > 0) {
+            this.ring.putInt(HEADER_SIZE + index, PADDING);
+            index = 0;
+        }
+
+        this.ring.putInt(HEADER_SIZE + index, length);
+        this.ring.position(HEADER_SIZE + index + 4);
+        this.ring.put(bytes, 0, length);
+
+        this.position = end;
+        publishPosition(WRITE_POSITION, end);
+        return true;
+    }
+
+    /**
+     * Reads the next message, waits while the ring is empty
+     * @param timeoutNanos Time to wait for a message at most
+     * @param closed Stops waiting when this returns true and the ring is empty
+     * @return Bytes of the message, or null if there was none in time
+     */
+    byte[] read(long timeoutNanos, ClosedCheck closed) {
+        long start = System.nanoTime();
+        long waited = 0;
+
+        while (readPosition(WRITE_POSITION) == this.position) {
+            if (waited > timeoutNanos || closed.isClosed()) {
+                // The writer may have written a last message before closing
+                if (readPosition(WRITE_POSITION) == this.position) {
+                    return null;
+                }
+                break;
+            }
+            waited = idle(start);
+        }
+
+        int index = (int) (this.position & (this.capacity - 1));
+        int length = this.ring.getInt(HEADER_SIZE + index);
+
+        if (length == PADDING) {
+            this.position += this.capacity - index;
+            index = 0;
+            length = this.ring.getInt(HEADER_SIZE);
+        }
+
+        byte[] bytes = new byte[length];
+        this.ring.position(HEADER_SIZE + index + 4);
+        this.ring.get(bytes);
+
+        this.position += recordSize(length);
+        publishPosition(READ_POSITION, this.position);
+
+        return bytes;
+    }
+
+    /**
+     * Reads an int of the file header, written by the other process with putInt
+     * @param file The mapped file, in the native byte order
+     * @param offset Offset of the int in the file
+     * @return The int
+     */
+    static int getInt(MappedByteBuffer file, int offset) {
+        int value = file.getInt(offset);
+        FILE_FENCE.incrementAndGet();
+
+        return value;
+    }
+
+    /**
+     * Writes an int of the file header, after everything written before it
+     * @param file The mapped file, in the native byte order
+     * @param offset Offset of the int in the file
+     * @param value The int
+     */
+    static void putInt(MappedByteBuffer file, int offset, int value) {
+        FILE_FENCE.incrementAndGet();
+        file.putInt(offset, value);
+    }
+
+    // Reads the position of the other side, the data is only read or overwritten after it
+    private long readPosition(int offset) {
+        long position = this.ring.getLong(offset);
+        fence();
+
+        return position;
+    }
+
+    // Moves the own position, after the data before it is written or read
+    private void publishPosition(int offset, long position) {
+        fence();
+        this.ring.putLong(offset, position);
+    }
+
+    /**
+     * Orders the reads and writes of the mapped file in this process, so data
+     * written before the own position is moved is visible before the position,
+     * and the position of the other side is read again on each check while
+     * waiting. Each ring has its own counter, so writer threads of different
+     * bots don't share one.
+     *
+     * This relies on HotSpot, not on the Java memory model. The memory model
+     * only orders accesses against the same atomic variable seen by another
+     * thread, it says nothing about plain MappedByteBuffer accesses read by
+     * another process. On HotSpot incrementAndGet is a lock-prefixed
+     * instruction on x86 and a full barrier on ARM, and the JIT doesn't move
+     * memory accesses across it, which is what makes the handoff work. Java 8
+     * has no explicit fences outside sun.misc.Unsafe, which is why this
+     * counter is used instead. Another JVM may need a different fence.
+     */
+    private void fence() {
+        this.handoff.incrementAndGet();
+    }
+
+    private static int recordSize(int length) {
+        return (4 + length + 3) & ~3;
+    }
+
+    // Waits a bit, longer the longer it's been waiting, returns the time waited
+    private static long idle(long start) {
+        long waited = System.nanoTime() - start;
+
+        if (waited > YIELD_NANOS) {
+            LockSupport.parkNanos(PARK_NANOS);
+        } else if (waited > SPIN_NANOS) {
+            Thread.yield();
+        }
+
+        return waited;
+    }
+
+    interface ClosedCheck {
+        boolean isClosed();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.client;
+
+import java.io.File;
+import java.util.ArrayDeque;
+
+/**
+ * io.riddles.poker.client.SharedMemoryBotClient - Created on 19-10-26
+ *
+ * Reference client for bots that talk to the engine through shared memory
+ * instead of stdin and stdout. The lines are the same as over stdin and
+ * stdout: settings and updates, "action move <time>" when a move is asked,
+ * to which the bot replies with a line like "call" or "raise_100". Bots
+ * that use the BinaryProtocol read frames instead of lines after the
+ * protocol setting. This package has no dependencies, so bots can use the client jar on its own.
+ *
+ * <pre>
+ * try (SharedMemoryBotClient client = SharedMemoryBotClient.connect(new File(path), 60000)) {
+ *     String line;
+ *     while ((line = client.readLine()) != null) {
+ *         if (line.startsWith("action ")) client.writeLine("call");
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class SharedMemoryBotClient implements AutoCloseable {
+
+    private static final long WRITE_TIMEOUT = 10000;
+
+    private final SharedMemoryChannel channel;
+    private final ArrayDeque<String> lines;  // lines of the last message not read yet
+
+    private SharedMemoryBotClient(SharedMemoryChannel channel) {
+        this.channel = channel;
+        this.lines = new ArrayDeque<>();
+    }
+
+    /**
+     * @param file File the engine created for this bot
+     * @param timeoutMillis Time to wait for the engine to create it at most
+     * @return The client
+     */
+    public static SharedMemoryBotClient connect(File file, long timeoutMillis) {
+        return new SharedMemoryBotClient(SharedMemoryChannel.open(file, timeoutMillis));
+    }
+
+    /**
+     * Waits for the next line from the engine
+     * @return The line, or null when the engine has ended the match
+     */
+    public String readLine() {
+        while (this.lines.isEmpty()) {
+            String message = this.channel.read(Long.MAX_VALUE);
+            if (message == null) return null;
+
+            for (String line : message.split("\n")) {
+                this.lines.add(line);
+            }
+        }
+
+        return this.lines.poll();
+    }
+
+    /**
+     * Sends a line to the engine, like the reply to "action move"
+     * @param line The line
+     */
+    public void writeLine(String line) {
+        this.channel.write(line, WRITE_TIMEOUT);
+    }
+
+    /**
+     * Waits for the next frame of the BinaryProtocol, which the engine sends
+     * after the "settings protocol binary" line. Decode it with a BinaryDecoder.
+     * @return The frame, or null when the engine has ended the match
+     */
+    public byte[] readFrame() {
+        return this.channel.readBytes(Long.MAX_VALUE);
+    }
+
+    /**
+     * Sends a frame to the engine, like the reply to ACTION_MOVE
+     * @param frame The frame, like one created with BinaryProtocol.encodeMove
+     */
+    public void writeFrame(byte[] frame) {
+        this.channel.writeBytes(frame, frame.length, WRITE_TIMEOUT);
+    }
+
+    @Override
+    public void close() {
+        this.channel.close();
+    }
+}
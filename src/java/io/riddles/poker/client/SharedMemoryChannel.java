@@ -0,0 +1,203 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * io.riddles.poker.client.SharedMemoryChannel - Created on 19-10-26
+ *
+ * Connection between the engine and one bot through a memory mapped file,
+ * put in /dev/shm so it never touches the disk. The file has a small header
+ * and two MappedRingBuffers, one with the messages from the engine to the
+ * bot and one with the replies of the bot. The engine creates the file, the
+ * bot opens it. Each side marks the channel closed when it's done, so the
+ * other side stops waiting for messages.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class SharedMemoryChannel implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+
+    private static final int MAGIC = 0x504b5348;  // "PKSH"
+    private static final int VERSION = 1;
+
+    // Offsets in the file header
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int ENGINE_CLOSED_OFFSET = 12;
+    private static final int BOT_CLOSED_OFFSET = 16;
+    private static final int FILE_HEADER_SIZE = 64;
+
+    private final MappedByteBuffer file;
+    private final MappedRingBuffer output;
+    private final MappedRingBuffer input;
+    private final int closedOffset;  // own closed flag
+    private final int peerClosedOffset;
+
+    private SharedMemoryChannel(MappedByteBuffer file, int capacity, boolean isEngine) {
+        MappedRingBuffer toBot = new MappedRingBuffer(file, FILE_HEADER_SIZE, capacity);
+        MappedRingBuffer toEngine = new MappedRingBuffer(file,
+                FILE_HEADER_SIZE + MappedRingBuffer.HEADER_SIZE + capacity, capacity);
+
+        this.file = file;
+        this.output = isEngine ? toBot : toEngine;
+        this.input = isEngine ? toEngine : toBot;
+        this.closedOffset = isEngine ? ENGINE_CLOSED_OFFSET : BOT_CLOSED_OFFSET;
+        this.peerClosedOffset = isEngine ? BOT_CLOSED_OFFSET : ENGINE_CLOSED_OFFSET;
+    }
+
+    /**
+     * Creates the file for a new match, replacing an earlier one
+     * @param file The file, for example /dev/shm/poker-bot0.ring
+     * @param capacity Size of each ring buffer, a power of 2
+     * @return The engine side of the channel
+     */
+    public static SharedMemoryChannel create(File file, int capacity) {
+        if (file.exists() && !file.delete()) {
+            throw new RuntimeException("Can't replace " + file);
+        }
+
+        MappedByteBuffer buffer = map(file, FILE_HEADER_SIZE + 2 * (MappedRingBuffer.HEADER_SIZE + capacity));
+        SharedMemoryChannel channel = new SharedMemoryChannel(buffer, capacity, true);
+
+        channel.output.reset();
+        channel.input.reset();
+        MappedRingBuffer.putInt(buffer, VERSION_OFFSET, VERSION);
+        MappedRingBuffer.putInt(buffer, CAPACITY_OFFSET, capacity);
+        MappedRingBuffer.putInt(buffer, MAGIC_OFFSET, MAGIC);  // last, the bot waits for it
+
+        return channel;
+    }
+
+    /**
+     * Opens the file created by the engine, waits until it's there
+     * @param file The file
+     * @param timeoutMillis Time to wait for the file at most
+     * @return The bot side of the channel
+     */
+    public static SharedMemoryChannel open(File file, long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        while (true) {
+            if (file.length() >= FILE_HEADER_SIZE) {
+                MappedByteBuffer buffer = map(file, (int) file.length());
+
+                if (MappedRingBuffer.getInt(buffer, MAGIC_OFFSET) == MAGIC) {
+                    if (MappedRingBuffer.getInt(buffer, VERSION_OFFSET) != VERSION) {
+                        throw new RuntimeException(file + " has an unknown version");
+                    }
+
+                    int capacity = MappedRingBuffer.getInt(buffer, CAPACITY_OFFSET);
+                    SharedMemoryChannel channel = new SharedMemoryChannel(buffer, capacity, false);
+
+                    channel.output.attach(true);
+                    channel.input.attach(false);
+                    return channel;
+                }
+            }
+
+            if (System.currentTimeMillis() > deadline) {
+                throw new RuntimeException("Timed out waiting for " + file);
+            }
+
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for " + file, ex);
+            }
+        }
+    }
+
+    /**
+     * Writes a message to the other side, waits while its ring is full
+     * @param message The message, can contain newlines
+     * @param timeoutMillis Time to wait for space at most
+     */
+    public void write(String message, long timeoutMillis) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        writeBytes(bytes, bytes.length, timeoutMillis);
+    }
+
+    /**
+     * Writes a binary message to the other side, waits while its ring is full
+     * @param bytes Bytes of the message
+     * @param length Length of the message
+     * @param timeoutMillis Time to wait for space at most
+     */
+    public void writeBytes(byte[] bytes, int length, long timeoutMillis) {
+        if (!this.output.write(bytes, length, TimeUnit.MILLISECONDS.toNanos(timeoutMillis))) {
+            throw new RuntimeException("Timed out writing to the shared memory channel");
+        }
+    }
+
+    /**
+     * Reads the next message of the other side
+     * @param timeoutMillis Time to wait for it at most
+     * @return The message, or null on timeout or if the other side closed the channel
+     */
+    public String read(long timeoutMillis) {
+        byte[] bytes = readBytes(timeoutMillis);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Reads the next binary message of the other side
+     * @param timeoutMillis Time to wait for it at most
+     * @return Bytes of the message, or null on timeout or if the other side closed the channel
+     */
+    public byte[] readBytes(long timeoutMillis) {
+        return this.input.read(TimeUnit.MILLISECONDS.toNanos(timeoutMillis), this::isPeerClosed);
+    }
+
+    public boolean isPeerClosed() {
+        return MappedRingBuffer.getInt(this.file, this.peerClosedOffset) != 0;
+    }
+
+    /**
+     * Marks this side closed, the file stays until the engine replaces it
+     */
+    @Override
+    public void close() {
+        MappedRingBuffer.putInt(this.file, this.closedOffset, 1);
+    }
+
+    private static MappedByteBuffer map(File file, int size) {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            MappedByteBuffer buffer = randomAccessFile.getChannel()
+                    .map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.nativeOrder());
+
+            return buffer;
+        } catch (IOException ex) {
+            throw new RuntimeException("Can't map " + file, ex);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.engine;
+
+import io.riddles.javainterface.engine.GameLoopInterface;
+import io.riddles.javainterface.game.processor.AbstractProcessor;
+import io.riddles.javainterface.game.state.AbstractState;
+import io.riddles.poker.game.processor.HandWriter;
+import io.riddles.poker.game.processor.PokerProcessor;
+import io.riddles.poker.game.state.PokerState;
+
+/**
+ * io.riddles.poker.engine.PipelinedGameLoop - Created on 19-10-26
+ *
+ * Plays the hands one after the other like the SimpleGameLoop, but lets the
+ * processor write each finished hand on a HandWriter while the next hand is
+ * played. Waits for the last hand to be written before returning. Continues counting
+ * rounds from the given round number, like the ResumedGameLoop does.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PipelinedGameLoop implements GameLoopInterface {
+
+    private final int roundNumber;
+
+    /**
+     * @param roundNumber Round number of the hand before the first one, 0 for a new game
+     */
+    public PipelinedGameLoop(int roundNumber) {
+        this.roundNumber = roundNumber;
+    }
+
+    // The raw types in the signature are the ones GameLoopInterface declares
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public <S extends AbstractState> S run(S initialState, AbstractProcessor processor) {
+        PokerProcessor pokerProcessor = (PokerProcessor) processor;
+        HandWriter handWriter = new HandWriter();
+        int roundNumber = this.roundNumber;
+        PokerState state = (PokerState) initialState;
+
+        pokerProcessor.setHandWriter(handWriter);
+
+        try {
+            while (state != null && !pokerProcessor.hasGameEnded(state)) {
+                roundNumber++;
+                state = pokerProcessor.createNextState(state, roundNumber);
+            }
+        } finally {
+            pokerProcessor.setHandWriter(null);
+            handWriter.close();
+        }
+
+        return (S) state;
+    }
+}
@@ -19,6 +19,7 @@
 
 package io.riddles.poker.engine;
 
+import java.io.File;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.ArrayList;
@@ -32,13 +33,21 @@ import io.riddles.javainterface.engine.SimpleGameLoop;
 import io.riddles.javainterface.exception.TerminalException;
 import io.riddles.javainterface.game.player.PlayerProvider;
 import io.riddles.javainterface.io.IOInterface;
+import io.riddles.poker.client.SharedMemoryChannel;
+import io.riddles.poker.game.PokerCheckpoint;
+import io.riddles.poker.game.PokerContext;
 import io.riddles.poker.game.PokerSerializer;
-import io.riddles.poker.game.PokerType;
-import io.riddles.poker.game.RaiseLimitType;
+import io.riddles.poker.game.PokerStateStreamer;
+import io.riddles.poker.game.PokerSummary;
+import io.riddles.poker.game.ReplayableRandom;
+import io.riddles.poker.game.player.BinaryPokerPlayer;
 import io.riddles.poker.game.player.PokerPlayer;
+import io.riddles.poker.game.player.SharedMemoryPlayerIO;
 import io.riddles.poker.game.processor.PokerProcessor;
+import io.riddles.poker.game.state.OffHeapHistoryBuffer;
 import io.riddles.poker.game.state.PokerPlayerState;
 import io.riddles.poker.game.state.PokerState;
+import io.riddles.poker.game.state.PokerStateHistory;
 
 /**
  * io.riddles.poker.engine.GeneralsEngine - Created on 29-8-17
@@ -49,9 +58,8 @@ import io.riddles.poker.game.state.PokerState;
  */
 public class PokerEngine extends AbstractEngine<PokerProcessor, PokerPlayer, PokerState> {
 
-    public static PokerType POKER_TYPE;
-    public static RaiseLimitType RAISE_LIMIT_TYPE;
-    public static SecureRandom RANDOM;
+    private PokerCheckpoint checkpoint;  // null if not resuming from a checkpoint
+    private PokerStateHistory historyStore;  // null if states are linked in memory
 
     public PokerEngine(PlayerProvider<PokerPlayer> playerProvider, IOInterface ioHandler) throws TerminalException {
         super(playerProvider, ioHandler);
@@ -59,6 +67,13 @@ public class PokerEngine extends AbstractEngine<PokerProcessor, PokerPlayer, Pok
 
     @Override
     protected Configuration getDefaultConfiguration() {
+        return createDefaultConfiguration();
+    }
+
+    /**
+     * @return The default configuration, also used when running without the match wrapper
+     */
+    public static Configuration createDefaultConfiguration() {
         Configuration configuration = new Configuration();
 
         configuration.put("initialStack", 2000);
@@ -67,23 +82,111 @@ public class PokerEngine extends AbstractEngine<PokerProcessor, PokerPlayer, Pok
         configuration.put("raiseLimitType", "noLimit"); // no raise limit
         configuration.put("pokerType", "TexasHoldEm");
         configuration.put("seed", UUID.randomUUID().toString());
+        configuration.put("stateStreamFile", "");  // stream states per hand to this file if set
+        configuration.put("checkpointFile", "");  // write a checkpoint after each hand if set
+        configuration.put("resumeFromCheckpoint", false);  // continue from the checkpoint if it exists
+        configuration.put("historyStore", "heap");  // heap, direct or mapped
+        configuration.put("summaryOnly", false);  // output statistics instead of all states
+        configuration.put("summaryHands", 10);  // hands of which the states are kept in summary mode
+        configuration.put("sendLegalActions", false);  // send the legal actions with each move request
+        configuration.put("pipelinedHands", false);  // stream finished hands while the next one is played
+        configuration.put("asyncBotWriters", false);  // write to each bot on a thread of its own
+        configuration.put("deltaUpdateBots", "");  // ids of the bots that only get changed values, like "0,2"
+        configuration.put("botTransport", "pipe");  // pipe (through the match wrapper) or sharedMemory
+        configuration.put("sharedMemoryDir", "/dev/shm");  // directory of the shared memory files
+        configuration.put("sharedMemoryTimeout", 10000);  // time to wait for a bot's reply in ms
+        configuration.put("binaryProtocolBots", "");  // ids of the sharedMemory bots that get binary frames
 
         return configuration;
     }
 
     @Override
     protected PokerProcessor createProcessor() {
-        return new PokerProcessor(this.playerProvider);
+        PokerProcessor processor = new PokerProcessor(this.playerProvider);
+
+        String stateStreamFile = configuration.getString("stateStreamFile");
+        String checkpointFile = configuration.getString("checkpointFile");
+        boolean isStreaming = stateStreamFile != null && !stateStreamFile.isEmpty();
+        boolean isCheckpointing = checkpointFile != null && !checkpointFile.isEmpty();
+
+        if (isCheckpointing && configuration.getBoolean("resumeFromCheckpoint")
+                && new File(checkpointFile).exists()) {
+            this.checkpoint = PokerCheckpoint.read(checkpointFile);
+            LOGGER.info("RESUMING FROM CHECKPOINT AFTER ROUND " + this.checkpoint.getRoundNumber());
+        }
+
+        // States are written to the stream file, or to a file next to the checkpoint
+        String replayFile = isStreaming ? stateStreamFile : checkpointFile + ".states";
+        PokerStateStreamer replayStreamer = null;
+
+        if (this.checkpoint != null) {
+            replayStreamer = new PokerStateStreamer(replayFile,
+                    this.checkpoint.getReplayLength(), this.checkpoint.getReplayStateCount());
+        } else if (isStreaming || isCheckpointing) {
+            replayStreamer = new PokerStateStreamer(replayFile);
+        }
+
+        if (isStreaming) {
+            processor.setStateStreamer(replayStreamer);
+        } else if (configuration.getBoolean("summaryOnly")) {
+            processor.setSummary(new PokerSummary(this.playerProvider.getPlayers().size(),
+                    configuration.getInt("summaryHands")));
+        } else {
+            this.historyStore = createHistoryStore(configuration.getString("historyStore"));
+            processor.setHistoryStore(this.historyStore);
+        }
+
+
+        if (isCheckpointing) {
+            processor.setCheckpoint(checkpointFile, replayStreamer);
+
+            if (this.checkpoint != null && !isStreaming) {
+                processor.setResumedStates(replayStreamer.readStates());
+            }
+        }
+
+        return processor;
     }
 
     @Override
     protected GameLoopInterface createGameLoop() {
+        String stateStreamFile = configuration.getString("stateStreamFile");
+        boolean isStreaming = stateStreamFile != null && !stateStreamFile.isEmpty();
+
+        // Only streamed hands are written by the hand writer
+        if (configuration.getBoolean("pipelinedHands") && isStreaming) {
+            return new PipelinedGameLoop(this.checkpoint != null ? this.checkpoint.getRoundNumber() : 0);
+        }
+
+        if (this.checkpoint != null) {
+            return new ResumedGameLoop();
+        }
+
         return new SimpleGameLoop();
     }
 
     @Override
     protected PokerPlayer createPlayer(int id) {
-        return new PokerPlayer(id);
+        boolean isSharedMemory = configuration.getString("botTransport").equals("sharedMemory");
+        PokerPlayer player;
+
+        if (isSharedMemory && isListedBot("binaryProtocolBots", id)) {
+            player = new BinaryPokerPlayer(id, createSharedMemoryIO(id));
+        } else {
+            if (isListedBot("binaryProtocolBots", id)) {
+                LOGGER.warning("BOT " + id + " CAN ONLY USE THE BINARY PROTOCOL OVER SHARED MEMORY");
+            }
+
+            player = new PokerPlayer(id);
+            if (isSharedMemory) {
+                player.setTransport(createSharedMemoryIO(id));
+            }
+        }
+
+        player.setWritingAsync(configuration.getBoolean("asyncBotWriters"));
+        player.setSendingLegalActions(configuration.getBoolean("sendLegalActions"));
+
+        return player;
     }
 
     @Override
@@ -91,14 +194,30 @@ public class PokerEngine extends AbstractEngine<PokerProcessor, PokerPlayer, Pok
         player.sendSetting("initial_stack", configuration.getInt("initialStack"));
         player.sendSetting("initial_big_blind", configuration.getInt("initialBigBlind"));
         player.sendSetting("hands_per_blind_level", configuration.getInt("handsPerBlindLevel"));
+
+        if (player instanceof BinaryPokerPlayer) {
+            player.sendSetting("protocol", "binary");
+            ((BinaryPokerPlayer) player).startBinaryProtocol();
+        } else if (isListedBot("deltaUpdateBots", player.getId())) {
+            player.setSendingDeltaUpdates(true);
+            player.sendSetting("update_mode", "delta");
+        }
+
+        player.flushUpdates();
     }
 
     @Override
     protected PokerState getInitialState() {
-        setRandomSeed();
+        String seed = configuration.getString("seed");
+        LOGGER.info("RANDOM SEED IS: " + seed);
+
+        if (this.checkpoint != null) {
+            PokerContext context = PokerContext.fromConfiguration(
+                    configuration, this.checkpoint.createRandom());
+            return this.checkpoint.createState(getHistory(), context);
+        }
 
-        POKER_TYPE = PokerType.fromString(configuration.getString("pokerType"));
-        RAISE_LIMIT_TYPE = RaiseLimitType.fromString(configuration.getString("raiseLimitType"));
+        PokerContext context = PokerContext.fromConfiguration(configuration, createRandom(seed));
 
         int initialStack = configuration.getInt("initialStack");
 
@@ -106,7 +225,7 @@ public class PokerEngine extends AbstractEngine<PokerProcessor, PokerPlayer, Pok
                 .map(player -> new PokerPlayerState(player.getId(), initialStack))
                 .collect(Collectors.toCollection(ArrayList::new));
 
-        PokerState initialState = new PokerState(playerStates);
+        PokerState initialState = new PokerState(playerStates, getHistory(), context);
         initialState.getTable().resetTable();
 
         return initialState;
@@ -115,18 +234,95 @@ public class PokerEngine extends AbstractEngine<PokerProcessor, PokerPlayer, Pok
     @Override
     protected String getPlayedGame(PokerState initialState) {
         PokerSerializer serializer = new PokerSerializer();
-        return serializer.traverseToString(this.processor, initialState);
+
+        try {
+            return serializer.traverseToString(this.processor, initialState);
+        } finally {
+            this.processor.close();
+        }
+    }
+
+    /**
+     * Creates the history all states are recorded in, when they should not be
+     * kept on the heap
+     * @param type heap, direct or mapped
+     * @return The history, or null if states are linked in memory (heap)
+     */
+    private PokerStateHistory createHistoryStore(String type) {
+        int playerCount = this.playerProvider.getPlayers().size();
+
+        switch (type.toLowerCase()) {
+            case "heap":
+                return null;
+            case "direct":
+                return new PokerStateHistory(playerCount, OffHeapHistoryBuffer::direct);
+            case "mapped":
+                return new PokerStateHistory(playerCount, OffHeapHistoryBuffer::mapped);
+            default:
+                throw new RuntimeException(
+                        String.format("History store '%s' not recognized", type));
+        }
+    }
+
+    private PokerStateHistory getHistory() {
+        if (this.historyStore != null) {
+            return this.historyStore;
+        }
+
+        return new PokerStateHistory(this.playerProvider.getPlayers().size());
+    }
+
+    /**
+     * Creates the shared memory file for a bot, which the bot opens with the
+     * SharedMemoryBotClient. The engine side is closed when the engine stops,
+     * so the bot knows the match has ended.
+     * @param id Id of the bot
+     * @return IO handler of the player
+     */
+    private SharedMemoryPlayerIO createSharedMemoryIO(int id) {
+        File file = new File(configuration.getString("sharedMemoryDir"), "poker-bot" + id + ".ring");
+        SharedMemoryPlayerIO playerIO = new SharedMemoryPlayerIO(
+                SharedMemoryChannel.create(file, SharedMemoryChannel.DEFAULT_CAPACITY),
+                configuration.getInt("sharedMemoryTimeout"));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(playerIO::close));
+        LOGGER.info("BOT " + id + " CONNECTS THROUGH " + file);
+
+        return playerIO;
+    }
+
+    /**
+     * @param key Setting with a list of bot ids, like "0,2"
+     * @param id Id of the bot
+     * @return True if the bot is in the list
+     */
+    private boolean isListedBot(String key, int id) {
+        String botIds = configuration.getString(key);
+        if (botIds == null) return false;
+
+        for (String botId : botIds.split(",")) {
+            if (botId.trim().equals(String.valueOf(id))) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
-    private void setRandomSeed() {
+    /**
+     * @param seed Seed for the random generator
+     * @return The random generator used to shuffle the deck, the same for the same seed
+     */
+    public static SecureRandom createRandom(String seed) {
         try {
-            RANDOM = SecureRandom.getInstance("SHA1PRNG");
+            return new ReplayableRandom(seed.getBytes());
         } catch (NoSuchAlgorithmException ex) {
             LOGGER.severe("Not able to use SHA1PRNG, using default algorithm");
-            RANDOM = new SecureRandom();
+            SecureRandom random = new SecureRandom();
+            random.setSeed(seed.getBytes());
+
+            return random;
         }
-        String seed = configuration.getString("seed");
-        LOGGER.info("RANDOM SEED IS: " + seed);
-        RANDOM.setSeed(seed.getBytes());
     }
+
 }
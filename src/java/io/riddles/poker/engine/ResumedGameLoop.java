@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.engine;
+
+import io.riddles.javainterface.engine.GameLoopInterface;
+import io.riddles.javainterface.game.processor.AbstractProcessor;
+import io.riddles.javainterface.game.processor.SimpleProcessor;
+import io.riddles.javainterface.game.state.AbstractState;
+
+/**
+ * io.riddles.poker.engine.ResumedGameLoop - Created on 19-10-26
+ *
+ * Same as the SimpleGameLoop, but continues counting rounds from the
+ * round number of the initial state, which is the last state of the last
+ * hand played before the game was resumed from a checkpoint.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class ResumedGameLoop implements GameLoopInterface {
+
+    // The raw types in the signature are the ones GameLoopInterface declares
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public <S extends AbstractState> S run(S initialState, AbstractProcessor processor) {
+        SimpleProcessor<S, ?> simpleProcessor = (SimpleProcessor<S, ?>) processor;
+        int roundNumber = initialState.getRoundNumber();
+        S state = initialState;
+
+        while (state != null && !simpleProcessor.hasGameEnded(state)) {
+            roundNumber++;
+            state = simpleProcessor.createNextState(state, roundNumber);
+        }
+
+        return state;
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import io.riddles.poker.game.state.PlayerTable;
+import io.riddles.poker.game.state.PokerPlayerState;
+import io.riddles.poker.game.state.PokerState;
+import io.riddles.poker.game.state.PokerStateHistory;
+import io.riddles.poker.game.table.PokerTable;
+import io.riddles.poker.game.table.SidePots;
+
+/**
+ * io.riddles.poker.game.PokerCheckpoint - Created on 19-10-26
+ *
+ * Binary snapshot of the game at the end of a hand, from which the game can be
+ * resumed. Holds everything the next hand depends on: the stacks, bets, flags
+ * and hand strengths of the players, the pots that still have to be paid out,
+ * button and blind ids, blind height, round number and the seed of the random
+ * generator with the number of bytes drawn from it. Also holds the length of
+ * the replay (the file with the states written so far), so a resumed game can
+ * continue writing it.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PokerCheckpoint {
+
+    private static final int MAGIC = 0x504b4350;  // "PKCP"
+    private static final int VERSION = 1;
+
+    private int roundNumber;
+    private int[] chips;
+    private int[] bets;
+    private int[] flags;
+    private int[] handStrengths;
+    private int[] potChips;
+    private int[][] potParticipantIds;
+    private int buttonId;
+    private int smallBlindId;
+    private int bigBlindId;
+    private int blindHeight;
+    private byte[] randomSeed;
+    private long randomBytesDrawn;
+    private long replayLength;
+    private int replayStateCount;
+
+    private PokerCheckpoint() {}
+
+    /**
+     * Creates a checkpoint of the last state of a hand. The replay position has
+     * to be set with setReplayPosition before it's written, it's only known when
+     * the hand is written, which can be after the next hand has started.
+     * @param state Last state of a hand
+     * @param random Random generator used by the game, must be a ReplayableRandom
+     * @return The checkpoint
+     */
+    public static PokerCheckpoint create(PokerState state, SecureRandom random) {
+        PokerCheckpoint checkpoint = new PokerCheckpoint();
+        PlayerTable players = state.getPlayerTable();
+        PokerTable table = state.getTable();
+        int playerCount = players.getSeatCount();
+
+        checkpoint.roundNumber = state.getRoundNumber();
+        checkpoint.chips = new int[playerCount];
+        checkpoint.bets = new int[playerCount];
+        checkpoint.flags = new int[playerCount];
+        checkpoint.handStrengths = new int[playerCount];
+
+        for (int i = 0; i < playerCount; i++) {
+            checkpoint.chips[i] = players.getChips(i);
+            checkpoint.bets[i] = players.getBet(i);
+            checkpoint.flags[i] = players.getFlags(i);
+            checkpoint.handStrengths[i] = state.getPlayerStateById(i).getHandStrength();
+        }
+
+        SidePots pots = table.getPots();
+        checkpoint.potChips = new int[pots.getPotCount()];
+        checkpoint.potParticipantIds = new int[pots.getPotCount()][];
+
+        for (int i = 0; i < pots.getPotCount(); i++) {
+            long eligibleMask = pots.getEligibleMask(i);
+
+            checkpoint.potChips[i] = pots.getChips(i);
+            checkpoint.potParticipantIds[i] = new int[Long.bitCount(eligibleMask)];
+
+            int j = 0;
+            for (long m = eligibleMask; m != 0; m &= m - 1) {
+                checkpoint.potParticipantIds[i][j++] = Long.numberOfTrailingZeros(m);
+            }
+        }
+
+        checkpoint.buttonId = table.getButtonId();
+        checkpoint.smallBlindId = table.getSmallBlindId();
+        checkpoint.bigBlindId = table.getBigBlindId();
+        checkpoint.blindHeight = table.getBigBlind();
+        if (!(random instanceof ReplayableRandom)) {
+            throw new RuntimeException("Can't store a random generator of type "
+                    + random.getClass().getName() + " in a checkpoint");
+        }
+
+        checkpoint.randomSeed = ((ReplayableRandom) random).getInitialSeed();
+        checkpoint.randomBytesDrawn = ((ReplayableRandom) random).getBytesDrawn();
+
+        return checkpoint;
+    }
+
+    /**
+     * @param replayLength Length of the replay file in bytes, including the states of this hand
+     * @param replayStateCount Number of states in the replay file
+     */
+    public void setReplayPosition(long replayLength, int replayStateCount) {
+        this.replayLength = replayLength;
+        this.replayStateCount = replayStateCount;
+    }
+
+    /**
+     * Reads a checkpoint from given file
+     * @param fileName File to read
+     * @return The checkpoint
+     */
+    public static PokerCheckpoint read(String fileName) {
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(fileName)))) {
+
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new RuntimeException(fileName + " is not a valid checkpoint");
+            }
+
+            PokerCheckpoint checkpoint = new PokerCheckpoint();
+
+            checkpoint.roundNumber = input.readInt();
+
+            int playerCount = input.readInt();
+            checkpoint.chips = new int[playerCount];
+            checkpoint.bets = new int[playerCount];
+            checkpoint.flags = new int[playerCount];
+            checkpoint.handStrengths = new int[playerCount];
+
+            for (int i = 0; i < playerCount; i++) {
+                checkpoint.chips[i] = input.readInt();
+                checkpoint.bets[i] = input.readInt();
+                checkpoint.flags[i] = input.readInt();
+                checkpoint.handStrengths[i] = input.readInt();
+            }
+
+            int potCount = input.readInt();
+            checkpoint.potChips = new int[potCount];
+            checkpoint.potParticipantIds = new int[potCount][];
+
+            for (int i = 0; i < potCount; i++) {
+                checkpoint.potChips[i] = input.readInt();
+                checkpoint.potParticipantIds[i] = new int[input.readInt()];
+
+                for (int j = 0; j < checkpoint.potParticipantIds[i].length; j++) {
+                    checkpoint.potParticipantIds[i][j] = input.readInt();
+                }
+            }
+
+            checkpoint.buttonId = input.readInt();
+            checkpoint.smallBlindId = input.readInt();
+            checkpoint.bigBlindId = input.readInt();
+            checkpoint.blindHeight = input.readInt();
+
+            checkpoint.randomSeed = new byte[input.readInt()];
+            input.readFully(checkpoint.randomSeed);
+            checkpoint.randomBytesDrawn = input.readLong();
+
+            checkpoint.replayLength = input.readLong();
+            checkpoint.replayStateCount = input.readInt();
+
+            return checkpoint;
+        } catch (IOException ex) {
+            throw new RuntimeException("Can't read checkpoint " + fileName, ex);
+        }
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file first and then moves it to
+     * given file, so there is always a complete checkpoint if the engine stops
+     * @param fileName File to write
+     */
+    public void write(String fileName) {
+        File tempFile = new File(fileName + ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(this.roundNumber);
+
+            output.writeInt(this.chips.length);
+            for (int i = 0; i < this.chips.length; i++) {
+                output.writeInt(this.chips[i]);
+                output.writeInt(this.bets[i]);
+                output.writeInt(this.flags[i]);
+                output.writeInt(this.handStrengths[i]);
+            }
+
+            output.writeInt(this.potChips.length);
+            for (int i = 0; i < this.potChips.length; i++) {
+                output.writeInt(this.potChips[i]);
+                output.writeInt(this.potParticipantIds[i].length);
+
+                for (int id : this.potParticipantIds[i]) {
+                    output.writeInt(id);
+                }
+            }
+
+            output.writeInt(this.buttonId);
+            output.writeInt(this.smallBlindId);
+            output.writeInt(this.bigBlindId);
+            output.writeInt(this.blindHeight);
+
+            output.writeInt(this.randomSeed.length);
+            output.write(this.randomSeed);
+            output.writeLong(this.randomBytesDrawn);
+
+            output.writeLong(this.replayLength);
+            output.writeInt(this.replayStateCount);
+        } catch (IOException ex) {
+            throw new RuntimeException("Can't write checkpoint " + fileName, ex);
+        }
+
+        try {
+            Files.move(tempFile.toPath(), new File(fileName).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new RuntimeException("Can't write checkpoint " + fileName, ex);
+        }
+    }
+
+    /**
+     * Creates the last state of the hand again, which can be used as the
+     * initial state of the resumed game. The next state created from it
+     * pays out the pots and starts the next hand, like the original state did.
+     * @param history History the states of the resumed game are recorded in
+     * @param context Context of the resumed game, with the random generator of this checkpoint
+     * @return The last state of the hand
+     */
+    public PokerState createState(PokerStateHistory history, PokerContext context) {
+        ArrayList<PokerPlayerState> playerStates = new ArrayList<>();
+
+        for (int i = 0; i < this.chips.length; i++) {
+            playerStates.add(new PokerPlayerState(i, this.chips[i], this.bets[i],
+                    new ArrayList<>(), null, null, this.handStrengths[i],
+                    (this.flags[i] & PlayerTable.FOLDED) != 0,
+                    (this.flags[i] & PlayerTable.ALL_IN) != 0,
+                    (this.flags[i] & PlayerTable.ACTED) != 0,
+                    (this.flags[i] & PlayerTable.FAILED_INPUT) != 0));
+        }
+
+        return new PokerState(playerStates, this.roundNumber, restorePots(),
+                this.buttonId, this.smallBlindId, this.bigBlindId, this.blindHeight, history, context);
+    }
+
+    /**
+     * @return The random generator, in the same state as when the checkpoint was created
+     */
+    public SecureRandom createRandom() {
+        try {
+            return ReplayableRandom.resume(this.randomSeed, this.randomBytesDrawn);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException("Can't restore the random generator", ex);
+        }
+    }
+
+    public int getRoundNumber() {
+        return this.roundNumber;
+    }
+
+    public long getReplayLength() {
+        return this.replayLength;
+    }
+
+    public int getReplayStateCount() {
+        return this.replayStateCount;
+    }
+
+    private SidePots restorePots() {
+        long[] eligibleMasks = new long[this.potChips.length];
+
+        for (int i = 0; i < this.potChips.length; i++) {
+            for (int id : this.potParticipantIds[i]) {
+                eligibleMasks[i] |= 1L << id;
+            }
+        }
+
+        return new SidePots(this.potChips, eligibleMasks);
+    }
+}
+
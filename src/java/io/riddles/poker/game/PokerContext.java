@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game;
+
+import java.security.SecureRandom;
+
+import io.riddles.javainterface.configuration.Configuration;
+
+/**
+ * io.riddles.poker.game.PokerContext - Created on 19-10-26
+ *
+ * Everything a match needs besides its states: the poker type, raise limit
+ * type, blind settings and the random generator the decks are shuffled with.
+ * Each match has its own context, which is passed to the initial state and
+ * from there to every next state and its table, so matches in the same JVM
+ * don't share anything. The random generator is the only part that changes
+ * during a match.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PokerContext {
+
+    private final PokerType pokerType;
+    private final RaiseLimitType raiseLimitType;
+    private final int initialBigBlind;
+    private final int handsPerBlindLevel;
+    private final SecureRandom random;
+
+    public PokerContext(PokerType pokerType, RaiseLimitType raiseLimitType, int initialBigBlind,
+                        int handsPerBlindLevel, SecureRandom random) {
+        this.pokerType = pokerType;
+        this.raiseLimitType = raiseLimitType;
+        this.initialBigBlind = initialBigBlind;
+        this.handsPerBlindLevel = handsPerBlindLevel;
+        this.random = random;
+    }
+
+    /**
+     * @param configuration Engine configuration, only read here
+     * @param random Random generator for this match
+     * @return The context for a match with given configuration
+     */
+    public static PokerContext fromConfiguration(Configuration configuration, SecureRandom random) {
+        return new PokerContext(
+                PokerType.fromString(configuration.getString("pokerType")),
+                RaiseLimitType.fromString(configuration.getString("raiseLimitType")),
+                configuration.getInt("initialBigBlind"),
+                configuration.getInt("handsPerBlindLevel"),
+                random);
+    }
+
+    public PokerType getPokerType() {
+        return this.pokerType;
+    }
+
+    public RaiseLimitType getRaiseLimitType() {
+        return this.raiseLimitType;
+    }
+
+    public int getInitialBigBlind() {
+        return this.initialBigBlind;
+    }
+
+    public int getHandsPerBlindLevel() {
+        return this.handsPerBlindLevel;
+    }
+
+    public SecureRandom getRandom() {
+        return this.random;
+    }
+}
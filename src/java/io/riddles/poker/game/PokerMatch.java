@@ -0,0 +1,202 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import io.riddles.javainterface.configuration.Configuration;
+import io.riddles.javainterface.engine.GameLoopInterface;
+import io.riddles.javainterface.game.player.PlayerProvider;
+import io.riddles.javainterface.io.IOInterface;
+import io.riddles.poker.engine.PokerEngine;
+import io.riddles.poker.game.player.PokerBot;
+import io.riddles.poker.game.player.PokerBotPlayer;
+import io.riddles.poker.game.player.PokerPlayer;
+import io.riddles.poker.game.processor.PokerProcessor;
+import io.riddles.poker.game.state.PokerPlayerState;
+import io.riddles.poker.game.state.PokerState;
+import io.riddles.poker.game.state.PokerStateHistory;
+
+/**
+ * io.riddles.poker.game.PokerMatch - Created on 19-10-26
+ *
+ * A match between given players that is played without the engine and the
+ * match wrapper, for self-play, benchmarks and tests. Creates the processor
+ * and the initial state like the engine does. The processor can be set up
+ * before the first round is played, and the match can be played round by
+ * round or with a game loop.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PokerMatch {
+
+    private final PlayerProvider<PokerPlayer> playerProvider;
+    private final PokerProcessor processor;
+    private PokerState state;
+    private int roundNumber;
+
+    /**
+     * @param players Players of the match, in order of their id
+     * @param context Settings and random generator of the match
+     * @param initialStack Chips each player starts with
+     * @param history History the states are recorded in
+     */
+    public PokerMatch(List<? extends PokerPlayer> players, PokerContext context, int initialStack,
+                      PokerStateHistory history) {
+        this.playerProvider = new PlayerProvider<>();
+        ArrayList<PokerPlayerState> playerStates = new ArrayList<>();
+        for (PokerPlayer player : players) {
+            this.playerProvider.add(player);
+            playerStates.add(new PokerPlayerState(player.getId(), initialStack));
+        }
+
+        this.processor = new PokerProcessor(this.playerProvider);
+
+        this.state = new PokerState(playerStates, history, context);
+        this.state.getTable().resetTable();
+    }
+
+    public PokerMatch(List<? extends PokerPlayer> players, PokerContext context, int initialStack) {
+        this(players, context, initialStack, new PokerStateHistory(players.size()));
+    }
+
+    /**
+     * Creates the match with the settings of given configuration
+     * @param players Players of the match, in order of their id
+     * @param configuration Configuration with the settings of the match
+     * @param seed Seed of the random generator of the match
+     */
+    public PokerMatch(List<? extends PokerPlayer> players, Configuration configuration, String seed) {
+        this(players, PokerContext.fromConfiguration(configuration, PokerEngine.createRandom(seed)),
+                configuration.getInt("initialStack"));
+    }
+
+    /**
+     * Creates a player for each seat that plays with an in-process bot
+     * @param seats Number of players
+     * @param bots Creates the bot of each player id
+     * @return The players, in order of their id
+     */
+    public static ArrayList<PokerPlayer> createBotPlayers(int seats, IntFunction<PokerBot> bots) {
+        ArrayList<PokerPlayer> players = new ArrayList<>();
+        for (int id = 0; id < seats; id++) {
+            players.add(new PokerBotPlayer(id, bots.apply(id)));
+        }
+
+        return players;
+    }
+
+    /**
+     * Creates a player for each seat that talks to its bot through an IO
+     * handler. Each player is set up before it gets its IO handler, which
+     * settings like async writing and buffering require.
+     * @param seats Number of players
+     * @param setup Sets up each player, before the IO handler is set
+     * @param ioHandlers Creates the IO handler of each player id
+     * @return The players, in order of their id
+     */
+    public static ArrayList<PokerPlayer> createPlayers(int seats, Consumer<PokerPlayer> setup,
+                                                       IntFunction<IOInterface> ioHandlers) {
+        ArrayList<PokerPlayer> players = new ArrayList<>();
+        for (int id = 0; id < seats; id++) {
+            PokerPlayer player = new PokerPlayer(id);
+            player.setName("player" + id);
+            setup.accept(player);
+            player.setIoHandler(ioHandlers.apply(id));
+            players.add(player);
+        }
+
+        return players;
+    }
+
+    public PokerProcessor getProcessor() {
+        return this.processor;
+    }
+
+    public PlayerProvider<PokerPlayer> getPlayerProvider() {
+        return this.playerProvider;
+    }
+
+    public PokerState getState() {
+        return this.state;
+    }
+
+    public boolean hasEnded() {
+        return this.processor.hasGameEnded(this.state);
+    }
+
+    /**
+     * Plays the next round, which is one hand
+     * @return The last state of the round
+     */
+    public PokerState playRound() {
+        this.roundNumber++;
+        this.state = this.processor.createNextState(this.state, this.roundNumber);
+
+        return this.state;
+    }
+
+    /**
+     * Plays rounds until the match has ended or the given round is played
+     * @param maxRounds Last round to play
+     * @return The last state that was played
+     */
+    public PokerState play(int maxRounds) {
+        while (!hasEnded() && this.roundNumber < maxRounds) {
+            playRound();
+        }
+
+        return this.state;
+    }
+
+    /**
+     * Plays the match with given game loop, like the engine does
+     * @param gameLoop Game loop to play the match with
+     * @return The last state that was played
+     */
+    public PokerState play(GameLoopInterface gameLoop) {
+        this.state = gameLoop.run(this.state, this.processor);
+        this.roundNumber = this.state.getRoundNumber();
+
+        return this.state;
+    }
+
+    /**
+     * @return Id of the winner, or null if the match has not ended
+     */
+    public Integer getWinnerId() {
+        return this.processor.getWinnerId(this.state);
+    }
+
+    /**
+     * Writes all updates that are still buffered to the bots, stops their
+     * writer threads and releases the processor
+     */
+    public void close() {
+        for (PokerPlayer player : this.playerProvider.getPlayers()) {
+            player.close();
+        }
+
+        this.processor.close();
+    }
+}
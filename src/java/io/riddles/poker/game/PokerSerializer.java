@@ -21,10 +21,12 @@ package io.riddles.poker.game;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONString;
 
 import io.riddles.javainterface.game.AbstractGameSerializer;
 import io.riddles.poker.game.processor.PokerProcessor;
 import io.riddles.poker.game.state.PokerState;
+import io.riddles.poker.game.state.PokerStateHistory;
 import io.riddles.poker.game.state.PokerStateSerializer;
 
 /**
@@ -43,13 +45,58 @@ public class PokerSerializer extends AbstractGameSerializer<PokerProcessor, Poke
 
         game = addDefaultJSON(initialState, game, processor);
 
+        // States are already written hand by hand when streaming
+        if (processor.getStateStreamer() != null) {
+            game.put("statesFile", processor.getStateStreamer().getFileName());
+            return game.toString();
+        }
+
+        // Only the statistics and the states of the last hands are kept in summary mode
+        PokerSummary summary = processor.getSummary();
+        if (summary != null) {
+            JSONObject summaryObj = summary.toJson();
+            PokerState lastState = summary.getLastState();
+
+            if (lastState != null) {
+                Integer winnerId = processor.getWinnerId(lastState);
+                if (winnerId != null) {
+                    summaryObj.put("winner", winnerId.intValue());
+                }
+                summaryObj.put("score", processor.getScore(lastState));
+            }
+
+            game.put("summary", summaryObj);
+            game.put("states", summary.keptStatesToJson());
+
+            return game.toString();
+        }
+
         JSONArray states = new JSONArray();
 //        states.put(stateSerializer.traverseToJson(initialState));
 
+        // States played before the game was resumed are already serialized
+        for (String resumedState : processor.getResumedStates()) {
+            states.put((JSONString) () -> resumedState);
+        }
+
+        // Hands are not linked with a history store, read them from the store instead.
+        // The first state in the store is the initial state.
+        PokerStateHistory historyStore = processor.getHistoryStore();
+        if (historyStore != null) {
+            for (int i = 1; i < historyStore.size(); i++) {
+                states.put(stateSerializer.traverseToJson(historyStore.getState(i)));
+            }
+
+            game.put("states", states);
+
+            return game.toString();
+        }
+
         PokerState state = initialState;
         while (state.hasNextState()) {
             state = (PokerState) state.getNextState();
             states.put(stateSerializer.traverseToJson(state));
+            state.compact();  // rebuilt from the history, no need to keep it whole
         }
 
         game.put("states", states);
@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.riddles.poker.game.state.PokerState;
+import io.riddles.poker.game.state.PokerStateSerializer;
+
+/**
+ * io.riddles.poker.game.PokerStateStreamer - Created on 19-10-26
+ *
+ * Writes the states of each hand to the output as soon as the hand is finished,
+ * one JSON state per line, in the same format as the states in the played game.
+ * The processor doesn't link the states of different hands when streaming,
+ * so a finished hand can be garbage collected right after it's written.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PokerStateStreamer {
+
+    private final String fileName;
+    private final FileOutputStream output;
+    private final Writer writer;
+    private final PokerStateSerializer stateSerializer;
+    private int stateCount;
+
+    public PokerStateStreamer(String fileName) {
+        this(fileName, 0, 0);
+    }
+
+    /**
+     * Continues writing an existing file, after the given number of bytes.
+     * Anything after that is written by a game that didn't finish, and is removed.
+     * @param fileName File to continue
+     * @param length Length of the file to keep
+     * @param stateCount Number of states in the part of the file that is kept
+     */
+    public PokerStateStreamer(String fileName, long length, int stateCount) {
+        this.fileName = fileName;
+        this.stateSerializer = new PokerStateSerializer();
+        this.stateCount = stateCount;
+
+        try {
+            if (length > 0) {
+                try (RandomAccessFile file = new RandomAccessFile(fileName, "rw")) {
+                    file.setLength(length);
+                }
+            }
+
+            this.output = new FileOutputStream(fileName, length > 0);
+            this.writer = new BufferedWriter(
+                    new OutputStreamWriter(this.output, StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new RuntimeException("Can't open state stream file " + fileName, ex);
+        }
+    }
+
+    /**
+     * Writes all states from the first state of a hand up to and including
+     * the last state of the hand
+     * @param firstState First state of the hand
+     * @param lastState Last state of the hand
+     */
+    public void writeHand(PokerState firstState, PokerState lastState) {
+        writeHand(firstState, lastState, lastState);
+    }
+
+    /**
+     * Writes the states of a hand like writeHand, with a copy written in
+     * place of the last state, which isn't read at all
+     * @param firstState First state of the hand
+     * @param lastState Last state of the hand
+     * @param lastStateCopy Copy of the last state, from createSnapshot
+     */
+    public void writeHand(PokerState firstState, PokerState lastState, PokerState lastStateCopy) {
+        PokerState state = firstState;
+
+        try {
+            while (true) {
+                boolean isLastState = state == lastState;
+
+                this.writer.write(this.stateSerializer.traverseToString(isLastState ? lastStateCopy : state));
+                this.writer.write('\n');
+                this.stateCount++;
+
+                if (isLastState || !state.hasNextState()) break;
+
+                state = (PokerState) state.getNextState();
+            }
+
+            this.writer.flush();
+        } catch (IOException ex) {
+            throw new RuntimeException("Can't write to state stream file " + this.fileName, ex);
+        }
+    }
+
+    public void close() {
+        try {
+            this.writer.close();
+        } catch (IOException ex) {
+            throw new RuntimeException("Can't close state stream file " + this.fileName, ex);
+        }
+    }
+
+    /**
+     * Reads the states that are written to the file so far, one JSON state per string
+     * @return The states in the file
+     */
+    public List<String> readStates() {
+        try {
+            this.writer.flush();
+        } catch (IOException ex) {
+            throw new RuntimeException("Can't write to state stream file " + this.fileName, ex);
+        }
+
+        try (Stream<String> lines = Files.lines(Paths.get(this.fileName), StandardCharsets.UTF_8)) {
+            return lines.limit(this.stateCount).collect(Collectors.toList());
+        } catch (IOException ex) {
+            throw new RuntimeException("Can't read state stream file " + this.fileName, ex);
+        }
+    }
+
+    /**
+     * @return Number of bytes written to the file, after the last written hand
+     */
+    public long getLength() {
+        try {
+            return this.output.getChannel().size();
+        } catch (IOException ex) {
+            throw new RuntimeException("Can't read state stream file " + this.fileName, ex);
+        }
+    }
+
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    public int getStateCount() {
+        return this.stateCount;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game;
+
+import java.util.ArrayDeque;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import io.riddles.poker.game.state.PokerPlayerState;
+import io.riddles.poker.game.state.PokerState;
+import io.riddles.poker.game.state.PokerStateSerializer;
+import io.riddles.poker.game.table.BetRound;
+
+/**
+ * io.riddles.poker.game.PokerSummary - Created on 19-10-26
+ *
+ * Running statistics of a match, for when only the result matters and not the
+ * full replay. Keeps the states of the last few hands, every hand before that
+ * is only counted in the statistics: hands won, showdowns, chips won per bet
+ * round the hand ended in and invalid moves, per player. A hand is won by the
+ * players that win chips from other players in the payout. Chips won are the
+ * chips a player has after the payout minus the chips at the start of the
+ * hand, so their own bets are not counted. Memory use doesn't depend on the
+ * number of hands played.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PokerSummary {
+
+    private static final BetRound[] BET_ROUNDS = BetRound.values();
+
+    private final int keptHandCount;
+    private final ArrayDeque<PokerState[]> keptHands;  // first and last state of each hand
+    private PokerState lastState;
+
+    private int handCount;
+    private final int[] handsWon;
+    private final int[] showdowns;
+    private final int[] invalidMoves;
+    private final long[][] chipsWon;  // per player, per bet round
+    private final int[] handStartChips;
+    private boolean isHandStarted;  // false until the start of a hand is seen
+
+    /**
+     * @param playerCount Number of players in the match
+     * @param keptHandCount Number of hands of which the states are kept
+     */
+    public PokerSummary(int playerCount, int keptHandCount) {
+        this.keptHandCount = keptHandCount;
+        this.keptHands = new ArrayDeque<>(keptHandCount + 1);
+        this.handsWon = new int[playerCount];
+        this.showdowns = new int[playerCount];
+        this.invalidMoves = new int[playerCount];
+        this.chipsWon = new long[playerCount][BET_ROUNDS.length];
+        this.handStartChips = new int[playerCount];
+    }
+
+    /**
+     * Adds a finished hand. Its states are kept until there are more than
+     * keptHandCount newer hands. The hand must not be linked to the hands
+     * before it, or those will not be released.
+     * @param firstState First state of the hand
+     * @param lastState Last state of the hand
+     */
+    public void addHand(PokerState firstState, PokerState lastState) {
+        this.handCount++;
+        this.lastState = lastState;
+
+        if (this.keptHandCount <= 0) return;
+
+        if (this.keptHands.size() >= this.keptHandCount) {
+            this.keptHands.removeFirst();
+        }
+        this.keptHands.addLast(new PokerState[]{firstState, lastState});
+    }
+
+    /**
+     * Counts the hands won and the chips won in the payout of a hand. The
+     * winners are the players that won chips from other players, the chips won
+     * are net of the player's own bets in the hand. A hand of which the start
+     * wasn't seen, like the hand before resuming from a checkpoint, is skipped.
+     * @param handEndState Last state of the hand, before the payout
+     * @param payoutState State in which the pot is paid out
+     */
+    public void addPayout(PokerState handEndState, PokerState payoutState) {
+        BetRound betRound = handEndState.getBetRound();
+
+        if (betRound != null && this.isHandStarted) {
+            long winnerMask = payoutState.getTable().getPotWinnerMask();
+
+            for (PokerPlayerState playerState : payoutState.getPlayerStates()) {
+                int id = playerState.getPlayerId();
+                int won = playerState.getChips() - this.handStartChips[id];
+
+                if ((winnerMask & (1L << id)) != 0) {
+                    this.handsWon[id]++;
+                }
+                if (won > 0) {
+                    this.chipsWon[id][betRound.ordinal()] += won;
+                }
+            }
+        }
+
+        // The chips after the payout are the chips at the start of the next hand
+        for (PokerPlayerState playerState : payoutState.getPlayerStates()) {
+            this.handStartChips[playerState.getPlayerId()] = playerState.getChips();
+        }
+        this.isHandStarted = true;
+    }
+
+    /**
+     * @param showdownMask Bitmask of the players that show their hand
+     */
+    public void addShowdown(long showdownMask) {
+        for (long m = showdownMask; m != 0; m &= m - 1) {
+            this.showdowns[Long.numberOfTrailingZeros(m)]++;
+        }
+    }
+
+    public void addInvalidMove(int playerId) {
+        this.invalidMoves[playerId]++;
+    }
+
+    /**
+     * @return Last state of the last added hand, or null if there is none
+     */
+    public PokerState getLastState() {
+        return this.lastState;
+    }
+
+    public int getHandCount() {
+        return this.handCount;
+    }
+
+    public JSONObject toJson() {
+        JSONObject summary = new JSONObject();
+        JSONArray players = new JSONArray();
+
+        for (int id = 0; id < this.handsWon.length; id++) {
+            JSONObject player = new JSONObject();
+            JSONObject chipsWon = new JSONObject();
+
+            for (BetRound betRound : BET_ROUNDS) {
+                if (betRound == BetRound.START) continue;
+                chipsWon.put(betRound.toString(), this.chipsWon[id][betRound.ordinal()]);
+            }
+
+            player.put("id", id);
+            player.put("handsWon", this.handsWon[id]);
+            player.put("showdowns", this.showdowns[id]);
+            player.put("invalidMoves", this.invalidMoves[id]);
+            player.put("chipsWon", chipsWon);
+
+            players.put(player);
+        }
+
+        summary.put("hands", this.handCount);
+        summary.put("players", players);
+
+        return summary;
+    }
+
+    /**
+     * @return The states of the kept hands, oldest first
+     */
+    public JSONArray keptStatesToJson() {
+        PokerStateSerializer stateSerializer = new PokerStateSerializer();
+        JSONArray states = new JSONArray();
+
+        for (PokerState[] hand : this.keptHands) {
+            PokerState state = hand[0];
+
+            while (true) {
+                states.put(stateSerializer.traverseToJson(state));
+
+                if (state == hand[1] || !state.hasNextState()) break;
+
+                state = (PokerState) state.getNextState();
+            }
+        }
+
+        return states;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * io.riddles.poker.game.ReplayableRandom - Created on 19-10-26
+ *
+ * Seeded SHA1PRNG generator that counts the bytes drawn from it. SHA1PRNG
+ * always gives the same bytes for the same seed, however they are drawn, so
+ * the seed and the count are enough to bring a new generator to the same
+ * point. That is all a checkpoint stores of the random generator.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class ReplayableRandom extends SecureRandom {
+
+    private static final long serialVersionUID = 1L;
+    private static final int SKIP_SIZE = 4096;
+
+    private final SecureRandom generator;
+    private final byte[] seed;
+    private long bytesDrawn;
+
+    /**
+     * @param seed Seed for the generator
+     * @throws NoSuchAlgorithmException If SHA1PRNG is not available
+     */
+    public ReplayableRandom(byte[] seed) throws NoSuchAlgorithmException {
+        this.generator = SecureRandom.getInstance("SHA1PRNG");
+        this.generator.setSeed(seed);
+        this.seed = seed.clone();
+    }
+
+    /**
+     * Creates a generator with given seed and skips the bytes that were
+     * already drawn from the original one
+     * @param seed Seed of the original generator
+     * @param bytesDrawn Number of bytes drawn from the original generator
+     * @return Generator that continues where the original one was
+     * @throws NoSuchAlgorithmException If SHA1PRNG is not available
+     */
+    public static ReplayableRandom resume(byte[] seed, long bytesDrawn)
+            throws NoSuchAlgorithmException {
+        ReplayableRandom random = new ReplayableRandom(seed);
+        byte[] skipped = new byte[SKIP_SIZE];
+
+        while (random.bytesDrawn < bytesDrawn) {
+            int count = (int) Math.min(SKIP_SIZE, bytesDrawn - random.bytesDrawn);
+            random.nextBytes(count == SKIP_SIZE ? skipped : new byte[count]);
+        }
+
+        return random;
+    }
+
+    @Override
+    public synchronized void nextBytes(byte[] bytes) {
+        this.generator.nextBytes(bytes);
+        this.bytesDrawn += bytes.length;
+    }
+
+    /**
+     * Not supported, reseeding would make the generator impossible to resume
+     */
+    @Override
+    public void setSeed(byte[] seed) {
+        throw new UnsupportedOperationException("A replayable generator can't be reseeded");
+    }
+
+    public byte[] getInitialSeed() {
+        return this.seed.clone();
+    }
+
+    public synchronized long getBytesDrawn() {
+        return this.bytesDrawn;
+    }
+}
@@ -25,7 +25,8 @@ import io.riddles.javainterface.serialize.Deserializer;
 /**
  * io.riddles.poker.game.move.PokerMoveDeserializer - Created on 29-8-17
  *
- * [description]
+ * Creates the PokerMove for a bot's reply, with the PokerMoveParser. Invalid
+ * replies give a move with an InvalidInputException that explains why.
  *
  * @author Jim van Eeden - jim@riddles.io
  */
@@ -33,49 +34,40 @@ public class PokerMoveDeserializer implements Deserializer<PokerMove> {
 
     @Override
     public PokerMove traverse(String string) {
-        try {
-            return visitMove(string);
-        } catch (InvalidInputException ex) {
-            return new PokerMove(ex);
-        } catch (Exception ex) {
-            return new PokerMove(new InvalidInputException("Failed to parse action."));
-        }
-    }
+        long result = PokerMoveParser.parse(string);
 
-    private PokerMove visitMove(String input) throws InvalidInputException {
-        String[] split = input.split("_");
+        if (PokerMoveParser.isValid(result)) {
+            MoveType moveType = PokerMoveParser.getMoveType(result);
 
-        MoveType moveType = visitMoveType(split[0]);
-
-        if (split.length < 2 && moveType != MoveType.RAISE) {
-            return new PokerMove(moveType);
+            return PokerMoveParser.hasAmount(result)
+                    ? new PokerMove(moveType, PokerMoveParser.getAmount(result))
+                    : new PokerMove(moveType);
         }
 
-        int amount = visitAmount(split[1]);
-        return new PokerMove(moveType, amount);
+        // Only invalid input needs the parts of the reply, for the message
+        return new PokerMove(new InvalidInputException(getErrorMessage(string, result)));
     }
 
-    private MoveType visitMoveType(String input) throws InvalidInputException {
-        MoveType moveType = MoveType.fromString(input);
+    private String getErrorMessage(String input, long result) {
+        if (result == PokerMoveParser.UNKNOWN_MOVE_TYPE) {
+            return String.format("Unknown move type '%s'.", getPart(input, 0));
+        }
 
-        if (moveType == null) {
-            throw new InvalidInputException(String.format("Unknown move type '%s'.", input));
+        if (result == PokerMoveParser.INVALID_AMOUNT) {
+            return String.format("Can't parse amount '%s'.", getPart(input, 1));
         }
 
-        return moveType;
+        return "Failed to parse action.";
     }
 
-    private int visitAmount(String input) throws InvalidInputException {
-        try {
-            int amount = Integer.parseInt(input);
-
-            if (amount <= 0) {
-                throw new InvalidInputException("Amount can't be smaller than or equal to 0.");
-            }
-
-            return amount;
-        } catch (Exception ex) {
-            throw new InvalidInputException(String.format("Can't parse amount '%s'.", input));
+    // Part of the input between underscores
+    private String getPart(String input, int index) {
+        int start = 0;
+        for (int i = 0; i < index; i++) {
+            start = input.indexOf('_', start) + 1;
         }
+
+        int end = input.indexOf('_', start);
+        return input.substring(start, end < 0 ? input.length() : end);
     }
 }
@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.move;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * io.riddles.poker.game.move.PokerMoveLog - Created on 19-10-26
+ *
+ * Append-only log of packed moves, shared by all states of a game. Each entry
+ * holds the move type, whether the move was invalid, the amount, and the index
+ * of the previous move of the same player in the bet round, so a player state
+ * only needs the index of its last move. A move is appended once it's
+ * validated, as a copy, and the moves created from an entry are copies too.
+ * So entries never change and are never removed, and states that branch off
+ * from the same previous state can safely share the log. PokerMove objects
+ * are only created when a move is requested.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PokerMoveLog {
+
+    private static final int ENTRY_SIZE = 3;  // flags, amount, previous index
+
+    private static final int TYPE_MASK = 7;  // move type ordinal + 1, 0 if not set
+    private static final int INVALID = 1 << 3;
+    private static final int HAS_AMOUNT = 1 << 4;
+
+    private static final MoveType[] MOVE_TYPES = MoveType.values();
+
+    private int[] entries;
+    private int size;
+    private HashMap<Integer, Exception> exceptions;  // of invalid moves, by entry index
+
+    public PokerMoveLog() {
+        this.entries = new int[ENTRY_SIZE * 16];
+        this.size = 0;
+    }
+
+    /**
+     * Appends a copy of the move to the log, later changes to the move
+     * are not written to the log
+     * @param move Validated move to append
+     * @param previousIndex Index of the previous move of the player, or -1
+     * @return Index of the new entry
+     */
+    public int append(PokerMove move, int previousIndex) {
+        if ((this.size + 1) * ENTRY_SIZE > this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries, this.entries.length * 2);
+        }
+
+        int flags = 0;
+
+        if (move.getMoveType() != null) {
+            flags |= move.getMoveType().ordinal() + 1;
+        }
+
+        if (move.isInvalid()) {
+            flags |= INVALID;
+        }
+
+        Integer amount = move.getAmount();
+        if (amount != null) {
+            flags |= HAS_AMOUNT;
+        }
+
+        int index = this.size++;
+        this.entries[index * ENTRY_SIZE] = flags;
+        this.entries[index * ENTRY_SIZE + 1] = amount != null ? amount : 0;
+        this.entries[index * ENTRY_SIZE + 2] = previousIndex;
+
+        if (move.isInvalid()) {
+            if (this.exceptions == null) {
+                this.exceptions = new HashMap<>();
+            }
+            this.exceptions.put(index, move.getException());
+        }
+
+        return index;
+    }
+
+    /**
+     * Creates a copy of the move of given entry, with the exception the
+     * move was logged with if it was invalid
+     * @param index Entry index
+     * @return The move of the entry
+     */
+    public PokerMove getMove(int index) {
+        int flags = this.entries[index * ENTRY_SIZE];
+        int type = flags & TYPE_MASK;
+
+        PokerMove move = new PokerMove((MoveType) null);
+
+        if ((flags & INVALID) != 0) {
+            move.setException(this.exceptions.get(index));
+        }
+
+        if (type > 0) {
+            move.setMoveType(MOVE_TYPES[type - 1]);
+        }
+
+        if ((flags & HAS_AMOUNT) != 0) {
+            move.setAmount(this.entries[index * ENTRY_SIZE + 1]);
+        }
+
+        return move;
+    }
+
+    public MoveType getMoveType(int index) {
+        int type = this.entries[index * ENTRY_SIZE] & TYPE_MASK;
+        return type > 0 ? MOVE_TYPES[type - 1] : null;
+    }
+
+    public int getAmount(int index) {
+        return this.entries[index * ENTRY_SIZE + 1];
+    }
+
+    public boolean isInvalid(int index) {
+        return (this.entries[index * ENTRY_SIZE] & INVALID) != 0;
+    }
+
+    public int getPreviousIndex(int index) {
+        return this.entries[index * ENTRY_SIZE + 2];
+    }
+
+    public int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.move;
+
+/**
+ * io.riddles.poker.game.move.PokerMoveParser - Created on 19-10-26
+ *
+ * Parses move replies like "call" and "raise_40" straight from the characters
+ * or bytes of the reply, without splitting it, without allocating and without
+ * throwing on invalid input. The result is packed in a long: the move type and
+ * amount for a valid move, a negative error code otherwise. Accepts the same
+ * replies as splitting on underscores and parsing the amount with
+ * Integer.parseInt did: the move type is case insensitive, anything after the
+ * second underscore is ignored, an amount is only required for a raise and
+ * must be positive. Only ASCII digits are accepted in the amount.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public final class PokerMoveParser {
+
+    public static final long FAILED = -1;  // nothing to parse
+    public static final long UNKNOWN_MOVE_TYPE = -2;
+    public static final long INVALID_AMOUNT = -3;
+
+    private static final long NO_AMOUNT = 0xFFFFFFFFL;
+    private static final MoveType[] MOVE_TYPES = MoveType.values();
+    private static final byte[][] MOVE_TYPE_NAMES = new byte[MOVE_TYPES.length][];
+
+    static {
+        for (int i = 0; i < MOVE_TYPES.length; i++) {
+            String name = MOVE_TYPES[i].toString();
+            MOVE_TYPE_NAMES[i] = new byte[name.length()];
+
+            for (int j = 0; j < name.length(); j++) {
+                MOVE_TYPE_NAMES[i][j] = (byte) name.charAt(j);
+            }
+        }
+    }
+
+    private PokerMoveParser() {}
+
+    /**
+     * @param input Reply of the bot, may be null
+     * @return The packed move, or one of the negative error codes
+     */
+    public static long parse(CharSequence input) {
+        if (input == null) return FAILED;
+
+        int length = input.length();
+        int typeEnd = 0;
+        while (typeEnd < length && input.charAt(typeEnd) != '_') {
+            typeEnd++;
+        }
+
+        // Only underscores: nothing to parse
+        if (typeEnd == 0 && length > 0 && isAllUnderscores(input, 0, length)) return FAILED;
+
+        int moveType = -1;
+        for (int i = 0; i < MOVE_TYPES.length && moveType < 0; i++) {
+            byte[] name = MOVE_TYPE_NAMES[i];
+            if (name.length != typeEnd) continue;
+
+            int j = 0;
+            while (j < typeEnd && Character.toLowerCase(input.charAt(j)) == name[j]) {
+                j++;
+            }
+
+            if (j == typeEnd) {
+                moveType = i;
+            }
+        }
+
+        if (moveType < 0) return UNKNOWN_MOVE_TYPE;
+
+        // Trailing underscores are ignored, like trailing empty parts of a split
+        if (typeEnd >= length || isAllUnderscores(input, typeEnd, length)) {
+            return MOVE_TYPES[moveType] == MoveType.RAISE ? FAILED : pack(moveType, NO_AMOUNT);
+        }
+
+        int amountEnd = typeEnd + 1;
+        while (amountEnd < length && input.charAt(amountEnd) != '_') {
+            amountEnd++;
+        }
+
+        int position = typeEnd + 1;
+        boolean isNegative = false;
+
+        if (position < amountEnd && (input.charAt(position) == '+' || input.charAt(position) == '-')) {
+            isNegative = input.charAt(position) == '-';
+            position++;
+        }
+
+        if (position >= amountEnd) return INVALID_AMOUNT;
+
+        long amount = 0;
+        for (; position < amountEnd; position++) {
+            char c = input.charAt(position);
+            if (c < '0' || c > '9') return INVALID_AMOUNT;
+
+            amount = amount * 10 + (c - '0');
+            if (amount > Integer.MAX_VALUE) return INVALID_AMOUNT;
+        }
+
+        if (isNegative || amount == 0) return INVALID_AMOUNT;
+
+        return pack(moveType, amount);
+    }
+
+    /**
+     * @param input Bytes of the reply, without the line ending
+     * @param offset Start of the reply
+     * @param length Length of the reply
+     * @return The packed move, or one of the negative error codes
+     */
+    public static long parse(byte[] input, int offset, int length) {
+        int end = offset + length;
+        int typeEnd = offset;
+        while (typeEnd < end && input[typeEnd] != '_') {
+            typeEnd++;
+        }
+
+        if (typeEnd == offset && length > 0 && isAllUnderscores(input, offset, end)) return FAILED;
+
+        int moveType = -1;
+        for (int i = 0; i < MOVE_TYPES.length && moveType < 0; i++) {
+            byte[] name = MOVE_TYPE_NAMES[i];
+            if (name.length != typeEnd - offset) continue;
+
+            int j = 0;
+            while (j < name.length && (input[offset + j] | 0x20) == name[j]) {
+                j++;
+            }
+
+            if (j == name.length) {
+                moveType = i;
+            }
+        }
+
+        if (moveType < 0) return UNKNOWN_MOVE_TYPE;
+
+        if (typeEnd >= end || isAllUnderscores(input, typeEnd, end)) {
+            return MOVE_TYPES[moveType] == MoveType.RAISE ? FAILED : pack(moveType, NO_AMOUNT);
+        }
+
+        int amountEnd = typeEnd + 1;
+        while (amountEnd < end && input[amountEnd] != '_') {
+            amountEnd++;
+        }
+
+        int position = typeEnd + 1;
+        boolean isNegative = false;
+
+        if (position < amountEnd && (input[position] == '+' || input[position] == '-')) {
+            isNegative = input[position] == '-';
+            position++;
+        }
+
+        if (position >= amountEnd) return INVALID_AMOUNT;
+
+        long amount = 0;
+        for (; position < amountEnd; position++) {
+            int b = input[position];
+            if (b < '0' || b > '9') return INVALID_AMOUNT;
+
+            amount = amount * 10 + (b - '0');
+            if (amount > Integer.MAX_VALUE) return INVALID_AMOUNT;
+        }
+
+        if (isNegative || amount == 0) return INVALID_AMOUNT;
+
+        return pack(moveType, amount);
+    }
+
+    public static boolean isValid(long result) {
+        return result >= 0;
+    }
+
+    public static MoveType getMoveType(long result) {
+        return MOVE_TYPES[(int) (result >>> 32)];
+    }
+
+    public static boolean hasAmount(long result) {
+        return (result & NO_AMOUNT) != NO_AMOUNT;
+    }
+
+    public static int getAmount(long result) {
+        return (int) (result & NO_AMOUNT);
+    }
+
+    /**
+     * Packs a move that was read in another way, like from a binary reply
+     * @param moveType Type of a move without amount
+     * @return The packed move
+     */
+    public static long pack(MoveType moveType) {
+        return pack(moveType.ordinal(), NO_AMOUNT);
+    }
+
+    /**
+     * Packs a move that was read in another way, like from a binary reply
+     * @param moveType Type of the move
+     * @param amount Amount of the move, must be positive
+     * @return The packed move
+     */
+    public static long pack(MoveType moveType, int amount) {
+        return pack(moveType.ordinal(), amount);
+    }
+
+    private static long pack(int moveType, long amount) {
+        return ((long) moveType << 32) | amount;
+    }
+
+    private static boolean isAllUnderscores(CharSequence input, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (input.charAt(i) != '_') return false;
+        }
+
+        return true;
+    }
+
+    private static boolean isAllUnderscores(byte[] input, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (input[i] != '_') return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.riddles.javainterface.io.IOInterface;
+
+/**
+ * io.riddles.poker.game.player.AsyncPlayerIO - Created on 19-10-26
+ *
+ * Writes the messages for one bot on its own writer thread, so a broadcast
+ * doesn't wait until a bot with a slow pipe has read its updates. Messages
+ * are written in the order they are sent, by a single thread per bot. The
+ * calling thread only waits for the pending writes when it needs the bot:
+ * before a request, so the bot has all updates before it's asked for a move,
+ * and when reading from the bot. A write that failed is thrown from the next
+ * call that waits. The given IO handler has to be safe to use from multiple
+ * threads, which writing full lines to System.out is.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class AsyncPlayerIO implements IOInterface {
+
+    private final IOInterface ioHandler;
+    private final ExecutorService writer;
+    private Future<?> lastWrite;  // null if nothing was written yet
+    private volatile RuntimeException writeFailure;  // first write that failed
+
+    public AsyncPlayerIO(IOInterface ioHandler, int botId) {
+        this.ioHandler = ioHandler;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bot-" + botId + "-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void sendMessage(String message) {
+        this.lastWrite = this.writer.submit(() -> {
+            try {
+                this.ioHandler.sendMessage(message);
+            } catch (RuntimeException ex) {
+                if (this.writeFailure == null) {
+                    this.writeFailure = ex;
+                }
+            }
+        });
+    }
+
+    @Override
+    public String getNextMessage() {
+        awaitWrites();
+        return this.ioHandler.getNextMessage();
+    }
+
+    @Override
+    public String sendRequest(String message) {
+        awaitWrites();
+        return this.ioHandler.sendRequest(message);
+    }
+
+    /**
+     * Waits until all messages sent so far are written
+     */
+    public void awaitWrites() {
+        if (this.lastWrite == null) return;
+
+        try {
+            this.lastWrite.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while writing to the bot", ex);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException("Can't write to the bot", ex.getCause());
+        }
+
+        if (this.writeFailure != null) {
+            throw new RuntimeException("Can't write to the bot", this.writeFailure);
+        }
+    }
+
+    /**
+     * Writes the pending messages and stops the writer thread
+     */
+    public void close() {
+        try {
+            awaitWrites();
+        } finally {
+            this.writer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player;
+
+import io.riddles.javainterface.exception.InvalidInputException;
+import io.riddles.javainterface.io.IOInterface;
+import io.riddles.poker.client.BinaryProtocol;
+import io.riddles.poker.game.move.MoveType;
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.move.PokerMoveParser;
+
+/**
+ * io.riddles.poker.game.player.BinaryPlayerIO - Created on 19-10-26
+ *
+ * IO handler of one player that talks the BinaryProtocol to its bot, over
+ * shared memory. The typed updates of the BinaryPokerPlayer are encoded in
+ * the frame directly, other messages are added to it as text lines, without
+ * the "bot <id> send " prefix. The frame is written to the bot when flushed,
+ * and before each request. A move request becomes ACTION_MOVE, and the bot's
+ * reply is decoded to a PokerMove straight from its bytes. It's kept until
+ * the player takes it with takeMove, so requests return no text. Invalid
+ * replies get the PokerMoveParser error codes and give a move with an
+ * InvalidInputException, like the text replies of other bots.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class BinaryPlayerIO implements IOInterface {
+
+    private static final String MOVE_REQUEST = "action move ";
+    private static final MoveType[] MOVE_TYPES = MoveType.values();
+
+    private final SharedMemoryPlayerIO transport;
+    private final BinaryUpdateEncoder pending;
+    private PokerMove move;
+
+    public BinaryPlayerIO(SharedMemoryPlayerIO transport) {
+        this.transport = transport;
+        this.pending = new BinaryUpdateEncoder();
+    }
+
+    @Override
+    public void sendMessage(String message) {
+        this.pending.appendText(SharedMemoryPlayerIO.stripPrefixes(message));
+    }
+
+    /**
+     * Reads the bot's reply and keeps it as the move to take
+     * @return Always null, the reply is not text
+     */
+    @Override
+    public String getNextMessage() {
+        byte[] reply = this.transport.getNextFrame();
+        long result = decodeMove(reply);
+
+        if (PokerMoveParser.isValid(result)) {
+            MoveType moveType = PokerMoveParser.getMoveType(result);
+
+            this.move = PokerMoveParser.hasAmount(result)
+                    ? new PokerMove(moveType, PokerMoveParser.getAmount(result))
+                    : new PokerMove(moveType);
+        } else {
+            this.move = new PokerMove(new InvalidInputException(getErrorMessage(reply, result)));
+        }
+
+        return null;
+    }
+
+    @Override
+    public String sendRequest(String message) {
+        String request = SharedMemoryPlayerIO.stripPrefixes(message);
+
+        if (request.startsWith(MOVE_REQUEST)) {
+            this.pending.appendValue(BinaryProtocol.ACTION_MOVE,
+                    Integer.parseInt(request.substring(MOVE_REQUEST.length()).trim()));
+        } else {
+            this.pending.appendText(request);
+        }
+
+        flush();
+        return getNextMessage();
+    }
+
+    /**
+     * Writes the pending updates in one frame, if there are any
+     */
+    public void flush() {
+        if (this.pending.isEmpty()) return;
+
+        this.transport.sendFrame(this.pending.getBytes(), this.pending.length());
+        this.pending.clear();
+    }
+
+    /**
+     * @return The move of the last request, a failed move if there was none
+     */
+    public PokerMove takeMove() {
+        PokerMove move = this.move;
+        this.move = null;
+
+        return move != null ? move : new PokerMove(new InvalidInputException("Failed to parse action."));
+    }
+
+    /**
+     * @return The encoder the pending updates are kept in
+     */
+    public BinaryUpdateEncoder getEncoder() {
+        return this.pending;
+    }
+
+    /**
+     * Decodes a reply to ACTION_MOVE. Bytes after the move are ignored, like
+     * the parts after the amount of a text reply.
+     * @param reply The reply frame, null if it didn't come in time
+     * @return The packed move, or one of the negative PokerMoveParser error codes
+     */
+    static long decodeMove(byte[] reply) {
+        if (reply == null || reply.length == 0) return PokerMoveParser.FAILED;
+        if (reply[0] < 0 || reply[0] >= MOVE_TYPES.length) return PokerMoveParser.UNKNOWN_MOVE_TYPE;
+
+        MoveType moveType = MOVE_TYPES[reply[0]];
+        if (moveType != MoveType.RAISE) return PokerMoveParser.pack(moveType);
+
+        // A raise without amount, like "raise" as text
+        if (reply.length == 1) return PokerMoveParser.FAILED;
+
+        long amount = 0;
+        int end = Math.min(reply.length, 1 + BinaryProtocol.MAX_VAR_INT_SIZE);
+        int index = 1;
+
+        for (int shift = 0; index < end; index++, shift += 7) {
+            amount |= (long) (reply[index] & 0x7F) << shift;
+            if (reply[index] >= 0) break;
+        }
+
+        // Cut off, or longer than an int can take
+        if (index == end) return PokerMoveParser.INVALID_AMOUNT;
+        if (amount == 0 || amount > Integer.MAX_VALUE) return PokerMoveParser.INVALID_AMOUNT;
+
+        return PokerMoveParser.pack(moveType, (int) amount);
+    }
+
+    private static String getErrorMessage(byte[] reply, long result) {
+        if (result == PokerMoveParser.UNKNOWN_MOVE_TYPE) {
+            return String.format("Unknown move code %d.", reply[0]);
+        }
+
+        if (result == PokerMoveParser.INVALID_AMOUNT) {
+            return "Can't parse amount.";
+        }
+
+        return "Failed to parse action.";
+    }
+}
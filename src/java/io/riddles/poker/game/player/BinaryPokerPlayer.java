@@ -0,0 +1,198 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player;
+
+import io.riddles.poker.client.BinaryProtocol;
+import io.riddles.poker.game.move.ActionType;
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.state.PokerPlayerState;
+import io.riddles.poker.game.table.BetRound;
+import io.riddles.poker.game.table.LegalActions;
+import io.riddles.poker.game.table.PokerTable;
+
+/**
+ * io.riddles.poker.game.player.BinaryPokerPlayer - Created on 19-10-26
+ *
+ * Player whose bot talks to the engine through shared memory and can switch
+ * to the BinaryProtocol. Until startBinaryProtocol is called it's a normal
+ * player with a shared memory transport. After that all updates are encoded
+ * in binary frames by a BinaryPlayerIO, on the calling thread, and the bot
+ * gets all values at each decision, also when delta updates are set.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class BinaryPokerPlayer extends PokerPlayer {
+
+    private final BinaryPlayerIO binaryIO;
+    private boolean isBinary;
+
+    /**
+     * @param id Id of the player
+     * @param transport Shared memory transport to the bot
+     */
+    public BinaryPokerPlayer(int id, SharedMemoryPlayerIO transport) {
+        super(id);
+        this.binaryIO = new BinaryPlayerIO(transport);
+        setTransport(transport);
+    }
+
+    /**
+     * Writes all text messages sent so far and switches to binary frames
+     * for everything after, must be called after the bot is told with
+     * the protocol setting
+     */
+    public void startBinaryProtocol() {
+        awaitUpdates();
+
+        setBufferingUpdates(false);
+        setWritingAsync(false);
+        setTransport(this.binaryIO);
+        setIoHandler(this.binaryIO);
+        this.isBinary = true;
+    }
+
+    public boolean isBinary() {
+        return this.isBinary;
+    }
+
+    @Override
+    public void flushUpdates() {
+        if (this.isBinary) {
+            this.binaryIO.flush();
+        } else {
+            super.flushUpdates();
+        }
+    }
+
+    @Override
+    public void sendHandStart(int roundNumber, int smallBlind, int bigBlind, PokerPlayer buttonPlayer) {
+        if (!this.isBinary) {
+            super.sendHandStart(roundNumber, smallBlind, bigBlind, buttonPlayer);
+            return;
+        }
+
+        BinaryUpdateEncoder encoder = this.binaryIO.getEncoder();
+        encoder.appendValue(BinaryProtocol.ROUND, roundNumber);
+        encoder.appendValue(BinaryProtocol.SMALL_BLIND, smallBlind);
+        encoder.appendValue(BinaryProtocol.BIG_BLIND, bigBlind);
+        encoder.appendButton(buttonPlayer);
+    }
+
+    @Override
+    public void sendChips(PokerPlayer target, int chips) {
+        if (this.isBinary) {
+            this.binaryIO.getEncoder().appendPlayerValue(BinaryProtocol.CHIPS, target, chips);
+        } else {
+            super.sendChips(target, chips);
+        }
+    }
+
+    @Override
+    public void sendBetRound(BetRound betRound) {
+        if (this.isBinary) {
+            this.binaryIO.getEncoder().appendBetRound(betRound);
+        } else {
+            super.sendBetRound(betRound);
+        }
+    }
+
+    @Override
+    public void sendHand(PokerPlayer target, PokerPlayerState targetState) {
+        if (this.isBinary) {
+            this.binaryIO.getEncoder().appendHand(target, targetState.getHoleCards());
+        } else {
+            super.sendHand(target, targetState);
+        }
+    }
+
+    @Override
+    public void sendTable(PokerTable table) {
+        if (this.isBinary) {
+            this.binaryIO.getEncoder().appendTable(table.getTableCards());
+        } else {
+            super.sendTable(table);
+        }
+    }
+
+    @Override
+    public void sendBet(PokerPlayer target, int bet) {
+        if (this.isBinary) {
+            this.binaryIO.getEncoder().appendPlayerValue(BinaryProtocol.BET, target, bet);
+        } else {
+            super.sendBet(target, bet);
+        }
+    }
+
+    @Override
+    public void sendPot(int pot) {
+        if (this.isBinary) {
+            this.binaryIO.getEncoder().appendValue(BinaryProtocol.POT, pot);
+        } else {
+            super.sendPot(pot);
+        }
+    }
+
+    @Override
+    public void sendAmountToCall(int amount) {
+        if (this.isBinary) {
+            this.binaryIO.getEncoder().appendValue(BinaryProtocol.AMOUNT_TO_CALL, amount);
+        } else {
+            super.sendAmountToCall(amount);
+        }
+    }
+
+    @Override
+    public void sendLegalActions(LegalActions legalActions) {
+        if (!isSendingLegalActions()) return;
+
+        if (this.isBinary) {
+            this.binaryIO.getEncoder().appendLegalActions(legalActions);
+        } else {
+            super.sendLegalActions(legalActions);
+        }
+    }
+
+    @Override
+    public void sendMove(PokerPlayer target, PokerMove move) {
+        if (this.isBinary) {
+            this.binaryIO.getEncoder().appendMove(target, move);
+        } else {
+            super.sendMove(target, move);
+        }
+    }
+
+    @Override
+    public void sendWins(PokerPlayer target, int chips) {
+        if (this.isBinary) {
+            this.binaryIO.getEncoder().appendPlayerValue(BinaryProtocol.WINS, target, chips);
+        } else {
+            super.sendWins(target, chips);
+        }
+    }
+
+    @Override
+    public PokerMove requestMove() {
+        if (!this.isBinary) return super.requestMove();
+
+        // The BinaryPlayerIO decodes the reply, the request itself gives no text
+        requestMove(ActionType.MOVE);
+        return this.binaryIO.takeMove();
+    }
+}
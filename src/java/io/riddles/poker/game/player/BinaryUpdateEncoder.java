@@ -0,0 +1,189 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import io.riddles.poker.client.BinaryProtocol;
+import io.riddles.poker.game.move.MoveType;
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.table.BetRound;
+import io.riddles.poker.game.table.LegalActions;
+import io.riddles.poker.game.table.card.Card;
+
+/**
+ * io.riddles.poker.game.player.BinaryUpdateEncoder - Created on 19-10-26
+ *
+ * Writes the updates for one bot into a reusable byte buffer as a frame of
+ * the BinaryProtocol. Encoding an update doesn't allocate once the buffer is
+ * large enough, except for text lines.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class BinaryUpdateEncoder {
+
+    private byte[] buffer;
+    private int length;
+
+    public BinaryUpdateEncoder() {
+        this.buffer = new byte[256];
+    }
+
+    /**
+     * @param line Line that has no opcode of its own, like a setting
+     */
+    public void appendText(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+
+        appendByte(BinaryProtocol.TEXT);
+        appendVarInt(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, this.buffer, this.length, bytes.length);
+        this.length += bytes.length;
+    }
+
+    /**
+     * @param opcode ROUND, SMALL_BLIND, BIG_BLIND, POT, AMOUNT_TO_CALL or ACTION_MOVE
+     * @param value The value
+     */
+    public void appendValue(byte opcode, int value) {
+        appendByte(opcode);
+        appendVarInt(value);
+    }
+
+    /**
+     * @param opcode CHIPS, BET or WINS
+     * @param target Player the value is for
+     * @param value The value
+     */
+    public void appendPlayerValue(byte opcode, PokerPlayer target, int value) {
+        appendByte(opcode);
+        appendPlayer(target);
+        appendVarInt(value);
+    }
+
+    public void appendButton(PokerPlayer buttonPlayer) {
+        appendByte(BinaryProtocol.ON_BUTTON);
+        appendPlayer(buttonPlayer);
+    }
+
+    public void appendBetRound(BetRound betRound) {
+        appendByte(BinaryProtocol.BET_ROUND);
+        appendByte(betRound.ordinal());
+    }
+
+    public void appendTable(List<Card> tableCards) {
+        appendByte(BinaryProtocol.TABLE);
+        appendByte(tableCards.size());
+
+        for (Card card : tableCards) {
+            appendByte(card.getNumber());
+        }
+    }
+
+    /**
+     * @param target Player the hand is of
+     * @param holeCards Bitmask of the hole cards, bit i is set for card number i
+     */
+    public void appendHand(PokerPlayer target, long holeCards) {
+        appendByte(BinaryProtocol.HAND);
+        appendPlayer(target);
+        appendByte(Long.bitCount(holeCards));
+
+        for (long m = holeCards; m != 0; m &= m - 1) {
+            appendByte(Long.numberOfTrailingZeros(m));
+        }
+    }
+
+    public void appendLegalActions(LegalActions legalActions) {
+        int flags = (legalActions.canCheck() ? BinaryProtocol.CAN_CHECK : 0)
+                | (legalActions.canRaise() ? BinaryProtocol.CAN_RAISE : 0);
+
+        appendByte(BinaryProtocol.LEGAL_ACTIONS);
+        appendByte(flags);
+
+        if (!legalActions.canCheck()) {
+            appendVarInt(legalActions.getCallAmount());
+        }
+
+        if (legalActions.canRaise()) {
+            int maxRaise = legalActions.getMaxRaise();
+
+            appendVarInt(Math.max(Math.min(legalActions.getMinRaise(), maxRaise), 1));
+            appendVarInt(maxRaise);
+        }
+    }
+
+    /**
+     * Moves are the same MoveType ordinals as the protocol's move codes
+     * @param target Player that made the move
+     * @param move The move
+     */
+    public void appendMove(PokerPlayer target, PokerMove move) {
+        appendByte(BinaryProtocol.MOVE);
+        appendPlayer(target);
+        appendByte(move.getMoveType().ordinal());
+
+        if (move.getMoveType() == MoveType.RAISE) {
+            appendVarInt(move.getAmount() != null ? move.getAmount() : 0);
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.length == 0;
+    }
+
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * @return The buffer, the frame is its first length() bytes
+     */
+    public byte[] getBytes() {
+        return this.buffer;
+    }
+
+    public void clear() {
+        this.length = 0;
+    }
+
+    private void appendPlayer(PokerPlayer player) {
+        appendByte(player.getId());
+    }
+
+    private void appendVarInt(int value) {
+        ensureCapacity(5);
+        this.length = BinaryProtocol.writeVarInt(this.buffer, this.length, value);
+    }
+
+    private void appendByte(int value) {
+        ensureCapacity(1);
+        this.buffer[this.length++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (this.length + extra > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.length + extra));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player;
+
+import io.riddles.javainterface.io.IOInterface;
+
+/**
+ * io.riddles.poker.game.player.BufferedPlayerIO - Created on 19-10-26
+ *
+ * Collects the messages for one bot and writes them to the IO handler as one
+ * message, separated by newlines, when flushed. Messages for a bot are never
+ * reordered, and all pending messages are written before a request is sent,
+ * so the bot gets the same lines in the same order, in fewer writes. The
+ * messages are kept in a PokerUpdateEncoder, to which the player also writes
+ * its updates directly.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class BufferedPlayerIO implements IOInterface {
+
+    private final IOInterface ioHandler;
+    private final PokerUpdateEncoder pending;
+
+    public BufferedPlayerIO(IOInterface ioHandler, int botId) {
+        this.ioHandler = ioHandler;
+        this.pending = new PokerUpdateEncoder(botId);
+    }
+
+    @Override
+    public void sendMessage(String message) {
+        this.pending.appendMessage(message);
+    }
+
+    @Override
+    public String getNextMessage() {
+        return this.ioHandler.getNextMessage();
+    }
+
+    @Override
+    public String sendRequest(String message) {
+        flush();
+        return this.ioHandler.sendRequest(message);
+    }
+
+    /**
+     * Writes all pending messages in one message, if there are any
+     */
+    public void flush() {
+        if (this.pending.isEmpty()) return;
+
+        this.ioHandler.sendMessage(this.pending.toString());
+        this.pending.clear();
+    }
+
+    /**
+     * @return The encoder the pending messages are kept in
+     */
+    public PokerUpdateEncoder getEncoder() {
+        return this.pending;
+    }
+}
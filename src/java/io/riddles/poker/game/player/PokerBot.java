@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player;
+
+import java.util.List;
+
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.table.BetRound;
+import io.riddles.poker.game.table.LegalActions;
+import io.riddles.poker.game.table.card.Card;
+
+/**
+ * io.riddles.poker.game.player.PokerBot - Created on 19-10-26
+ *
+ * A bot that runs in the same process as the engine. Gets the same updates
+ * as a bot that runs through the match wrapper, in the same order, but as
+ * method calls instead of text lines, and returns its move as a PokerMove.
+ * Players are identified by their id. Only getMove has to be implemented.
+ * Use with a PokerBotPlayer.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public interface PokerBot {
+
+    /**
+     * Called once, before any other callback
+     * @param playerId Id of the player this bot plays as
+     */
+    default void onStart(int playerId) {}
+
+    default void onSetting(String type, String value) {}
+
+    default void onHandStart(int roundNumber, int smallBlind, int bigBlind, int buttonId) {}
+
+    default void onChips(int playerId, int chips) {}
+
+    default void onBetRound(BetRound betRound) {}
+
+    /**
+     * Called with the bot's own cards when they are dealt, and with the
+     * cards of the other players that show their hand at the showdown
+     * @param playerId Id of the player with the cards
+     * @param hand The cards, can't be changed
+     */
+    default void onHand(int playerId, List<Card> hand) {}
+
+    /**
+     * @param tableCards All cards on the table, can't be changed
+     */
+    default void onTableCards(List<Card> tableCards) {}
+
+    default void onBet(int playerId, int bet) {}
+
+    default void onPot(int pot) {}
+
+    default void onAmountToCall(int amount) {}
+
+    /**
+     * Only called when the engine is configured to send the legal actions,
+     * they are always given to getMove
+     */
+    default void onLegalActions(LegalActions legalActions) {}
+
+    /**
+     * @param playerId Id of the player that moved
+     * @param move Copy of the move after validation
+     */
+    default void onMove(int playerId, PokerMove move) {}
+
+    default void onWin(int playerId, int chips) {}
+
+    default void onWarning(String warning) {}
+
+    /**
+     * @param legalActions The moves that are possible now
+     * @return The move of the bot, it's copied before the engine validates it
+     */
+    PokerMove getMove(LegalActions legalActions);
+}
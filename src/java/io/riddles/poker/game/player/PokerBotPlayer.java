@@ -0,0 +1,162 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player;
+
+import java.util.Collections;
+
+import io.riddles.javainterface.exception.InvalidInputException;
+import io.riddles.javainterface.game.player.AbstractPlayer;
+import io.riddles.poker.game.move.MoveType;
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.state.PokerPlayerState;
+import io.riddles.poker.game.table.BetRound;
+import io.riddles.poker.game.table.LegalActions;
+import io.riddles.poker.game.table.PokerTable;
+
+/**
+ * io.riddles.poker.game.player.PokerBotPlayer - Created on 19-10-26
+ *
+ * Player that gives all updates directly to a PokerBot in the same process,
+ * and gets its moves from it, instead of writing and parsing text. Can be
+ * added to the PlayerProvider like any other player. Moves returned by the
+ * bot are checked like parsed moves are.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PokerBotPlayer extends PokerPlayer {
+
+    private final PokerBot bot;
+    private LegalActions legalActions;  // of the next move request
+
+    public PokerBotPlayer(int id, PokerBot bot) {
+        super(id);
+        setName("player" + id);
+        this.bot = bot;
+        this.bot.onStart(id);
+    }
+
+    public PokerBot getBot() {
+        return this.bot;
+    }
+
+    @Override
+    public void sendSetting(String type, String value) {
+        this.bot.onSetting(type, value);
+    }
+
+    @Override
+    public void sendSetting(String type, int value) {
+        this.bot.onSetting(type, Integer.toString(value));
+    }
+
+    // Updates only come through the typed methods, text updates are ignored
+    @Override
+    public void sendUpdate(String type, String value) {}
+
+    @Override
+    public void sendUpdate(String type, int value) {}
+
+    @Override
+    public void sendUpdate(String type, AbstractPlayer player, String value) {}
+
+    @Override
+    public void sendUpdate(String type, AbstractPlayer player, int value) {}
+
+    @Override
+    public void sendWarning(String warning) {
+        this.bot.onWarning(warning);
+    }
+
+    @Override
+    public void sendHandStart(int roundNumber, int smallBlind, int bigBlind, PokerPlayer buttonPlayer) {
+        this.bot.onHandStart(roundNumber, smallBlind, bigBlind, buttonPlayer.getId());
+    }
+
+    @Override
+    public void sendChips(PokerPlayer target, int chips) {
+        this.bot.onChips(target.getId(), chips);
+    }
+
+    @Override
+    public void sendBetRound(BetRound betRound) {
+        this.bot.onBetRound(betRound);
+    }
+
+    @Override
+    public void sendHand(PokerPlayer target, PokerPlayerState targetState) {
+        this.bot.onHand(target.getId(), Collections.unmodifiableList(targetState.getHand()));
+    }
+
+    @Override
+    public void sendTable(PokerTable table) {
+        this.bot.onTableCards(Collections.unmodifiableList(table.getTableCards()));
+    }
+
+    @Override
+    public void sendBet(PokerPlayer target, int bet) {
+        this.bot.onBet(target.getId(), bet);
+    }
+
+    @Override
+    public void sendPot(int pot) {
+        this.bot.onPot(pot);
+    }
+
+    @Override
+    public void sendAmountToCall(int amount) {
+        this.bot.onAmountToCall(amount);
+    }
+
+    @Override
+    public void sendLegalActions(LegalActions legalActions) {
+        this.legalActions = legalActions;
+
+        if (isSendingLegalActions()) {
+            this.bot.onLegalActions(legalActions);
+        }
+    }
+
+    @Override
+    public void sendMove(PokerPlayer target, PokerMove move) {
+        this.bot.onMove(target.getId(), new PokerMove(move));
+    }
+
+    @Override
+    public void sendWins(PokerPlayer target, int chips) {
+        this.bot.onWin(target.getId(), chips);
+    }
+
+    @Override
+    public PokerMove requestMove() {
+        PokerMove move = this.bot.getMove(this.legalActions);
+
+        if (move == null || move.getMoveType() == null) {
+            return new PokerMove(new InvalidInputException("No move returned."));
+        }
+
+        if (move.getMoveType() == MoveType.RAISE
+                && (move.getAmount() == null || move.getAmount() <= 0)) {
+            return new PokerMove(new InvalidInputException(
+                    "Amount can't be smaller than or equal to 0."));
+        }
+
+        return new PokerMove(move);
+    }
+}
@@ -20,17 +20,264 @@
 package io.riddles.poker.game.player;
 
 import io.riddles.javainterface.game.player.AbstractPlayer;
+import io.riddles.javainterface.io.IOInterface;
+import io.riddles.poker.game.move.ActionType;
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.move.PokerMoveDeserializer;
+import io.riddles.poker.game.state.PokerPlayerState;
+import io.riddles.poker.game.table.BetRound;
+import io.riddles.poker.game.table.LegalActions;
+import io.riddles.poker.game.table.PokerTable;
 
 /**
  * io.riddles.poker.game.player.PokerPlayer - Created on 29-8-17
  *
- * [description]
+ * Player of the match. The processor sends all updates and requests moves
+ * through the typed methods of this class, which by default write them to
+ * the bot as text. Subclasses can give them to the bot in another way, like
+ * the PokerBotPlayer does for bots in the same process. Text updates are
+ * buffered and written to the bot together when flushed, which happens before
+ * each move request and when the processor ends a broadcast. Buffered updates
+ * are encoded straight into the buffer by a PokerUpdateEncoder. Messages can
+ * also be written on a writer thread per bot, see AsyncPlayerIO.
  *
  * @author Jim van Eeden - jim@riddles.io
  */
 public class PokerPlayer extends AbstractPlayer {
 
+    private static final PokerMoveDeserializer MOVE_DESERIALIZER = new PokerMoveDeserializer();
+
+    private BufferedPlayerIO updateBuffer;  // null if updates are written directly
+    private AsyncPlayerIO asyncWriter;  // null if messages are written on the calling thread
+    private IOInterface transport;  // null if the player uses the IO handler it's given
+    private boolean isBufferingUpdates;
+    private boolean isWritingAsync;
+    private SentValues sentValues;  // null if all move updates are sent at each decision
+    private boolean isSendingLegalActions;
+
     public PokerPlayer(int id) {
         super(id);
+        this.isBufferingUpdates = true;
+    }
+
+    @Override
+    public void setIoHandler(IOInterface ioHandler) {
+        if (this.asyncWriter != null) {
+            this.asyncWriter.close();
+        }
+
+        if (this.transport != null) {
+            ioHandler = this.transport;
+        }
+
+        this.asyncWriter = this.isWritingAsync ? new AsyncPlayerIO(ioHandler, getId()) : null;
+        if (this.asyncWriter != null) {
+            ioHandler = this.asyncWriter;
+        }
+
+        this.updateBuffer = this.isBufferingUpdates ? new BufferedPlayerIO(ioHandler, getId()) : null;
+        super.setIoHandler(this.updateBuffer != null ? this.updateBuffer : ioHandler);
+    }
+
+    /**
+     * Must be set before the IO handler is set
+     * @param isBufferingUpdates False to write each update to the bot directly
+     */
+    public void setBufferingUpdates(boolean isBufferingUpdates) {
+        this.isBufferingUpdates = isBufferingUpdates;
+    }
+
+    /**
+     * Must be set before the IO handler is set
+     * @param transport IO handler to talk to the bot with instead of the one
+     * the player is given, like a SharedMemoryPlayerIO
+     */
+    public void setTransport(IOInterface transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Must be set before the IO handler is set
+     * @param isWritingAsync True to write the messages to the bot on a writer
+     * thread of its own, the order of the messages stays the same
+     */
+    public void setWritingAsync(boolean isWritingAsync) {
+        this.isWritingAsync = isWritingAsync;
+    }
+
+    /**
+     * In delta mode the bets, pot, amount to call and legal actions sent
+     * before a move request only contain the values that changed since the
+     * bot's last decision, also when that was in an earlier hand, and the
+     * chips sent at the start of a hand only the ones that changed. The bets
+     * are 0 at the start of each bet round, so the bot has to reset them when
+     * it gets the bet_round update. The first decision gets all values. The
+     * bot has to be told with the update_mode setting.
+     * @param isSendingDeltaUpdates True to only send the changed values
+     */
+    public void setSendingDeltaUpdates(boolean isSendingDeltaUpdates) {
+        this.sentValues = isSendingDeltaUpdates ? new SentValues() : null;
+    }
+
+    public boolean isSendingDeltaUpdates() {
+        return this.sentValues != null;
+    }
+
+    /**
+     * The legal actions are given to the player before each move request,
+     * they are only sent to the bot when this is set
+     * @param isSendingLegalActions True to send the legal actions
+     */
+    public void setSendingLegalActions(boolean isSendingLegalActions) {
+        this.isSendingLegalActions = isSendingLegalActions;
+    }
+
+    public boolean isSendingLegalActions() {
+        return this.isSendingLegalActions;
+    }
+
+    /**
+     * Writes the buffered updates to the bot, when writing async they
+     * are only handed to the writer thread
+     */
+    public void flushUpdates() {
+        if (this.updateBuffer != null) {
+            this.updateBuffer.flush();
+        }
+    }
+
+    /**
+     * Waits until all updates sent so far are written to the bot
+     */
+    public void awaitUpdates() {
+        flushUpdates();
+
+        if (this.asyncWriter != null) {
+            this.asyncWriter.awaitWrites();
+        }
+    }
+
+    /**
+     * Writes all updates and stops the writer thread, if there is one
+     */
+    public void close() {
+        flushUpdates();
+
+        if (this.asyncWriter != null) {
+            this.asyncWriter.close();
+        }
+    }
+
+    public void sendHandStart(int roundNumber, int smallBlind, int bigBlind, PokerPlayer buttonPlayer) {
+        sendGameUpdate(UpdateType.ROUND, roundNumber);
+        sendGameUpdate(UpdateType.SMALL_BLIND, smallBlind);
+        sendGameUpdate(UpdateType.BIG_BLIND, bigBlind);
+        sendGameUpdate(UpdateType.ON_BUTTON, buttonPlayer.getName());
+    }
+
+    public void sendChips(PokerPlayer target, int chips) {
+        if (this.sentValues != null && !this.sentValues.updateChips(target.getId(), chips)) return;
+
+        sendPlayerUpdate(UpdateType.CHIPS, target, chips);
+    }
+
+    public void sendBetRound(BetRound betRound) {
+        if (this.sentValues != null) {
+            this.sentValues.startBetRound();
+        }
+
+        sendGameUpdate(UpdateType.BET_ROUND, betRound.toString());
+    }
+
+    public void sendHand(PokerPlayer target, PokerPlayerState targetState) {
+        sendPlayerUpdate(UpdateType.HAND, target, targetState.getHandString());
+    }
+
+    public void sendTable(PokerTable table) {
+        sendGameUpdate(UpdateType.TABLE, table.getTableCardsString());
+    }
+
+    public void sendBet(PokerPlayer target, int bet) {
+        if (this.sentValues != null && !this.sentValues.updateBet(target.getId(), bet)) return;
+
+        sendPlayerUpdate(UpdateType.BET, target, bet);
+    }
+
+    public void sendPot(int pot) {
+        if (this.sentValues != null && !this.sentValues.updatePot(pot)) return;
+
+        sendPlayerUpdate(UpdateType.POT, this, pot);
+    }
+
+    public void sendAmountToCall(int amount) {
+        if (this.sentValues != null && !this.sentValues.updateAmountToCall(amount)) return;
+
+        sendPlayerUpdate(UpdateType.AMOUNT_TO_CALL, this, amount);
+    }
+
+    public void sendLegalActions(LegalActions legalActions) {
+        if (!this.isSendingLegalActions) return;
+        if (this.sentValues != null && !this.sentValues.updateLegalActions(legalActions)) return;
+
+        if (this.updateBuffer != null) {
+            this.updateBuffer.getEncoder().appendLegalActions(this, legalActions);
+        } else {
+            sendUpdate(UpdateType.LEGAL_ACTIONS.toString(), this, legalActions.toString());
+        }
+    }
+
+    public void sendMove(PokerPlayer target, PokerMove move) {
+        if (this.updateBuffer != null) {
+            this.updateBuffer.getEncoder().appendMove(target, move);
+        } else {
+            sendUpdate(UpdateType.MOVE.toString(), target, move.toString());
+        }
+    }
+
+    public void sendWins(PokerPlayer target, int chips) {
+        sendPlayerUpdate(UpdateType.WINS, target, chips);
+    }
+
+    /**
+     * Requests a move from the bot, after the legal actions are sent
+     * @return The move, with an exception if the bot's response couldn't be parsed
+     */
+    public PokerMove requestMove() {
+        return MOVE_DESERIALIZER.traverse(requestMove(ActionType.MOVE));
+    }
+
+    // Buffered updates are encoded directly, the others go through the
+    // sendUpdate methods, which subclasses may override
+
+    private void sendGameUpdate(UpdateType type, int value) {
+        if (this.updateBuffer != null) {
+            this.updateBuffer.getEncoder().appendUpdate(type, value);
+        } else {
+            sendUpdate(type.toString(), value);
+        }
+    }
+
+    private void sendGameUpdate(UpdateType type, String value) {
+        if (this.updateBuffer != null) {
+            this.updateBuffer.getEncoder().appendUpdate(type, value);
+        } else {
+            sendUpdate(type.toString(), value);
+        }
+    }
+
+    private void sendPlayerUpdate(UpdateType type, PokerPlayer target, int value) {
+        if (this.updateBuffer != null) {
+            this.updateBuffer.getEncoder().appendUpdate(type, target, value);
+        } else {
+            sendUpdate(type.toString(), target, value);
+        }
+    }
+
+    private void sendPlayerUpdate(UpdateType type, PokerPlayer target, String value) {
+        if (this.updateBuffer != null) {
+            this.updateBuffer.getEncoder().appendUpdate(type, target, value);
+        } else {
+            sendUpdate(type.toString(), target, value);
+        }
     }
 }
@@ -0,0 +1,268 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import io.riddles.javainterface.game.player.AbstractPlayer;
+import io.riddles.poker.game.move.MoveType;
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.table.LegalActions;
+
+/**
+ * io.riddles.poker.game.player.PokerUpdateEncoder - Created on 19-10-26
+ *
+ * Writes the update lines for one bot into a reusable byte buffer, in the
+ * format the match wrapper expects from the engine, like
+ * "bot 0 send update player1 chips 2000". The start of each line up to the
+ * value is precomputed per update type and target player, numbers are
+ * written digit by digit, so encoding an update doesn't allocate once the
+ * buffer is large enough. Lines are separated by newlines, without one
+ * after the last line. The lines have to stay the same as the ones the
+ * sendUpdate methods of AbstractPlayer send, PokerUpdateEncoderSpec checks
+ * this for every update.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PokerUpdateEncoder {
+
+    private static final UpdateType[] UPDATE_TYPES = UpdateType.values();
+    private static final byte[][] MOVE_TYPE_BYTES = new byte[MoveType.values().length][];
+
+    static {
+        for (MoveType moveType : MoveType.values()) {
+            MOVE_TYPE_BYTES[moveType.ordinal()] = ascii(moveType.toString());
+        }
+    }
+
+    private final int botId;
+    private final byte[][] gamePrefixes;  // "bot <id> send update game <type> " per type
+    private final byte[][][] playerPrefixes;  // per type and target id, created when first used
+
+    private byte[] buffer;
+    private int length;
+
+    public PokerUpdateEncoder(int botId) {
+        this.botId = botId;
+        this.gamePrefixes = new byte[UPDATE_TYPES.length][];
+        this.playerPrefixes = new byte[UPDATE_TYPES.length][0][];
+        this.buffer = new byte[1024];
+
+        for (UpdateType type : UPDATE_TYPES) {
+            this.gamePrefixes[type.ordinal()] = ascii(
+                    String.format("bot %d send update game %s ", botId, type));
+        }
+    }
+
+    /**
+     * Adds a line that is already in the wire format, like the messages the
+     * player sends through the IO handler itself
+     * @param message The line
+     */
+    public void appendMessage(String message) {
+        startLine();
+        appendString(message);
+    }
+
+    public void appendUpdate(UpdateType type, int value) {
+        startLine();
+        append(this.gamePrefixes[type.ordinal()]);
+        appendInt(value);
+    }
+
+    public void appendUpdate(UpdateType type, String value) {
+        startLine();
+        append(this.gamePrefixes[type.ordinal()]);
+        appendString(value);
+    }
+
+    public void appendUpdate(UpdateType type, AbstractPlayer target, int value) {
+        startLine();
+        append(getPlayerPrefix(type, target));
+        appendInt(value);
+    }
+
+    public void appendUpdate(UpdateType type, AbstractPlayer target, String value) {
+        startLine();
+        append(getPlayerPrefix(type, target));
+        appendString(value);
+    }
+
+    /**
+     * Same as the update with the move's toString as value
+     * @param target Player that made the move
+     * @param move The move
+     */
+    public void appendMove(AbstractPlayer target, PokerMove move) {
+        startLine();
+        append(getPlayerPrefix(UpdateType.MOVE, target));
+        append(MOVE_TYPE_BYTES[move.getMoveType().ordinal()]);
+
+        if (move.getMoveType() == MoveType.RAISE) {
+            appendByte('_');
+
+            if (move.getAmount() != null) {
+                appendInt(move.getAmount());
+            } else {
+                appendString("null");
+            }
+        }
+    }
+
+    /**
+     * Same as the update with the legal actions' toString as value
+     * @param target Player the legal actions are for
+     * @param legalActions The legal actions
+     */
+    public void appendLegalActions(AbstractPlayer target, LegalActions legalActions) {
+        startLine();
+        append(getPlayerPrefix(UpdateType.LEGAL_ACTIONS, target));
+        appendString("fold");
+
+        if (legalActions.canCheck()) {
+            appendString(",check");
+        } else {
+            appendString(",call:");
+            appendInt(legalActions.getCallAmount());
+        }
+
+        if (legalActions.canRaise()) {
+            int maxRaise = legalActions.getMaxRaise();
+
+            appendString(",raise:");
+            appendInt(Math.max(Math.min(legalActions.getMinRaise(), maxRaise), 1));
+            appendByte('-');
+            appendInt(maxRaise);
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.length == 0;
+    }
+
+    public int length() {
+        return this.length;
+    }
+
+    public void writeTo(OutputStream output) throws IOException {
+        output.write(this.buffer, 0, this.length);
+    }
+
+    public void clear() {
+        this.length = 0;
+    }
+
+    /**
+     * @return All lines as one string
+     */
+    @Override
+    public String toString() {
+        return new String(this.buffer, 0, this.length, StandardCharsets.UTF_8);
+    }
+
+    private byte[] getPlayerPrefix(UpdateType type, AbstractPlayer target) {
+        byte[][] prefixes = this.playerPrefixes[type.ordinal()];
+        int targetId = target.getId();
+
+        if (targetId >= prefixes.length) {
+            prefixes = Arrays.copyOf(prefixes, targetId + 1);
+            this.playerPrefixes[type.ordinal()] = prefixes;
+        }
+
+        if (prefixes[targetId] == null) {  // names are set before the game starts
+            prefixes[targetId] = String.format("bot %d send update %s %s ",
+                    this.botId, target.getName(), type).getBytes(StandardCharsets.UTF_8);
+        }
+
+        return prefixes[targetId];
+    }
+
+    private void startLine() {
+        if (this.length > 0) {
+            appendByte('\n');
+        }
+    }
+
+    private void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, this.buffer, this.length, bytes.length);
+        this.length += bytes.length;
+    }
+
+    private void appendByte(int b) {
+        ensureCapacity(1);
+        this.buffer[this.length++] = (byte) b;
+    }
+
+    private void appendInt(int value) {
+        ensureCapacity(11);  // "-2147483648"
+
+        if (value == Integer.MIN_VALUE) {
+            append(ascii(Integer.toString(value)));
+            return;
+        }
+
+        if (value < 0) {
+            this.buffer[this.length++] = '-';
+            value = -value;
+        }
+
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+
+        for (int i = this.length + digits - 1; i >= this.length; i--) {
+            this.buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        this.length += digits;
+    }
+
+    // ASCII is copied char by char, anything else is encoded as UTF-8
+    private void appendString(String string) {
+        int stringLength = string.length();
+        ensureCapacity(stringLength);
+
+        for (int i = 0; i < stringLength; i++) {
+            char c = string.charAt(i);
+
+            if (c >= 0x80) {
+                append(string.substring(i).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            this.buffer[this.length++] = (byte) c;
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (this.length + extra > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.length + extra));
+        }
+    }
+
+    private static byte[] ascii(String string) {
+        return string.getBytes(StandardCharsets.US_ASCII);
+    }
+}
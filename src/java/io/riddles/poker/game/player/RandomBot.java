@@ -0,0 +1,65 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player;
+
+import java.util.Random;
+
+import io.riddles.poker.game.move.MoveType;
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.table.LegalActions;
+
+/**
+ * io.riddles.poker.game.player.RandomBot - Created on 19-10-26
+ *
+ * Bot for self-play that picks its moves at random: mostly checking and
+ * calling, sometimes raising a few big blinds or folding to a bet. Doesn't
+ * look at its cards.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class RandomBot implements PokerBot {
+
+    private final Random random;
+    private int bigBlind;
+
+    public RandomBot(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public void onHandStart(int roundNumber, int smallBlind, int bigBlind, int buttonId) {
+        this.bigBlind = bigBlind;
+    }
+
+    @Override
+    public PokerMove getMove(LegalActions legalActions) {
+        int choice = this.random.nextInt(100);
+
+        if (choice < 15) {
+            return new PokerMove(MoveType.RAISE, this.bigBlind * (2 + this.random.nextInt(4)));
+        }
+
+        if (legalActions.canCheck()) {
+            return new PokerMove(MoveType.CHECK);
+        }
+
+        return new PokerMove(choice < 30 ? MoveType.FOLD : MoveType.CALL);
+    }
+}
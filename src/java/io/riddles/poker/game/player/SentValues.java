@@ -0,0 +1,102 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player;
+
+import java.util.Arrays;
+
+import io.riddles.poker.game.table.LegalActions;
+
+/**
+ * io.riddles.poker.game.player.SentValues - Created on 19-10-26
+ *
+ * The chips and move updates last sent to one bot during the match, for
+ * bots that only get the values that changed since they were last sent.
+ * Each update method returns whether the value has to be sent, and
+ * remembers it if so.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class SentValues {
+
+    private final int[] chips = new int[Long.SIZE];
+    private final int[] bets = new int[Long.SIZE];
+    private long sentChipsMask;  // bit i is set if the chips of player i were sent
+    private long sentBetMask;
+    private int pot;
+    private int amountToCall;
+    private LegalActions legalActions;
+    private boolean isPotSent;
+    private boolean isAmountToCallSent;
+
+    boolean updateChips(int playerId, int chips) {
+        long bit = 1L << playerId;
+
+        if ((this.sentChipsMask & bit) != 0 && this.chips[playerId] == chips) {
+            return false;
+        }
+
+        this.sentChipsMask |= bit;
+        this.chips[playerId] = chips;
+        return true;
+    }
+
+    /**
+     * The bots know all bets are 0 at the start of a bet round
+     */
+    void startBetRound() {
+        Arrays.fill(this.bets, 0);
+        this.sentBetMask = -1L;
+    }
+
+    boolean updateBet(int playerId, int bet) {
+        long bit = 1L << playerId;
+
+        if ((this.sentBetMask & bit) != 0 && this.bets[playerId] == bet) {
+            return false;
+        }
+
+        this.sentBetMask |= bit;
+        this.bets[playerId] = bet;
+        return true;
+    }
+
+    boolean updatePot(int pot) {
+        if (this.isPotSent && this.pot == pot) return false;
+
+        this.isPotSent = true;
+        this.pot = pot;
+        return true;
+    }
+
+    boolean updateAmountToCall(int amountToCall) {
+        if (this.isAmountToCallSent && this.amountToCall == amountToCall) return false;
+
+        this.isAmountToCallSent = true;
+        this.amountToCall = amountToCall;
+        return true;
+    }
+
+    boolean updateLegalActions(LegalActions legalActions) {
+        if (legalActions.isSameAs(this.legalActions)) return false;
+
+        this.legalActions = legalActions;
+        return true;
+    }
+}
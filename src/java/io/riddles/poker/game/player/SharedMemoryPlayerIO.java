@@ -0,0 +1,119 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player;
+
+import io.riddles.javainterface.io.IOInterface;
+import io.riddles.poker.client.SharedMemoryChannel;
+
+/**
+ * io.riddles.poker.game.player.SharedMemoryPlayerIO - Created on 19-10-26
+ *
+ * IO handler of one player that talks to its bot through a
+ * SharedMemoryChannel, instead of through the match wrapper. Does what the
+ * match wrapper does with the engine's lines: the "bot <id> send " and
+ * "bot <id> ask " prefixes are removed and the rest is given to the bot,
+ * so the bot gets the same lines as over stdin. A request waits for the
+ * bot's reply, null if it doesn't come in time.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class SharedMemoryPlayerIO implements IOInterface, AutoCloseable {
+
+    private final SharedMemoryChannel channel;
+    private final long timeoutMillis;
+
+    /**
+     * @param channel Engine side of the channel to the bot
+     * @param timeoutMillis Time to wait for a reply, or for space to write, at most
+     */
+    public SharedMemoryPlayerIO(SharedMemoryChannel channel, long timeoutMillis) {
+        this.channel = channel;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void sendMessage(String message) {
+        this.channel.write(stripPrefixes(message), this.timeoutMillis);
+    }
+
+    @Override
+    public String getNextMessage() {
+        return this.channel.read(this.timeoutMillis);
+    }
+
+    @Override
+    public String sendRequest(String message) {
+        sendMessage(message);
+        return getNextMessage();
+    }
+
+    /**
+     * Writes a frame of the BinaryProtocol to the bot
+     * @param frame Bytes of the frame
+     * @param length Length of the frame
+     */
+    public void sendFrame(byte[] frame, int length) {
+        this.channel.writeBytes(frame, length, this.timeoutMillis);
+    }
+
+    /**
+     * @return The next frame of the bot, null if it doesn't come in time
+     */
+    public byte[] getNextFrame() {
+        return this.channel.readBytes(this.timeoutMillis);
+    }
+
+    @Override
+    public void close() {
+        this.channel.close();
+    }
+
+    // Removes the prefix of each line, messages can hold multiple lines
+    static String stripPrefixes(String message) {
+        StringBuilder lines = new StringBuilder(message.length());
+        int start = 0;
+
+        while (start <= message.length()) {
+            int end = message.indexOf('\n', start);
+            if (end < 0) end = message.length();
+
+            if (start > 0) lines.append('\n');
+            lines.append(message, getContentStart(message, start, end), end);
+            start = end + 1;
+        }
+
+        return lines.toString();
+    }
+
+    // Start of the part after "bot <id> send " or "bot <id> ask ", or the
+    // start of the line if it doesn't have that prefix
+    private static int getContentStart(String message, int start, int end) {
+        if (!message.startsWith("bot ", start)) return start;
+
+        int index = start + 4;
+        while (index < end && Character.isDigit(message.charAt(index))) {
+            index++;
+        }
+
+        if (message.startsWith(" send ", index)) return index + 6;
+        if (message.startsWith(" ask ", index)) return index + 5;
+        return start;
+    }
+}
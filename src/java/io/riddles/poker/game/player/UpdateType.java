@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player;
+
+/**
+ * io.riddles.poker.game.player.UpdateType - Created on 19-10-26
+ *
+ * The updates sent to the bots, with the name used in the text protocol.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public enum UpdateType {
+    ROUND,
+    SMALL_BLIND,
+    BIG_BLIND,
+    ON_BUTTON,
+    CHIPS,
+    BET_ROUND,
+    HAND,
+    TABLE,
+    BET,
+    POT,
+    AMOUNT_TO_CALL,
+    LEGAL_ACTIONS,
+    MOVE,
+    WINS;
+
+    @Override
+    public String toString() {
+        return this.name().toLowerCase();
+    }
+}
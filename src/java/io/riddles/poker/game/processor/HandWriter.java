@@ -0,0 +1,86 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.processor;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * io.riddles.poker.game.processor.HandWriter - Created on 19-10-26
+ *
+ * Writes finished hands on a thread of its own, so the processor can start
+ * the next hand while the states of the previous one are serialized and
+ * written. At most one hand is written behind the game: writing a hand
+ * first waits until the previous one is written. A write that failed is
+ * thrown from the next call that waits.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class HandWriter {
+
+    private final ExecutorService writer;
+    private Future<?> lastWrite;  // null if nothing was written yet
+
+    public HandWriter() {
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hand-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Waits until the previous hand is written and starts writing the next
+     * @param write Writes the hand, may only read states this thread doesn't read anymore
+     */
+    public void write(Runnable write) {
+        awaitWrites();
+        this.lastWrite = this.writer.submit(write);
+    }
+
+    /**
+     * Waits until all hands given so far are written
+     */
+    public void awaitWrites() {
+        if (this.lastWrite == null) return;
+
+        try {
+            this.lastWrite.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while writing a hand", ex);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException("Can't write a hand", ex.getCause());
+        }
+    }
+
+    /**
+     * Writes the pending hand and stops the writer thread
+     */
+    public void close() {
+        try {
+            awaitWrites();
+        } finally {
+            this.writer.shutdown();
+        }
+    }
+}
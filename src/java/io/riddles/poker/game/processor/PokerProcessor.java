@@ -20,19 +20,22 @@
 package io.riddles.poker.game.processor;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.stream.Collectors;
+import java.util.Collections;
+import java.util.List;
 
 import io.riddles.javainterface.game.player.PlayerProvider;
 import io.riddles.javainterface.game.processor.SimpleProcessor;
-import io.riddles.poker.game.move.ActionType;
+import io.riddles.poker.game.PokerCheckpoint;
+import io.riddles.poker.game.PokerStateStreamer;
+import io.riddles.poker.game.PokerSummary;
 import io.riddles.poker.game.move.MoveType;
 import io.riddles.poker.game.move.PokerMove;
-import io.riddles.poker.game.move.PokerMoveDeserializer;
 import io.riddles.poker.game.player.PokerPlayer;
 import io.riddles.poker.game.state.PokerPlayerState;
 import io.riddles.poker.game.state.PokerState;
+import io.riddles.poker.game.state.PokerStateHistory;
 import io.riddles.poker.game.table.BetRound;
+import io.riddles.poker.game.table.LegalActions;
 import io.riddles.poker.game.table.PokerTable;
 
 /**
@@ -44,29 +47,38 @@ import io.riddles.poker.game.table.PokerTable;
  */
 public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
 
-    private PokerMoveDeserializer moveDeserializer;
+    private PokerStateStreamer stateStreamer;  // null if states are not streamed
+    private PokerStateHistory historyStore;  // null if states are linked in memory
+    private PokerSummary summary;  // null if all states are kept
+
+    private String checkpointFile;  // null if no checkpoints are written
+    private PokerStateStreamer replayStreamer;  // all states so far, for the checkpoints
+    private List<String> resumedStates;  // states played before resuming from a checkpoint
+    private HandWriter handWriter;  // null if hands are written before the next one starts
+    private boolean isCalculatingHandOdds;
 
     // TODO: broadcast when a player is out of chips (not needed for heads-up)
 
     public PokerProcessor(PlayerProvider<PokerPlayer> playerProvider) {
         super(playerProvider);
-        this.moveDeserializer = new PokerMoveDeserializer();
+        this.resumedStates = Collections.emptyList();
+        this.isCalculatingHandOdds = true;
     }
 
     @Override
     public boolean hasGameEnded(PokerState state) {
-        return getActuallyAlivePlayers(state).size() <= 1;
+        return Long.bitCount(getActuallyAliveMask(state)) <= 1;
     }
 
     @Override
     public Integer getWinnerId(PokerState state) {
-        ArrayList<PokerPlayerState> alivePlayers = getActuallyAlivePlayers(state);
+        long actuallyAliveMask = getActuallyAliveMask(state);
 
-        if (alivePlayers.isEmpty() || alivePlayers.size() > 1) {
+        if (Long.bitCount(actuallyAliveMask) != 1) {
             return null;
         }
 
-        return alivePlayers.get(0).getPlayerId();
+        return Long.numberOfTrailingZeros(actuallyAliveMask);
     }
 
     @Override
@@ -76,12 +88,27 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
 
     @Override
     public PokerState createNextState(PokerState inputState, int roundNumber) {
-        PokerState nextState = inputState.createNextState(roundNumber, BetRound.START);
+        // When streaming, hands are not linked so they can be released after writing.
+        // The summary only keeps the last few hands. With a history store, they are
+        // only kept in the store.
+        PokerState nextState;
+        if (this.stateStreamer != null || this.summary != null) {
+            nextState = inputState.createDetachedState(roundNumber, BetRound.START);
+        } else if (this.historyStore != null) {
+            nextState = inputState.createUnlinkedState(roundNumber, BetRound.START);
+        } else {
+            nextState = inputState.createNextState(roundNumber, BetRound.START);
+        }
+        PokerState handStartState = nextState;
 
         // Store payout at the start of the next round
         ArrayList<Integer> winnings = nextState.getTable().getPotPayout();
         broadCastWinnings(winnings, nextState, false);
 
+        if (this.summary != null) {
+            this.summary.addPayout(inputState, nextState);
+        }
+
         nextState.getTable().resetTable();
 
         sendInitialUpdates(nextState);
@@ -93,10 +120,111 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
         PokerState finalHandState = createFinalHandState(nextState);
 
         if (!hasGameEnded(finalHandState)) {
+            summarizeHand(handStartState, finalHandState);
+            writeHand(handStartState, finalHandState, false);
             return finalHandState;
         }
 
-        return createFinalState(finalHandState);
+        PokerState finalState = createFinalState(finalHandState);
+
+        if (this.historyStore != null) {
+            finalState.record();
+        }
+
+        summarizeHand(handStartState, finalState);
+        writeHand(handStartState, finalState, true);
+
+        return finalState;
+    }
+
+    public void setStateStreamer(PokerStateStreamer stateStreamer) {
+        this.stateStreamer = stateStreamer;
+    }
+
+    public PokerStateStreamer getStateStreamer() {
+        return this.stateStreamer;
+    }
+
+    /**
+     * Records all states of the game in given history instead of linking
+     * the hands, so the heap doesn't grow with the number of hands played.
+     * The initial state must use the same history.
+     * @param historyStore History to record the states in, usually off-heap
+     */
+    public void setHistoryStore(PokerStateHistory historyStore) {
+        this.historyStore = historyStore;
+    }
+
+    public PokerStateHistory getHistoryStore() {
+        return this.historyStore;
+    }
+
+    /**
+     * Releases the history store, if there is one. Must only be called when
+     * the match has ended and the played game has been written.
+     */
+    public void close() {
+        if (this.historyStore != null) {
+            this.historyStore.close();
+        }
+    }
+
+    /**
+     * Only keeps the states of the last hands and statistics of all hands
+     * in given summary, instead of all states
+     * @param summary Summary to add the hands to
+     */
+    public void setSummary(PokerSummary summary) {
+        this.summary = summary;
+    }
+
+    public PokerSummary getSummary() {
+        return this.summary;
+    }
+
+    /**
+     * Writes a checkpoint to given file at the end of every hand, from which
+     * the game can be resumed. The replay streamer keeps the states played so
+     * far and can be the same as the state streamer.
+     * @param checkpointFile File to write the checkpoints to
+     * @param replayStreamer Streamer for the states played so far
+     */
+    public void setCheckpoint(String checkpointFile, PokerStateStreamer replayStreamer) {
+        this.checkpointFile = checkpointFile;
+        this.replayStreamer = replayStreamer;
+    }
+
+
+    /**
+     * The hand odds are simulated at the start of each bet round, which takes
+     * most of the time of a hand. They are only used in the played game.
+     * @param isCalculatingHandOdds False to not calculate the hand odds
+     */
+    public void setCalculatingHandOdds(boolean isCalculatingHandOdds) {
+        this.isCalculatingHandOdds = isCalculatingHandOdds;
+    }
+
+    /**
+     * Lets the hand writer stream the states of a finished hand, and write the
+     * checkpoint after it, while the next hand is played. Only used when the
+     * states are streamed, only then the next hand doesn't touch the states of
+     * the finished one anymore. Bots get the same updates in the same order.
+     * @param handWriter The hand writer, null to write each hand before the next one starts
+     */
+    public void setHandWriter(HandWriter handWriter) {
+        this.handWriter = handWriter;
+    }
+
+    public void setResumedStates(List<String> resumedStates) {
+        this.resumedStates = resumedStates;
+    }
+
+    /**
+     * @return The states, as JSON strings, that were played before the game
+     * was resumed from a checkpoint
+     */
+    public List<String> getResumedStates() {
+        return this.resumedStates;
     }
 
     /**
@@ -113,7 +241,7 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
         int playerId = nextState.getTable().getBetRoundStartingPlayer().getPlayerId();
 
         // We're in showdown mode if there's 0 or 1 active player at the start of the betround
-        boolean showdown = state.getActivePlayers().size() <= 1;
+        boolean showdown = state.getActivePlayerCount() <= 1;
 
         while (!nextState.getTable().hasBetRoundEnded(showdown)) {
             nextState = createBetRoundState(nextState, playerId);
@@ -139,15 +267,21 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
         PokerPlayerState playerState = nextState.getPlayerStateById(playerId);
         PokerTable table = nextState.getTable();
 
-        sendMoveUpdatesToPlayer(playerState, nextState);
-        PokerMove move = getPlayerMove(player);
+        LegalActions legalActions = table.getLegalActions(playerState);
+
+        sendMoveUpdatesToPlayer(playerState, nextState, legalActions);
+        PokerMove move = player.requestMove();
         setPlayerMove(playerState, move);
 
-        table.processMove(playerState);
+        table.processMove(playerState, legalActions);
         broadCastPlayerMove(playerState, nextState);
 
         if (move.isInvalid()) {
             player.sendWarning(move.getException().getMessage());
+
+            if (this.summary != null) {
+                this.summary.addInvalidMove(playerId);
+            }
         }
 
         return nextState;
@@ -168,6 +302,11 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
         nextState.getTable().putBetsInPot();
 
         broadCastShowdown(nextState);
+        flushUpdates();
+
+        if (this.summary != null) {
+            this.summary.addShowdown(getActuallyAliveMask(nextState) & nextState.getHandMask());
+        }
 
         return nextState;
     }
@@ -182,10 +321,79 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
 
         ArrayList<Integer> winnings = finalState.getTable().getPotPayout();
         broadCastWinnings(winnings, finalState, true);
+        awaitUpdates();
+
+        if (this.summary != null) {
+            this.summary.addPayout(state, finalState);
+        }
 
         return finalState;
     }
 
+    /**
+     * Streams the states of a finished hand and writes the checkpoint after
+     * it, or closes the streams after the last hand. The checkpoint itself is
+     * created right away, before the next hand uses the random generator.
+     * When the hand writer writes the hand, it gets a copy of the last state,
+     * as the game goes on from that state on this thread.
+     * @param handStartState First state of the hand
+     * @param handEndState Last state of the hand
+     * @param isLastHand True if the game has ended
+     */
+    private void writeHand(PokerState handStartState, PokerState handEndState, boolean isLastHand) {
+        PokerCheckpoint checkpoint = this.checkpointFile != null && !isLastHand
+                ? PokerCheckpoint.create(handEndState, handEndState.getContext().getRandom())
+                : null;
+
+        boolean isWrittenLater = this.handWriter != null && this.stateStreamer != null;
+        PokerState writtenEndState = isWrittenLater ? handEndState.createSnapshot() : handEndState;
+
+        Runnable write = () -> {
+            streamHand(handStartState, handEndState, writtenEndState);
+
+            if (checkpoint != null) {
+                checkpoint.setReplayPosition(this.replayStreamer.getLength(), this.replayStreamer.getStateCount());
+                checkpoint.write(this.checkpointFile);
+            }
+
+            if (isLastHand) {
+                closeStreamers();
+            }
+        };
+
+        if (isWrittenLater) {
+            this.handWriter.write(write);
+        } else {
+            write.run();
+        }
+    }
+
+    private void streamHand(PokerState handStartState, PokerState handEndState, PokerState writtenEndState) {
+        if (this.stateStreamer != null) {
+            this.stateStreamer.writeHand(handStartState, handEndState, writtenEndState);
+        }
+
+        if (this.replayStreamer != null && this.replayStreamer != this.stateStreamer) {
+            this.replayStreamer.writeHand(handStartState, handEndState, writtenEndState);
+        }
+    }
+
+    private void closeStreamers() {
+        if (this.stateStreamer != null) {
+            this.stateStreamer.close();
+        }
+
+        if (this.replayStreamer != null && this.replayStreamer != this.stateStreamer) {
+            this.replayStreamer.close();
+        }
+    }
+
+    private void summarizeHand(PokerState handStartState, PokerState handEndState) {
+        if (this.summary != null) {
+            this.summary.addHand(handStartState, handEndState);
+        }
+    }
+
     /**
      * Updates that are sent to all players at the start of a hand
      * @param state Current state
@@ -197,14 +405,12 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
         for (PokerPlayerState playerState : state.getAlivePlayers()) {
             PokerPlayer player = getPlayer(playerState.getPlayerId());
 
-            player.sendUpdate("round", state.getRoundNumber());
-            player.sendUpdate("small_blind", table.getSmallBlind());
-            player.sendUpdate("big_blind", table.getBigBlind());
-            player.sendUpdate("on_button", buttonPlayer.getName());
+            player.sendHandStart(state.getRoundNumber(), table.getSmallBlind(),
+                    table.getBigBlind(), buttonPlayer);
 
             for (PokerPlayerState targetPlayerState : state.getPlayerStates()) {
                 PokerPlayer target = getPlayer(targetPlayerState.getPlayerId());
-                player.sendUpdate("chips", target, targetPlayerState.getChips());
+                player.sendChips(target, targetPlayerState.getChips());
             }
         }
     }
@@ -233,8 +439,11 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
                 break;
         }
 
-        table.setHandOdds();
+        if (this.isCalculatingHandOdds) {
+            table.setHandOdds();
+        }
         sendBetRoundUpdates(state);
+        flushUpdates();
     }
 
     /**
@@ -247,12 +456,12 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
         for (PokerPlayerState playerState : state.getAlivePlayers()) {
             PokerPlayer player = getPlayer(playerState.getPlayerId());
 
-            player.sendUpdate("bet_round", state.getBetRound().toString());
+            player.sendBetRound(state.getBetRound());
 
             if (state.getBetRound() == BetRound.PREFLOP) {
-                player.sendUpdate("hand", player, playerState.getHandString());
+                player.sendHand(player, playerState);
             } else {
-                player.sendUpdate("table", table.getTableCardsString());
+                player.sendTable(table);
             }
         }
     }
@@ -261,18 +470,21 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
      * Updates that are sent to given player each time a move is requested
      * @param playerState PlayerState
      * @param state Current state
+     * @param legalActions Legal actions of the player
      */
-    private void sendMoveUpdatesToPlayer(PokerPlayerState playerState, PokerState state) {
+    private void sendMoveUpdatesToPlayer(PokerPlayerState playerState, PokerState state,
+                                         LegalActions legalActions) {
         PokerTable table = state.getTable();
         PokerPlayer player = getPlayer(playerState.getPlayerId());
 
-        for (PokerPlayerState targetPlayerState : state.getAlivePlayers()) {
-            PokerPlayer targetPlayer = getPlayer(targetPlayerState.getPlayerId());
-            player.sendUpdate("bet", targetPlayer, targetPlayerState.getBet());
+        for (long m = state.getAliveMask(); m != 0; m &= m - 1) {
+            int targetId = Long.numberOfTrailingZeros(m);
+            player.sendBet(getPlayer(targetId), state.getPlayerStateById(targetId).getBet());
         }
 
-        player.sendUpdate("pot", player, table.getPotForPlayer(playerState));
-        player.sendUpdate("amount_to_call", player, table.getCallAmountForPlayer(playerState));
+        player.sendPot(table.getPotForPlayer(playerState));
+        player.sendAmountToCall(legalActions.getCallAmount());
+        player.sendLegalActions(legalActions);
     }
 
     /**
@@ -282,28 +494,28 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
     private void broadCastPlayerMove(PokerPlayerState playerState, PokerState state) {
         PokerPlayer player = getPlayer(playerState.getPlayerId());
 
-        for (PokerPlayerState otherPlayerState : state.getAlivePlayers()) {
-            if (otherPlayerState.getPlayerId() == playerState.getPlayerId()) continue;
+        long otherAliveMask = state.getAliveMask() & ~(1L << playerState.getPlayerId());
 
-            PokerPlayer otherPlayer = getPlayer(otherPlayerState.getPlayerId());
-            otherPlayer.sendUpdate("move", player, playerState.getLastMove().toString());
+        for (long m = otherAliveMask; m != 0; m &= m - 1) {
+            PokerPlayer otherPlayer = getPlayer(Long.numberOfTrailingZeros(m));
+            otherPlayer.sendMove(player, playerState.getLastMove());
         }
     }
 
     private void broadCastShowdown(PokerState state) {
-        ArrayList<PokerPlayerState> showdownPlayers = getActuallyAlivePlayers(state).stream()
-                .filter(ps -> !ps.hasFolden())
-                .collect(Collectors.toCollection(ArrayList::new));
+        long showdownMask = getActuallyAliveMask(state) & state.getHandMask();
 
         for (PokerPlayerState playerState : state.getPlayerStates()) {
             PokerPlayer player = getPlayer(playerState.getPlayerId());
 
-            for (PokerPlayerState targetPlayerState : showdownPlayers) {
-                if (playerState.getPlayerId() == targetPlayerState.getPlayerId()) continue;
+            for (long m = showdownMask; m != 0; m &= m - 1) {
+                int targetId = Long.numberOfTrailingZeros(m);
+                if (playerState.getPlayerId() == targetId) continue;
 
-                PokerPlayer targetPlayer = getPlayer(targetPlayerState.getPlayerId());
+                PokerPlayerState targetPlayerState = state.getPlayerStateById(targetId);
+                PokerPlayer targetPlayer = getPlayer(targetId);
 
-                player.sendUpdate("hand", targetPlayer, targetPlayerState.getHandString());
+                player.sendHand(targetPlayer, targetPlayerState);
             }
         }
     }
@@ -327,16 +539,11 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
             for (PokerPlayerState playerState : playerStates) {
                 PokerPlayer player = getPlayer(playerState.getPlayerId());
 
-                player.sendUpdate("wins", winningPlayer, winning);
+                player.sendWins(winningPlayer, winning);
             }
         }
     }
 
-    private PokerMove getPlayerMove(PokerPlayer player) {
-        String response = player.requestMove(ActionType.MOVE);
-        return this.moveDeserializer.traverse(response);
-    }
-
     private void setPlayerMove(PokerPlayerState playerState, PokerMove move) {
         playerState.setMove(move);
 
@@ -347,16 +554,47 @@ public class PokerProcessor extends SimpleProcessor<PokerState, PokerPlayer> {
     }
 
     // Gets the players that still have chips, or not, but will get them from the pot
-    private ArrayList<PokerPlayerState> getActuallyAlivePlayers(PokerState state) {
-        ArrayList<PokerPlayerState> alivePlayers = state.getAlivePlayers();
-        int maxHandStrength = alivePlayers.stream()
-                .map(PokerPlayerState::getHandStrength)
-                .max(Comparator.comparingInt(s -> s))
-                .orElse(-1);
-
-        return alivePlayers.stream()
-                .filter(hp -> hp.getChips() > 0 || hp.getHandStrength() >= maxHandStrength)
-                .collect(Collectors.toCollection(ArrayList::new));
+    private long getActuallyAliveMask(PokerState state) {
+        long aliveMask = state.getAliveMask();
+        int maxHandStrength = -1;
+
+        for (long m = aliveMask; m != 0; m &= m - 1) {
+            PokerPlayerState playerState = state.getPlayerStateById(Long.numberOfTrailingZeros(m));
+            maxHandStrength = Math.max(maxHandStrength, playerState.getHandStrength());
+        }
+
+        long actuallyAliveMask = 0;
+        for (long m = aliveMask; m != 0; m &= m - 1) {
+            int id = Long.numberOfTrailingZeros(m);
+            PokerPlayerState playerState = state.getPlayerStateById(id);
+
+            if (playerState.getChips() > 0 || playerState.getHandStrength() >= maxHandStrength) {
+                actuallyAliveMask |= 1L << id;
+            }
+        }
+
+        return actuallyAliveMask;
+    }
+
+    /**
+     * Writes the buffered updates to all bots, at the end of a broadcast. Moves
+     * of other players are not flushed on their own, they are written with the
+     * next flush or before the next move request.
+     */
+    private void flushUpdates() {
+        for (PokerPlayer player : this.playerProvider.getPlayers()) {
+            player.flushUpdates();
+        }
+    }
+
+    /**
+     * Writes the buffered updates to all bots and waits until they are written,
+     * at the end of the game
+     */
+    private void awaitUpdates() {
+        for (PokerPlayer player : this.playerProvider.getPlayers()) {
+            player.awaitUpdates();
+        }
     }
 
     private PokerPlayer getPlayer(int id) {
@@ -0,0 +1,65 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.state;
+
+import java.util.Arrays;
+
+/**
+ * io.riddles.poker.game.state.HeapHistoryBuffer - Created on 19-10-26
+ *
+ * HistoryBuffer backed by an int array on the heap, that doubles in size
+ * when it's full.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class HeapHistoryBuffer implements HistoryBuffer {
+
+    private int[] data;
+    private int size;
+
+    public HeapHistoryBuffer(int initialCapacity) {
+        this.data = new int[initialCapacity];
+        this.size = 0;
+    }
+
+    @Override
+    public void append(int value) {
+        if (this.size >= this.data.length) {
+            this.data = Arrays.copyOf(this.data, this.data.length * 2);
+        }
+
+        this.data[this.size++] = value;
+    }
+
+    @Override
+    public int get(int position) {
+        return this.data[position];
+    }
+
+    @Override
+    public void set(int position, int value) {
+        this.data[position] = value;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+}
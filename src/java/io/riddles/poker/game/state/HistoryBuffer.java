@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.state;
+
+/**
+ * io.riddles.poker.game.state.HistoryBuffer - Created on 19-10-26
+ *
+ * Growing buffer of ints in which the PokerStateHistory stores its frames.
+ * Values can only be appended, or changed at a position that was already
+ * appended.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public interface HistoryBuffer {
+
+    void append(int value);
+
+    int get(int position);
+
+    void set(int position, int value);
+
+    int size();
+
+    /**
+     * Releases the memory the buffer holds outside of the heap, if any. The
+     * buffer can't be used afterwards.
+     */
+    default void close() {}
+}
@@ -0,0 +1,157 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.state;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * io.riddles.poker.game.state.OffHeapHistoryBuffer - Created on 19-10-26
+ *
+ * HistoryBuffer that keeps its values outside of the Java heap, in fixed size
+ * segments that are added when needed. Segments are either direct buffers, or
+ * memory mapped segments of a temporary file, so the operating system can page
+ * out parts of the history that are not used. Either way the heap only holds
+ * the segment references, no matter how long the match is. The buffer has to
+ * be closed when the match ends, which deletes the temporary file and drops
+ * the segments, so their memory is released at the next garbage collection
+ * instead of when the engine exits.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class OffHeapHistoryBuffer implements HistoryBuffer {
+
+    private static final int SEGMENT_SHIFT = 18;  // 256K ints, 1 MiB per segment
+    private static final int SEGMENT_INTS = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_INTS - 1;
+    private static final long SEGMENT_BYTES = (long) SEGMENT_INTS * Integer.BYTES;
+
+    private final File file;  // null if segments are direct buffers
+    private final FileChannel channel;  // null if segments are direct buffers
+    private IntBuffer[] segments;
+    private int segmentCount;
+    private int size;
+
+    private OffHeapHistoryBuffer(File file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+        this.segments = new IntBuffer[8];
+        this.segmentCount = 0;
+        this.size = 0;
+    }
+
+    /**
+     * @return A buffer with direct buffers as segments
+     */
+    public static OffHeapHistoryBuffer direct() {
+        return new OffHeapHistoryBuffer(null, null);
+    }
+
+    /**
+     * @return A buffer with memory mapped segments of a temporary file,
+     * which is deleted when the buffer is closed, or else when the engine exits
+     */
+    public static OffHeapHistoryBuffer mapped() {
+        try {
+            File file = File.createTempFile("poker-history", ".bin");
+            file.deleteOnExit();
+
+            return new OffHeapHistoryBuffer(file, new RandomAccessFile(file, "rw").getChannel());
+        } catch (IOException ex) {
+            throw new RuntimeException("Can't create history file", ex);
+        }
+    }
+
+    @Override
+    public void append(int value) {
+        int segment = this.size >>> SEGMENT_SHIFT;
+
+        if (segment >= this.segmentCount) {
+            addSegment();
+        }
+
+        this.segments[segment].put(this.size & SEGMENT_MASK, value);
+        this.size++;
+    }
+
+    @Override
+    public int get(int position) {
+        return this.segments[position >>> SEGMENT_SHIFT].get(position & SEGMENT_MASK);
+    }
+
+    @Override
+    public void set(int position, int value) {
+        this.segments[position >>> SEGMENT_SHIFT].put(position & SEGMENT_MASK, value);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Drops the segments and closes and deletes the temporary file. Direct
+     * and mapped segments can't be freed on the spot without internal JDK
+     * API, they are released when they are garbage collected.
+     */
+    @Override
+    public void close() {
+        this.segments = new IntBuffer[0];
+        this.segmentCount = 0;
+        this.size = 0;
+
+        if (this.channel == null) return;
+
+        try {
+            this.channel.close();
+        } catch (IOException ex) {
+            throw new RuntimeException("Can't close history file", ex);
+        } finally {
+            this.file.delete();
+        }
+    }
+
+    private void addSegment() {
+        ByteBuffer segment;
+
+        if (this.channel == null) {
+            segment = ByteBuffer.allocateDirect((int) SEGMENT_BYTES);
+        } else {
+            try {
+                segment = this.channel.map(FileChannel.MapMode.READ_WRITE,
+                        this.segmentCount * SEGMENT_BYTES, SEGMENT_BYTES);
+            } catch (IOException ex) {
+                throw new RuntimeException("Can't map history file", ex);
+            }
+        }
+
+        if (this.segmentCount >= this.segments.length) {
+            this.segments = Arrays.copyOf(this.segments, this.segments.length * 2);
+        }
+
+        this.segments[this.segmentCount++] = segment.order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+}
@@ -0,0 +1,387 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.state;
+
+import io.riddles.poker.game.move.PokerMoveLog;
+
+/**
+ * io.riddles.poker.game.state.PlayerTable - Created on 19-10-26
+ *
+ * Stores the data of all players that is used while betting in flat arrays,
+ * indexed by seat: chips, bets, hole cards as a bitmask of card numbers and
+ * the player flags packed in an int. Also keeps the player status bitmasks
+ * up to date, with one bit per seat. PokerPlayerState is a view on one seat
+ * of this table. The moves of the players are kept in a PokerMoveLog that
+ * is shared with all copies of the table. A copy shares the arrays with the
+ * table it's copied from as well, and copies each array before it changes
+ * it, so an action only copies the arrays it changes. A table can't be
+ * changed anymore once it's copied, like the state it belongs to. Copying
+ * only reads the table, so a table can be copied while another thread reads
+ * it.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PlayerTable {
+
+    public static final int FOLDED = 1;
+    public static final int ALL_IN = 1 << 1;
+    public static final int ACTED = 1 << 2;
+    public static final int FAILED_INPUT = 1 << 3;
+
+    private static final int CHIPS_ARRAY = 1;
+    private static final int BETS_ARRAY = 1 << 1;
+    private static final int HOLE_CARDS_ARRAY = 1 << 2;
+    private static final int FLAGS_ARRAY = 1 << 3;
+    private static final int ALL_ARRAYS = CHIPS_ARRAY | BETS_ARRAY | HOLE_CARDS_ARRAY | FLAGS_ARRAY;
+
+    private int[] chips;
+    private int[] bets;
+    private long[] holeCards;
+    private int[] flags;
+    private int sharedArrays;  // arrays shared with the table this one is copied from, copied before a change
+
+    private long aliveMask;
+    private long handMask;
+    private long activeMask;
+    private long bettingMask;
+
+    // Running totals over the players that didn't fail input, which are the only
+    // players that can have a bet and not be alive
+    private int betTotal;
+    private int highestBet;
+    private boolean isHighestBetStale;  // the highest bet was lowered, find it again when needed
+
+    private PokerMoveLog moveLog;  // created when the first move is logged
+
+    public PlayerTable(int seatCount) {
+        if (seatCount > Long.SIZE) {
+            throw new RuntimeException("A table can't have more than 64 seats");
+        }
+
+        this.chips = new int[seatCount];
+        this.bets = new int[seatCount];
+        this.holeCards = new long[seatCount];
+        this.flags = new int[seatCount];
+    }
+
+    public PlayerTable(PlayerTable table) {
+        this.chips = table.chips;
+        this.bets = table.bets;
+        this.holeCards = table.holeCards;
+        this.flags = table.flags;
+        this.sharedArrays = ALL_ARRAYS;  // the table copied from isn't changed anymore
+
+        this.aliveMask = table.aliveMask;
+        this.handMask = table.handMask;
+        this.activeMask = table.activeMask;
+        this.bettingMask = table.bettingMask;
+
+        this.betTotal = table.betTotal;
+        this.highestBet = table.highestBet;
+        this.isHighestBetStale = table.isHighestBetStale;
+
+        this.moveLog = table.moveLog;
+    }
+
+    /**
+     * Copies all data of a seat from another table to a seat of this table
+     * @param seat Seat of this table
+     * @param table Table to copy from
+     * @param fromSeat Seat of the other table
+     */
+    public void copySeat(int seat, PlayerTable table, int fromSeat) {
+        removeFromTotals(seat);
+        writableChips()[seat] = table.chips[fromSeat];
+        writableBets()[seat] = table.bets[fromSeat];
+        writableHoleCards()[seat] = table.holeCards[fromSeat];
+        writableFlags()[seat] = table.flags[fromSeat];
+        updateStatus(seat);
+    }
+
+    public void resetHand(int seat) {
+        removeFromTotals(seat);
+        writableBets()[seat] = 0;
+        writableHoleCards()[seat] = 0;
+        writableFlags()[seat] &= FAILED_INPUT;
+        updateStatus(seat);
+    }
+
+    public void startBetRound(int seat) {
+        removeFromTotals(seat);
+        writableBets()[seat] = 0;
+        writableFlags()[seat] &= ~ACTED;
+        updateStatus(seat);
+    }
+
+    public void increaseBet(int seat, int bet) {
+        if (bet <= 0) {
+            throw new RuntimeException("Bet needs to be a positive number");
+        }
+
+        removeFromTotals(seat);
+
+        int[] chips = writableChips();
+        int[] bets = writableBets();
+
+        if (bet >= chips[seat]) {  // Player goes all-in
+            writableFlags()[seat] |= ALL_IN;
+            bets[seat] += chips[seat];
+            chips[seat] = 0;
+        } else {
+            bets[seat] += bet;
+            chips[seat] -= bet;
+        }
+
+        updateStatus(seat);
+    }
+
+    /**
+     * Decreases the bet (to put in the pot) by given amount. If the player
+     * hasn't bet enough, the bet will be set to 0.
+     * @param seat Seat of the player
+     * @param amount Amount to decrease the bet with
+     * @return The amount that the bet was actually decreased
+     */
+    public int decreaseBet(int seat, int amount) {
+        if (amount < 0) {
+            throw new RuntimeException("Amount needs to be a positive number");
+        }
+
+        removeFromTotals(seat);
+
+        if (amount > this.bets[seat]) {
+            writableBets()[seat] = 0;
+            updateStatus(seat);
+            return 0;
+        }
+
+        writableBets()[seat] -= amount;
+        updateStatus(seat);
+        return amount;
+    }
+
+    public void increaseChips(int seat, int chips) {
+        if (chips < 0) {
+            throw new RuntimeException("Chips needs to be a positive number");
+        }
+
+        removeFromTotals(seat);
+        writableChips()[seat] += chips;
+        updateStatus(seat);
+    }
+
+    public void setChips(int seat, int chips) {
+        removeFromTotals(seat);
+        writableChips()[seat] = chips;
+        updateStatus(seat);
+    }
+
+    public void setBet(int seat, int bet) {
+        removeFromTotals(seat);
+        writableBets()[seat] = bet;
+        updateStatus(seat);
+    }
+
+    public void addHoleCard(int seat, int cardNumber) {
+        writableHoleCards()[seat] |= 1L << cardNumber;
+    }
+
+    public void setFlag(int seat, int flag, boolean value) {
+        removeFromTotals(seat);
+        int flags = value ? this.flags[seat] | flag : this.flags[seat] & ~flag;
+        if (flags != this.flags[seat]) {
+            writableFlags()[seat] = flags;
+        }
+        updateStatus(seat);
+    }
+
+    public boolean hasFlag(int seat, int flag) {
+        return (this.flags[seat] & flag) != 0;
+    }
+
+    public int getChips(int seat) {
+        return this.chips[seat];
+    }
+
+    public int getBet(int seat) {
+        return this.bets[seat];
+    }
+
+    /**
+     * @param seat Seat of the player
+     * @return Bitmask of the hole cards, bit i is set if the player has card number i
+     */
+    public long getHoleCards(int seat) {
+        return this.holeCards[seat];
+    }
+
+    public int getFlags(int seat) {
+        return this.flags[seat];
+    }
+
+    public PokerMoveLog getMoveLog() {
+        if (this.moveLog == null) {
+            this.moveLog = new PokerMoveLog();
+        }
+
+        return this.moveLog;
+    }
+
+    /**
+     * Starts a new move log for this table, only allowed when none of the players
+     * have moves in the current log anymore, like at the start of a hand. Copies
+     * of this table made earlier keep using the old log.
+     */
+    public void startNewMoveLog() {
+        this.moveLog = null;
+    }
+
+    /**
+     * @return Sum of the bets of all alive players
+     */
+    public int getBetTotal() {
+        return this.betTotal;
+    }
+
+    /**
+     * @return Highest bet of all alive players
+     */
+    public int getHighestBet() {
+        if (this.isHighestBetStale) {
+            this.highestBet = 0;
+            for (int seat = 0; seat < this.bets.length; seat++) {
+                if (!hasFlag(seat, FAILED_INPUT)) {
+                    this.highestBet = Math.max(this.highestBet, this.bets[seat]);
+                }
+            }
+            this.isHighestBetStale = false;
+        }
+
+        return this.highestBet;
+    }
+
+    public int getSeatCount() {
+        return this.chips.length;
+    }
+
+    public boolean isAlive(int seat) {
+        return (this.chips[seat] > 0 || this.bets[seat] > 0 || hasFlag(seat, ALL_IN))
+                && !hasFlag(seat, FAILED_INPUT);
+    }
+
+    public boolean isInHand(int seat) {
+        return isAlive(seat) && !hasFlag(seat, FOLDED);
+    }
+
+    public boolean isActive(int seat) {
+        return isAlive(seat) && !hasFlag(seat, FOLDED | ALL_IN);
+    }
+
+    public boolean isBetting(int seat) {
+        return isActive(seat) && !hasFlag(seat, ACTED);
+    }
+
+    /**
+     * Bitmask of the alive players, bit i is set if the player on seat i is alive.
+     * Iterate with Long.numberOfTrailingZeros(mask) and mask &= mask - 1.
+     * @return Alive players bitmask
+     */
+    public long getAliveMask() {
+        return this.aliveMask;
+    }
+
+    public long getHandMask() {
+        return this.handMask;
+    }
+
+    public long getActiveMask() {
+        return this.activeMask;
+    }
+
+    public long getBettingMask() {
+        return this.bettingMask;
+    }
+
+    // The arrays to change, copied first if they may be shared
+
+    private int[] writableChips() {
+        if ((this.sharedArrays & CHIPS_ARRAY) != 0) {
+            this.chips = this.chips.clone();
+            this.sharedArrays &= ~CHIPS_ARRAY;
+        }
+
+        return this.chips;
+    }
+
+    private int[] writableBets() {
+        if ((this.sharedArrays & BETS_ARRAY) != 0) {
+            this.bets = this.bets.clone();
+            this.sharedArrays &= ~BETS_ARRAY;
+        }
+
+        return this.bets;
+    }
+
+    private long[] writableHoleCards() {
+        if ((this.sharedArrays & HOLE_CARDS_ARRAY) != 0) {
+            this.holeCards = this.holeCards.clone();
+            this.sharedArrays &= ~HOLE_CARDS_ARRAY;
+        }
+
+        return this.holeCards;
+    }
+
+    private int[] writableFlags() {
+        if ((this.sharedArrays & FLAGS_ARRAY) != 0) {
+            this.flags = this.flags.clone();
+            this.sharedArrays &= ~FLAGS_ARRAY;
+        }
+
+        return this.flags;
+    }
+
+    private void removeFromTotals(int seat) {
+        if (hasFlag(seat, FAILED_INPUT)) return;
+
+        this.betTotal -= this.bets[seat];
+
+        if (this.bets[seat] > 0 && this.bets[seat] >= this.highestBet) {
+            this.isHighestBetStale = true;
+        }
+    }
+
+    // Must be called after each change to a seat, removeFromTotals before it
+    private void updateStatus(int seat) {
+        long bit = 1L << seat;
+
+        if (!hasFlag(seat, FAILED_INPUT)) {
+            this.betTotal += this.bets[seat];
+
+            if (!this.isHighestBetStale && this.bets[seat] > this.highestBet) {
+                this.highestBet = this.bets[seat];
+            }
+        }
+
+        this.aliveMask = isAlive(seat) ? this.aliveMask | bit : this.aliveMask & ~bit;
+        this.handMask = isInHand(seat) ? this.handMask | bit : this.handMask & ~bit;
+        this.activeMask = isActive(seat) ? this.activeMask | bit : this.activeMask & ~bit;
+        this.bettingMask = isBetting(seat) ? this.bettingMask | bit : this.bettingMask & ~bit;
+    }
+}
@@ -22,12 +22,15 @@ package io.riddles.poker.game.state;
 import com.stevebrecher.HandEval;
 
 import java.util.ArrayList;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
 import io.riddles.javainterface.game.state.AbstractPlayerState;
+import io.riddles.poker.game.move.MoveType;
 import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.move.PokerMoveLog;
 import io.riddles.poker.game.table.HandEvaluator;
 import io.riddles.poker.game.table.card.Card;
+import io.riddles.poker.game.table.card.CardStrings;
 
 /**
  * io.riddles.poker.game.state.PokerPlayerState - Created on 29-8-17
@@ -38,50 +41,92 @@ import io.riddles.poker.game.table.card.Card;
  */
 public class PokerPlayerState extends AbstractPlayerState<PokerMove> {
 
+    // Chips, bet, hole cards and flags are stored in the player table, this
+    // state only keeps the data that isn't used while betting
+    private PlayerTable table;
+    private int seat;
+
+    // The hand list is shared between consecutive states and never
+    // changed in place, a new list is created when a card is added
     private ArrayList<Card> hand;
-    private ArrayList<PokerMove> betRoundMoves;
-    private int chips;
+    private String handString;  // cached, immutable so it can be shared between states
+
+    // Moves of this bet round are in the move log of the table, the entry of
+    // the last move links to the previous one
+    private int lastMoveIndex;  // -1 if no move in this bet round yet
+    private int betRoundMoveCount;
+    private PokerMove lastMove;  // created on request, not copied to the next state
+    private boolean isLastMoveLogged;  // false while the last move is not validated yet
     private Double odds;
-    private int bet;
-    private boolean hasFailedInput;
-    private boolean hasFolded;
     private int handStrength;
     private HandEval.HandCategory handCategory;
-    private boolean isAllIn;
-    private boolean hasActed;
 
     public PokerPlayerState(int playerId, int chips) {
         super(playerId);
-        this.chips = chips;
-        this.bet = 0;
-        this.hasFailedInput = false;
+        this.table = new PlayerTable(1);
+        this.seat = 0;
+        this.table.setChips(this.seat, chips);
         this.handStrength = -1;
         this.handCategory = null;
         this.hand = new ArrayList<>();
-        this.betRoundMoves = new ArrayList<>();
-        this.isAllIn = false;
-        this.hasActed = false;
+        this.lastMoveIndex = -1;
+        this.betRoundMoveCount = 0;
     }
 
     public PokerPlayerState(PokerPlayerState playerState) {
+        this(playerState, new PlayerTable(1), 0);
+        this.table.copySeat(this.seat, playerState.table, playerState.seat);
+    }
+
+    // Creates a view on given seat of a table that already contains the data
+    PokerPlayerState(PokerPlayerState playerState, PlayerTable table, int seat) {
         super(playerState.getPlayerId());
 
-        this.chips = playerState.chips;
+        this.table = table;
+        this.seat = seat;
+
         this.odds = playerState.odds;
-        this.bet = playerState.bet;
-        this.hasFailedInput = playerState.hasFailedInput;
-        this.hasFolded = playerState.hasFolded;
         this.handStrength = playerState.handStrength;
         this.handCategory = playerState.handCategory;
-        this.isAllIn = playerState.isAllIn;
-        this.hasActed = playerState.hasActed;
 
-        this.hand = playerState.hand.stream()
-                .map(card -> new Card(card.getNumber()))
-                .collect(Collectors.toCollection(ArrayList::new));
-        this.betRoundMoves = playerState.betRoundMoves.stream()
-                .map(PokerMove::new)
-                .collect(Collectors.toCollection(ArrayList::new));
+        this.hand = playerState.hand;
+        this.handString = playerState.handString;
+        this.lastMoveIndex = playerState.lastMoveIndex;
+        this.betRoundMoveCount = playerState.betRoundMoveCount;
+    }
+
+    // For states rebuilt from the PokerStateHistory or a checkpoint only
+    public PokerPlayerState(int playerId, int chips, int bet, ArrayList<Card> hand, PokerMove lastMove,
+                     Double odds, int handStrength, boolean hasFolded, boolean isAllIn,
+                     boolean hasActed, boolean hasFailedInput) {
+        super(playerId);
+
+        this.table = new PlayerTable(1);
+        this.seat = 0;
+        this.table.setChips(this.seat, chips);
+        this.table.setBet(this.seat, bet);
+        this.table.setFlag(this.seat, PlayerTable.FOLDED, hasFolded);
+        this.table.setFlag(this.seat, PlayerTable.ALL_IN, isAllIn);
+        this.table.setFlag(this.seat, PlayerTable.ACTED, hasActed);
+        this.table.setFlag(this.seat, PlayerTable.FAILED_INPUT, hasFailedInput);
+
+        this.hand = hand;
+        for (Card card : hand) {
+            this.table.addHoleCard(this.seat, card.getNumber());
+        }
+
+        this.lastMoveIndex = -1;
+        this.betRoundMoveCount = 0;
+        this.odds = odds;
+        this.handStrength = handStrength;
+        this.handCategory = handStrength >= 0
+                ? HandEvaluator.handStrengthToCategory(handStrength)
+                : null;
+
+        if (lastMove != null) {
+            setMove(lastMove);
+            logLastMove();
+        }
     }
 
     /**
@@ -89,14 +134,12 @@ public class PokerPlayerState extends AbstractPlayerState<PokerMove> {
      */
     public void resetHand() {
         this.hand = new ArrayList<>();
-        this.betRoundMoves = new ArrayList<>();
+        this.handString = null;
+        clearMoves();
         this.odds = null;
-        this.bet = 0;
-        this.hasFolded = false;
         this.handStrength = -1;
         this.handCategory = null;
-        this.isAllIn = false;
-        this.hasActed = false;
+        this.table.resetHand(this.seat);
     }
 
     /**
@@ -104,31 +147,25 @@ public class PokerPlayerState extends AbstractPlayerState<PokerMove> {
      * Called on Flop, Turn, and River
      */
     public void startBetRound() {
-        this.bet = 0;
-        this.betRoundMoves = new ArrayList<>();
+        clearMoves();
         this.odds = null;
         this.handStrength = -1;
         this.handCategory = null;
-        this.hasActed = false;
+        this.table.startBetRound(this.seat);
     }
 
     public void giveCard(Card card) {
-        this.hand.add(card);
+        ArrayList<Card> hand = new ArrayList<>(this.hand.size() + 1);
+        hand.addAll(this.hand);
+        hand.add(card);
+
+        this.hand = hand;
+        this.handString = null;
+        this.table.addHoleCard(this.seat, card.getNumber());
     }
 
     public void increaseBet(int bet) {
-        if (bet <= 0) {
-            throw new RuntimeException("Bet needs to be a positive number");
-        }
-
-        if (bet >= this.chips) {  // Player goes all-in
-            this.isAllIn = true;
-            this.bet = this.chips + this.bet;
-            this.chips = 0;
-        } else {
-            this.bet += bet;
-            this.chips -= bet;
-        }
+        this.table.increaseBet(this.seat, bet);
     }
 
     /**
@@ -138,76 +175,139 @@ public class PokerPlayerState extends AbstractPlayerState<PokerMove> {
      * @return The amount that the bet was actually decreased
      */
     public int decreaseBet(int amount) {
-        if (amount < 0) {
-            throw new RuntimeException("Amount needs to be a positive number");
-        }
-
-        if (amount > this.bet) {
-            this.bet = 0;
-            return this.bet;
-        }
-
-        this.bet -= amount;
-        return amount;
+        return this.table.decreaseBet(this.seat, amount);
     }
 
     public void increaseChips(int chips) {
-        if (chips < 0) {
-            throw new RuntimeException("Chips needs to be a positive number");
-        }
-
-        this.chips += chips;
+        this.table.increaseChips(this.seat, chips);
     }
 
     public ArrayList<Card> getHand() {
         return this.hand;
     }
 
+    /**
+     * @return Bitmask of the hole cards, bit i is set if the player has card number i
+     */
+    public long getHoleCards() {
+        return this.table.getHoleCards(this.seat);
+    }
+
+    /**
+     * Creates the moves of this bet round from the move log, in order
+     * @return The moves of this bet round
+     */
     public ArrayList<PokerMove> getBetRoundMoves() {
-        return this.betRoundMoves;
+        PokerMoveLog moveLog = this.table.getMoveLog();
+        PokerMove[] moves = new PokerMove[this.betRoundMoveCount];
+
+        if (moves.length == 0) {
+            return new ArrayList<>();
+        }
+
+        moves[moves.length - 1] = getLastMove();
+
+        // A last move that is not logged yet isn't in the log, the moves before it are
+        int index = this.isLastMoveLogged
+                ? moveLog.getPreviousIndex(this.lastMoveIndex)
+                : this.lastMoveIndex;
+        for (int i = moves.length - 2; i >= 0; i--) {
+            moves[i] = moveLog.getMove(index);
+            index = moveLog.getPreviousIndex(index);
+        }
+
+        return new ArrayList<>(Arrays.asList(moves));
+    }
+
+    public int getBetRoundMoveCount() {
+        return this.betRoundMoveCount;
     }
 
     public PokerMove getLastMove() {
-        if (this.betRoundMoves.isEmpty()) {
-            return null;
+        if (this.lastMove == null && this.lastMoveIndex >= 0) {
+            this.lastMove = this.table.getMoveLog().getMove(this.lastMoveIndex);
+            this.isLastMoveLogged = true;
         }
 
-        return this.betRoundMoves.get(this.betRoundMoves.size() - 1);
+        return this.lastMove;
+    }
+
+    /**
+     * @return Type of the last move, without creating the move, or null if there is none
+     */
+    public MoveType getLastMoveType() {
+        if (this.lastMove != null && !this.isLastMoveLogged) {
+            return this.lastMove.getMoveType();
+        }
+
+        return this.lastMoveIndex >= 0
+                ? this.table.getMoveLog().getMoveType(this.lastMoveIndex)
+                : null;
+    }
+
+    public int getLastMoveAmount() {
+        if (this.lastMove != null && !this.isLastMoveLogged) {
+            return this.lastMove.getAmount() != null ? this.lastMove.getAmount() : 0;
+        }
+
+        return this.lastMoveIndex >= 0
+                ? this.table.getMoveLog().getAmount(this.lastMoveIndex)
+                : 0;
     }
 
     public String getHandString() {
-        return this.hand.stream()
-                .map(Card::toString)
-                .collect(Collectors.joining(","));
+        if (this.handString == null) {
+            this.handString = CardStrings.join(this.hand);
+        }
+
+        return this.handString;
     }
 
     public boolean isAllin() {
-        return this.isAllIn;
+        return this.table.hasFlag(this.seat, PlayerTable.ALL_IN);
     }
 
     public boolean isAlive() {
-        return (this.chips > 0 || this.bet > 0 || isAllin()) && !this.hasFailedInput;
+        return this.table.isAlive(this.seat);
     }
 
     public boolean isActive() {
-        return isAlive() && !this.hasFolded && !isAllin();
+        return this.table.isActive(this.seat);
     }
 
     public boolean isInHand() {
-        return isAlive() && !this.hasFolded;
+        return this.table.isInHand(this.seat);
     }
 
     public boolean isBetting() {
-        return isActive() && !hasActed();
+        return this.table.isBetting(this.seat);
     }
 
+    /**
+     * Sets the move the player made, which is only added to the move log
+     * by logLastMove, once it's validated
+     * @param move Move of the player
+     */
     @Override
     public void setMove(PokerMove move) {
-        this.betRoundMoves.add(move);
+        this.betRoundMoveCount++;
+        this.lastMove = move;
+        this.isLastMoveLogged = false;
+    }
+
+    /**
+     * Adds a copy of the last move to the move log. Changes to the move
+     * after this are not logged.
+     */
+    public void logLastMove() {
+        if (this.lastMove == null || this.isLastMoveLogged) return;
+
+        this.lastMoveIndex = this.table.getMoveLog().append(this.lastMove, this.lastMoveIndex);
+        this.isLastMoveLogged = true;
     }
 
     public int getChips() {
-        return this.chips;
+        return this.table.getChips(this.seat);
     }
 
     public void setOdds(double odds) {
@@ -232,30 +332,67 @@ public class PokerPlayerState extends AbstractPlayerState<PokerMove> {
     }
 
     public int getBet() {
-        return this.bet;
+        return this.table.getBet(this.seat);
     }
 
     public void setFailedInput() {
-        this.hasFailedInput = true;
+        this.table.setFlag(this.seat, PlayerTable.FAILED_INPUT, true);
     }
 
     public boolean hasFailedInput() {
-        return this.hasFailedInput;
+        return this.table.hasFlag(this.seat, PlayerTable.FAILED_INPUT);
     }
 
     public void setHasActed(boolean hasActed) {
-        this.hasActed = hasActed;
+        this.table.setFlag(this.seat, PlayerTable.ACTED, hasActed);
     }
 
     public boolean hasActed() {
-        return this.hasActed;
+        return this.table.hasFlag(this.seat, PlayerTable.ACTED);
     }
 
     public void setFolded() {
-        this.hasFolded = true;
+        this.table.setFlag(this.seat, PlayerTable.FOLDED, true);
     }
 
     public boolean hasFolden() {
-        return this.hasFolded;
+        return this.table.hasFlag(this.seat, PlayerTable.FOLDED);
+    }
+
+    PlayerTable getTable() {
+        return this.table;
+    }
+
+    int getSeat() {
+        return this.seat;
+    }
+
+    /**
+     * Moves the data of this player state to given seat of another table,
+     * and makes this state a view on that seat
+     * @param table Table to move to
+     * @param seat Seat of the table
+     */
+    void moveTo(PlayerTable table, int seat) {
+        table.copySeat(seat, this.table, this.seat);
+
+        ArrayList<PokerMove> moves = getBetRoundMoves();
+
+        this.table = table;
+        this.seat = seat;
+
+        // Log the moves again in the move log of the new table
+        clearMoves();
+        for (PokerMove move : moves) {
+            setMove(move);
+            logLastMove();
+        }
+    }
+
+    private void clearMoves() {
+        this.lastMoveIndex = -1;
+        this.betRoundMoveCount = 0;
+        this.lastMove = null;
+        this.isLastMoveLogged = false;
     }
 }
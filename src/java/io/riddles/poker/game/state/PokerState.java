@@ -20,11 +20,13 @@
 package io.riddles.poker.game.state;
 
 import java.util.ArrayList;
-import java.util.stream.Collectors;
 
 import io.riddles.javainterface.game.state.AbstractState;
+import io.riddles.poker.game.PokerContext;
 import io.riddles.poker.game.table.BetRound;
 import io.riddles.poker.game.table.PokerTable;
+import io.riddles.poker.game.table.SidePots;
+import io.riddles.poker.game.table.card.Card;
 
 /**
  * io.riddles.poker.game.state.PokerState - Created on 29-8-17
@@ -35,59 +37,272 @@ import io.riddles.poker.game.table.PokerTable;
  */
 public class PokerState extends AbstractState<PokerPlayerState> {
 
+    private PokerContext context;  // null for states rebuilt from the history
     private PokerTable table;
     private BetRound betRound;
 
+    private PokerStateHistory history;
+    private int historyIndex;  // -1 if not recorded in the history yet
+    private boolean isCompacted;
+
+    // Betting data of all players, the player states are views on this table.
+    // Also keeps the player status bitmasks, with one bit per player id.
+    private PlayerTable players;
+
     // For initial state only
-    public PokerState(ArrayList<PokerPlayerState> playerStates) {
+    public PokerState(ArrayList<PokerPlayerState> playerStates, PokerContext context) {
+        this(playerStates, new PokerStateHistory(playerStates.size()), context);
+    }
+
+    // For initial state only, with the history all states will be recorded in
+    public PokerState(ArrayList<PokerPlayerState> playerStates, PokerStateHistory history,
+                      PokerContext context) {
         super(null, playerStates, 1);
+        this.context = context;
         this.table = new PokerTable(this);
         this.betRound = null;
+        this.history = history;
+        this.historyIndex = -1;
+        adoptPlayerStates();
     }
 
     public PokerState(PokerState previousState, ArrayList<PokerPlayerState> playerStates,
                       int roundNumber, BetRound betRound) {
         super(previousState, playerStates, roundNumber);
+        this.context = previousState.context;
         this.table = new PokerTable(previousState.table, this);
         this.betRound = betRound;
+        this.history = previousState.history;
+        this.historyIndex = -1;
+        adoptPlayerStates();
+    }
+
+    // Starts a new chain of states that isn't linked to the previous state
+    private PokerState(PokerState previousState, ArrayList<PokerPlayerState> playerStates,
+                       int roundNumber, BetRound betRound, PokerStateHistory history) {
+        super(null, playerStates, roundNumber);
+        this.context = previousState.context;
+        this.table = new PokerTable(previousState.table, this);
+        this.betRound = betRound;
+        this.history = history;
+        this.historyIndex = -1;
+        adoptPlayerStates();
+    }
+
+    // For states rebuilt from the PokerStateHistory only
+    PokerState(ArrayList<PokerPlayerState> playerStates, int roundNumber, BetRound betRound,
+               ArrayList<Card> tableCards, SidePots pots, int buttonId, int smallBlindId,
+               int bigBlindId, int blindHeight) {
+        super(null, playerStates, roundNumber);
+        this.table = new PokerTable(this, tableCards, pots, buttonId,
+                smallBlindId, bigBlindId, blindHeight);
+        this.betRound = betRound;
+        this.historyIndex = -1;
+        adoptPlayerStates();
+    }
+
+    // For read-only views on the PokerStateHistory only, rebuilt when used. Views
+    // have no context, so no next states can be created from them.
+    PokerState(PokerStateHistory history, int historyIndex, int roundNumber, BetRound betRound) {
+        super(null, null, roundNumber);
+        this.betRound = betRound;
+        this.history = history;
+        this.historyIndex = historyIndex;
+        this.isCompacted = true;
+    }
+
+    // For the last state of a hand, resumed from a checkpoint
+    public PokerState(ArrayList<PokerPlayerState> playerStates, int roundNumber, SidePots pots,
+                      int buttonId, int smallBlindId, int bigBlindId, int blindHeight,
+                      PokerStateHistory history, PokerContext context) {
+        this(playerStates, roundNumber, null, new ArrayList<>(), pots, buttonId,
+                smallBlindId, bigBlindId, blindHeight);
+        this.history = history;
+        this.context = context;
     }
 
     public PokerState createNextState(int roundNumber, BetRound betRound) {
-        // Create new player states from current player states
-        ArrayList<PokerPlayerState> playerStates = new ArrayList<>();
-        for (PokerPlayerState playerState : this.playerStates) {
-            playerStates.add(new PokerPlayerState(playerState));
-        }
+        ArrayList<PokerPlayerState> playerStates = copyPlayerStates();
+
+        // This state can't change anymore after the next one is created
+        record();
 
         // Create new state from current state
         return new PokerState(this, playerStates, roundNumber, betRound);
     }
 
+    /**
+     * Creates the next state like createNextState, and records this state in
+     * the same history, but doesn't link the next state to this one. States
+     * before the returned one can be garbage collected when they are not
+     * referenced anymore, they can still be read from the history.
+     * @param roundNumber Round number of the next state
+     * @param betRound Bet round of the next state
+     * @return The next state
+     */
+    public PokerState createUnlinkedState(int roundNumber, BetRound betRound) {
+        ArrayList<PokerPlayerState> playerStates = copyPlayerStates();
+
+        record();
+
+        return new PokerState(this, playerStates, roundNumber, betRound, this.history);
+    }
+
+    /**
+     * Creates the next state like createNextState, but without linking it to
+     * this state, and with a new history. States before the returned one can
+     * be garbage collected when they are not referenced anymore.
+     * @param roundNumber Round number of the next state
+     * @param betRound Bet round of the next state
+     * @return The first state of a new chain of states
+     */
+    public PokerState createDetachedState(int roundNumber, BetRound betRound) {
+        ArrayList<PokerPlayerState> playerStates = copyPlayerStates();
+
+        // Move the players to a new table as well, so the move log isn't shared
+        PlayerTable players = new PlayerTable(playerStates.size());
+        for (int i = 0; i < playerStates.size(); i++) {
+            playerStates.get(i).moveTo(players, i);
+        }
+
+        return new PokerState(this, playerStates, roundNumber, betRound,
+                new PokerStateHistory(playerStates.size()));
+    }
+
+    /**
+     * Creates a copy of this state that isn't linked to any other state, to
+     * read on another thread while the game goes on from this state. Reading
+     * a state fills caches in it, so a state can't be read by two threads.
+     * The copy is never recorded.
+     * @return The copy, with the same round number and bet round
+     */
+    public PokerState createSnapshot() {
+        return new PokerState(this, copyPlayerStates(), getRoundNumber(), this.betRound, this.history);
+    }
+
+    /**
+     * Records this state in the history, if it isn't recorded yet. Happens
+     * automatically when the next state is created, so only needed for the
+     * last state of a game. The state can't be changed anymore after this.
+     */
+    public void record() {
+        if (this.historyIndex < 0) {
+            this.historyIndex = this.history.record(this);
+        }
+    }
+
+    /**
+     * @return The context of the match this state belongs to, null for
+     * read-only states rebuilt from the history
+     */
+    public PokerContext getContext() {
+        return this.context;
+    }
+
+    public PokerStateHistory getHistory() {
+        return this.history;
+    }
+
+    /**
+     * Drops the player states and table of this state, if it's recorded
+     * in the history. They are rebuilt from the history when needed again.
+     */
+    public void compact() {
+        if (this.historyIndex < 0 || this.isCompacted) return;
+
+        this.playerStates = null;
+        this.players = null;
+        this.table = null;
+        this.isCompacted = true;
+    }
+
+    @Override
+    public ArrayList<PokerPlayerState> getPlayerStates() {
+        restore();
+        return this.playerStates;
+    }
+
+    @Override
+    public PokerPlayerState getPlayerStateById(int id) {
+        restore();
+
+        // Player states are ordered by id, so try the direct lookup first
+        if (id >= 0 && id < this.playerStates.size()) {
+            PokerPlayerState playerState = this.playerStates.get(id);
+
+            if (playerState.getPlayerId() == id) {
+                return playerState;
+            }
+        }
+
+        return super.getPlayerStateById(id);
+    }
+
     public ArrayList<PokerPlayerState> getAlivePlayers() {
-        return this.playerStates.stream()
-                .filter(PokerPlayerState::isAlive)
-                .collect(Collectors.toCollection(ArrayList::new));
+        return getPlayers(getAliveMask());
     }
 
     public ArrayList<PokerPlayerState> getHandPlayers() {
-        return this.playerStates.stream()
-                .filter(PokerPlayerState::isInHand)
-                .collect(Collectors.toCollection(ArrayList::new));
+        return getPlayers(getHandMask());
     }
 
     public ArrayList<PokerPlayerState> getActivePlayers() {
-        return this.playerStates.stream()
-                .filter(PokerPlayerState::isActive)
-                .collect(Collectors.toCollection(ArrayList::new));
+        return getPlayers(getActiveMask());
     }
 
     public ArrayList<PokerPlayerState> getBettingPlayers() {
-        return this.playerStates.stream()
-                .filter(PokerPlayerState::isBetting)
-                .collect(Collectors.toCollection(ArrayList::new));
+        return getPlayers(getBettingMask());
+    }
+
+    /**
+     * The betting data of all players, indexed by player id. Changes made
+     * to the table are directly visible in the player states.
+     * @return Player table of this state
+     */
+    public PlayerTable getPlayerTable() {
+        restore();
+        return this.players;
+    }
+
+    /**
+     * Bitmask of the alive players, bit i is set if the player with id i is alive.
+     * Iterate with Long.numberOfTrailingZeros(mask) and mask &= mask - 1.
+     * @return Alive players bitmask
+     */
+    public long getAliveMask() {
+        return getPlayerTable().getAliveMask();
+    }
+
+    public long getHandMask() {
+        return getPlayerTable().getHandMask();
+    }
+
+    public long getActiveMask() {
+        return getPlayerTable().getActiveMask();
+    }
+
+    public long getBettingMask() {
+        return getPlayerTable().getBettingMask();
+    }
+
+    public int getAlivePlayerCount() {
+        return Long.bitCount(getAliveMask());
+    }
+
+    public int getHandPlayerCount() {
+        return Long.bitCount(getHandMask());
+    }
+
+    public int getActivePlayerCount() {
+        return Long.bitCount(getActiveMask());
+    }
+
+    public int getBettingPlayerCount() {
+        return Long.bitCount(getBettingMask());
     }
 
     public PokerTable getTable() {
+        restore();
         return this.table;
     }
 
@@ -98,4 +313,69 @@ public class PokerState extends AbstractState<PokerPlayerState> {
     public BetRound getBetRound() {
         return this.betRound;
     }
+
+    private ArrayList<PokerPlayerState> getPlayers(long mask) {
+        ArrayList<PokerPlayerState> players = new ArrayList<>(Long.bitCount(mask));
+
+        for (long m = mask; m != 0; m &= m - 1) {
+            players.add(getPlayerStateById(Long.numberOfTrailingZeros(m)));
+        }
+
+        return players;
+    }
+
+    /**
+     * Makes sure all player states are views on the same player table, with
+     * the player id as seat. Player states that were copied together with
+     * copyPlayerStates already are, others are moved to a new table.
+     */
+    private void adoptPlayerStates() {
+        int playerCount = this.playerStates.size();
+        PlayerTable players = playerCount > 0 ? this.playerStates.get(0).getTable() : null;
+
+        for (int i = 0; i < playerCount; i++) {
+            PokerPlayerState playerState = this.playerStates.get(i);
+
+            if (playerState.getPlayerId() != i) {
+                throw new RuntimeException("Player ids need to be equal to their index");
+            }
+
+            if (playerState.getTable() != players || playerState.getSeat() != i) {
+                players = null;
+            }
+        }
+
+        if (players == null || players.getSeatCount() != playerCount) {
+            players = new PlayerTable(playerCount);
+
+            for (int i = 0; i < playerCount; i++) {
+                this.playerStates.get(i).moveTo(players, i);
+            }
+        }
+
+        this.players = players;
+    }
+
+    private ArrayList<PokerPlayerState> copyPlayerStates() {
+        ArrayList<PokerPlayerState> previousStates = getPlayerStates();
+        PlayerTable players = new PlayerTable(this.players);
+
+        ArrayList<PokerPlayerState> playerStates = new ArrayList<>(previousStates.size());
+        for (int i = 0; i < previousStates.size(); i++) {
+            playerStates.add(new PokerPlayerState(previousStates.get(i), players, i));
+        }
+
+        return playerStates;
+    }
+
+    private void restore() {
+        if (!this.isCompacted) return;
+
+        PokerState rebuiltState = this.history.rebuild(this.historyIndex);
+        this.playerStates = rebuiltState.playerStates;
+        this.table = rebuiltState.table;
+        this.table.setState(this);
+        this.isCompacted = false;
+        adoptPlayerStates();
+    }
 }
@@ -0,0 +1,537 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.state;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import io.riddles.poker.game.move.MoveType;
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.table.BetRound;
+import io.riddles.poker.game.table.PokerTable;
+import io.riddles.poker.game.table.SidePots;
+import io.riddles.poker.game.table.card.Card;
+
+/**
+ * io.riddles.poker.game.state.PokerStateHistory - Created on 19-10-26
+ *
+ * Compact history of all the states in a match. Each state is stored as a frame
+ * of ints in one growing HistoryBuffer, which can be on the heap or off-heap.
+ * The first state of each hand is a keyframe containing all values, every
+ * state after that only stores the values that changed compared to the
+ * previous state. Full PokerStates are rebuilt from the keyframe and deltas
+ * when they are needed again. When all hands of a match are recorded in the
+ * same history without linking their states, the history can hand out
+ * read-only views of each state with getState.
+ *
+ * Frame layout: roundNumber, betRound, isKeyframe, entryCount, entries...
+ * Each entry is a tag (field << 16 | player index) followed by its values.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class PokerStateHistory {
+
+    private static final int CHIPS = 0;
+    private static final int BET = 1;
+    private static final int MOVE = 2;  // move type ordinal or -1, raise amount
+    private static final int ODDS = 3;  // double as two ints
+    private static final int NO_ODDS = 4;
+    private static final int HAND_STRENGTH = 5;
+    private static final int FLAGS = 6;
+    private static final int HAND = 7;  // count, card numbers
+    private static final int TABLE_CARDS = 8;  // count, card numbers
+    private static final int POT = 9;  // count, chips per (side) pot
+    private static final int BLINDS = 10;  // button, small blind, big blind, blind height
+
+    private final int playerCount;
+    private final int[] playerIds;
+
+    private final HistoryBuffer data;
+    private final HistoryBuffer frameOffsets;
+
+    private final Frame lastRecorded;  // values of the last recorded frame, to diff against
+    private final Frame cursor;  // values of the last decoded frame
+    private int cursorIndex;
+
+    // The last recorded state is kept whole, the processor may still use it
+    private PokerState uncompactedState;
+
+    public PokerStateHistory(int playerCount) {
+        this(playerCount, new HeapHistoryBuffer(1024), new HeapHistoryBuffer(256));
+    }
+
+    /**
+     * @param playerCount Number of players in the match
+     * @param buffers Creates the buffers for the frame data and frame offsets
+     */
+    public PokerStateHistory(int playerCount, Supplier<HistoryBuffer> buffers) {
+        this(playerCount, buffers.get(), buffers.get());
+    }
+
+    private PokerStateHistory(int playerCount, HistoryBuffer data, HistoryBuffer frameOffsets) {
+        this.playerCount = playerCount;
+        this.playerIds = new int[playerCount];
+        this.data = data;
+        this.frameOffsets = frameOffsets;
+        this.lastRecorded = new Frame(playerCount);
+        this.cursor = new Frame(playerCount);
+        this.cursorIndex = -1;
+    }
+
+    /**
+     * Stores given state as the next frame in the history. Must only be called
+     * when the state will not be changed anymore. The state before the given one
+     * is compacted afterwards.
+     * @param state State to record
+     * @return Index of the recorded frame
+     */
+    public int record(PokerState state) {
+        int index = this.frameOffsets.size();
+        boolean isKeyframe = index == 0 || state.getBetRound() == BetRound.START;
+
+        this.frameOffsets.append(this.data.size());
+
+        append(state.getRoundNumber());
+        append(state.getBetRound() == null ? -1 : state.getBetRound().ordinal());
+        append(isKeyframe ? 1 : 0);
+        int countPosition = this.data.size();
+        append(0);
+
+        if (isKeyframe) {
+            this.lastRecorded.clear();
+        }
+
+        int entries = recordTable(state.getTable(), isKeyframe);
+        ArrayList<PokerPlayerState> playerStates = state.getPlayerStates();
+        for (int i = 0; i < this.playerCount; i++) {
+            this.playerIds[i] = playerStates.get(i).getPlayerId();
+            entries += recordPlayer(i, playerStates.get(i), isKeyframe);
+        }
+
+        this.data.set(countPosition, entries);
+
+        if (this.uncompactedState != null) {
+            this.uncompactedState.compact();
+        }
+        this.uncompactedState = state;
+
+        return index;
+    }
+
+    /**
+     * Rebuilds the state at given index from its keyframe and the deltas after it.
+     * The rebuilt state is not linked to other states and has no deck, so it's
+     * only meant to be read. Only the last move of each player is kept.
+     * @param index Index of the frame
+     * @return A new PokerState
+     */
+    public PokerState rebuild(int index) {
+        if (index < 0 || index >= size()) {
+            throw new RuntimeException("No state recorded at index " + index);
+        }
+
+        if (this.cursorIndex < 0 || this.cursorIndex >= index) {
+            int keyframeIndex = index;
+            while (this.data.get(this.frameOffsets.get(keyframeIndex) + 2) != 1) {
+                keyframeIndex--;
+            }
+            this.cursorIndex = keyframeIndex - 1;
+        }
+
+        while (this.cursorIndex < index) {
+            this.cursorIndex++;
+            decodeFrame(this.cursorIndex);
+        }
+
+        return createState(this.cursor);
+    }
+
+    /**
+     * Creates a read-only view of the state at given index. The view holds no
+     * data itself, it's rebuilt from the history when it's used, and can be
+     * thrown away again after.
+     * @param index Index of the frame
+     * @return A compacted PokerState
+     */
+    public PokerState getState(int index) {
+        if (index < 0 || index >= size()) {
+            throw new RuntimeException("No state recorded at index " + index);
+        }
+
+        int position = this.frameOffsets.get(index);
+        int betRound = this.data.get(position + 1);
+
+        return new PokerState(this, index, this.data.get(position),
+                betRound < 0 ? null : BetRound.values()[betRound]);
+    }
+
+    public int size() {
+        return this.frameOffsets.size();
+    }
+
+    /**
+     * Releases the buffers of the history, no states can be recorded or read
+     * afterwards
+     */
+    public void close() {
+        this.data.close();
+        this.frameOffsets.close();
+    }
+
+    private int recordTable(PokerTable table, boolean force) {
+        int entries = 0;
+        Frame last = this.lastRecorded;
+
+        if (force || table.getButtonId() != last.buttonId
+                || table.getSmallBlindId() != last.smallBlindId
+                || table.getBigBlindId() != last.bigBlindId
+                || table.getBigBlind() != last.blindHeight) {
+            last.buttonId = table.getButtonId();
+            last.smallBlindId = table.getSmallBlindId();
+            last.bigBlindId = table.getBigBlindId();
+            last.blindHeight = table.getBigBlind();
+            appendEntry(BLINDS, 0);
+            append(last.buttonId);
+            append(last.smallBlindId);
+            append(last.bigBlindId);
+            append(last.blindHeight);
+            entries++;
+        }
+
+        ArrayList<Card> tableCards = table.getTableCards();
+        if (force || !sameCards(tableCards, last.tableCards)) {
+            last.tableCards = toNumbers(tableCards);
+            appendEntry(TABLE_CARDS, 0);
+            appendAll(last.tableCards);
+            entries++;
+        }
+
+        SidePots pots = table.getPots();  // null before the first hand
+        int[] potChips = new int[pots != null ? pots.getPotCount() : 0];
+        for (int i = 0; i < potChips.length; i++) {
+            potChips[i] = pots.getChips(i);
+        }
+
+        if (force || !Arrays.equals(potChips, last.potChips)) {
+            last.potChips = potChips;
+            appendEntry(POT, 0);
+            appendAll(potChips);
+            entries++;
+        }
+
+        return entries;
+    }
+
+    private int recordPlayer(int i, PokerPlayerState playerState, boolean force) {
+        int entries = 0;
+        Frame last = this.lastRecorded;
+
+        if (force || playerState.getChips() != last.chips[i]) {
+            last.chips[i] = playerState.getChips();
+            appendEntry(CHIPS, i);
+            append(last.chips[i]);
+            entries++;
+        }
+
+        if (force || playerState.getBet() != last.bets[i]) {
+            last.bets[i] = playerState.getBet();
+            appendEntry(BET, i);
+            append(last.bets[i]);
+            entries++;
+        }
+
+        MoveType lastMoveType = playerState.getLastMoveType();
+        int moveType = lastMoveType == null ? -1 : lastMoveType.ordinal();
+        int moveAmount = lastMoveType == MoveType.RAISE ? playerState.getLastMoveAmount() : 0;
+        if (force || moveType != last.moveTypes[i] || moveAmount != last.moveAmounts[i]) {
+            last.moveTypes[i] = moveType;
+            last.moveAmounts[i] = moveAmount;
+            appendEntry(MOVE, i);
+            append(moveType);
+            append(moveAmount);
+            entries++;
+        }
+
+        Double odds = playerState.getOdds();
+        if (odds == null) {
+            if (force || last.hasOdds[i]) {
+                last.hasOdds[i] = false;
+                appendEntry(NO_ODDS, i);
+                entries++;
+            }
+        } else if (force || !last.hasOdds[i] || odds != last.odds[i]) {
+            last.hasOdds[i] = true;
+            last.odds[i] = odds;
+            long bits = Double.doubleToLongBits(odds);
+            appendEntry(ODDS, i);
+            append((int) (bits >>> 32));
+            append((int) bits);
+            entries++;
+        }
+
+        if (force || playerState.getHandStrength() != last.handStrengths[i]) {
+            last.handStrengths[i] = playerState.getHandStrength();
+            appendEntry(HAND_STRENGTH, i);
+            append(last.handStrengths[i]);
+            entries++;
+        }
+
+        int flags = encodeFlags(playerState);
+        if (force || flags != last.flags[i]) {
+            last.flags[i] = flags;
+            appendEntry(FLAGS, i);
+            append(flags);
+            entries++;
+        }
+
+        ArrayList<Card> hand = playerState.getHand();
+        if (force || !sameCards(hand, last.hands[i])) {
+            last.hands[i] = toNumbers(hand);
+            appendEntry(HAND, i);
+            appendAll(last.hands[i]);
+            entries++;
+        }
+
+        return entries;
+    }
+
+    private void decodeFrame(int index) {
+        Frame frame = this.cursor;
+        int position = this.frameOffsets.get(index);
+
+        frame.roundNumber = this.data.get(position++);
+        int betRound = this.data.get(position++);
+        frame.betRound = betRound < 0 ? null : BetRound.values()[betRound];
+        if (this.data.get(position++) == 1) {
+            frame.clear();
+        }
+        int entries = this.data.get(position++);
+
+        for (int e = 0; e < entries; e++) {
+            int tag = this.data.get(position++);
+            int i = tag & 0xFFFF;
+
+            switch (tag >>> 16) {
+                case CHIPS:
+                    frame.chips[i] = this.data.get(position++);
+                    break;
+                case BET:
+                    frame.bets[i] = this.data.get(position++);
+                    break;
+                case MOVE:
+                    frame.moveTypes[i] = this.data.get(position++);
+                    frame.moveAmounts[i] = this.data.get(position++);
+                    break;
+                case ODDS:
+                    long bits = ((long) this.data.get(position) << 32)
+                            | (this.data.get(position + 1) & 0xFFFFFFFFL);
+                    position += 2;
+                    frame.hasOdds[i] = true;
+                    frame.odds[i] = Double.longBitsToDouble(bits);
+                    break;
+                case NO_ODDS:
+                    frame.hasOdds[i] = false;
+                    break;
+                case HAND_STRENGTH:
+                    frame.handStrengths[i] = this.data.get(position++);
+                    break;
+                case FLAGS:
+                    frame.flags[i] = this.data.get(position++);
+                    break;
+                case HAND:
+                    frame.hands[i] = readNumbers(position);
+                    position += frame.hands[i].length + 1;
+                    break;
+                case TABLE_CARDS:
+                    frame.tableCards = readNumbers(position);
+                    position += frame.tableCards.length + 1;
+                    break;
+                case POT:
+                    frame.potChips = readNumbers(position);
+                    position += frame.potChips.length + 1;
+                    break;
+                case BLINDS:
+                    frame.buttonId = this.data.get(position++);
+                    frame.smallBlindId = this.data.get(position++);
+                    frame.bigBlindId = this.data.get(position++);
+                    frame.blindHeight = this.data.get(position++);
+                    break;
+                default:
+                    throw new RuntimeException("Corrupt state history at frame " + index);
+            }
+        }
+    }
+
+    private PokerState createState(Frame frame) {
+        ArrayList<PokerPlayerState> playerStates = new ArrayList<>();
+
+        for (int i = 0; i < this.playerCount; i++) {
+            int flags = frame.flags[i];
+
+            playerStates.add(new PokerPlayerState(
+                    this.playerIds[i], frame.chips[i], frame.bets[i], toCards(frame.hands[i]),
+                    decodeMove(frame.moveTypes[i], frame.moveAmounts[i]),
+                    frame.hasOdds[i] ? frame.odds[i] : null, frame.handStrengths[i],
+                    (flags & PlayerTable.FOLDED) != 0, (flags & PlayerTable.ALL_IN) != 0,
+                    (flags & PlayerTable.ACTED) != 0, (flags & PlayerTable.FAILED_INPUT) != 0));
+        }
+
+        // Eligible players are not recorded, they are not needed to read the state
+        SidePots pots = frame.potChips.length > 0
+                ? new SidePots(frame.potChips, new long[frame.potChips.length])
+                : null;
+
+        return new PokerState(playerStates, frame.roundNumber, frame.betRound,
+                toCards(frame.tableCards), pots, frame.buttonId, frame.smallBlindId,
+                frame.bigBlindId, frame.blindHeight);
+    }
+
+    private PokerMove decodeMove(int moveType, int amount) {
+        if (moveType < 0) {
+            return null;
+        }
+
+        if (moveType == MoveType.RAISE.ordinal()) {
+            return new PokerMove(MoveType.RAISE, amount);
+        }
+
+        return new PokerMove(MoveType.values()[moveType]);
+    }
+
+    private int encodeFlags(PokerPlayerState playerState) {
+        int flags = 0;
+
+        if (playerState.hasFolden()) flags |= PlayerTable.FOLDED;
+        if (playerState.isAllin()) flags |= PlayerTable.ALL_IN;
+        if (playerState.hasActed()) flags |= PlayerTable.ACTED;
+        if (playerState.hasFailedInput()) flags |= PlayerTable.FAILED_INPUT;
+
+        return flags;
+    }
+
+    private boolean sameCards(ArrayList<Card> cards, int[] numbers) {
+        if (numbers == null || cards.size() != numbers.length) {
+            return false;
+        }
+
+        for (int i = 0; i < numbers.length; i++) {
+            if (cards.get(i).getNumber() != numbers[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int[] toNumbers(ArrayList<Card> cards) {
+        int[] numbers = new int[cards.size()];
+
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = cards.get(i).getNumber();
+        }
+
+        return numbers;
+    }
+
+    private ArrayList<Card> toCards(int[] numbers) {
+        ArrayList<Card> cards = new ArrayList<>(numbers.length);
+
+        for (int number : numbers) {
+            cards.add(Card.fromNumber(number));
+        }
+
+        return cards;
+    }
+
+    private int[] readNumbers(int position) {
+        int[] numbers = new int[this.data.get(position)];
+
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = this.data.get(position + 1 + i);
+        }
+
+        return numbers;
+    }
+
+    private void appendEntry(int field, int playerIndex) {
+        append((field << 16) | playerIndex);
+    }
+
+    private void appendAll(int[] values) {
+        append(values.length);
+        for (int value : values) {
+            append(value);
+        }
+    }
+
+    private void append(int value) {
+        this.data.append(value);
+    }
+
+    /**
+     * All values of a single frame, used while encoding and decoding
+     */
+    private static class Frame {
+        private int roundNumber;
+        private BetRound betRound;
+        private final int[] chips;
+        private final int[] bets;
+        private final int[] moveTypes;
+        private final int[] moveAmounts;
+        private final double[] odds;
+        private final boolean[] hasOdds;
+        private final int[] handStrengths;
+        private final int[] flags;
+        private final int[][] hands;
+        private int[] tableCards;
+        private int[] potChips;
+        private int buttonId;
+        private int smallBlindId;
+        private int bigBlindId;
+        private int blindHeight;
+
+        private Frame(int playerCount) {
+            this.chips = new int[playerCount];
+            this.bets = new int[playerCount];
+            this.moveTypes = new int[playerCount];
+            this.moveAmounts = new int[playerCount];
+            this.odds = new double[playerCount];
+            this.hasOdds = new boolean[playerCount];
+            this.handStrengths = new int[playerCount];
+            this.flags = new int[playerCount];
+            this.hands = new int[playerCount][];
+            clear();
+        }
+
+        private void clear() {
+            Arrays.fill(this.chips, 0);
+            Arrays.fill(this.bets, 0);
+            Arrays.fill(this.moveTypes, -1);
+            Arrays.fill(this.moveAmounts, 0);
+            Arrays.fill(this.hasOdds, false);
+            Arrays.fill(this.handStrengths, -1);
+            Arrays.fill(this.flags, 0);
+            Arrays.fill(this.hands, new int[0]);
+            this.tableCards = new int[0];
+            this.potChips = new int[0];
+        }
+    }
+}
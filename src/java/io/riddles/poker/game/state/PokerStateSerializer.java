@@ -23,7 +23,7 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 
 import io.riddles.javainterface.serialize.Serializer;
-import io.riddles.poker.game.table.Pot;
+import io.riddles.poker.game.table.SidePots;
 
 /**
  * io.riddles.poker.game.state.PokerStateSerializer - Created on 29-8-17
@@ -66,20 +66,21 @@ public class PokerStateSerializer implements Serializer<PokerState> {
     private JSONArray visitPot(PokerState state) {
         JSONArray potArray = new JSONArray();
 
-        Pot pot = state.getTable().getPot();
+        SidePots pots = state.getTable().getPots();
+        int potCount = pots != null ? pots.getPotCount() : 0;
 
-        while (pot != null) {
+        for (int i = 0; i < potCount; i++) {
             JSONObject potObj = new JSONObject();
 
             JSONArray participants = new JSONArray();
-            pot.getParticipantIds().forEach(participants::put);
+            for (long m = pots.getEligibleMask(i); m != 0; m &= m - 1) {
+                participants.put(Long.numberOfTrailingZeros(m));
+            }
 
-            potObj.put("chips", pot.getChips());
+            potObj.put("chips", pots.getChips(i));
 //            potObj.put("participants", participants);  // not really used in visualizer at the moment
 
             potArray.put(potObj);
-
-            pot = pot.getSidePot();
         }
 
         return potArray;
@@ -26,7 +26,7 @@ import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
 import java.util.stream.Stream;
 
-import io.riddles.poker.engine.PokerEngine;
+import io.riddles.poker.game.PokerType;
 import io.riddles.poker.game.table.card.Card;
 import io.riddles.poker.game.table.card.Deck;
 
@@ -45,22 +45,24 @@ public class HandEvaluator {
     /**
      * Calculates the strength of a hand with the cards on the table.
      * 5 cards on the table are assumed.
+     * @param pokerType Poker type of the match
      * @param hand Hand of cards
      * @param table 5 table cards
      * @return The valuation of the given hand
      */
-    public static int getHandStrength(ArrayList<Card> hand, ArrayList<Card> table) {
+    public static int getHandStrength(PokerType pokerType, ArrayList<Card> hand,
+                                      ArrayList<Card> table) {
         if (table.size() != 5) {
             throw new RuntimeException("Table needs to contain exactly 5 cards");
         }
 
-        switch (PokerEngine.POKER_TYPE) {
+        switch (pokerType) {
             case TEXASHOLDEM:
                 return getTexasHoldEmHandStrength(hand, table);
             case OMAHA:
                 return getOmahaHandStrength(hand, table);
             default:
-                throw new RuntimeException("Can't evaluate poker type " + PokerEngine.POKER_TYPE);
+                throw new RuntimeException("Can't evaluate poker type " + pokerType);
         }
     }
 
@@ -75,18 +77,21 @@ public class HandEvaluator {
 
     /**
      * Gets the odds for each hand to win on the table by running simulations
-     * @param hands Hands for each bot, indexed by the bot ID
+     * @param pokerType Poker type of the match
+     * @param hands Hands of the alive players, in seat order, not indexed by bot ID
      * @param table The current table, with any number of cards
      * @param deck The current deck
-     * @return A list of odds for each bot to win the hand, indexed by bot ID
+     * @param playerCount Number of seats, the size of the returned list
+     * @return A list of odds for each hand to win, in the same order as the hands.
+     * The entries after the last hand are 0.
      */
-    public static ArrayList<Double> getHandOdds(ArrayList<ArrayList<Card>> hands,
+    public static ArrayList<Double> getHandOdds(PokerType pokerType, ArrayList<ArrayList<Card>> hands,
                                                 ArrayList<Card> table, Deck deck, int playerCount) {
         double[] winsPerBot = new double[playerCount];
 
         // If table has 5 cards, we don't have to do all the simulations
         if (table.size() == 5) {
-            ArrayList<Integer> winnerIds = getHandWinnerIds(hands, table);
+            ArrayList<Integer> winnerIds = getHandWinnerIds(pokerType, hands, table);
             for (Integer winnerId : winnerIds) {
                 winsPerBot[winnerId] = ODDS_RUNS / ((double) winnerIds.size());
             }
@@ -103,7 +108,7 @@ public class HandEvaluator {
                     simulationTable.add(simulationDeck.nextCard());
                 }
 
-                ArrayList<Integer> winnerIds = getHandWinnerIds(hands, simulationTable);
+                ArrayList<Integer> winnerIds = getHandWinnerIds(pokerType, hands, simulationTable);
                 for (Integer winnerId : winnerIds) {
                     winsPerBot[winnerId] += 1 / ((double) winnerIds.size());
                 }
@@ -163,7 +168,8 @@ public class HandEvaluator {
         return strength;
     }
 
-    private static ArrayList<Integer> getHandWinnerIds(ArrayList<ArrayList<Card>> hands,
+    private static ArrayList<Integer> getHandWinnerIds(PokerType pokerType,
+                                                       ArrayList<ArrayList<Card>> hands,
                                                        ArrayList<Card> table) {
         int maxStrength = -1;
         ArrayList<Integer> winnerIds = new ArrayList<>();
@@ -171,7 +177,7 @@ public class HandEvaluator {
         for (ArrayList<Card> hand : hands) {
             if (hand == null || hand.isEmpty()) continue;
 
-            int strength = getHandStrength(hand, table);
+            int strength = getHandStrength(pokerType, hand, table);
 
             if (strength > maxStrength) {
                 maxStrength = strength;
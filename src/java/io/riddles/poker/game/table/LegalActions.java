@@ -0,0 +1,150 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.table;
+
+/**
+ * io.riddles.poker.game.table.LegalActions - Created on 19-10-26
+ *
+ * The moves a player can make at a decision, computed once before the move
+ * is requested. Folding is always possible, checking only when there is
+ * nothing to call. Raising is possible when betting is re-opened for the
+ * player, there is another player left to bet against and the player has
+ * more chips than the call amount. In pot limit games a raise can't be higher
+ * than the chips in the active pot. A raise below the minimum is only allowed
+ * when it puts the player all-in.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class LegalActions {
+
+    private final int callAmount;
+    private final int chips;
+    private final boolean isBettingReopened;
+    private final boolean hasOtherActivePlayers;
+    private final int minRaise;
+    private final int potLimit;  // -1 if there is no pot limit
+
+    LegalActions(int callAmount, int chips, boolean isBettingReopened,
+                 boolean hasOtherActivePlayers, int minRaise, int potLimit) {
+        this.callAmount = callAmount;
+        this.chips = chips;
+        this.isBettingReopened = isBettingReopened;
+        this.hasOtherActivePlayers = hasOtherActivePlayers;
+        this.minRaise = minRaise;
+        this.potLimit = potLimit;
+    }
+
+    public boolean canCheck() {
+        return this.callAmount == 0;
+    }
+
+    public int getCallAmount() {
+        return this.callAmount;
+    }
+
+    public boolean canRaise() {
+        return this.isBettingReopened && this.hasOtherActivePlayers && getMaxRaise() > 0;
+    }
+
+    /**
+     * @return False if the player already moved this bet round and there
+     * hasn't been a full raise since
+     */
+    public boolean isBettingReopened() {
+        return this.isBettingReopened;
+    }
+
+    /**
+     * @return False if all other players in the hand are all-in
+     */
+    public boolean hasOtherActivePlayers() {
+        return this.hasOtherActivePlayers;
+    }
+
+    public int getChips() {
+        return this.chips;
+    }
+
+    /**
+     * @return Minimum raise amount on top of the call amount, smaller
+     * raises are only allowed as all-in
+     */
+    public int getMinRaise() {
+        return this.minRaise;
+    }
+
+    /**
+     * @return Maximum raise amount on top of the call amount, limited by
+     * the chips of the player and the pot limit
+     */
+    public int getMaxRaise() {
+        int maxRaise = this.chips - this.callAmount;
+
+        return this.potLimit >= 0 ? Math.min(maxRaise, this.potLimit) : maxRaise;
+    }
+
+    /**
+     * @return Highest raise amount allowed in pot limit games, or -1 if there is no pot limit
+     */
+    public int getPotLimit() {
+        return this.potLimit;
+    }
+
+    /**
+     * @param other Legal actions to compare with, can be null
+     * @return True if both are written the same way to the bots
+     */
+    public boolean isSameAs(LegalActions other) {
+        if (other == null || canCheck() != other.canCheck() || canRaise() != other.canRaise()
+                || this.callAmount != other.callAmount) {
+            return false;
+        }
+
+        return !canRaise() || (getShownMinRaise() == other.getShownMinRaise()
+                && getMaxRaise() == other.getMaxRaise());
+    }
+
+    /**
+     * The legal actions as sent to the bots, for example
+     * "fold,call:40,raise:80-1960" or "fold,check,raise:1500-1500"
+     */
+    @Override
+    public String toString() {
+        StringBuilder actions = new StringBuilder("fold");
+
+        if (canCheck()) {
+            actions.append(",check");
+        } else {
+            actions.append(",call:").append(this.callAmount);
+        }
+
+        if (canRaise()) {
+            int maxRaise = getMaxRaise();
+
+            actions.append(",raise:").append(getShownMinRaise()).append('-').append(maxRaise);
+        }
+
+        return actions.toString();
+    }
+
+    private int getShownMinRaise() {
+        return Math.max(Math.min(this.minRaise, getMaxRaise()), 1);
+    }
+}
@@ -20,18 +20,18 @@
 package io.riddles.poker.game.table;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import io.riddles.javainterface.exception.InvalidMoveException;
-import io.riddles.poker.engine.PokerEngine;
 import io.riddles.poker.game.RaiseLimitType;
 import io.riddles.poker.game.move.MoveType;
 import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.state.PlayerTable;
 import io.riddles.poker.game.state.PokerPlayerState;
 import io.riddles.poker.game.state.PokerState;
 import io.riddles.poker.game.table.card.Card;
+import io.riddles.poker.game.table.card.CardStrings;
 import io.riddles.poker.game.table.card.Deck;
 
 /**
@@ -56,7 +56,10 @@ public class PokerTable {
 
     private Deck deck;
     private ArrayList<Card> tableCards;
-    private Pot pot;
+    private String tableCardsString;  // cached board prefix, shared between states
+    private SidePots pots;
+    private boolean isPotShared;  // pots are still shared with the previous state's table
+    private long potWinnerMask;  // players that won chips from other players in this state's payout
 
     private int playerCount;
     private int buttonId;
@@ -73,17 +76,19 @@ public class PokerTable {
         this.playerCount = state.getPlayerStates().size();
         this.buttonId = -1;
 
-        this.blindHeight = PokerEngine.configuration.getInt("initialBigBlind");
+        this.blindHeight = state.getContext().getInitialBigBlind();
     }
 
     public PokerTable(PokerTable table, PokerState state) {
         this.state = state;
 
-        this.deck = new Deck(table.deck);
-        this.pot = new Pot(table.pot);
-        this.tableCards = table.tableCards.stream()
-                .map(card -> new Card(card.getNumber()))
-                .collect(Collectors.toCollection(ArrayList::new));
+        // Previous states are never changed after the next one is created,
+        // so everything that is only read is shared instead of copied
+        this.deck = table.deck != null ? new Deck(table.deck) : null;
+        this.pots = table.pots;
+        this.isPotShared = true;
+        this.tableCards = table.tableCards;
+        this.tableCardsString = table.tableCardsString;
 
         this.playerCount = table.playerCount;
         this.buttonId = table.buttonId;
@@ -92,14 +97,33 @@ public class PokerTable {
         this.blindHeight = table.blindHeight;
     }
 
+    // For states rebuilt from the PokerStateHistory or a checkpoint, these have no deck
+    public PokerTable(PokerState state, ArrayList<Card> tableCards, SidePots pots, int buttonId,
+                      int smallBlindId, int bigBlindId, int blindHeight) {
+        this.state = state;
+
+        this.tableCards = tableCards;
+        this.pots = pots;
+        this.isPotShared = false;
+
+        this.playerCount = state.getPlayerStates().size();
+        this.buttonId = buttonId;
+        this.smallBlindId = smallBlindId;
+        this.bigBlindId = bigBlindId;
+        this.blindHeight = blindHeight;
+    }
+
     // Prepares the table for a new hand
     public void resetTable() {
         clearTable();
         increaseBlindHeight();
-        setNextButtonAndBlinds();
         this.lastFullRaise = 0;
 
+        // Players that went all-in and lost are only not alive anymore after the reset
         this.state.getPlayerStates().forEach(PokerPlayerState::resetHand);
+        this.state.getPlayerTable().startNewMoveLog();
+
+        setNextButtonAndBlinds();
     }
 
     public void startBetRound() {
@@ -108,17 +132,17 @@ public class PokerTable {
     }
 
     public void payBlinds() {
-        PokerPlayerState smallBlindPlayer = this.state.getPlayerStateById(this.smallBlindId);
-        PokerPlayerState bigBlindPlayer = this.state.getPlayerStateById(this.bigBlindId);
+        if (this.smallBlindId >= 0) {  // no small blind with a dead blind
+            this.state.getPlayerStateById(this.smallBlindId).increaseBet(getSmallBlind());
+        }
 
-        smallBlindPlayer.increaseBet(getSmallBlind());
-        bigBlindPlayer.increaseBet(getBigBlind());
+        this.state.getPlayerStateById(this.bigBlindId).increaseBet(getBigBlind());
     }
 
     public void dealCards() {
         int cardCount = 0;
 
-        switch (PokerEngine.POKER_TYPE) {
+        switch (this.state.getContext().getPokerType()) {
             case TEXASHOLDEM:
                 cardCount = 2;
                 break;
@@ -139,10 +163,23 @@ public class PokerTable {
      * @param playerState PlayerState
      */
     public void processMove(PokerPlayerState playerState) {
-        validateMove(playerState);
+        // The move is already set, so it's not counted as a previous move
+        processMove(playerState, createLegalActions(playerState,
+                playerState.getBetRoundMoveCount() - 1));
+    }
+
+    /**
+     * Processes the given playerState's move in the game, after it's validated
+     * against the legal actions computed before the move was requested.
+     * @param playerState PlayerState
+     * @param legalActions Legal actions of the player, from getLegalActions
+     */
+    public void processMove(PokerPlayerState playerState, LegalActions legalActions) {
+        validateMove(playerState, legalActions);
+        playerState.logLastMove();
 
         PokerMove move = playerState.getLastMove();
-        int callAmount = getCallAmountForPlayer(playerState);
+        int callAmount = legalActions.getCallAmount();
 
         switch (move.getMoveType()) {
             case FOLD:
@@ -160,7 +197,10 @@ public class PokerTable {
                 playerState.increaseBet(callAmount + raiseAmount);
 
                 // After a raise, the others players may act again
-                this.state.getActivePlayers().forEach(ps -> ps.setHasActed(false));
+                PlayerTable players = this.state.getPlayerTable();
+                for (long m = players.getActiveMask(); m != 0; m &= m - 1) {
+                    players.setFlag(Long.numberOfTrailingZeros(m), PlayerTable.ACTED, false);
+                }
 
                 if ((callAmount == 0 && raiseAmount >= this.blindHeight * 2)
                         || (callAmount > 0 && raiseAmount >= this.lastFullRaise)) {
@@ -175,34 +215,37 @@ public class PokerTable {
 
     public boolean hasHandEnded() {
         // Hand ends when there is only one player who hasn't folded yet
-        return this.state.getHandPlayers().size() <= 1;
+        return this.state.getHandPlayerCount() <= 1;
     }
 
-    @SuppressWarnings("RedundantIfStatement")
     public boolean hasBetRoundEnded(boolean showdown) {
         if (hasHandEnded()) {
             return true;
         }
 
-        ArrayList<PokerPlayerState> activePlayers = this.state.getActivePlayers();
+        PlayerTable players = this.state.getPlayerTable();
+        long activeMask = players.getActiveMask();
 
         // Betting round ends when no active players (everybody all-in or folded)
         // or when we are in showdown (i.e. everybody all-in except maybe one player)
-        if (activePlayers.isEmpty() || showdown) {
+        if (activeMask == 0 || showdown) {
             return true;
         }
 
         // Betting round can't end when there are active players that haven't acted yet
-        if (this.state.getBettingPlayers().size() >= 1) {
+        if (players.getBettingMask() != 0) {
             return false;
         }
 
         // Betting round ends when all active players' bets are equal
-        if (activePlayers.stream().allMatch(ap -> ap.getBet() == activePlayers.get(0).getBet())) {
-            return true;
+        int bet = players.getBet(Long.numberOfTrailingZeros(activeMask));
+        for (long m = activeMask; m != 0; m &= m - 1) {
+            if (players.getBet(Long.numberOfTrailingZeros(m)) != bet) {
+                return false;
+            }
         }
 
-        return false;
+        return true;
     }
 
     /**
@@ -215,37 +258,51 @@ public class PokerTable {
     public int getPotForPlayer(PokerPlayerState playerState) {
         int maxBet = playerState.getBet() + playerState.getChips();
 
-        // Get the bets of the current bet round
+        // Get the bets of the current bet round. Only when another player bet more
+        // than given player can match, the bets need to be capped one by one.
+        PlayerTable players = this.state.getPlayerTable();
         int potForPlayer = 0;
-        for (PokerPlayerState otherPlayerState : this.state.getAlivePlayers()) {
-            if (otherPlayerState.getBet() < maxBet) {
-                potForPlayer += otherPlayerState.getBet();
-            } else {
-                potForPlayer += maxBet;
+        if (maxBet >= players.getHighestBet()) {
+            potForPlayer = players.getBetTotal();
+        } else {
+            for (long m = players.getAliveMask(); m != 0; m &= m - 1) {
+                potForPlayer += Math.min(players.getBet(Long.numberOfTrailingZeros(m)), maxBet);
             }
         }
 
         // Get the chips in the pot already from previous bet rounds
-        potForPlayer += this.pot.getTotalPotForParcipant(
-                playerState.getPlayerId(), new ArrayList<>(), false);
+        potForPlayer += this.pots.getTotalForPlayer(playerState.getPlayerId());
 
         return potForPlayer;
     }
 
     public int getCallAmountForPlayer(PokerPlayerState playerState) {
-        PokerPlayerState previousPlayer = getPreviousAlivePlayer(playerState.getPlayerId());
+        int highestBet = this.state.getPlayerTable().getHighestBet();
 
-        return Math.max(0, previousPlayer.getBet() - playerState.getBet());
+        return Math.max(0, highestBet - playerState.getBet());
+    }
+
+    /**
+     * Computes the moves the given player can make, must be called before
+     * the player's move is set
+     * @param playerState PlayerState of the player that is about to move
+     * @return The legal actions of the player
+     */
+    public LegalActions getLegalActions(PokerPlayerState playerState) {
+        return createLegalActions(playerState, playerState.getBetRoundMoveCount());
     }
 
     public PokerPlayerState getBetRoundStartingPlayer() {
-        return this.state.getBetRound() == BetRound.PREFLOP
-                ? getNextAlivePlayer(this.bigBlindId)
-                : getNextAlivePlayer(this.buttonId);
+        int id = this.state.getBetRound() == BetRound.PREFLOP ? this.bigBlindId : this.buttonId;
+
+        // Players that folded or are all-in can't move anymore
+        PokerPlayerState startingPlayer = getNextActivePlayer(id);
+
+        return startingPlayer != null ? startingPlayer : getNextAlivePlayer(id);
     }
 
     public PokerPlayerState getNextActivePlayer(int id) {
-        return getTypePlayerInDirection(id, "active", 1);
+        return getTypePlayerInDirection(id, SeatFilter.ACTIVE, 1);
     }
 
     /**
@@ -254,49 +311,22 @@ public class PokerTable {
      * @param amount Amount of cards to add to the table
      */
     public void addTableCards(int amount) {
+        ArrayList<Card> tableCards = new ArrayList<>(this.tableCards.size() + amount);
+        tableCards.addAll(this.tableCards);
+
         for (int i = 0; i < amount; i++) {
-            this.tableCards.add(this.deck.nextCard());
+            tableCards.add(this.deck.nextCard());
         }
+
+        this.tableCards = tableCards;
+        this.tableCardsString = null;
     }
 
     /**
      * Adds the all the player bets to the correct pots
      */
     public void putBetsInPot() {
-        Pot activePot = this.pot.getActivePot();
-
-        ArrayList<PokerPlayerState> sortedPlayerStates = activePot.getParticipantIds().stream()
-                .map(id -> this.state.getPlayerStateById(id))
-                .filter(ps -> ps.getBet() > 0)
-                .sorted(Comparator.comparingInt(PokerPlayerState::getBet))
-                .collect(Collectors.toCollection(ArrayList::new));
-
-        for (int i = 0; i < sortedPlayerStates.size(); i++){
-            PokerPlayerState playerState = sortedPlayerStates.get(i);
-
-            if (playerState.getBet() <= 0) continue;
-
-            // Create a new sidepot if we still have open bets on the table
-            // after the first iteration
-            if (i > 0) {
-                ArrayList<Integer> participantIds = new ArrayList<>();
-                for (int j = i; j < sortedPlayerStates.size(); j++) {
-                    participantIds.add(sortedPlayerStates.get(j).getPlayerId());
-                }
-
-                activePot = activePot.createSidePot(participantIds);
-            }
-
-            // Move (part of) the bets to the current active pot
-            Pot finalActivePot = activePot;
-            int bet = playerState.getBet();
-            activePot.getParticipantIds().stream()
-                    .map(id -> this.state.getPlayerStateById(id))
-                    .forEach(ps -> {
-                        int amount = ps.decreaseBet(bet);
-                        finalActivePot.increaseChips(amount);
-                    });
-        }
+        getWritablePots().putBets(this.state.getPlayerTable());
     }
 
     public void setHandStrengths() {
@@ -304,62 +334,69 @@ public class PokerTable {
 
         // Only set the strenghts on a showdown
         for (PokerPlayerState playerState : this.state.getHandPlayers()) {
-            int strength = HandEvaluator.getHandStrength(playerState.getHand(), this.tableCards);
+            int strength = HandEvaluator.getHandStrength(
+                    this.state.getContext().getPokerType(), playerState.getHand(), this.tableCards);
             playerState.setHandStrength(strength);
         }
     }
 
     public ArrayList<Integer> getPotPayout() {
-        int[] winningPerBot = new int[this.playerCount];
-
-        ArrayList<PokerPlayerState> sortedHandPlayers = this.state.getHandPlayers().stream()
-                .sorted(Comparator.comparingInt(PokerPlayerState::getHandStrength).reversed())
-                .collect(Collectors.toCollection(ArrayList::new));
+        long handMask = this.state.getHandMask();
+        long foldWinnerMask = 0;
 
-        if (sortedHandPlayers.size() == 1) {  // We ended on a fold, so get all bets on the table
-            PokerPlayerState handPlayer = sortedHandPlayers.get(0);
+        if (Long.bitCount(handMask) == 1) {  // We ended on a fold, so get all bets on the table
+            PokerPlayerState handPlayer = this.state.getPlayerStateById(
+                    Long.numberOfTrailingZeros(handMask));
             for (PokerPlayerState playerState : this.state.getAlivePlayers()) {
                 handPlayer.increaseChips(playerState.getBet());
+
+                // Only winning the bets of other players makes the hand won
+                if (playerState != handPlayer && playerState.getBet() > 0) {
+                    foldWinnerMask = handMask;
+                }
             }
         }
 
+        int[] handStrengths = new int[this.playerCount];
+        for (long m = handMask; m != 0; m &= m - 1) {
+            int id = Long.numberOfTrailingZeros(m);
+            handStrengths[id] = this.state.getPlayerStateById(id).getHandStrength();
+        }
+
         // Increase the chips for each player, according to whats in the pot and
         // how strong their hand is
-        for (int i = 0; i < sortedHandPlayers.size(); i++) {
-            PokerPlayerState playerState = sortedHandPlayers.get(i);
-
-            // Get what players the pot is shared with. Only looking ahead, this is
-            // important because the pot is emptied when getting it
-            ArrayList<Integer> sharedWith = new ArrayList<>();
-            for (int j = i + 1; j < sortedHandPlayers.size(); j++) {
-                PokerPlayerState otherPlayerState = sortedHandPlayers.get(j);
-
-                if (playerState.getHandStrength() != otherPlayerState.getHandStrength()) break;
-
-                sharedWith.add(otherPlayerState.getPlayerId());
-            }
-
-            int chips =  this.pot.getTotalPotForParcipant(
-                    playerState.getPlayerId(), sharedWith, true);
-            winningPerBot[playerState.getPlayerId()] += chips;
-            playerState.increaseChips(chips);
+        SidePots pots = getWritablePots();
+        int[] winningPerBot = pots.payout(handMask, handStrengths);
+        for (long m = handMask; m != 0; m &= m - 1) {
+            int id = Long.numberOfTrailingZeros(m);
+            this.state.getPlayerStateById(id).increaseChips(winningPerBot[id]);
         }
+        this.potWinnerMask = pots.getWinnerMask() | foldWinnerMask;
 
         return IntStream.of(winningPerBot).boxed().collect(Collectors.toCollection(ArrayList::new));
     }
 
     public void setHandOdds() {
+        ArrayList<PokerPlayerState> alivePlayers = this.state.getAlivePlayers();
         ArrayList<ArrayList<Card>> hands = new ArrayList<>();
 
-        for (PokerPlayerState playerState : this.state.getAlivePlayers()) {
-            hands.add(playerState.getPlayerId(), playerState.getHand());
+        for (PokerPlayerState playerState : alivePlayers) {
+            hands.add(playerState.getHand());
         }
 
-        ArrayList<Double> odds = HandEvaluator.getHandOdds(
+        // The odds are in the same order as the hands, players that are not alive get 0
+        ArrayList<Double> odds = HandEvaluator.getHandOdds(this.state.getContext().getPokerType(),
                 hands, this.tableCards, this.deck, this.playerCount);
 
-        for (int i = 0; i < odds.size(); i++) {
-            this.state.getPlayerStateById(i).setOdds(odds.get(i));
+        int aliveIndex = 0;
+        for (int i = 0; i < this.playerCount; i++) {
+            PokerPlayerState playerState = this.state.getPlayerStateById(i);
+
+            if (aliveIndex < alivePlayers.size() && alivePlayers.get(aliveIndex) == playerState) {
+                playerState.setOdds(odds.get(aliveIndex++));
+            } else {
+                playerState.setOdds(0.0);
+            }
         }
     }
 
@@ -367,8 +404,16 @@ public class PokerTable {
         return this.tableCards;
     }
 
-    public Pot getPot() {
-        return this.pot;
+    /**
+     * @return Bitmask of the players that won chips from other players in the
+     * payout of this state, refunds of their own bets don't count
+     */
+    public long getPotWinnerMask() {
+        return this.potWinnerMask;
+    }
+
+    public SidePots getPots() {
+        return this.pots;
     }
 
     public void setState(PokerState state) {
@@ -412,9 +457,11 @@ public class PokerTable {
     }
 
     public String getTableCardsString() {
-        return this.tableCards.stream()
-                .map(Card::toString)
-                .collect(Collectors.joining(","));
+        if (this.tableCardsString == null) {
+            this.tableCardsString = CardStrings.join(this.tableCards);
+        }
+
+        return this.tableCardsString;
     }
 
     public void setNextButtonAndBlinds() {
@@ -425,25 +472,21 @@ public class PokerTable {
 
         // Big blind is next active player after the previous big blind
         PokerPlayerState nextBigBlindPlayer = getNextAlivePlayer(this.bigBlindId);
+        if (nextBigBlindPlayer == null) return;  // only one player left, the game is over
+
         this.bigBlindId = nextBigBlindPlayer.getPlayerId();
 
         // Small blind is the player before the big blind
-        int nextSmallBlindId = this.bigBlindId;
-        while (true) {
-            nextSmallBlindId = Math.floorMod(nextSmallBlindId - 1, this.playerCount);
-
-            // Dead blind rule: the small blind can't be the previous small blind player, so
-            // it will be skipped instead.
-            if (nextSmallBlindId == this.smallBlindId) {
-                this.smallBlindId = -1;
-                break;
-            }
-
-            if (this.state.getPlayerStateById(nextSmallBlindId).isAlive()) {
-                this.smallBlindId = nextSmallBlindId;
-                break;
-            }
+        long smallBlindMask = this.state.getAliveMask();
+        if (this.smallBlindId >= 0) {
+            smallBlindMask |= 1L << this.smallBlindId;
         }
+        int nextSmallBlindId = SeatRing.previousFrom(smallBlindMask,
+                Math.floorMod(this.bigBlindId - 1, this.playerCount));
+
+        // Dead blind rule: the small blind can't be the previous small blind player, so
+        // it will be skipped instead.
+        this.smallBlindId = nextSmallBlindId == this.smallBlindId ? -1 : nextSmallBlindId;
 
         if (this.playerCount == 2) {
             this.buttonId = this.smallBlindId;
@@ -455,17 +498,17 @@ public class PokerTable {
     }
 
     private PokerPlayerState getNextAlivePlayer(int id) {
-        return getTypePlayerInDirection(id, "alive", 1);
+        return getTypePlayerInDirection(id, SeatFilter.ALIVE, 1);
     }
 
     private PokerPlayerState getPreviousAlivePlayer(int id) {
-        return getTypePlayerInDirection(id, "alive", -1);
+        return getTypePlayerInDirection(id, SeatFilter.ALIVE, -1);
     }
 
     private void increaseBlindHeight() {
         if (this.state.getRoundNumber() <= 1) return;
 
-        int handsPerBlindLevel = PokerEngine.configuration.getInt("handsPerBlindLevel");
+        int handsPerBlindLevel = this.state.getContext().getHandsPerBlindLevel();
 
         // Only increase on handsPerBlindLevel
         if (Math.floorMod(this.state.getRoundNumber() - 1, handsPerBlindLevel) != 0) return;
@@ -479,6 +522,26 @@ public class PokerTable {
         }
     }
 
+    private LegalActions createLegalActions(PokerPlayerState playerState, int previousMoveCount) {
+        int callAmount = getCallAmountForPlayer(playerState);
+
+        // Betting is only re-opened for players that already moved after a full raise
+        boolean isBettingReopened = previousMoveCount == 0
+                || (callAmount >= this.blindHeight * 2 && callAmount >= this.lastFullRaise);
+
+        // Other players in the hand that are not all-in are the other active players
+        long otherActiveMask = this.state.getActiveMask() & ~(1L << playerState.getPlayerId());
+
+        int minRaise = callAmount == 0 ? this.blindHeight * 2 : this.lastFullRaise;
+        // Raises above the chips in the active pot are not allowed
+        int potLimit = this.state.getContext().getRaiseLimitType() == RaiseLimitType.POTLIMIT
+                ? this.pots.getActivePotChips()
+                : -1;
+
+        return new LegalActions(callAmount, playerState.getChips(), isBettingReopened,
+                otherActiveMask != 0, minRaise, potLimit);
+    }
+
     /**
      * Checks if the given move is correct for the current game situation, and
      * if not, transforms the move to the logical alternative and sets an exception.
@@ -486,45 +549,41 @@ public class PokerTable {
      * See: https://www.pagat.com/poker/rules/betting.html
      *
      * @param playerState PlayerState with an unprocessed move
+     * @param legalActions Legal actions of the player
      */
-    private void validateMove(PokerPlayerState playerState) {
+    private void validateMove(PokerPlayerState playerState, LegalActions legalActions) {
         PokerMove move = playerState.getLastMove();
-        int callAmount = getCallAmountForPlayer(playerState);
+        int callAmount = legalActions.getCallAmount();
 
         switch (move.getMoveType()) {
             case FOLD:
                 // Folding is always possible
                 break;
             case CHECK:
-                if (callAmount > 0) {
+                if (!legalActions.canCheck()) {
                     move.setMoveType(MoveType.FOLD);
                     move.setException(new InvalidMoveException(
                             "Checking not possible when a bet has already been made."));
                 }
                 break;
             case CALL:
-                if (callAmount == 0) {
+                if (legalActions.canCheck()) {
                     move.setMoveType(MoveType.CHECK);
                     move.setException(new InvalidMoveException("There is no bet to call."));
                 }
                 break;
             case RAISE:
                 int amount = move.getAmount();
-                int chips = playerState.getChips();
+                int chips = legalActions.getChips();
 
-                if (playerState.getBetRoundMoves().size() > 1) {  // not first move
-                    if (callAmount < this.blindHeight * 2 || callAmount < this.lastFullRaise) {
-                        move.setMoveType(MoveType.CALL);
-                        move.setException(new InvalidMoveException(
-                                "Betting is not re-opened for your bot."));
-                        break;
-                    }
+                if (!legalActions.isBettingReopened()) {
+                    move.setMoveType(legalActions.canCheck() ? MoveType.CHECK : MoveType.CALL);
+                    move.setException(new InvalidMoveException(
+                            "Betting is not re-opened for your bot."));
+                    break;
                 }
 
-                ArrayList<PokerPlayerState> otherHandPlayers = this.state.getHandPlayers().stream()
-                        .filter(ps -> ps.getPlayerId() != playerState.getPlayerId())
-                        .collect(Collectors.toCollection(ArrayList::new));
-                if (otherHandPlayers.stream().allMatch(PokerPlayerState::isAllin)) {
+                if (!legalActions.hasOtherActivePlayers()) {
                     if (callAmount == 0) {
                         move.setMoveType(MoveType.CHECK);
                     } else {
@@ -541,8 +600,7 @@ public class PokerTable {
                 }
 
                 if (amount < chips) {
-                    if ((callAmount == 0 && amount < this.blindHeight * 2)
-                            || (callAmount > 0 && amount < this.lastFullRaise)) {
+                    if (amount < legalActions.getMinRaise()) {
                         if (callAmount == 0) {
                             move.setMoveType(MoveType.CHECK);
                         } else {
@@ -555,14 +613,10 @@ public class PokerTable {
                     move.setAmount(chips - callAmount);
                 }
 
-                if (PokerEngine.RAISE_LIMIT_TYPE == RaiseLimitType.POTLIMIT) {
-                    int potChips = this.pot.getActivePot().getChips();
-
-                    if (amount > potChips) {
-                        move.setAmount(potChips + callAmount);
-                        move.setException(new InvalidMoveException("Raise amount above pot."));
-                        break;
-                    }
+                int potLimit = legalActions.getPotLimit();
+                if (potLimit >= 0 && amount > potLimit) {
+                    move.setAmount(potLimit + callAmount);
+                    move.setException(new InvalidMoveException("Raise amount above pot."));
                 }
 
                 break;
@@ -572,40 +626,46 @@ public class PokerTable {
     /**
      * Gets the next alive, active or hand player after given player id
      * @param id Player id
+     * @param filter Type of player to look for
      * @param direction before or after given id
-     * @return The next PlayerState that is active
+     * @return The next PlayerState of given type, or null if there is none
      */
-    private PokerPlayerState getTypePlayerInDirection(int id, String type, int direction) {
-        int startId = Math.floorMod(id + direction, this.playerCount);
+    private PokerPlayerState getTypePlayerInDirection(int id, SeatFilter filter, int direction) {
+        long mask = filter.getMask(this.state.getPlayerTable());
+        int start = Math.floorMod(id + direction, this.playerCount);
 
-        for (int i = startId; i != id; i = Math.floorMod(i + direction, this.playerCount)) {
-            PokerPlayerState playerState = this.state.getPlayerStateById(i);
+        if (id >= 0 && id < this.playerCount) {
+            mask &= ~(1L << id);
+        }
 
-            if (type.equals("alive") && playerState.isAlive()) {
-                return playerState;
-            }
+        int seat = direction > 0
+                ? SeatRing.nextFrom(mask, start)
+                : SeatRing.previousFrom(mask, start);
 
-            if (type.equals("hand") && playerState.isInHand()) {
-                return playerState;
-            }
+        return seat >= 0 ? this.state.getPlayerStateById(seat) : null;
+    }
 
-            if (type.equals("active") && playerState.isActive()) {
-                return playerState;
-            }
+    /**
+     * Copies the pots on the first change to them in this state, because they
+     * are shared with the previous state until then
+     * @return The pots of this table that can be changed
+     */
+    private SidePots getWritablePots() {
+        if (this.isPotShared) {
+            this.pots = new SidePots(this.pots);
+            this.isPotShared = false;
         }
 
-        return null;
+        return this.pots;
     }
 
     private void clearTable() {
-        this.deck = new Deck();
+        this.deck = new Deck(this.state.getContext().getRandom());
         this.tableCards = new ArrayList<>();
+        this.tableCardsString = null;
 
-        ArrayList<Integer> participantIds = this.state.getAlivePlayers().stream()
-                .map(PokerPlayerState::getPlayerId)
-                .collect(Collectors.toCollection(ArrayList::new));
-
-        this.pot = new Pot(participantIds);
+        this.pots = new SidePots(this.state.getAliveMask());
+        this.isPotShared = false;
     }
 
     private void setInitialButtonAndBlinds() {
@@ -26,6 +26,8 @@ import java.util.ArrayList;
  *
  * Class Pot is used for keeping track of the pot size, both from the main pot and
  * the possible side pots, and the players that are involved in the side pots.
+ * No longer used by the engine, which uses SidePots instead. Kept as the
+ * reference the payouts of SidePots are tested against.
  *
  * @author Jim van Eeden - jim@riddles.io
  */
@@ -0,0 +1,51 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.table;
+
+import io.riddles.poker.game.state.PlayerTable;
+
+/**
+ * io.riddles.poker.game.table.SeatFilter - Created on 19-10-26
+ *
+ * The kinds of players that can be looked for when going around the table,
+ * each backed by one of the player status bitmasks.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public enum SeatFilter {
+    ALIVE,
+    HAND,
+    ACTIVE;
+
+    /**
+     * @param players Players of the table
+     * @return Bitmask of the seats that pass this filter
+     */
+    public long getMask(PlayerTable players) {
+        switch (this) {
+            case ALIVE:
+                return players.getAliveMask();
+            case HAND:
+                return players.getHandMask();
+            default:
+                return players.getActiveMask();
+        }
+    }
+}
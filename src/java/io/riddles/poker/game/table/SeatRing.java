@@ -0,0 +1,64 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.table;
+
+/**
+ * io.riddles.poker.game.table.SeatRing - Created on 19-10-26
+ *
+ * Finds the next or previous seat around the table in a bitmask of seats,
+ * like the player status bitmasks, with one bit per seat. The bits above or
+ * below the starting seat are searched first, then the search wraps around
+ * to the other end of the mask. Doesn't depend on the number of seats, so
+ * works the same for every table up to 64 seats.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public final class SeatRing {
+
+    private SeatRing() {}
+
+    /**
+     * @param mask Bitmask of the seats to look for
+     * @param seat Seat to start at, is returned itself if it's in the mask
+     * @return The first seat in the mask at or after given seat, wrapping
+     * around, or -1 if the mask is empty
+     */
+    public static int nextFrom(long mask, int seat) {
+        if (mask == 0) return -1;
+
+        long after = mask & (-1L << seat);
+
+        return Long.numberOfTrailingZeros(after != 0 ? after : mask);
+    }
+
+    /**
+     * @param mask Bitmask of the seats to look for
+     * @param seat Seat to start at, is returned itself if it's in the mask
+     * @return The first seat in the mask at or before given seat, wrapping
+     * around, or -1 if the mask is empty
+     */
+    public static int previousFrom(long mask, int seat) {
+        if (mask == 0) return -1;
+
+        long before = mask & (-1L >>> (Long.SIZE - 1 - seat));
+
+        return Long.SIZE - 1 - Long.numberOfLeadingZeros(before != 0 ? before : mask);
+    }
+}
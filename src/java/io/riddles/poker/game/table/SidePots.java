@@ -0,0 +1,238 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.table;
+
+import java.util.Arrays;
+
+import io.riddles.poker.game.state.PlayerTable;
+
+/**
+ * io.riddles.poker.game.table.SidePots - Created on 19-10-26
+ *
+ * The main pot and side pots of a hand, stored in flat arrays. Pot 0 is the
+ * main pot, each next pot is a side pot. For each pot the chips are stored,
+ * and a bitmask of the player ids that are eligible to win it (bit i is set
+ * for player i). Every side pot's players are a subset of the players of
+ * the pot before it.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class SidePots {
+
+    private int[] chips;
+    private long[] eligibleMasks;
+    private int potCount;
+    private long winnerMask;  // players that won chips from other players in the payout
+
+    /**
+     * Creates only the main pot, without chips
+     * @param eligibleMask Players that are eligible for the main pot
+     */
+    public SidePots(long eligibleMask) {
+        this.chips = new int[4];
+        this.eligibleMasks = new long[4];
+        this.eligibleMasks[0] = eligibleMask;
+        this.potCount = 1;
+    }
+
+    public SidePots(SidePots pots) {
+        this.chips = Arrays.copyOf(pots.chips, pots.potCount);
+        this.eligibleMasks = Arrays.copyOf(pots.eligibleMasks, pots.potCount);
+        this.potCount = pots.potCount;
+        this.winnerMask = pots.winnerMask;
+    }
+
+    /**
+     * @param chips Chips per pot, main pot first
+     * @param eligibleMasks Eligible players per pot
+     */
+    public SidePots(int[] chips, long[] eligibleMasks) {
+        this.chips = Arrays.copyOf(chips, Math.max(chips.length, 1));
+        this.eligibleMasks = Arrays.copyOf(eligibleMasks, Math.max(chips.length, 1));
+        this.potCount = chips.length;
+    }
+
+    /**
+     * Moves the bets of the players to the pots. Whenever the lowest bet of the
+     * players eligible for the last pot is lower than the other bets, that
+     * amount is put in the last pot and a new side pot is created for the
+     * players that bet more.
+     * @param players Players of the table, bets are decreased
+     */
+    public void putBets(PlayerTable players) {
+        int pot = this.potCount - 1;
+        long bettingMask = getBettingMask(players, this.eligibleMasks[pot]);
+        boolean isFirst = true;
+
+        while (bettingMask != 0) {
+            int bet = Integer.MAX_VALUE;
+            for (long m = bettingMask; m != 0; m &= m - 1) {
+                bet = Math.min(bet, players.getBet(Long.numberOfTrailingZeros(m)));
+            }
+
+            // Create a new side pot if we still have open bets on the table
+            // after the first iteration
+            if (!isFirst) {
+                pot = addPot(bettingMask);
+            }
+            isFirst = false;
+
+            for (long m = this.eligibleMasks[pot]; m != 0; m &= m - 1) {
+                this.chips[pot] += players.decreaseBet(Long.numberOfTrailingZeros(m), bet);
+            }
+
+            bettingMask = getBettingMask(players, bettingMask);
+        }
+    }
+
+    /**
+     * Empties all pots and divides the chips between the players in the hand.
+     * Each pot goes to the players with the strongest hand that are eligible
+     * for it. If they share the pot, each next player (by id) gets their share
+     * of what's left, so the odd chips go to the last one. A pot only one
+     * player is eligible for holds that player's own unmatched bet, getting it
+     * back doesn't make the player a winner.
+     * @param handMask Players that are still in the hand
+     * @param handStrengths Hand strength per player id
+     * @return Chips won per player id
+     */
+    public int[] payout(long handMask, int[] handStrengths) {
+        int[] winnings = new int[handStrengths.length];
+        this.winnerMask = 0;
+        int[] order = sortByHandStrength(handMask, handStrengths);
+
+        // One pass over the groups of players with equal hand strength, strongest first
+        for (int start = 0; start < order.length; ) {
+            int end = start + 1;
+            long groupMask = 1L << order[start];
+            while (end < order.length && handStrengths[order[end]] == handStrengths[order[start]]) {
+                groupMask |= 1L << order[end++];
+            }
+
+            for (int pot = 0; pot < this.potCount; pot++) {
+                long winnerMask = this.eligibleMasks[pot] & groupMask;
+                if (winnerMask == 0 || this.chips[pot] == 0) continue;
+
+                if (Long.bitCount(this.eligibleMasks[pot]) > 1) {
+                    this.winnerMask |= winnerMask;
+                }
+
+                for (int shares = Long.bitCount(winnerMask); shares > 0; shares--) {
+                    int id = Long.numberOfTrailingZeros(winnerMask);
+                    int share = this.chips[pot] / shares;
+
+                    winnings[id] += share;
+                    this.chips[pot] -= share;
+                    winnerMask &= winnerMask - 1;
+                }
+            }
+
+            start = end;
+        }
+
+        return winnings;
+    }
+
+    /**
+     * Gets all the chips from the pots given player is eligible for
+     * @param playerId Player to get chips for
+     * @return The amount of chips the player is eligible for
+     */
+    public int getTotalForPlayer(int playerId) {
+        long bit = 1L << playerId;
+        int total = 0;
+
+        for (int pot = 0; pot < this.potCount && (this.eligibleMasks[pot] & bit) != 0; pot++) {
+            total += this.chips[pot];
+        }
+
+        return total;
+    }
+
+    /**
+     * @return Bitmask of the players that won chips from other players in the payout
+     */
+    public long getWinnerMask() {
+        return this.winnerMask;
+    }
+
+    public int getPotCount() {
+        return this.potCount;
+    }
+
+    public int getChips(int pot) {
+        return this.chips[pot];
+    }
+
+    public long getEligibleMask(int pot) {
+        return this.eligibleMasks[pot];
+    }
+
+    /**
+     * @return Chips in the last (side) pot
+     */
+    public int getActivePotChips() {
+        return this.chips[this.potCount - 1];
+    }
+
+    private int addPot(long eligibleMask) {
+        if (this.potCount >= this.chips.length) {
+            this.chips = Arrays.copyOf(this.chips, this.chips.length * 2);
+            this.eligibleMasks = Arrays.copyOf(this.eligibleMasks, this.eligibleMasks.length * 2);
+        }
+
+        this.chips[this.potCount] = 0;
+        this.eligibleMasks[this.potCount] = eligibleMask;
+
+        return this.potCount++;
+    }
+
+    private long getBettingMask(PlayerTable players, long mask) {
+        long bettingMask = 0;
+
+        for (long m = mask; m != 0; m &= m - 1) {
+            int id = Long.numberOfTrailingZeros(m);
+            if (players.getBet(id) > 0) {
+                bettingMask |= 1L << id;
+            }
+        }
+
+        return bettingMask;
+    }
+
+    // Ids of the players in the hand, strongest hand first, by id if equal
+    private int[] sortByHandStrength(long handMask, int[] handStrengths) {
+        int[] order = new int[Long.bitCount(handMask)];
+        int count = 0;
+
+        for (long m = handMask; m != 0; m &= m - 1) {
+            int id = Long.numberOfTrailingZeros(m);
+            int i = count++;
+
+            while (i > 0 && handStrengths[order[i - 1]] < handStrengths[id]) {
+                order[i] = order[i - 1];
+                i--;
+            }
+            order[i] = id;
+        }
+
+        return order;
+    }
+}
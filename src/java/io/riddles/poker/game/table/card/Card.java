@@ -19,8 +19,7 @@
 
 package io.riddles.poker.game.table.card;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * io.riddles.poker.game.table.card.Card - Created on 29-8-17
@@ -32,19 +31,32 @@ import java.util.Map;
  */
 public class Card {
 
-    private static final Map<String, Card> CARD_MAP = new HashMap<>();
+    private static final Card[] CARDS = new Card[52];
+
+    // Height and suit index for each ASCII character of a card string, -1 if not used
+    private static final byte[] HEIGHT_INDEX = new byte[128];
+    private static final byte[] SUIT_INDEX = new byte[128];
 
     static {
         for (int i = 0; i < 52; i++) {
-            Card card = new Card(i);
-            CARD_MAP.put(card.toString(), card);
+            CARDS[i] = new Card(i);
+        }
+
+        Arrays.fill(HEIGHT_INDEX, (byte) -1);
+        Arrays.fill(SUIT_INDEX, (byte) -1);
+
+        for (CardHeight height : CardHeight.values()) {
+            HEIGHT_INDEX[height.toString().charAt(0)] = (byte) height.ordinal();
+        }
+        for (CardSuit suit : CardSuit.values()) {
+            SUIT_INDEX[suit.toString().charAt(0)] = (byte) suit.ordinal();
         }
     }
 
-    private CardHeight height;
-    private CardSuit suit;
-    private int number;
-    private long code;  // Code used in HandEval
+    private final CardHeight height;
+    private final CardSuit suit;
+    private final int number;
+    private final long code;  // Code used in HandEval
 
     public Card(int number) {
         this.number = number;
@@ -56,12 +68,47 @@ public class Card {
         this.code = 1L << (16 * suitShift + heightShift);
     }
 
+    /**
+     * Cards are immutable, so the same instance can be shared by all decks,
+     * hands and states
+     * @param number Card number 0 - 51
+     * @return The shared card for given number
+     */
+    public static Card fromNumber(int number) {
+        return CARDS[number];
+    }
+
+    /**
+     * @param string Card string, like "Th"
+     * @return The shared card, or null if the string isn't a card
+     */
     public static Card fromString(String string) {
-        return CARD_MAP.get(string);
+        if (string == null || string.length() != 2) return null;
+
+        return fromChars(string.charAt(0), string.charAt(1));
+    }
+
+    /**
+     * @param bytes ASCII bytes containing the card string
+     * @param offset Position of the two characters of the card
+     * @return The shared card, or null if the bytes aren't a card
+     */
+    public static Card fromBytes(byte[] bytes, int offset) {
+        return fromChars((char) (bytes[offset] & 0xFF), (char) (bytes[offset + 1] & 0xFF));
+    }
+
+    private static Card fromChars(char heightChar, char suitChar) {
+        if (heightChar >= 128 || suitChar >= 128) return null;
+
+        int height = HEIGHT_INDEX[heightChar];
+        int suit = SUIT_INDEX[suitChar];
+        if (height < 0 || suit < 0) return null;
+
+        return CARDS[suit * 13 + height];
     }
 
     public String toString() {
-        return "" + this.height + this.suit;
+        return CardStrings.getCardString(this.number);
     }
 
     public int getNumber() {
@@ -0,0 +1,112 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.table.card;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * io.riddles.poker.game.table.card.CardStrings - Created on 19-10-26
+ *
+ * Precomputed string and UTF-8 byte representations of all 52 cards and of
+ * all two card hands (every Hold'em hole pair, in both deal orders), so
+ * formatting cards never has to build new strings while the game is running.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class CardStrings {
+
+    private static final int CARD_COUNT = 52;
+
+    private static final String[] CARD_STRINGS = new String[CARD_COUNT];
+    private static final byte[][] CARD_BYTES = new byte[CARD_COUNT][];
+    private static final String[] PAIR_STRINGS = new String[CARD_COUNT * CARD_COUNT];
+    private static final byte[][] PAIR_BYTES = new byte[CARD_COUNT * CARD_COUNT][];
+
+    static {
+        for (int i = 0; i < CARD_COUNT; i++) {
+            CARD_STRINGS[i] = CardHeight.numberToCardHeight(i).toString()
+                    + CardSuit.numberToCardSuit(i).toString();
+            CARD_BYTES[i] = CARD_STRINGS[i].getBytes(StandardCharsets.UTF_8);
+        }
+
+        for (int i = 0; i < CARD_COUNT; i++) {
+            for (int j = 0; j < CARD_COUNT; j++) {
+                if (i == j) continue;
+
+                String pair = CARD_STRINGS[i] + "," + CARD_STRINGS[j];
+                PAIR_STRINGS[i * CARD_COUNT + j] = pair;
+                PAIR_BYTES[i * CARD_COUNT + j] = pair.getBytes(StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    public static String getCardString(int number) {
+        return CARD_STRINGS[number];
+    }
+
+    /**
+     * Note: the returned array is shared and must not be modified
+     * @param number Card number 0 - 51
+     * @return UTF-8 encoded string of the card
+     */
+    public static byte[] getCardBytes(int number) {
+        return CARD_BYTES[number];
+    }
+
+    public static String getPairString(int first, int second) {
+        return PAIR_STRINGS[first * CARD_COUNT + second];
+    }
+
+    /**
+     * Note: the returned array is shared and must not be modified
+     * @param first Number of the first card
+     * @param second Number of the second card
+     * @return UTF-8 encoded string of the comma separated pair
+     */
+    public static byte[] getPairBytes(int first, int second) {
+        return PAIR_BYTES[first * CARD_COUNT + second];
+    }
+
+    /**
+     * Joins the given cards with commas. Uses the precomputed tables for
+     * zero, one or two cards and only builds a new string for larger hands,
+     * such as Omaha hands or the board, which are then cached by the caller.
+     * @param cards Cards to join
+     * @return Comma separated string of the cards
+     */
+    public static String join(List<Card> cards) {
+        switch (cards.size()) {
+            case 0:
+                return "";
+            case 1:
+                return getCardString(cards.get(0).getNumber());
+            case 2:
+                return getPairString(cards.get(0).getNumber(), cards.get(1).getNumber());
+            default:
+                StringBuilder builder = new StringBuilder(cards.size() * 3);
+                for (int i = 0; i < cards.size(); i++) {
+                    if (i > 0) builder.append(',');
+                    builder.append(getCardString(cards.get(i).getNumber()));
+                }
+                return builder.toString();
+        }
+    }
+}
@@ -19,49 +19,55 @@
 
 package io.riddles.poker.game.table.card;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.stream.Collectors;
-
-import io.riddles.poker.engine.PokerEngine;
+import java.util.Random;
 
 /**
  * io.riddles.poker.game.table.card.Deck - Created on 29-8-17
  *
  * Class representing a single deck of cards, which is shuffled in random order.
- * Cards can be drawn from the deck.
+ * Cards can be drawn from the deck. The card array is never changed after it's
+ * shuffled, so copies of a deck share it and only keep their own size. The
+ * random generator is the one of the match, copies use the same one.
  *
  * @author Jim van Eeden - jim@riddles.io
  */
 public class Deck {
 
-    private ArrayList<Card> cards;
+    private Card[] cards;  // cards[0, size) are left in the deck, drawn from the end
+    private int size;
+    private Random random;
 
-    public Deck() {
-        this.cards = new ArrayList<>();
+    public Deck(Random random) {
+        this.cards = new Card[52];
+        this.size = 52;
 
         for (int i = 0; i < 52; i++) {
-            this.cards.add(new Card(i));
+            this.cards[i] = Card.fromNumber(i);
         }
 
-        Collections.shuffle(this.cards, PokerEngine.RANDOM);
+        this.random = random;
+        Collections.shuffle(Arrays.asList(this.cards), random);
     }
 
     public Deck(Deck deck) {
-        this.cards = deck.cards.stream()
-                .map(card -> new Card(card.getNumber()))
-                .collect(Collectors.toCollection(ArrayList::new));
+        this.cards = deck.cards;
+        this.size = deck.size;
+        this.random = deck.random;
     }
 
     public Card nextCard() {
-        if (this.cards.size() <= 0) {
+        if (this.size <= 0) {
             return null;
         }
 
-        return this.cards.remove(this.cards.size() - 1);
+        this.size--;
+        return this.cards[this.size];
     }
 
     public void shuffle() {
-        Collections.shuffle(this.cards, PokerEngine.RANDOM);
+        this.cards = Arrays.copyOf(this.cards, this.size);  // don't touch the shared array
+        Collections.shuffle(Arrays.asList(this.cards), this.random);
     }
 }
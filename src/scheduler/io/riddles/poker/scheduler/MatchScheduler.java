@@ -0,0 +1,109 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.scheduler;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * io.riddles.poker.scheduler.MatchScheduler - Created on 19-10-26
+ *
+ * Runs matches in the same JVM, each on its own virtual thread, so a match
+ * that blocks on bot I/O doesn't hold on to a platform thread. At most
+ * maxConcurrentMatches matches run at the same time. Matches are started in
+ * the order they are given, a waiting match starts as soon as any running
+ * match ends, so no match waits longer than the ones given before it.
+ * Needs Java 21 or newer at runtime.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class MatchScheduler {
+
+    private static final Logger LOGGER = Logger.getLogger(MatchScheduler.class.getName());
+
+    private final int maxConcurrentMatches;
+
+    public MatchScheduler(int maxConcurrentMatches) {
+        if (maxConcurrentMatches < 1) {
+            throw new RuntimeException("At least 1 concurrent match is needed");
+        }
+
+        this.maxConcurrentMatches = maxConcurrentMatches;
+    }
+
+    /**
+     * Runs all matches and waits until they have ended. A match that throws,
+     * errors included, or whose thread can't be started is counted as
+     * failed, the other matches keep running.
+     * @param matches Matches to run, in the order they should start
+     * @return Timings of all matches
+     */
+    public SchedulerReport run(List<? extends Runnable> matches) {
+        int matchCount = matches.size();
+        long[] waitTimes = new long[matchCount];
+        long[] latencies = new long[matchCount];
+        boolean[] failed = new boolean[matchCount];
+
+        Semaphore slots = new Semaphore(this.maxConcurrentMatches, true);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < matchCount; i++) {
+            int matchNo = i;
+            Runnable match = matches.get(i);
+
+            slots.acquireUninterruptibly();
+            long matchStart = System.nanoTime();
+            waitTimes[matchNo] = matchStart - start;
+
+            try {
+                Thread.ofVirtual().name("match-" + matchNo).start(() -> {
+                    try {
+                        match.run();
+                    } catch (Throwable ex) {
+                        LOGGER.log(Level.WARNING, "Match " + matchNo + " failed", ex);
+                        failed[matchNo] = true;
+                    } finally {
+                        latencies[matchNo] = System.nanoTime() - matchStart;
+                        slots.release();
+                    }
+                });
+            } catch (Throwable ex) {
+                LOGGER.log(Level.WARNING, "Match " + matchNo + " could not be started", ex);
+                failed[matchNo] = true;
+                slots.release();
+            }
+        }
+
+        // All slots are free again once every match has ended, which also
+        // makes the timings written by the match threads visible here
+        slots.acquireUninterruptibly(this.maxConcurrentMatches);
+        long elapsed = System.nanoTime() - start;
+        slots.release(this.maxConcurrentMatches);
+
+        int failedCount = 0;
+        for (boolean isFailed : failed) {
+            if (isFailed) failedCount++;
+        }
+
+        return new SchedulerReport(elapsed, failedCount, waitTimes, latencies);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.scheduler;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.riddles.javainterface.configuration.Configuration;
+import io.riddles.poker.engine.PokerEngine;
+import io.riddles.poker.game.PokerMatch;
+import io.riddles.poker.game.PokerSummary;
+import io.riddles.poker.game.move.PokerMove;
+import io.riddles.poker.game.player.RandomBot;
+import io.riddles.poker.game.table.LegalActions;
+
+/**
+ * io.riddles.poker.scheduler.ScheduledSelfPlay - Created on 19-10-26
+ *
+ * Plays self-play matches between RandomBots on the MatchScheduler and prints
+ * the matches and hands per second and the latency per match. The bots can
+ * be given a think time, during which they block like a bot that is waited
+ * on for its move, to see how many matches can run at the same time. Each
+ * match is seeded with the seed and the match number, like in SelfPlay.
+ * Usage: ScheduledSelfPlay <matches> <seed> <maxConcurrentMatches> <seats> [thinkMillis]
+ * For example: ScheduledSelfPlay 10000 regression 5000 6 2
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class ScheduledSelfPlay {
+
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.err.println("Usage: ScheduledSelfPlay <matches> <seed> "
+                    + "<maxConcurrentMatches> <seats> [thinkMillis]");
+            System.exit(1);
+        }
+
+        int matchCount = Integer.parseInt(args[0]);
+        String seed = args[1];
+        int maxConcurrentMatches = Integer.parseInt(args[2]);
+        int seats = Integer.parseInt(args[3]);
+        long thinkMillis = args.length > 4 ? Long.parseLong(args[4]) : 0;
+
+        if (seats < 2) {
+            throw new RuntimeException("At least 2 seats are needed");
+        }
+
+        Configuration configuration = PokerEngine.createDefaultConfiguration();
+        AtomicLong handCount = new AtomicLong();
+
+        ArrayList<Runnable> matches = new ArrayList<>();
+        for (int matchNo = 0; matchNo < matchCount; matchNo++) {
+            String matchSeed = seed + "-" + matchNo;
+            matches.add(() -> handCount.addAndGet(
+                    playMatch(configuration, matchSeed, seats, thinkMillis)));
+        }
+
+        SchedulerReport report = new MatchScheduler(maxConcurrentMatches).run(matches);
+
+        System.out.println(report);
+        System.out.println(String.format("%d hands, %.0f hands/s",
+                handCount.get(), handCount.get() / (report.getElapsed() / 1e9)));
+    }
+
+    /**
+     * Plays a match until there is a winner
+     * @return Number of hands played
+     */
+    private static int playMatch(Configuration configuration, String seed, int seats,
+                                 long thinkMillis) {
+        PokerMatch match = new PokerMatch(PokerMatch.createBotPlayers(seats,
+                id -> new ThinkingBot(seed.hashCode() * 31L + id, thinkMillis)), configuration, seed);
+
+        PokerSummary summary = new PokerSummary(seats, 0);
+        match.getProcessor().setSummary(summary);
+        match.getProcessor().setCalculatingHandOdds(false);
+
+        try {
+            match.play(Integer.MAX_VALUE);
+        } finally {
+            match.close();
+        }
+
+        return summary.getHandCount();
+    }
+
+    // Blocks for the think time before each move, like waiting on a bot's output
+    private static class ThinkingBot extends RandomBot {
+
+        private final long thinkMillis;
+
+        ThinkingBot(long seed, long thinkMillis) {
+            super(seed);
+            this.thinkMillis = thinkMillis;
+        }
+
+        @Override
+        public PokerMove getMove(LegalActions legalActions) {
+            if (this.thinkMillis > 0) {
+                try {
+                    Thread.sleep(this.thinkMillis);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            return super.getMove(legalActions);
+        }
+    }
+}
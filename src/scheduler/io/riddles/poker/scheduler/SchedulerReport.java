@@ -0,0 +1,100 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.scheduler;
+
+import java.util.Arrays;
+
+/**
+ * io.riddles.poker.scheduler.SchedulerReport - Created on 19-10-26
+ *
+ * Timings of a run of the MatchScheduler: the total time, the throughput and
+ * per match the latency (from its start until it ended) and the time it
+ * waited for a free slot. All times are in nanoseconds.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+public class SchedulerReport {
+
+    private final long elapsed;
+    private final int failedCount;
+    private final long[] waitTimes;  // sorted
+    private final long[] latencies;  // sorted
+
+    SchedulerReport(long elapsed, int failedCount, long[] waitTimes, long[] latencies) {
+        this.elapsed = elapsed;
+        this.failedCount = failedCount;
+        this.waitTimes = waitTimes.clone();
+        this.latencies = latencies.clone();
+
+        Arrays.sort(this.waitTimes);
+        Arrays.sort(this.latencies);
+    }
+
+    public int getMatchCount() {
+        return this.latencies.length;
+    }
+
+    public int getFailedCount() {
+        return this.failedCount;
+    }
+
+    public long getElapsed() {
+        return this.elapsed;
+    }
+
+    public double getMatchesPerSecond() {
+        return getMatchCount() / (this.elapsed / 1e9);
+    }
+
+    /**
+     * @param percentile Percentile between 0 and 100
+     * @return Latency that the given percentage of the matches didn't exceed
+     */
+    public long getLatencyPercentile(double percentile) {
+        return percentile(this.latencies, percentile);
+    }
+
+    public long getWaitTimePercentile(double percentile) {
+        return percentile(this.waitTimes, percentile);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d matches (%d failed) in %.2f s, %.1f matches/s%n"
+                        + "latency ms: p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n"
+                        + "wait ms: p50 %.1f, p99 %.1f, max %.1f",
+                getMatchCount(), this.failedCount, this.elapsed / 1e9, getMatchesPerSecond(),
+                toMillis(getLatencyPercentile(50)), toMillis(getLatencyPercentile(90)),
+                toMillis(getLatencyPercentile(99)), toMillis(getLatencyPercentile(100)),
+                toMillis(getWaitTimePercentile(50)), toMillis(getWaitTimePercentile(99)),
+                toMillis(getWaitTimePercentile(100)));
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker
+
+import io.riddles.poker.game.move.MoveType
+import io.riddles.poker.game.move.PokerMove
+import io.riddles.poker.game.player.PokerBot
+import io.riddles.poker.game.player.RandomBot
+import io.riddles.poker.game.table.LegalActions
+import spock.lang.Specification
+
+/**
+ * io.riddles.poker.SelfPlaySpec - Created on 19-10-26
+ *
+ * Checks the bots that are seated for the class names given to SelfPlay.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class SelfPlaySpec extends Specification {
+
+    def "test bots are created from their class name"() {
+        expect:
+        SelfPlay.createBotFactory("").apply(7) instanceof RandomBot
+        SelfPlay.createBotFactory(SeededBot.class.getName()).apply(7).seed == 7
+        SelfPlay.createBotFactory(FoldingBot.class.getName()).apply(7) instanceof FoldingBot
+    }
+
+    def "test class that can't be seated is refused"() {
+        when:
+        SelfPlay.createBotFactory(className)
+
+        then:
+        thrown(RuntimeException)
+
+        where:
+        className << ["io.riddles.poker.NoSuchBot", String.class.getName(), NoConstructorBot.class.getName()]
+    }
+
+    static class SeededBot implements PokerBot {
+
+        final long seed
+
+        SeededBot(long seed) {
+            this.seed = seed
+        }
+
+        @Override
+        PokerMove getMove(LegalActions legalActions) {
+            return new PokerMove(MoveType.CHECK)
+        }
+    }
+
+    static class FoldingBot implements PokerBot {
+
+        @Override
+        PokerMove getMove(LegalActions legalActions) {
+            return new PokerMove(MoveType.FOLD)
+        }
+    }
+
+    static class NoConstructorBot implements PokerBot {
+
+        NoConstructorBot(String name) {}
+
+        @Override
+        PokerMove getMove(LegalActions legalActions) {
+            return new PokerMove(MoveType.FOLD)
+        }
+    }
+}
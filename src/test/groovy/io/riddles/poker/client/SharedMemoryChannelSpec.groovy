@@ -0,0 +1,62 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.client
+
+import spock.lang.Specification
+
+/**
+ * io.riddles.poker.client.SharedMemoryChannelSpec - Created on 19-10-26
+ *
+ * Sends messages of random lengths through a small shared memory channel from
+ * another thread, so the ring buffer wraps and fills up many times, and checks
+ * they arrive complete and in order.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class SharedMemoryChannelSpec extends Specification {
+
+    def "test messages arrive in order through a full ring"() {
+        setup:
+        File file = File.createTempFile("poker-channel", ".ring")
+        SharedMemoryChannel engine = SharedMemoryChannel.create(file, 1024)
+        SharedMemoryChannel bot = SharedMemoryChannel.open(file, 1000)
+        Random random = new Random(48)
+        List<String> messages = (0..<5000).collect { "message " + it + " " + ("x" * random.nextInt(300)) }
+
+        Thread writer = Thread.start {
+            messages.each { engine.write(it, 10000) }
+            engine.close()
+        }
+
+        List<String> received = []
+        String message
+        while ((message = bot.read(10000)) != null) {
+            received << message
+        }
+        writer.join()
+
+        expect:
+        received == messages
+        bot.isPeerClosed()
+
+        cleanup:
+        file.delete()
+    }
+}
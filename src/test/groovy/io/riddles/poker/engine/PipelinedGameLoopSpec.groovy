@@ -0,0 +1,112 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.engine
+
+import io.riddles.javainterface.engine.GameLoopInterface
+import io.riddles.javainterface.engine.SimpleGameLoop
+import io.riddles.javainterface.io.IOInterface
+import io.riddles.poker.game.PokerMatch
+import io.riddles.poker.game.PokerStateStreamer
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.util.function.Consumer
+import java.util.function.IntFunction
+
+/**
+ * io.riddles.poker.engine.PipelinedGameLoopSpec - Created on 19-10-26
+ *
+ * Plays the same streamed match with the SimpleGameLoop and with the
+ * PipelinedGameLoop, and checks the bots get the same messages in the same
+ * order and the same stream and checkpoint are written.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class PipelinedGameLoopSpec extends Specification {
+
+    def "test pipelined loop is the same as the simple loop"() {
+        setup:
+        File simpleDir = Files.createTempDirectory("simple").toFile()
+        File pipelinedDir = Files.createTempDirectory("pipelined").toFile()
+
+        when:
+        Map<Integer, List<String>> simple = playMatch(new SimpleGameLoop(), simpleDir, seats)
+        Map<Integer, List<String>> pipelined = playMatch(new PipelinedGameLoop(0), pipelinedDir, seats)
+
+        then:
+        pipelined == simple
+        new File(pipelinedDir, "stream").bytes == new File(simpleDir, "stream").bytes
+        new File(pipelinedDir, "checkpoint").bytes == new File(simpleDir, "checkpoint").bytes
+
+        cleanup:
+        simpleDir.deleteDir()
+        pipelinedDir.deleteDir()
+
+        where:
+        seats << [2, 6]
+    }
+
+    // Returns the lines written to each bot, by bot id
+    private static Map<Integer, List<String>> playMatch(GameLoopInterface gameLoop, File dir, int seats) {
+        Map<Integer, List<String>> lines = [:]
+
+        PokerMatch match = new PokerMatch(PokerMatch.createPlayers(seats, { } as Consumer,
+                { int id -> new RecordingIO(lines[id] = [], new Random(id)) } as IntFunction),
+                PokerEngine.createDefaultConfiguration(), "pipelined-" + seats)
+
+        PokerStateStreamer stateStreamer = new PokerStateStreamer(new File(dir, "stream").getPath())
+        match.getProcessor().setStateStreamer(stateStreamer)
+        match.getProcessor().setCheckpoint(new File(dir, "checkpoint").getPath(), stateStreamer)
+
+        match.play(gameLoop)
+
+        return lines
+    }
+
+    private static class RecordingIO implements IOInterface {
+
+        private final List<String> lines
+        private final Random random
+
+        RecordingIO(List<String> lines, Random random) {
+            this.lines = lines
+            this.random = random
+        }
+
+        @Override
+        void sendMessage(String message) {
+            this.lines.addAll(message.split("\n"))
+        }
+
+        @Override
+        String getNextMessage() {
+            return null
+        }
+
+        @Override
+        String sendRequest(String message) {
+            sendMessage(message)
+
+            int choice = this.random.nextInt(100)
+            return choice < 10 ? "fold" : choice < 40 ? "check" : choice < 75 ? "call" :
+                    "raise_" + (this.random.nextInt(300) + 1)
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game
+
+import io.riddles.poker.game.state.PokerPlayerState
+import io.riddles.poker.game.state.PokerState
+import spock.lang.Specification
+
+import java.security.SecureRandom
+
+/**
+ * io.riddles.poker.game.PokerCheckpointSpec - Created on 19-10-26
+ *
+ * Checks that the random generator of a checkpoint continues where it was,
+ * however its bytes were drawn, and that only a seed and a count are stored.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class PokerCheckpointSpec extends Specification {
+
+    def "test random generator continues from the checkpoint"() {
+        setup:
+        ReplayableRandom random = new ReplayableRandom("seed".getBytes())
+        random.nextBytes(new byte[firstDraw])
+        random.nextInt(52)
+        random.nextBytes(new byte[secondDraw])
+
+        PokerCheckpoint checkpoint = PokerCheckpoint.create(createState(), random)
+        File file = File.createTempFile("checkpoint", ".bin")
+        file.deleteOnExit()
+        checkpoint.write(file.getPath())
+
+        when:
+        SecureRandom restored = PokerCheckpoint.read(file.getPath()).createRandom()
+
+        then:
+        restored.nextInt() == random.nextInt()
+        restored.nextLong() == random.nextLong()
+        file.length() < 256
+
+        where:
+        firstDraw | secondDraw
+        0         | 0
+        3         | 17
+        20        | 5000
+        4096      | 4097
+    }
+
+    def "test replayable generator gives the same numbers as SHA1PRNG"() {
+        setup:
+        SecureRandom original = SecureRandom.getInstance("SHA1PRNG")
+        original.setSeed("seed".getBytes())
+        ReplayableRandom random = new ReplayableRandom("seed".getBytes())
+
+        expect:
+        (0..<100).collect { original.nextInt() } == (0..<100).collect { random.nextInt() }
+        random.getBytesDrawn() == 400
+    }
+
+    def "test random generator that can't be replayed is not stored"() {
+        when:
+        PokerCheckpoint.create(createState(), new SecureRandom())
+
+        then:
+        thrown(RuntimeException)
+    }
+
+    private static PokerState createState() {
+        PokerContext context = new PokerContext(PokerType.TEXASHOLDEM, RaiseLimitType.NOLIMIT,
+                20, 10, new SecureRandom())
+        PokerState state = new PokerState([new PokerPlayerState(0, 2000),
+                new PokerPlayerState(1, 2000)] as ArrayList, context)
+        state.getTable().resetTable()
+
+        return state
+    }
+}
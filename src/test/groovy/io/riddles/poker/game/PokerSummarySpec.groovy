@@ -0,0 +1,161 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game
+
+import io.riddles.poker.game.move.MoveType
+import io.riddles.poker.game.move.PokerMove
+import io.riddles.poker.game.state.PokerPlayerState
+import io.riddles.poker.game.state.PokerState
+import io.riddles.poker.game.table.BetRound
+import io.riddles.poker.game.table.PokerTable
+import org.json.JSONObject
+import spock.lang.Specification
+
+import java.security.SecureRandom
+
+/**
+ * io.riddles.poker.game.PokerSummarySpec - Created on 19-10-26
+ *
+ * Plays two heads-up hands that end on a fold, adding them to a summary in
+ * the same order as the PokerProcessor does, and checks the hands won and
+ * the chips won per bet round, which don't count the winner's own bets.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class PokerSummarySpec extends Specification {
+
+    PokerContext context = new PokerContext(PokerType.TEXASHOLDEM, RaiseLimitType.NOLIMIT, 20, 10,
+            new SecureRandom())
+
+    def "test hands and chips won are counted net of own bets"() {
+        setup:
+        PokerSummary summary = new PokerSummary(2, 1)
+        PokerState state = new PokerState([new PokerPlayerState(0, 2000),
+                new PokerPlayerState(1, 2000)] as ArrayList, context)
+        state.getTable().resetTable()
+
+        when: "the small blind folds preflop, then the other player folds on the flop"
+        PokerState firstHandStart = startHand(summary, state, 1)
+        int firstWinner = firstHandStart.getTable().getBigBlindId()
+        PokerState firstHandEnd = playPreflop(firstHandStart, true)
+        summary.addHand(firstHandStart, firstHandEnd)
+
+        PokerState secondHandStart = startHand(summary, firstHandEnd, 2)
+        PokerState secondHandEnd = playPreflop(secondHandStart, false)
+        int secondWinner = secondHandEnd.getTable().getBetRoundStartingPlayer().getPlayerId()
+        secondHandEnd = foldOnFlop(secondHandEnd)
+        summary.addHand(secondHandStart, secondHandEnd)
+
+        PokerState payoutState = startHand(summary, secondHandEnd, 3)
+        JSONObject json = summary.toJson()
+
+        then:
+        summary.getHandCount() == 2
+        summary.getLastState() == secondHandEnd
+        summary.keptStatesToJson().length() > 0
+        json.getInt("hands") == 2
+        payoutState.getPlayerStateById(secondWinner).getChips() == 2000 + (firstWinner == secondWinner ? 30 : 10)
+        chipsWon(json, firstWinner, BetRound.PREFLOP) == 10
+        chipsWon(json, 1 - firstWinner, BetRound.PREFLOP) == 0
+        chipsWon(json, secondWinner, BetRound.FLOP) == 20
+        chipsWon(json, 1 - secondWinner, BetRound.FLOP) == 0
+        handsWon(json, 0) + handsWon(json, 1) == 2
+        handsWon(json, firstWinner) >= 1
+        handsWon(json, secondWinner) >= 1
+    }
+
+    def "test showdowns and invalid moves are counted per player"() {
+        setup:
+        PokerSummary summary = new PokerSummary(3, 0)
+
+        when:
+        summary.addShowdown(0b101L)
+        summary.addShowdown(0b100L)
+        summary.addInvalidMove(1)
+        JSONObject json = summary.toJson()
+
+        then:
+        (0..2).collect { json.getJSONArray("players").getJSONObject(it).getInt("showdowns") } == [1, 0, 2]
+        (0..2).collect { json.getJSONArray("players").getJSONObject(it).getInt("invalidMoves") } == [0, 1, 0]
+        summary.keptStatesToJson().length() == 0
+    }
+
+    // Pays out the hand before and resets the table, like the processor does
+    private static PokerState startHand(PokerSummary summary, PokerState state, int roundNumber) {
+        PokerState nextState = state.createNextState(roundNumber, BetRound.START)
+        nextState.getTable().getPotPayout()
+        summary.addPayout(state, nextState)
+        nextState.getTable().resetTable()
+
+        return nextState
+    }
+
+    // The first player folds, or calls after which the big blind checks
+    private static PokerState playPreflop(PokerState state, boolean isFolding) {
+        PokerState nextState = startBetRound(state, BetRound.PREFLOP)
+        PokerTable table = nextState.getTable()
+        table.payBlinds()
+        table.dealCards()
+
+        PokerPlayerState first = table.getBetRoundStartingPlayer()
+        nextState = playMove(nextState, first.getPlayerId(), isFolding ? MoveType.FOLD : MoveType.CALL)
+
+        if (!isFolding) {
+            int secondId = nextState.getTable().getNextActivePlayer(first.getPlayerId()).getPlayerId()
+            nextState = playMove(nextState, secondId, MoveType.CHECK)
+        }
+
+        return nextState
+    }
+
+    private static PokerState foldOnFlop(PokerState state) {
+        PokerState nextState = startBetRound(state, BetRound.FLOP)
+        nextState.getTable().addTableCards(3)
+
+        int firstId = nextState.getTable().getBetRoundStartingPlayer().getPlayerId()
+        return playMove(nextState, firstId, MoveType.FOLD)
+    }
+
+    private static PokerState startBetRound(PokerState state, BetRound betRound) {
+        PokerState nextState = state.createNextState(state.getRoundNumber(), betRound)
+        nextState.getTable().putBetsInPot()
+        nextState.getTable().startBetRound()
+
+        return nextState
+    }
+
+    private static PokerState playMove(PokerState state, int playerId, MoveType moveType) {
+        PokerState nextState = state.createNextState(state.getRoundNumber(), state.getBetRound())
+        PokerPlayerState playerState = nextState.getPlayerStateById(playerId)
+        playerState.setMove(new PokerMove(moveType))
+        nextState.getTable().processMove(playerState)
+
+        return nextState
+    }
+
+    private static long chipsWon(JSONObject json, int id, BetRound betRound) {
+        return json.getJSONArray("players").getJSONObject(id).getJSONObject("chipsWon")
+                .getLong(betRound.toString())
+    }
+
+    private static int handsWon(JSONObject json, int id) {
+        return json.getJSONArray("players").getJSONObject(id).getInt("handsWon")
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.move
+
+import java.nio.charset.StandardCharsets
+
+import spock.lang.Specification
+
+/**
+ * io.riddles.poker.game.move.PokerMoveParserSpec - Created on 19-10-26
+ *
+ * Checks the moves and errors of the PokerMoveParser, for both the string
+ * and the byte input, and the error messages of the PokerMoveDeserializer.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class PokerMoveParserSpec extends Specification {
+
+    def "test parse result"() {
+        setup:
+        byte[] bytes = ("xx" + input + "yy").getBytes(StandardCharsets.US_ASCII)
+        long result = PokerMoveParser.parse(input)
+
+        expect:
+        PokerMoveParser.parse(bytes, 2, input.length()) == result
+        PokerMoveParser.isValid(result) == (moveType != null)
+        !PokerMoveParser.isValid(result) || PokerMoveParser.getMoveType(result) == moveType
+        !PokerMoveParser.isValid(result) || !PokerMoveParser.hasAmount(result) ||
+                PokerMoveParser.getAmount(result) == amount
+
+        where:
+        input              | moveType       | amount
+        "call"             | MoveType.CALL  | null
+        "CHECK"            | MoveType.CHECK | null
+        "fold__"           | MoveType.FOLD  | null
+        "raise_120"        | MoveType.RAISE | 120
+        "raise_+7_extra"   | MoveType.RAISE | 7
+        "raise_2147483647" | MoveType.RAISE | Integer.MAX_VALUE
+        "raise_2147483648" | null           | null
+        "raise_0"          | null           | null
+        "raise_-5"         | null           | null
+        "raise"            | null           | null
+        "___"              | null           | null
+        "bet_20"           | null           | null
+    }
+
+    def "test deserializer error messages"() {
+        expect:
+        new PokerMoveDeserializer().traverse(input).getException().getMessage() == message
+
+        where:
+        input       | message
+        "bet_20"    | "Unknown move type 'bet'."
+        "raise_abc" | "Can't parse amount 'abc'."
+        "raise_0"   | "Can't parse amount '0'."
+        "raise"     | "Failed to parse action."
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player
+
+import io.riddles.javainterface.io.IOInterface
+import io.riddles.poker.engine.PokerEngine
+import io.riddles.poker.game.PokerMatch
+import spock.lang.Specification
+
+import java.util.function.Consumer
+import java.util.function.IntFunction
+
+/**
+ * io.riddles.poker.game.player.AsyncPlayerIOSpec - Created on 19-10-26
+ *
+ * Plays a match with a writer thread per bot, all writing to the same IO
+ * handler at the same time, and checks each bot gets the same messages in the
+ * same order as when everything is written from the engine thread.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class AsyncPlayerIOSpec extends Specification {
+
+    static final int SEATS = 6
+    static final int MAX_ROUNDS = 30
+
+    def "test messages per bot keep their order with concurrent writers"() {
+        when:
+        Map<String, List<String>> sync = playMatch(false)
+        Map<String, List<String>> async = playMatch(true)
+
+        then:
+        async.keySet().size() == SEATS
+        async == sync
+    }
+
+    // Returns the lines written to each bot, by bot id
+    private static Map<String, List<String>> playMatch(boolean isWritingAsync) {
+        RecordingIO io = new RecordingIO(new Random(47))
+
+        PokerMatch match = new PokerMatch(PokerMatch.createPlayers(SEATS,
+                { PokerPlayer player -> player.setWritingAsync(isWritingAsync) } as Consumer,
+                { int id -> io } as IntFunction),
+                PokerEngine.createDefaultConfiguration(), "async")
+        match.getProcessor().setCalculatingHandOdds(false)
+
+        match.play(MAX_ROUNDS)
+        match.close()
+
+        return io.lines
+    }
+
+    // Records the lines per bot, yielding between them so the writer threads interleave
+    private static class RecordingIO implements IOInterface {
+
+        private final Random random
+        final Map<String, List<String>> lines = new TreeMap<>()
+
+        RecordingIO(Random random) {
+            this.random = random
+        }
+
+        @Override
+        void sendMessage(String message) {
+            for (String line : message.split("\n")) {
+                Thread.yield()
+                synchronized (this.lines) {
+                    this.lines.computeIfAbsent(line.split(" ")[1], { new ArrayList<String>() }).add(line)
+                }
+            }
+        }
+
+        @Override
+        String getNextMessage() {
+            return null
+        }
+
+        @Override
+        String sendRequest(String message) {
+            sendMessage(message)
+
+            int choice = this.random.nextInt(100)
+            return choice < 10 ? "fold" : choice < 40 ? "check" : choice < 75 ? "call" :
+                    "raise_" + (this.random.nextInt(300) + 1)
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player
+
+import io.riddles.poker.client.BinaryProtocol
+import io.riddles.poker.game.move.MoveType
+import io.riddles.poker.game.move.PokerMoveParser
+import spock.lang.Specification
+
+/**
+ * io.riddles.poker.game.player.BinaryPlayerIOSpec - Created on 19-10-26
+ *
+ * Decodes binary move replies, checks invalid ones get the error codes of
+ * the PokerMoveParser and amounts can't take more bytes than an int needs.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class BinaryPlayerIOSpec extends Specification {
+
+    def "test valid move replies are decoded"() {
+        expect:
+        BinaryPlayerIO.decodeMove(BinaryProtocol.encodeMove(moveCode, amount)) == result
+
+        where:
+        moveCode              | amount            || result
+        BinaryProtocol.FOLD   | 0                 || PokerMoveParser.pack(MoveType.FOLD)
+        BinaryProtocol.CALL   | 500               || PokerMoveParser.pack(MoveType.CALL)
+        BinaryProtocol.RAISE  | 127               || PokerMoveParser.pack(MoveType.RAISE, 127)
+        BinaryProtocol.RAISE  | 1 << 29           || PokerMoveParser.pack(MoveType.RAISE, 1 << 29)
+        BinaryProtocol.RAISE  | Integer.MAX_VALUE || PokerMoveParser.pack(MoveType.RAISE, Integer.MAX_VALUE)
+    }
+
+    def "test invalid move replies give the parser's error codes"() {
+        expect:
+        BinaryPlayerIO.decodeMove(reply as byte[]) == result
+
+        where:
+        reply                                   || result
+        []                                      || PokerMoveParser.FAILED
+        [4]                                     || PokerMoveParser.UNKNOWN_MOVE_TYPE
+        [-1]                                    || PokerMoveParser.UNKNOWN_MOVE_TYPE
+        [3]                                     || PokerMoveParser.FAILED
+        [3, 0]                                  || PokerMoveParser.INVALID_AMOUNT
+        [3, 0x80]                               || PokerMoveParser.INVALID_AMOUNT
+        [3, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F]       || PokerMoveParser.INVALID_AMOUNT
+        [3, 0x81, 0x80, 0x80, 0x80, 0x80, 0x00] || PokerMoveParser.INVALID_AMOUNT
+    }
+
+    def "test a missing reply gives the parser's error code"() {
+        expect:
+        BinaryPlayerIO.decodeMove(null) == PokerMoveParser.FAILED
+    }
+}
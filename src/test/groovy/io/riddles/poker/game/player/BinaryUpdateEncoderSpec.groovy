@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player
+
+import io.riddles.poker.client.BinaryDecoder
+import io.riddles.poker.client.BinaryProtocol
+import io.riddles.poker.game.move.MoveType
+import io.riddles.poker.game.move.PokerMove
+import io.riddles.poker.game.table.BetRound
+import io.riddles.poker.game.table.card.Card
+import spock.lang.Specification
+
+/**
+ * io.riddles.poker.game.player.BinaryUpdateEncoderSpec - Created on 19-10-26
+ *
+ * Encodes updates with the BinaryUpdateEncoder and checks the BinaryDecoder
+ * gives back the same values, also for amounts that take multiple bytes.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class BinaryUpdateEncoderSpec extends Specification {
+
+    def "test decoded updates are the encoded ones"() {
+        setup:
+        PokerPlayer player = new PokerPlayer(2)
+        BinaryUpdateEncoder encoder = new BinaryUpdateEncoder()
+        List<String> decoded = []
+
+        // Not a map coerced to the interface, the proxy would call the default methods instead
+        BinaryDecoder.Listener listener = new BinaryDecoder.Listener() {
+            void onText(String line) { decoded << "text " + line }
+            void onChips(int id, int chips) { decoded << "chips " + id + " " + chips }
+            void onBetRound(int betRound) { decoded << "bet_round " + betRound }
+            void onTable(long cards) { decoded << "table " + cards }
+            void onHand(int id, long cards) { decoded << "hand " + id + " " + cards }
+            void onMove(int id, int move, int amount) { decoded << "move " + id + " " + move + " " + amount }
+            void onPot(int pot) { decoded << "pot " + pot }
+            void onActionMove(int time) { decoded << "action " + time }
+        }
+
+        when:
+        encoder.appendText("settings your_bot player2 €")
+        encoder.appendPlayerValue(BinaryProtocol.CHIPS, player, 2000000)
+        encoder.appendBetRound(BetRound.FLOP)
+        encoder.appendTable([Card.fromString("Ah"), Card.fromString("2s"), Card.fromString("Td")])
+        encoder.appendHand(player, 0b11L << 50)
+        encoder.appendMove(player, new PokerMove(MoveType.RAISE, 128))
+        encoder.appendMove(player, new PokerMove(MoveType.CALL))
+        encoder.appendValue(BinaryProtocol.POT, 127)
+        encoder.appendValue(BinaryProtocol.ACTION_MOVE, 10000)
+        new BinaryDecoder().decode(encoder.getBytes(), 0, encoder.length(), listener)
+
+        long table = (1L << Card.fromString("Ah").getNumber()) | (1L << Card.fromString("2s").getNumber()) |
+                (1L << Card.fromString("Td").getNumber())
+
+        then:
+        decoded == ["text settings your_bot player2 €", "chips 2 2000000", "bet_round 2",
+                    "table " + table, "hand 2 " + (0b11L << 50), "move 2 3 128", "move 2 2 0",
+                    "pot 127", "action 10000"]
+    }
+}
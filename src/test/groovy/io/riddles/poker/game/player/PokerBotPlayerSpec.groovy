@@ -0,0 +1,252 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player
+
+import io.riddles.poker.engine.PokerEngine
+import io.riddles.poker.game.PokerContext
+import io.riddles.poker.game.move.MoveType
+import io.riddles.poker.game.move.PokerMove
+import io.riddles.poker.game.state.PokerPlayerState
+import io.riddles.poker.game.state.PokerState
+import io.riddles.poker.game.table.BetRound
+import io.riddles.poker.game.table.LegalActions
+import io.riddles.poker.game.table.PokerTable
+import io.riddles.poker.game.table.card.Card
+import spock.lang.Specification
+
+/**
+ * io.riddles.poker.game.player.PokerBotPlayerSpec - Created on 19-10-26
+ *
+ * Sends every kind of update to a PokerBotPlayer and checks the bot gets each
+ * of them as a callback with the same values, and checks the moves the bot
+ * returns are copied and rejected like parsed moves are.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class PokerBotPlayerSpec extends Specification {
+
+    def "test updates are given to the bot as callbacks"() {
+        setup:
+        PokerContext context = PokerContext.fromConfiguration(
+                PokerEngine.createDefaultConfiguration(), PokerEngine.createRandom("bot"))
+        PokerState state = new PokerState([new PokerPlayerState(0, 2000),
+                new PokerPlayerState(1, 2000)] as ArrayList, context)
+        state.getTable().resetTable()
+        state.getTable().dealCards()
+        state.getTable().addTableCards(3)
+
+        PokerTable table = state.getTable()
+        PokerPlayerState playerState = state.getPlayerStateById(1)
+        LegalActions legalActions = table.getLegalActions(playerState)
+        PokerMove raise = new PokerMove(MoveType.RAISE, 128)
+
+        RecordingBot bot = new RecordingBot(null)
+        PokerBotPlayer player = new PokerBotPlayer(1, bot)
+        player.setSendingLegalActions(true)
+        PokerPlayer other = new PokerPlayer(0)
+
+        when:
+        player.sendSetting("your_bot", player.getName())
+        player.sendSetting("max_rounds", 100)
+        player.sendUpdate("chips", other, 1990)
+        player.sendHandStart(7, 10, 20, other)
+        player.sendChips(other, 1990)
+        player.sendBetRound(BetRound.FLOP)
+        player.sendHand(player, playerState)
+        player.sendTable(table)
+        player.sendBet(other, 20)
+        player.sendPot(40)
+        player.sendAmountToCall(10)
+        player.sendLegalActions(legalActions)
+        player.sendMove(other, raise)
+        player.sendWins(other, 1234567)
+        player.sendWarning("warning")
+
+        then:
+        bot.calls == [
+                "start 1",
+                "setting your_bot player1",
+                "setting max_rounds 100",
+                "hand_start 7 10 20 0",
+                "chips 0 1990",
+                "bet_round flop",
+                "hand 1 ${playerState.getHand()}".toString(),
+                "table ${table.getTableCards()}".toString(),
+                "bet 0 20",
+                "pot 40",
+                "amount_to_call 10",
+                "legal_actions",
+                "move 0 raise_128",
+                "win 0 1234567",
+                "warning warning"
+        ]
+        bot.legalActions.is(legalActions)
+        !bot.move.is(raise)
+        bot.hand.size() == 2
+        bot.tableCards.size() == 3
+
+        when: "the cards given to the bot are changed"
+        bot.hand.clear()
+
+        then:
+        thrown(UnsupportedOperationException)
+        playerState.getHand().size() == 2
+    }
+
+    def "test moves of the bot are copied and checked"() {
+        setup:
+        RecordingBot bot = new RecordingBot(move)
+        PokerBotPlayer player = new PokerBotPlayer(0, bot)
+
+        when:
+        PokerMove requested = player.requestMove()
+
+        then:
+        !requested.is(move)
+        requested.isInvalid() == isInvalid
+        requested.getMoveType() == moveType
+
+        where:
+        move                                    | isInvalid | moveType
+        new PokerMove(MoveType.CALL)            | false     | MoveType.CALL
+        new PokerMove(MoveType.RAISE, 40)       | false     | MoveType.RAISE
+        new PokerMove(MoveType.RAISE, 0)        | true      | null
+        new PokerMove((MoveType) null)          | true      | null
+        null                                    | true      | null
+    }
+
+    def "test legal actions are given to getMove when they are not sent"() {
+        setup:
+        PokerContext context = PokerContext.fromConfiguration(
+                PokerEngine.createDefaultConfiguration(), PokerEngine.createRandom("bot"))
+        PokerState state = new PokerState([new PokerPlayerState(0, 2000),
+                new PokerPlayerState(1, 2000)] as ArrayList, context)
+        state.getTable().resetTable()
+
+        LegalActions legalActions = state.getTable().getLegalActions(state.getPlayerStateById(0))
+        RecordingBot bot = new RecordingBot(new PokerMove(MoveType.CALL))
+        PokerBotPlayer player = new PokerBotPlayer(0, bot)
+
+        when:
+        player.sendLegalActions(legalActions)
+        player.requestMove()
+
+        then:
+        bot.calls == ["start 0"]
+        bot.legalActions == null
+        bot.requestedLegalActions.is(legalActions)
+    }
+
+    // Records every callback as a line, and returns the same move each time
+    private static class RecordingBot implements PokerBot {
+
+        private final PokerMove reply
+        final List<String> calls = []
+        LegalActions legalActions
+        LegalActions requestedLegalActions
+        PokerMove move
+        List<Card> hand
+        List<Card> tableCards
+
+        RecordingBot(PokerMove reply) {
+            this.reply = reply
+        }
+
+        @Override
+        void onStart(int playerId) {
+            this.calls.add("start ${playerId}".toString())
+        }
+
+        @Override
+        void onSetting(String type, String value) {
+            this.calls.add("setting ${type} ${value}".toString())
+        }
+
+        @Override
+        void onHandStart(int roundNumber, int smallBlind, int bigBlind, int buttonId) {
+            this.calls.add("hand_start ${roundNumber} ${smallBlind} ${bigBlind} ${buttonId}".toString())
+        }
+
+        @Override
+        void onChips(int playerId, int chips) {
+            this.calls.add("chips ${playerId} ${chips}".toString())
+        }
+
+        @Override
+        void onBetRound(BetRound betRound) {
+            this.calls.add("bet_round ${betRound}".toString())
+        }
+
+        @Override
+        void onHand(int playerId, List<Card> hand) {
+            this.hand = hand
+            this.calls.add("hand ${playerId} ${hand}".toString())
+        }
+
+        @Override
+        void onTableCards(List<Card> tableCards) {
+            this.tableCards = tableCards
+            this.calls.add("table ${tableCards}".toString())
+        }
+
+        @Override
+        void onBet(int playerId, int bet) {
+            this.calls.add("bet ${playerId} ${bet}".toString())
+        }
+
+        @Override
+        void onPot(int pot) {
+            this.calls.add("pot ${pot}".toString())
+        }
+
+        @Override
+        void onAmountToCall(int amount) {
+            this.calls.add("amount_to_call ${amount}".toString())
+        }
+
+        @Override
+        void onLegalActions(LegalActions legalActions) {
+            this.legalActions = legalActions
+            this.calls.add("legal_actions")
+        }
+
+        @Override
+        void onMove(int playerId, PokerMove move) {
+            this.move = move
+            this.calls.add("move ${playerId} ${move}".toString())
+        }
+
+        @Override
+        void onWin(int playerId, int chips) {
+            this.calls.add("win ${playerId} ${chips}".toString())
+        }
+
+        @Override
+        void onWarning(String warning) {
+            this.calls.add("warning ${warning}".toString())
+        }
+
+        @Override
+        PokerMove getMove(LegalActions legalActions) {
+            this.requestedLegalActions = legalActions
+            return this.reply
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player
+
+import io.riddles.javainterface.game.player.AbstractPlayer
+import io.riddles.javainterface.io.IOInterface
+import io.riddles.poker.engine.PokerEngine
+import io.riddles.poker.game.PokerContext
+import io.riddles.poker.game.move.MoveType
+import io.riddles.poker.game.move.PokerMove
+import io.riddles.poker.game.state.PokerPlayerState
+import io.riddles.poker.game.state.PokerState
+import io.riddles.poker.game.table.BetRound
+import io.riddles.poker.game.table.PokerTable
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+/**
+ * io.riddles.poker.game.player.PokerUpdateEncoderSpec - Created on 19-10-26
+ *
+ * Sends every kind of update with buffering on, where the lines are written
+ * by the PokerUpdateEncoder, and with buffering off, where they are written
+ * by the sendUpdate methods of the player, and checks the bot gets the same
+ * lines. Also checks each update type and move gives the same bytes as the
+ * sendUpdate methods of AbstractPlayer.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class PokerUpdateEncoderSpec extends Specification {
+
+    def "test encoded updates are the lines the player sends without buffering"() {
+        setup:
+        PokerContext context = PokerContext.fromConfiguration(
+                PokerEngine.createDefaultConfiguration(), PokerEngine.createRandom("encoder"))
+        PokerState state = new PokerState([new PokerPlayerState(0, 2000),
+                new PokerPlayerState(1, 2000)] as ArrayList, context)
+        state.getTable().resetTable()
+        state.getTable().dealCards()
+        state.getTable().addTableCards(3)
+
+        when:
+        String unbuffered = sendUpdates(false, state)
+        String buffered = sendUpdates(true, state)
+
+        then:
+        unbuffered.readLines().size() == 16
+        buffered == unbuffered
+    }
+
+    def "test encoded updates are the bytes AbstractPlayer sends"() {
+        setup:
+        List<String> sent = []
+        IOInterface ioHandler = [
+                sendMessage: { String message -> sent.add(message) },
+                getNextMessage: { null },
+                sendRequest: { String message -> null }
+        ] as IOInterface
+
+        AbstractPlayer player = new AbstractPlayer(1) {}
+        player.setName("player1")
+        player.setIoHandler(ioHandler)
+        AbstractPlayer target = new AbstractPlayer(3) {}
+        target.setName(targetName)
+
+        List<PokerMove> moves = MoveType.values().collect { new PokerMove(it) }
+        moves.add(new PokerMove(MoveType.RAISE, 128))
+
+        PokerUpdateEncoder encoder = new PokerUpdateEncoder(1)
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream()
+
+        when:
+        for (UpdateType type : UpdateType.values()) {
+            player.sendUpdate(type.toString(), intValue)
+            encoder.appendUpdate(type, intValue)
+            player.sendUpdate(type.toString(), stringValue)
+            encoder.appendUpdate(type, stringValue)
+            player.sendUpdate(type.toString(), target, intValue)
+            encoder.appendUpdate(type, target, intValue)
+            player.sendUpdate(type.toString(), target, stringValue)
+            encoder.appendUpdate(type, target, stringValue)
+        }
+        for (PokerMove move : moves) {
+            player.sendUpdate(UpdateType.MOVE.toString(), target, move.toString())
+            encoder.appendMove(target, move)
+        }
+        encoder.writeTo(encoded)
+
+        then:
+        sent.size() == UpdateType.values().length * 4 + moves.size()
+        encoded.toByteArray() == sent.join("\n").getBytes(StandardCharsets.UTF_8)
+
+        where:
+        targetName | intValue          | stringValue
+        "player3"  | 0                 | "fold,call:40,raise:80-1960"
+        "player3"  | -17               | "[Ah,Kd]"
+        "speler_é" | Integer.MAX_VALUE | "ünïcode"
+        "player3"  | Integer.MIN_VALUE | ""
+    }
+
+    // Returns everything the bot was sent, a line per message
+    private static String sendUpdates(boolean isBufferingUpdates, PokerState state) {
+        StringBuilder output = new StringBuilder()
+        IOInterface ioHandler = [
+                sendMessage: { String message -> output.append(message).append("\n") },
+                getNextMessage: { null },
+                sendRequest: { String message -> null }
+        ] as IOInterface
+
+        PokerPlayer player = new PokerPlayer(1)
+        PokerPlayer other = new PokerPlayer(0)
+        player.setName("player1")
+        other.setName("player0")
+        player.setBufferingUpdates(isBufferingUpdates)
+        player.setSendingLegalActions(true)
+        player.setIoHandler(ioHandler)
+
+        PokerTable table = state.getTable()
+        PokerPlayerState playerState = state.getPlayerStateById(1)
+
+        player.sendSetting("your_bot", player.getName())
+        player.sendHandStart(7, 10, 20, other)
+        player.sendChips(other, 1990)
+        player.sendBetRound(BetRound.FLOP)
+        player.sendHand(player, playerState)
+        player.sendTable(table)
+        player.sendBet(other, 20)
+        player.sendPot(40)
+        player.sendAmountToCall(10)
+        player.sendLegalActions(table.getLegalActions(playerState))
+        player.sendMove(other, new PokerMove(MoveType.RAISE, 128))
+        player.sendMove(other, new PokerMove(MoveType.CALL))
+        player.sendWins(other, 1234567)
+        player.flushUpdates()
+
+        return output.toString()
+    }
+}
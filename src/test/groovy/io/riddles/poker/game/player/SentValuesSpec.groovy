@@ -0,0 +1,148 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.player
+
+import io.riddles.javainterface.io.IOInterface
+import io.riddles.poker.engine.PokerEngine
+import io.riddles.poker.game.PokerMatch
+import spock.lang.Specification
+
+import java.util.function.Consumer
+import java.util.function.IntFunction
+import java.util.regex.Matcher
+
+/**
+ * io.riddles.poker.game.player.SentValuesSpec - Created on 19-10-26
+ *
+ * Plays the same match with delta updates and with full updates. Each bot
+ * keeps the last value of every update it got, resetting the bets at each
+ * bet round, and the values it knows at each move request have to be the
+ * same in both matches, with fewer lines sent in delta mode.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class SentValuesSpec extends Specification {
+
+    static final int MAX_ROUNDS = 30
+
+    def "test bots know the same values with delta updates as with full updates"() {
+        when:
+        Map<Integer, ViewingIO> full = playMatch(false, seats)
+        Map<Integer, ViewingIO> delta = playMatch(true, seats)
+
+        then:
+        full.keySet() == delta.keySet()
+        full.keySet().each { id ->
+            assert !full[id].views.isEmpty()
+            assert delta[id].views == full[id].views
+            assert delta[id].lineCount < full[id].lineCount
+        }
+
+        where:
+        seats << [2, 6]
+    }
+
+    def "test only changed values have to be sent"() {
+        setup:
+        SentValues sentValues = new SentValues()
+
+        expect:
+        sentValues.updateChips(3, 2000)
+        !sentValues.updateChips(3, 2000)
+        sentValues.updateChips(3, 1990)
+        sentValues.updateChips(0, 1990)
+
+        sentValues.updateBet(1, 0)
+        !sentValues.updateBet(1, 0)
+        sentValues.updateBet(1, 20)
+
+        when: "a bet round starts, all bets are known to be 0"
+        sentValues.startBetRound()
+
+        then:
+        !sentValues.updateBet(1, 0)
+        !sentValues.updateBet(5, 0)
+        sentValues.updateBet(5, 10)
+
+        sentValues.updatePot(0)
+        !sentValues.updatePot(0)
+        sentValues.updateAmountToCall(0)
+        !sentValues.updateAmountToCall(0)
+        sentValues.updateAmountToCall(20)
+    }
+
+    // Returns the IO handler of each bot, by bot id
+    private static Map<Integer, ViewingIO> playMatch(boolean isSendingDeltaUpdates, int seats) {
+        Map<Integer, ViewingIO> ios = [:]
+
+        PokerMatch match = new PokerMatch(PokerMatch.createPlayers(seats,
+                { PokerPlayer player -> player.setSendingDeltaUpdates(isSendingDeltaUpdates) } as Consumer,
+                { int id -> ios[id] = new ViewingIO(new Random(id)) } as IntFunction),
+                PokerEngine.createDefaultConfiguration(), "delta-" + seats)
+        match.getProcessor().setCalculatingHandOdds(false)
+
+        match.play(MAX_ROUNDS)
+
+        return ios
+    }
+
+    // Keeps the last value of each update like a bot in delta mode does
+    private static class ViewingIO implements IOInterface {
+
+        private final Random random
+        private final Map<String, String> view = new TreeMap<>()
+        final List<String> views = []
+        int lineCount
+
+        ViewingIO(Random random) {
+            this.random = random
+        }
+
+        @Override
+        void sendMessage(String message) {
+            for (String line : message.split("\n")) {
+                this.lineCount++
+
+                Matcher update = line =~ /^bot \d+ send update (\S+) (\S+) (.*)$/
+                if (!update.matches()) continue
+
+                if (update.group(2) == "bet_round") {
+                    this.view.keySet().removeAll { it.endsWith(" bet") }
+                }
+                this.view[update.group(1) + " " + update.group(2)] = update.group(3)
+            }
+        }
+
+        @Override
+        String getNextMessage() {
+            return null
+        }
+
+        @Override
+        String sendRequest(String message) {
+            sendMessage(message)
+            this.views.add(this.view.findAll { !it.key.endsWith(" bet") || it.value != "0" }.toString())
+
+            int choice = this.random.nextInt(100)
+            return choice < 10 ? "fold" : choice < 40 ? "check" : choice < 75 ? "call" :
+                    "raise_" + (this.random.nextInt(300) + 1)
+        }
+    }
+}
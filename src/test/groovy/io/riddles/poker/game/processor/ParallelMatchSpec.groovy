@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.processor
+
+import io.riddles.poker.engine.PokerEngine
+import io.riddles.poker.game.PokerMatch
+import io.riddles.poker.game.PokerSummary
+import io.riddles.poker.game.move.PokerMove
+import io.riddles.poker.game.player.RandomBot
+import io.riddles.poker.game.table.card.Card
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.function.IntFunction
+
+/**
+ * io.riddles.poker.game.processor.ParallelMatchSpec - Created on 19-10-26
+ *
+ * Plays matches at the same time in one JVM, which should give exactly the
+ * same output as playing them one after the other.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class ParallelMatchSpec extends Specification {
+
+    static final int MATCHES = 64
+    static final int MAX_ROUNDS = 50
+
+    def "test parallel matches are the same as serial matches"() {
+        setup:
+        ExecutorService executor = Executors.newFixedThreadPool(8)
+
+        when:
+        List<String> serial = (0..<MATCHES).collect { playMatch(it) }
+        List<Future<String>> futures = (0..<MATCHES).collect { int matchNo ->
+            executor.submit({ playMatch(matchNo) } as Callable<String>)
+        }
+        List<String> parallel = futures.collect { it.get() }
+
+        then:
+        parallel == serial
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    // Returns everything the bots were sent and the summary of the match
+    private static String playMatch(int matchNo) {
+        int seats = 2 + matchNo % 4
+        StringBuilder output = new StringBuilder()
+
+        PokerMatch match = new PokerMatch(PokerMatch.createBotPlayers(seats,
+                { int id -> new RecordingBot(id, matchNo * 31L + id, output) } as IntFunction),
+                PokerEngine.createDefaultConfiguration(), "parallel-" + matchNo)
+
+        PokerSummary summary = new PokerSummary(seats, 0)
+        match.getProcessor().setSummary(summary)
+        match.getProcessor().setCalculatingHandOdds(false)
+
+        match.play(MAX_ROUNDS)
+
+        return output.append(summary.toJson().toString()).toString()
+    }
+
+    private static class RecordingBot extends RandomBot {
+
+        private final int botId
+        private final StringBuilder output
+
+        RecordingBot(int botId, long seed, StringBuilder output) {
+            super(seed)
+            this.botId = botId
+            this.output = output
+        }
+
+        @Override
+        void onHand(int playerId, List<Card> hand) {
+            this.output.append("${this.botId} hand ${playerId} ${hand}\n")
+        }
+
+        @Override
+        void onTableCards(List<Card> tableCards) {
+            this.output.append("${this.botId} table ${tableCards}\n")
+        }
+
+        @Override
+        void onMove(int playerId, PokerMove move) {
+            this.output.append("${this.botId} move ${playerId} ${move}\n")
+        }
+
+        @Override
+        void onWin(int playerId, int chips) {
+            this.output.append("${this.botId} win ${playerId} ${chips}\n")
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.state
+
+import spock.lang.Specification
+
+/**
+ * io.riddles.poker.game.state.OffHeapHistoryBufferSpec - Created on 19-10-26
+ *
+ * Appends and changes the same random values in a heap buffer and in the
+ * direct and memory mapped off-heap buffers, over several segments, and
+ * checks the off-heap buffers hold the same values as the heap buffer.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class OffHeapHistoryBufferSpec extends Specification {
+
+    static final int VALUES = 600000  // a bit over two segments
+
+    def "test off-heap buffers hold the same values as the heap buffer"() {
+        setup:
+        HistoryBuffer heap = new HeapHistoryBuffer(16)
+        Random random = new Random(34)
+
+        when:
+        for (int i = 0; i < VALUES; i++) {
+            int value = random.nextInt()
+            heap.append(value)
+            offHeap.append(value)
+
+            if (random.nextInt(10) == 0) {
+                int position = random.nextInt(i + 1)
+                heap.set(position, -value)
+                offHeap.set(position, -value)
+            }
+        }
+
+        then:
+        offHeap.size() == VALUES
+        for (int i = 0; i < VALUES; i++) {
+            assert offHeap.get(i) == heap.get(i)
+        }
+
+        cleanup:
+        offHeap.close()
+
+        where:
+        offHeap << [OffHeapHistoryBuffer.direct(), OffHeapHistoryBuffer.mapped()]
+    }
+}
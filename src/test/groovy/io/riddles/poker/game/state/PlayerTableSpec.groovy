@@ -0,0 +1,94 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.state
+
+import spock.lang.Specification
+
+/**
+ * io.riddles.poker.game.state.PlayerTableSpec - Created on 19-10-26
+ *
+ * Checks that changes to a copy of a PlayerTable aren't seen by the table it's
+ * copied from or its other copies, although they share their arrays until
+ * then. A table isn't changed anymore once it's copied.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class PlayerTableSpec extends Specification {
+
+    def "test changes to a copy are not seen by the original or other copies"() {
+        setup:
+        PlayerTable original = createTable()
+        PlayerTable changed = new PlayerTable(original)
+        PlayerTable copy = new PlayerTable(original)
+
+        when:
+        changed.increaseBet(1, 300)
+        changed.addHoleCard(2, 51)
+        changed.setFlag(0, PlayerTable.FOLDED, true)
+        changed.increaseChips(2, 100)
+
+        then:
+        changed.getBet(1) == 400
+        changed.getChips(1) == 1600
+        changed.getHoleCards(2) == ((1L << 51) | 0b11L)
+        !changed.isInHand(0)
+        changed.getChips(2) == 2100
+        changed.getBetTotal() == 400
+
+        [original, copy].every { PlayerTable unchanged ->
+            unchanged.getBet(1) == 100 &&
+                    unchanged.getChips(1) == 1900 &&
+                    unchanged.getHoleCards(2) == 0b11L &&
+                    unchanged.isInHand(0) &&
+                    unchanged.getChips(2) == 2000 &&
+                    unchanged.getBetTotal() == 100 &&
+                    unchanged.getHandMask() == 0b111L
+        }
+    }
+
+    def "test a copy of a copy keeps the values of its own source"() {
+        setup:
+        PlayerTable first = createTable()
+        PlayerTable second = new PlayerTable(first)
+        second.setChips(0, 500)
+        PlayerTable third = new PlayerTable(second)
+
+        when:
+        third.setChips(0, 700)
+
+        then:
+        first.getChips(0) == 2000
+        second.getChips(0) == 500
+        third.getChips(0) == 700
+    }
+
+    private static PlayerTable createTable() {
+        PlayerTable table = new PlayerTable(3)
+
+        for (int seat = 0; seat < 3; seat++) {
+            table.setChips(seat, 2000)
+        }
+        table.increaseBet(1, 100)
+        table.addHoleCard(2, 0)
+        table.addHoleCard(2, 1)
+
+        return table
+    }
+}
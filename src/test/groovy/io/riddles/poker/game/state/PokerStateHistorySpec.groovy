@@ -0,0 +1,194 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.state
+
+import io.riddles.javainterface.io.IOInterface
+import io.riddles.poker.engine.PokerEngine
+import io.riddles.poker.game.PokerContext
+import io.riddles.poker.game.PokerMatch
+import io.riddles.poker.game.PokerType
+import io.riddles.poker.game.RaiseLimitType
+import io.riddles.poker.game.move.MoveType
+import io.riddles.poker.game.move.PokerMove
+import io.riddles.poker.game.table.BetRound
+import io.riddles.poker.game.table.PokerTable
+
+import spock.lang.Specification
+
+import java.util.function.Consumer
+import java.util.function.IntFunction
+
+/**
+ * io.riddles.poker.game.state.PokerStateHistorySpec - Created on 19-10-26
+ *
+ * Plays a match with random bots, describes every state right before it's
+ * recorded, and checks the states rebuilt from the keyframes and deltas of
+ * the history are described the same, in order and when jumping back.
+ * Raises are kept with their full amount, however big they are.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class PokerStateHistorySpec extends Specification {
+
+    static final int MAX_ROUNDS = 40
+
+    def "test rebuilt states are the same as the recorded states"() {
+        setup:
+        DescribingHistory history = new DescribingHistory(seats)
+        playMatch(history, seats)
+        List<Integer> backwards = (history.size() - 1..0).toList()
+
+        expect:
+        history.size() == history.descriptions.size()
+        history.size() > MAX_ROUNDS
+        for (int i = 0; i < history.size(); i++) {
+            assert describe(history.rebuild(i)) == history.descriptions[i]
+        }
+        for (int i : backwards) {
+            assert describe(history.rebuild(i)) == history.descriptions[i]
+        }
+        for (int i = 0; i < history.size(); i++) {
+            assert describe(history.getState(i)) == history.descriptions[i]
+        }
+
+        where:
+        seats << [2, 6]
+    }
+
+    def "test raise amounts are rebuilt whole"() {
+        setup:
+        PokerPlayerState player0 = new PokerPlayerState(0, Integer.MAX_VALUE)
+        PokerPlayerState player1 = new PokerPlayerState(1, 2000)
+        DescribingHistory history = new DescribingHistory(2)
+        PokerState state = new PokerState([player0, player1] as ArrayList, history,
+                createContext("history-raise"))
+        state.getTable().resetTable()
+        player0.setMove(new PokerMove(MoveType.RAISE, amount))
+
+        when:
+        state.createNextState(1, BetRound.PREFLOP)
+
+        then:
+        history.rebuild(0).getPlayerStateById(0).getLastMove().getAmount() == amount
+        describe(history.rebuild(0)) == history.descriptions[0]
+
+        where:
+        amount << [1, (1 << 29) - 1, 1 << 29, 1 << 30, Integer.MAX_VALUE]
+    }
+
+    def "test no state can be rebuilt outside the history"() {
+        setup:
+        DescribingHistory history = new DescribingHistory(2)
+        playMatch(history, 2)
+
+        when:
+        history.rebuild(history.size())
+
+        then:
+        thrown(RuntimeException)
+    }
+
+    private static void playMatch(PokerStateHistory history, int seats) {
+        Random random = new Random(28)
+
+        PokerMatch match = new PokerMatch(PokerMatch.createPlayers(seats, { } as Consumer,
+                { int id -> new RandomIO(random) } as IntFunction),
+                createContext("history-" + seats), 2000, history)
+
+        match.play(MAX_ROUNDS).record()
+    }
+
+    private static PokerContext createContext(String seed) {
+        return new PokerContext(PokerType.TEXASHOLDEM, RaiseLimitType.NOLIMIT, 60, 10,
+                PokerEngine.createRandom(seed))
+    }
+
+    // All values a state is recorded with, as one string. Moves are described as
+    // they are sent to the bots, which only keeps the amount of raises.
+    private static String describe(PokerState state) {
+        PokerTable table = state.getTable()
+        List<String> values = [
+                state.getRoundNumber(), state.getBetRound(),
+                table.getButtonId(), table.getSmallBlindId(), table.getBigBlindId(), table.getBigBlind(),
+                table.getTableCardsString(),
+                potChips(table)
+        ].collect { String.valueOf(it) }
+
+        for (PokerPlayerState playerState : state.getPlayerStates()) {
+            values.add([
+                    playerState.getPlayerId(), playerState.getChips(), playerState.getBet(),
+                    playerState.getLastMove(),
+                    playerState.getOdds(), playerState.getHandStrength(), playerState.getHandString(),
+                    playerState.hasFolden(), playerState.isAllin(), playerState.hasActed(),
+                    playerState.hasFailedInput()
+            ].join(","))
+        }
+
+        return values.join(" ")
+    }
+
+    private static List<Integer> potChips(PokerTable table) {
+        List<Integer> chips = []
+        for (int i = 0; i < table.getPots().getPotCount(); i++) {
+            chips.add(table.getPots().getChips(i))
+        }
+        return chips
+    }
+
+    // Describes each state right before it's recorded, the previous one is compacted after
+    private static class DescribingHistory extends PokerStateHistory {
+
+        final List<String> descriptions = []
+
+        DescribingHistory(int playerCount) {
+            super(playerCount)
+        }
+
+        @Override
+        int record(PokerState state) {
+            this.descriptions.add(describe(state))
+            return super.record(state)
+        }
+    }
+
+    private static class RandomIO implements IOInterface {
+
+        private final Random random
+
+        RandomIO(Random random) {
+            this.random = random
+        }
+
+        @Override
+        void sendMessage(String message) {}
+
+        @Override
+        String getNextMessage() {
+            return null
+        }
+
+        @Override
+        String sendRequest(String message) {
+            int choice = this.random.nextInt(100)
+            return choice < 10 ? "fold" : choice < 40 ? "check" : choice < 75 ? "call" :
+                    "raise_" + (this.random.nextInt(300) + 1)
+        }
+    }
+}
@@ -20,7 +20,6 @@
 package io.riddles.poker.game.table
 
 import com.stevebrecher.HandEval
-import io.riddles.poker.engine.PokerEngine
 import io.riddles.poker.game.PokerType
 import io.riddles.poker.game.table.card.Card
 import spock.lang.Specification
@@ -36,7 +35,7 @@ class HandEvaluatorSpec extends Specification {
 
     def "test Texas Hold'em hands"() {
         setup:
-        PokerEngine.POKER_TYPE = PokerType.TEXASHOLDEM
+        PokerType pokerType = PokerType.TEXASHOLDEM
 
         when:
         ArrayList<Card> hand1 = new ArrayList<>()
@@ -51,8 +50,8 @@ class HandEvaluatorSpec extends Specification {
         table1.add(new Card(12))
         table1.add(new Card(36))
         table1.add(new Card(45))
-        int strength1 = HandEvaluator.getHandStrength(hand1, table1)
-        int strength2 = HandEvaluator.getHandStrength(hand2, table1)
+        int strength1 = HandEvaluator.getHandStrength(pokerType, hand1, table1)
+        int strength2 = HandEvaluator.getHandStrength(pokerType, hand2, table1)
         HandEval.HandCategory category1 = HandEvaluator.handStrengthToCategory(strength1)
         HandEval.HandCategory category2 = HandEvaluator.handStrengthToCategory(strength2)
 
@@ -74,8 +73,8 @@ class HandEvaluatorSpec extends Specification {
         table2.add(new Card(8))
         table2.add(new Card(30))
         table2.add(new Card(24))
-        int strength3 = HandEvaluator.getHandStrength(hand3, table2)
-        int strength4 = HandEvaluator.getHandStrength(hand4, table2)
+        int strength3 = HandEvaluator.getHandStrength(pokerType, hand3, table2)
+        int strength4 = HandEvaluator.getHandStrength(pokerType, hand4, table2)
         HandEval.HandCategory category3 = HandEvaluator.handStrengthToCategory(strength3)
         HandEval.HandCategory category4 = HandEvaluator.handStrengthToCategory(strength4)
 
@@ -19,12 +19,17 @@
 
 package io.riddles.poker.game.table
 
-import io.riddles.javainterface.configuration.Configuration
-import io.riddles.poker.engine.PokerEngine
+import io.riddles.poker.game.PokerContext
+import io.riddles.poker.game.PokerType
+import io.riddles.poker.game.RaiseLimitType
+import io.riddles.poker.game.move.MoveType
+import io.riddles.poker.game.move.PokerMove
 import io.riddles.poker.game.state.PokerPlayerState
 import io.riddles.poker.game.state.PokerState
 import spock.lang.Specification
 
+import java.security.SecureRandom
+
 /**
  * io.riddles.poker.game.table.PokerTableSpec - Created on 4-9-17
  *
@@ -34,18 +39,16 @@ import spock.lang.Specification
  */
 class PokerTableSpec extends Specification {
 
+    PokerContext context = new PokerContext(PokerType.TEXASHOLDEM, RaiseLimitType.NOLIMIT, 20, 10,
+            new SecureRandom())
+
     def "test next button and blinds 2 players"() {
         setup:
-        PokerState state = Stub(PokerState.class)
         PokerPlayerState player0 = new PokerPlayerState(0, 2000)
         PokerPlayerState player1 = new PokerPlayerState(1, 2000)
-        PokerEngine.configuration = new Configuration()
-        PokerEngine.configuration.put("initialBigBlind", 20)
+        PokerState state = new PokerState([player0, player1] as ArrayList, context)
 
-        PokerTable table = new PokerTable(state)
-
-        state.getPlayerStateById(0) >> player0
-        state.getPlayerStateById(1) >> player1
+        PokerTable table = state.getTable()
 
         when:
         table.setPlayerCount(2)
@@ -74,20 +77,13 @@ class PokerTableSpec extends Specification {
 
     def "test next button and blinds 4 players"() {
         setup:
-        PokerState state = Stub(PokerState.class)
         PokerPlayerState player0 = new PokerPlayerState(0, 2000)
         PokerPlayerState player1 = new PokerPlayerState(1, 2000)
         PokerPlayerState player2 = new PokerPlayerState(2, 2000)
         PokerPlayerState player3 = new PokerPlayerState(3, 2000)
-        PokerEngine.configuration = new Configuration()
-        PokerEngine.configuration.put("initialBigBlind", 20)
-
-        PokerTable table = new PokerTable(state)
+        PokerState state = new PokerState([player0, player1, player2, player3] as ArrayList, context)
 
-        state.getPlayerStateById(0) >> player0
-        state.getPlayerStateById(1) >> player1
-        state.getPlayerStateById(2) >> player2
-        state.getPlayerStateById(3) >> player3
+        PokerTable table = state.getTable()
 
         when:
         table.setPlayerCount(4)
@@ -113,4 +109,221 @@ class PokerTableSpec extends Specification {
         table.getSmallBlindId() == 0
         table.getBigBlindId() == 1
     }
+
+    def "test next button and blinds skip busted players"() {
+        setup:
+        PokerPlayerState player0 = new PokerPlayerState(0, 2000)
+        PokerPlayerState player1 = new PokerPlayerState(1, 2000)
+        PokerPlayerState player2 = new PokerPlayerState(2, 0)
+        PokerPlayerState player3 = new PokerPlayerState(3, 2000)
+        PokerState state = new PokerState([player0, player1, player2, player3] as ArrayList, context)
+
+        PokerTable table = state.getTable()
+
+        when:
+        table.setPlayerCount(4)
+        table.setButtonId(3)
+        table.setSmallBlindId(0)
+        table.setBigBlindId(1)
+        table.setNextButtonAndBlinds()
+
+        then:
+        table.getButtonId() == 0
+        table.getSmallBlindId() == 1
+        table.getBigBlindId() == 3
+
+        when: "the small blind would be the previous small blind again"
+        table.setPlayerCount(4)
+        table.setButtonId(0)
+        table.setSmallBlindId(1)
+        table.setBigBlindId(2)
+        table.setNextButtonAndBlinds()
+
+        then:
+        table.getButtonId() == 1
+        table.getSmallBlindId() == -1
+        table.getBigBlindId() == 3
+    }
+
+    def "test call amount is the highest bet minus the own bet in multiway pots"() {
+        setup:
+        PokerPlayerState player0 = new PokerPlayerState(0, 2000)
+        PokerPlayerState player1 = new PokerPlayerState(1, 50)
+        PokerPlayerState player2 = new PokerPlayerState(2, 2000)
+        PokerState state = new PokerState([player0, player1, player2] as ArrayList, context)
+
+        PokerTable table = state.getTable()
+        table.setPlayerCount(3)
+
+        when:
+        player0.increaseBet(bet0)
+        player1.increaseBet(bet1)
+        if (bet2 > 0) player2.increaseBet(bet2)
+        if (isFolded1) player1.setFolded()
+
+        then:
+        table.getCallAmountForPlayer(player2) == callAmount
+
+        // The previous player's bet minus the own bet gave 20, 50, 0 and 50. A call of 0
+        // stopped the match with an error.
+        where:
+        bet0 | bet1 | isFolded1 | bet2 || callAmount
+        100  | 20   | true      | 0    || 100
+        100  | 50   | false     | 0    || 100
+        100  | 10   | true      | 20   || 80
+        20   | 50   | false     | 0    || 50
+    }
+
+    def "test pay blinds"() {
+        setup:
+        PokerPlayerState player0 = new PokerPlayerState(0, 2000)
+        PokerPlayerState player1 = new PokerPlayerState(1, 2000)
+        PokerPlayerState player2 = new PokerPlayerState(2, 2000)
+        PokerState state = new PokerState([player0, player1, player2] as ArrayList, context)
+
+        PokerTable table = state.getTable()
+
+        when:
+        table.setSmallBlindId(smallBlindId)
+        table.setBigBlindId(1)
+        table.payBlinds()
+
+        then: "before, a dead small blind (-1) threw an exception"
+        [player0.getBet(), player1.getBet(), player2.getBet()] == bets
+
+        where:
+        smallBlindId | bets
+        0            | [10, 20, 0]
+        2            | [0, 20, 10]
+        -1           | [0, 20, 0]
+    }
+
+    def "test raise when betting is not re-opened"() {
+        setup:
+        PokerPlayerState player0 = new PokerPlayerState(0, 2000)
+        PokerPlayerState player1 = new PokerPlayerState(1, chips)
+        PokerState state = new PokerState([player0, player1] as ArrayList, context)
+
+        PokerTable table = state.getTable()
+
+        when:
+        player0.setMove(new PokerMove(MoveType.CHECK))
+        table.processMove(player0)
+        player1.setMove(move)
+        table.processMove(player1)
+        player0.setMove(new PokerMove(MoveType.RAISE, 100))
+        table.processMove(player0)
+
+        then: "before, the raise became a call of 0 and threw an exception"
+        player0.getLastMove().getMoveType() == moveType
+        player0.getBet() == bet
+
+        where:
+        chips | move                               | moveType       | bet
+        30    | new PokerMove(MoveType.RAISE, 30)  | MoveType.CALL  | 30
+        2000  | new PokerMove(MoveType.CHECK)      | MoveType.CHECK | 0
+    }
+
+    def "test bet round starting player"() {
+        setup:
+        PokerPlayerState player0 = new PokerPlayerState(0, 2000)
+        PokerPlayerState player1 = new PokerPlayerState(1, 2000)
+        PokerPlayerState player2 = new PokerPlayerState(2, 2000)
+        PokerPlayerState player3 = new PokerPlayerState(3, 2000)
+        PokerState state = new PokerState([player0, player1, player2, player3] as ArrayList, context)
+
+        PokerTable table = state.getTable()
+        table.setPlayerCount(4)
+        table.setButtonId(0)
+        table.setSmallBlindId(1)
+        table.setBigBlindId(2)
+
+        when:
+        state.setBetRound(betRound)
+        if (folded != null) {
+            state.getPlayerStateById(folded).setFolded()
+        }
+        if (allIn != null) {
+            state.getPlayerStateById(allIn).increaseBet(2000)
+        }
+
+        then: "before, the next player was returned even if folded or all-in"
+        table.getBetRoundStartingPlayer().getPlayerId() == startingPlayerId
+
+        where:
+        betRound         | folded | allIn | startingPlayerId
+        BetRound.PREFLOP | null   | null  | 3
+        BetRound.FLOP    | null   | null  | 1
+        BetRound.FLOP    | 1      | null  | 2
+        BetRound.FLOP    | 1      | 2     | 3
+        BetRound.PREFLOP | 3      | null  | 0
+    }
+
+    def "test reset table moves the button and blinds past busted players"() {
+        setup:
+        PokerPlayerState player0 = new PokerPlayerState(0, 2000)
+        PokerPlayerState player1 = new PokerPlayerState(1, 2000)
+        PokerPlayerState player2 = new PokerPlayerState(2, 2000)
+        PokerPlayerState player3 = new PokerPlayerState(3, 0, 0, [] as ArrayList, null, null, -1,
+                false, true, false, false)  // went all-in and lost the previous hand
+        PokerState state = new PokerState([player0, player1, player2, player3] as ArrayList, context)
+
+        PokerTable table = state.getTable()
+
+        when:
+        table.setButtonId(0)
+        table.setSmallBlindId(1)
+        table.setBigBlindId(2)
+        table.resetTable()
+
+        then: "before, the big blind was on player 3"
+        !player3.isAlive()
+        table.getButtonId() == 1
+        table.getSmallBlindId() == 2
+        table.getBigBlindId() == 0
+    }
+
+    def "test reset table keeps the button and blinds with one player left"() {
+        setup:
+        PokerPlayerState player0 = new PokerPlayerState(0, 4000)
+        PokerPlayerState player1 = new PokerPlayerState(1, 0, 0, [] as ArrayList, null, null, -1,
+                false, true, false, false)  // went all-in and lost the previous hand
+        PokerState state = new PokerState([player0, player1] as ArrayList, context)
+
+        PokerTable table = state.getTable()
+
+        when:
+        table.setButtonId(1)
+        table.setSmallBlindId(1)
+        table.setBigBlindId(0)
+        table.resetTable()
+
+        then: "before, the blinds moved to player 1"
+        table.getButtonId() == 1
+        table.getSmallBlindId() == 1
+        table.getBigBlindId() == 0
+    }
+
+    def "test hand odds with a busted player"() {
+        setup:
+        PokerPlayerState player0 = new PokerPlayerState(0, chips)
+        PokerPlayerState player1 = new PokerPlayerState(1, 2000)
+        PokerPlayerState player2 = new PokerPlayerState(2, 2000)
+        PokerState state = new PokerState([player0, player1, player2] as ArrayList, context)
+
+        PokerTable table = state.getTable()
+
+        when:
+        table.resetTable()
+        table.dealCards()
+        table.setHandOdds()
+
+        then: "before, the hands of players after a busted player were added out of range"
+        (player0.getOdds() > 0) == player0.isAlive()
+        player1.getOdds() > 0
+        player2.getOdds() > 0
+
+        where:
+        chips << [2000, 0]
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.table
+
+import spock.lang.Specification
+
+/**
+ * io.riddles.poker.game.table.SeatRingSpec - Created on 19-10-26
+ *
+ * Checks the seats found by SeatRing against walking around the table seat
+ * by seat, for random masks on tables up to 64 seats.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class SeatRingSpec extends Specification {
+
+    def "test next and previous seat equal to walking around the table"() {
+        setup:
+        Random random = new Random(38)
+
+        expect:
+        for (int scenario = 0; scenario < 5000; scenario++) {
+            int seatCount = 2 + random.nextInt(63)
+            long mask = 0
+            for (int seat = 0; seat < seatCount; seat++) {
+                if (random.nextInt(4) == 0) {
+                    mask |= 1L << seat
+                }
+            }
+            int start = random.nextInt(seatCount)
+
+            assert SeatRing.nextFrom(mask, start) == walk(mask, start, seatCount, 1)
+            assert SeatRing.previousFrom(mask, start) == walk(mask, start, seatCount, -1)
+        }
+    }
+
+    def "test edge seats"() {
+        expect:
+        SeatRing.nextFrom(-1L, 63) == 63
+        SeatRing.nextFrom(1L, 63) == 0
+        SeatRing.previousFrom(1L << 63, 0) == 63
+        SeatRing.previousFrom(-1L, 0) == 0
+        SeatRing.nextFrom(0L, 5) == -1
+        SeatRing.previousFrom(0L, 5) == -1
+    }
+
+    private static int walk(long mask, int start, int seatCount, int direction) {
+        int seat = start
+        for (int i = 0; i < seatCount; i++) {
+            if ((mask & (1L << seat)) != 0) {
+                return seat
+            }
+            seat = Math.floorMod(seat + direction, seatCount)
+        }
+
+        return -1
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ *  Copyright 2017 riddles.io (developers@riddles.io)
+ *
+ *      Licensed under the Apache License, Version 2.0 (the "License");
+ *      you may not use this file except in compliance with the License.
+ *      You may obtain a copy of the License at
+ *
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *      Unless required by applicable law or agreed to in writing, software
+ *      distributed under the License is distributed on an "AS IS" BASIS,
+ *      WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *      See the License for the specific language governing permissions and
+ *      limitations under the License.
+ *
+ *      For the full copyright and license information, please view the LICENSE
+ *      file that was distributed with this source code.
+ */
+
+package io.riddles.poker.game.table
+
+import io.riddles.poker.game.state.PlayerTable
+import spock.lang.Specification
+
+/**
+ * io.riddles.poker.game.table.SidePotsSpec - Created on 19-10-26
+ *
+ * Plays random multi-way hands with all-ins and folds on both SidePots and the
+ * linked Pot with the way PokerTable used it, and checks that they give the
+ * same pots and payouts.
+ *
+ * @author Jim van Eeden - jim@riddles.io
+ */
+class SidePotsSpec extends Specification {
+
+    def "test side pots and payouts equal to Pot for random multi-way all-ins"() {
+        setup:
+        Random random = new Random(36)
+
+        expect:
+        for (int scenario = 0; scenario < 5000; scenario++) {
+            int playerCount = 2 + random.nextInt(9)
+            int[] stacks = new int[playerCount]
+            boolean[] folded = new boolean[playerCount]
+            for (int i = 0; i < playerCount; i++) {
+                stacks[i] = 1 + random.nextInt(random.nextBoolean() ? 50 : 1000)
+            }
+
+            Pot pot = new Pot(new ArrayList<Integer>(0..<playerCount))
+            SidePots sidePots = new SidePots((1L << playerCount) - 1)
+            PlayerTable players = new PlayerTable(playerCount)
+
+            int betRounds = 1 + random.nextInt(4)
+            for (int round = 0; round < betRounds; round++) {
+                int[] bets = randomBets(random, stacks, folded)
+                for (int i = 0; i < playerCount; i++) {
+                    players.setBet(i, bets[i])
+                }
+
+                putBetsInPot(pot, bets)
+                sidePots.putBets(players)
+
+                assert (0..<playerCount).every { bets[it] == players.getBet(it) }
+                assertSamePots(pot, sidePots)
+            }
+
+            int[] handStrengths = new int[playerCount]
+            ArrayList<Integer> handIds = new ArrayList<>()
+            long handMask = 0
+            for (int i = 0; i < playerCount; i++) {
+                if (folded[i]) continue
+
+                handStrengths[i] = random.nextInt(random.nextBoolean() ? 3 : 1000)  // many ties
+                handIds.add(i)
+                handMask |= 1L << i
+            }
+
+            assert getPotPayout(pot, handIds, handStrengths, playerCount).toList() ==
+                    sidePots.payout(handMask, handStrengths).toList()
+            assertSamePots(pot, sidePots)
+        }
+    }
+
+    def "test payout winners don't include players that get their own bet back"() {
+        setup:
+        PlayerTable players = new PlayerTable(3)
+        players.setBet(0, 100)
+        players.setBet(1, 100)
+        players.setBet(2, 300)
+
+        SidePots sidePots = new SidePots(0b111L)
+        sidePots.putBets(players)
+
+        when:
+        int[] winnings = sidePots.payout(0b111L, handStrengths as int[])
+
+        then:
+        winnings.toList() == expectedWinnings
+        sidePots.getWinnerMask() == winnerMask
+
+        where:
+        handStrengths | expectedWinnings | winnerMask
+        [9, 5, 1]     | [300, 0, 200]    | 0b001L
+        [1, 5, 9]     | [0, 0, 500]      | 0b100L
+        [9, 9, 1]     | [150, 150, 200]  | 0b011L
+    }
+
+    private static int[] randomBets(Random random, int[] stacks, boolean[] folded) {
+        int[] bets = new int[stacks.length]
+        int[] levels = [1 + random.nextInt(30), 1 + random.nextInt(300), 1 + random.nextInt(1000)]
+
+        for (int i = 0; i < stacks.length; i++) {
+            if (folded[i] || stacks[i] == 0) continue
+
+            int choice = random.nextInt(10)
+            if (choice < 3) {
+                bets[i] = stacks[i]  // all-in
+            } else if (choice > 3) {
+                bets[i] = Math.min(stacks[i], levels[random.nextInt(levels.length)])
+            }
+            stacks[i] -= bets[i]
+
+            folded[i] = random.nextInt(8) == 0  // folds after betting
+        }
+
+        return bets
+    }
+
+    private static void assertSamePots(Pot pot, SidePots sidePots) {
+        int i = 0
+        Pot p = pot
+        while (p != null) {
+            long eligibleMask = 0
+            p.getParticipantIds().each { eligibleMask |= 1L << it }
+
+            assert p.getChips() == sidePots.getChips(i)
+            assert eligibleMask == sidePots.getEligibleMask(i)
+
+            p = p.getSidePot()
+            i++
+        }
+        assert i == sidePots.getPotCount()
+    }
+
+    // PokerTable.putBetsInPot as it was with Pot
+    private static void putBetsInPot(Pot pot, int[] bets) {
+        Pot activePot = pot.getActivePot()
+
+        List<Integer> sortedIds = activePot.getParticipantIds()
+                .findAll { bets[it] > 0 }
+                .sort(false) { bets[it] }
+
+        for (int i = 0; i < sortedIds.size(); i++) {
+            int bet = bets[sortedIds[i]]
+            if (bet <= 0) continue
+
+            if (i > 0) {
+                activePot = activePot.createSidePot(new ArrayList<>(sortedIds.subList(i, sortedIds.size())))
+            }
+
+            for (int id : activePot.getParticipantIds()) {
+                if (bet > bets[id]) {
+                    bets[id] = 0
+                } else {
+                    bets[id] -= bet
+                    activePot.increaseChips(bet)
+                }
+            }
+        }
+    }
+
+    // PokerTable.getPotPayout as it was with Pot
+    private static int[] getPotPayout(Pot pot, List<Integer> handIds, int[] handStrengths,
+                                      int playerCount) {
+        int[] winnings = new int[playerCount]
+        List<Integer> sortedIds = handIds.sort(false) { -handStrengths[it] }
+
+        for (int i = 0; i < sortedIds.size(); i++) {
+            int id = sortedIds[i]
+
+            ArrayList<Integer> sharedWith = new ArrayList<>()
+            for (int j = i + 1; j < sortedIds.size(); j++) {
+                if (handStrengths[id] != handStrengths[sortedIds[j]]) break
+
+                sharedWith.add(sortedIds[j])
+            }
+
+            winnings[id] += pot.getTotalPotForParcipant(id, sharedWith, true)
+        }
+
+        return winnings
+    }
+}